@@ -0,0 +1,254 @@
+package org.json.simple;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A JSON object for small objects, that takes a fraction of the memory of a
+ * {@link JSONObject}.
+ * <p>
+ * Up to {@link #THRESHOLD} entries are kept in a single array of keys and
+ * values, in insertion order, and looked up by a linear scan; there is no
+ * hash table and no entry object.  When a put makes the object larger, the
+ * entries are moved to a HashMap, and the object behaves like a JSONObject
+ * from then on: the insertion order is kept only while the object has no
+ * more than {@link #THRESHOLD} entries, and is lost once they are moved.
+ * <p>
+ * A CompactJSONObject is written as JSON text in the same way as a
+ * JSONObject, and is equal to a JSONObject with the same entries.  It is not
+ * a JSONObject though, so it cannot be cast to one.
+ *
+ * @see org.json.simple.parser.DefaultContentHandler#setObjectType(int)
+ */
+public class CompactJSONObject extends AbstractMap<String, Object> implements JSONAware, JSONStreamAware, Serializable {
+
+	private static final long serialVersionUID = 3287435081657235672L;
+
+	/** The largest number of entries kept without a hash table. */
+	public static final int THRESHOLD = 8;
+
+	private static final Object[] EMPTY = new Object[0];
+
+	/* keys at even indexes, values at odd indexes */
+	private Object[] table = EMPTY;
+	private int size;
+
+	/* the entries once there are more than THRESHOLD, or null */
+	private HashMap<String, Object> map;
+
+	public CompactJSONObject() {
+	}
+
+	/**
+	 * Allows creation of a CompactJSONObject from a Map.  After that, both
+	 * the generated object and the Map can be modified independently.
+	 *
+	 * @param map
+	 */
+	public CompactJSONObject(Map<?, ?> map) {
+		if (map.size() > THRESHOLD) {
+			this.map = new HashMap<String, Object>(map.size() * 4 / 3 + 1);
+		}
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			put(String.valueOf(entry.getKey()), entry.getValue());
+		}
+	}
+
+	/**
+	 * @return the index of the key in the table, or -1.
+	 */
+	private int indexOf(Object key) {
+		Object[] t = table;
+		int n = 2 * size;
+		if (key == null) {
+			for (int i = 0; i < n; i += 2) {
+				if (t[i] == null) {
+					return i;
+				}
+			}
+		} else {
+			for (int i = 0; i < n; i += 2) {
+				if (t[i] == key || key.equals(t[i])) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int size() {
+		return map != null ? map.size() : size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return map != null ? map.containsKey(key) : indexOf(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (map != null) {
+			return map.get(key);
+		}
+		int i = indexOf(key);
+		return i >= 0 ? table[i + 1] : null;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		if (map != null) {
+			return map.put(key, value);
+		}
+		int i = indexOf(key);
+		if (i >= 0) {
+			Object old = table[i + 1];
+			table[i + 1] = value;
+			return old;
+		}
+		if (size == THRESHOLD) {
+			map = new HashMap<String, Object>();
+			for (i = 0; i < 2 * size; i += 2) {
+				map.put((String) table[i], table[i + 1]);
+			}
+			table = EMPTY;
+			size = 0;
+			return map.put(key, value);
+		}
+		if (2 * size == table.length) {
+			Object[] t = new Object[size == 0 ? 4 : Math.min(2 * table.length, 2 * THRESHOLD)];
+			System.arraycopy(table, 0, t, 0, 2 * size);
+			table = t;
+		}
+		table[2 * size] = key;
+		table[2 * size + 1] = value;
+		size++;
+		return null;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (map != null) {
+			return map.remove(key);
+		}
+		int i = indexOf(key);
+		if (i < 0) {
+			return null;
+		}
+		Object old = table[i + 1];
+		removeAt(i);
+		return old;
+	}
+
+	private void removeAt(int i) {
+		System.arraycopy(table, i + 2, table, i, 2 * size - i - 2);
+		size--;
+		table[2 * size] = null;
+		table[2 * size + 1] = null;
+	}
+
+	@Override
+	public void clear() {
+		map = null;
+		table = EMPTY;
+		size = 0;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return map != null ? map.entrySet() : new EntrySet();
+	}
+
+	public String toJSONString() {
+		return JSONObject.toJSONString(this);
+	}
+
+	public void writeJSONString(Writer out) throws IOException {
+		JSONObject.writeJSONString(this, out);
+	}
+
+	public String toString() {
+		return toJSONString();
+	}
+
+	/**
+	 * The entries of the table, in insertion order.  Should the object grow
+	 * while the set is used, the set stays that of the table; the entry set
+	 * of the grown object is that of the HashMap, in no particular order.
+	 */
+	private class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			return new Iterator<Map.Entry<String, Object>>() {
+
+				private int next;
+				private int last = -1;
+
+				public boolean hasNext() {
+					return next < 2 * size;
+				}
+
+				public Map.Entry<String, Object> next() {
+					if (next >= 2 * size) {
+						throw new NoSuchElementException();
+					}
+					last = next;
+					next += 2;
+					return new Entry(last);
+				}
+
+				public void remove() {
+					if (last < 0) {
+						throw new IllegalStateException();
+					}
+					removeAt(last);
+					next = last;
+					last = -1;
+				}
+
+			};
+		}
+
+	}
+
+	private class Entry extends AbstractMap.SimpleEntry<String, Object> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int index;
+
+		Entry(int index) {
+			super((String) table[index], table[index + 1]);
+			this.index = index;
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			if (map == null && index < 2 * size && table[index] == getKey()) {
+				table[index + 1] = value;
+			}
+			return super.setValue(value);
+		}
+
+	}
+
+}
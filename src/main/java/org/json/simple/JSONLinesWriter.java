@@ -0,0 +1,93 @@
+package org.json.simple;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Writes newline-delimited JSON (JSON Lines, NDJSON): each record is written
+ * as JSON text followed by a line feed.
+ * <p>
+ * Values are written with {@link JSONValue#writeJSONString(Object, Writer)},
+ * which escapes line breaks within strings, so every record takes exactly one
+ * line.  A {@link JSONStreamAware} value must not write line breaks itself.
+ * <p>
+ * By default the output is only flushed by {@link #flush()} and
+ * {@link #close()}; {@link #setFlushInterval(int)} flushes after a number of
+ * records instead, e.g. after each one for a stream read by another process.
+ *
+ * @see org.json.simple.parser.JSONLinesReader
+ */
+public class JSONLinesWriter implements Closeable, Flushable {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final Writer out;
+	private int flushInterval;
+	private int unflushed;
+
+	/**
+	 * @param out - the writer receiving the records.  It is not buffered by
+	 *            this class.
+	 */
+	public JSONLinesWriter(Writer out) {
+		this.out = out;
+	}
+
+	/**
+	 * @param out - the stream receiving the UTF-8 encoded records.  The
+	 *            records are buffered before they are encoded.
+	 */
+	public JSONLinesWriter(OutputStream out) {
+		this(new BufferedWriter(new OutputStreamWriter(out, UTF_8)));
+	}
+
+	/**
+	 * @param flushInterval - flush after this many records, or 0 to flush
+	 *            only on flush() and close().
+	 */
+	public void setFlushInterval(int flushInterval) {
+		if (flushInterval < 0) {
+			throw new IllegalArgumentException("Negative flush interval: " + flushInterval);
+		}
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * @return the number of records after which the output is flushed, or 0.
+	 * @see #setFlushInterval(int)
+	 */
+	public int getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * Writes a record.
+	 *
+	 * @param value - a value accepted by {@link JSONValue#writeJSONString(Object, Writer)}.
+	 * @throws IOException
+	 */
+	public void write(Object value) throws IOException {
+		JSONValue.writeJSONString(value, out);
+		out.write('\n');
+		unflushed++;
+		if (flushInterval > 0 && unflushed >= flushInterval) {
+			flush();
+		}
+	}
+
+	public void flush() throws IOException {
+		unflushed = 0;
+		out.flush();
+	}
+
+	public void close() throws IOException {
+		out.close();
+	}
+
+}
@@ -6,7 +6,6 @@ package org.json.simple;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Collection;
@@ -14,6 +13,7 @@ import java.util.Collection;
 import java.util.Map;
 
 import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.JSONParserPool;
 import org.json.simple.parser.ParseException;
 
 
@@ -21,6 +21,13 @@ import org.json.simple.parser.ParseException;
  * @author FangYidong<fangyidong@yahoo.com.cn>
  */
 public class JSONValue {
+	/**
+	 * Parsers shared by the static methods that parse strings.  Readers are
+	 * parsed by a new parser each time, so that nothing read from them is
+	 * left behind in a pooled one.
+	 */
+	private static final JSONParserPool PARSERS = new JSONParserPool();
+	
 	/**
 	 * Parse JSON text into java object from the input source. 
 	 * Please use parseWithException() if you don't want to ignore the exception.
@@ -43,8 +50,7 @@ public class JSONValue {
 	 */
 	public static Object parse(Reader in){
 		try{
-			JSONParser parser=new JSONParser();
-			return parser.parse(in);
+			return parseWithException(in);
 		}
 		catch(Exception e){
 			return null;
@@ -72,8 +78,12 @@ public class JSONValue {
 	 * instead
 	 */
 	public static Object parse(String s){
-		StringReader in=new StringReader(s);
-		return parse(in);
+		try{
+			return parseWithException(s);
+		}
+		catch(Exception e){
+			return null;
+		}
 	}
 	
 	/**
@@ -99,8 +109,13 @@ public class JSONValue {
 	}
 	
 	public static Object parseWithException(String s) throws ParseException{
-		JSONParser parser=new JSONParser();
-		return parser.parse(s);
+		JSONParser parser=PARSERS.acquire();
+		try{
+			return parser.parse(s);
+		}
+		finally{
+			PARSERS.release(parser);
+		}
 	}
 	
     /**
@@ -0,0 +1,121 @@
+package org.json.simple;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A JSON number kept as its text, and only converted when its value is
+ * asked for.
+ * <p>
+ * The parser creates LazyNumbers with
+ * {@link org.json.simple.parser.JSONParser#NUMBER_LAZY}, so that numbers
+ * which are only passed on cost a copy of their text.  Written out again,
+ * a LazyNumber is written as its text, without being reformatted or
+ * rounded.  The first conversion is kept, and reading the number as a
+ * long, int, float or double converts it as {@link #value()} does.
+ * <p>
+ * Two LazyNumbers are equal if their texts are equal, so 1.0 and 1.00 are
+ * different numbers, as with BigDecimal.
+ *
+ * @see org.json.simple.parser.JSONParser#setNumberType(int)
+ */
+public final class LazyNumber extends Number implements JSONAware {
+
+	private static final long serialVersionUID = 2966328766346209787L;
+
+	private final String text;
+
+	/* the converted value, or null before the first conversion */
+	private transient Number value;
+
+	/**
+	 * @param text - a JSON number.
+	 */
+	public LazyNumber(String text) {
+		if (text == null) {
+			throw new NullPointerException();
+		}
+		this.text = text;
+	}
+
+	/**
+	 * @return whether the number is written without fraction or exponent.
+	 */
+	public boolean isIntegral() {
+		String s = text;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '.' || c == 'e' || c == 'E') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Converts the number as the parser does by default.
+	 *
+	 * @return a Long, or a BigInteger for an integer that does not fit into
+	 *         a long; a Double for a number with fraction or exponent.
+	 * @throws NumberFormatException if the text is not a number.
+	 */
+	public Number value() {
+		Number v = value;
+		if (v == null) {
+			if (!isIntegral()) {
+				v = Double.valueOf(text);
+			} else if (text.length() <= 18) {
+				v = Long.valueOf(text);
+			} else {
+				BigInteger big = new BigInteger(text);
+				v = big.bitLength() < 64 ? (Number) Long.valueOf(big.longValue()) : big;
+			}
+			value = v;
+		}
+		return v;
+	}
+
+	/**
+	 * @return the exact value.
+	 * @throws NumberFormatException if the text is not a number.
+	 */
+	public BigDecimal bigDecimalValue() {
+		return new BigDecimal(text);
+	}
+
+	public int intValue() {
+		return value().intValue();
+	}
+
+	public long longValue() {
+		return value().longValue();
+	}
+
+	public float floatValue() {
+		return value().floatValue();
+	}
+
+	public double doubleValue() {
+		return value().doubleValue();
+	}
+
+	/**
+	 * @return the text.
+	 */
+	public String toJSONString() {
+		return text;
+	}
+
+	public boolean equals(Object o) {
+		return o instanceof LazyNumber && text.equals(((LazyNumber) o).text);
+	}
+
+	public int hashCode() {
+		return text.hashCode();
+	}
+
+	public String toString() {
+		return text;
+	}
+
+}
@@ -0,0 +1,463 @@
+package org.json.simple;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A JSON array that stores numbers and booleans unboxed.
+ * <p>
+ * The elements are kept in a <code>long[]</code> while they are all Longs,
+ * in a <code>double[]</code> while they are all Doubles or Longs, in a
+ * <code>boolean[]</code> while they are all Booleans, and in an
+ * <code>Object[]</code> otherwise.  The array widens itself when an element
+ * of another type arrives: from longs to doubles, and from any primitive
+ * array to objects.  A Long among doubles is remembered as such, and is
+ * returned as a Long by {@link #get(int)}; a Long that a double cannot hold
+ * exactly widens the array to objects.  So the array always holds exactly
+ * the elements added to it.
+ * <p>
+ * {@link #getLong(int)}, {@link #getDouble(int)} and
+ * {@link #getBoolean(int)} read elements without boxing, and the typed
+ * add methods append them without boxing.
+ * <p>
+ * A PrimitiveJSONArray is written as JSON text in the same way as a
+ * JSONArray, and is equal to a JSONArray with the same elements.  It is not
+ * a JSONArray though, so it cannot be cast to one.
+ *
+ * @see org.json.simple.parser.DefaultContentHandler#setArrayType(int)
+ */
+public class PrimitiveJSONArray extends AbstractList<Object> implements RandomAccess, JSONAware, JSONStreamAware, Serializable {
+
+	private static final long serialVersionUID = 6129434823367153102L;
+
+	/*
+	 * Kinds of storage.
+	 */
+	private static final int EMPTY = 0;
+	private static final int LONGS = 1;
+	private static final int DOUBLES = 2;
+	private static final int BOOLEANS = 3;
+	private static final int OBJECTS = 4;
+
+	/* the largest magnitude up to which a double holds every long */
+	private static final long EXACT = 1L << 53;
+
+	private int kind = EMPTY;
+	/* a long[], double[], boolean[] or Object[] */
+	private Object data;
+	/* for DOUBLES, which elements are Longs; null if none */
+	private boolean[] integral;
+	private int size;
+
+	public PrimitiveJSONArray() {
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Object get(int index) {
+		checkIndex(index);
+		switch (kind) {
+		case LONGS:
+			return Long.valueOf(((long[]) data)[index]);
+		case DOUBLES:
+			double d = ((double[]) data)[index];
+			if (integral != null && integral[index]) {
+				return Long.valueOf((long) d);
+			}
+			return Double.valueOf(d);
+		case BOOLEANS:
+			return Boolean.valueOf(((boolean[]) data)[index]);
+		default:
+			return ((Object[]) data)[index];
+		}
+	}
+
+	/**
+	 * @param index
+	 * @return the element as a long, as by Number.longValue().
+	 * @throws ClassCastException if the element is not a number.
+	 * @throws NullPointerException if the element is null.
+	 */
+	public long getLong(int index) {
+		checkIndex(index);
+		switch (kind) {
+		case LONGS:
+			return ((long[]) data)[index];
+		case DOUBLES:
+			return (long) ((double[]) data)[index];
+		default:
+			return ((Number) get(index)).longValue();
+		}
+	}
+
+	/**
+	 * @param index
+	 * @return the element as a double, as by Number.doubleValue().
+	 * @throws ClassCastException if the element is not a number.
+	 * @throws NullPointerException if the element is null.
+	 */
+	public double getDouble(int index) {
+		checkIndex(index);
+		switch (kind) {
+		case LONGS:
+			return ((long[]) data)[index];
+		case DOUBLES:
+			return ((double[]) data)[index];
+		default:
+			return ((Number) get(index)).doubleValue();
+		}
+	}
+
+	/**
+	 * @param index
+	 * @return the element.
+	 * @throws ClassCastException if the element is not a Boolean.
+	 * @throws NullPointerException if the element is null.
+	 */
+	public boolean getBoolean(int index) {
+		checkIndex(index);
+		if (kind == BOOLEANS) {
+			return ((boolean[]) data)[index];
+		}
+		return ((Boolean) get(index)).booleanValue();
+	}
+
+	/**
+	 * Appends a Long without boxing it.
+	 *
+	 * @param value
+	 */
+	public void add(long value) {
+		if (kind == EMPTY) {
+			kind = LONGS;
+			data = new long[4];
+		} else if (kind == DOUBLES && (value > EXACT || value < -EXACT)) {
+			widenToObjects();
+		}
+		ensureCapacity(size + 1);
+		switch (kind) {
+		case LONGS:
+			((long[]) data)[size] = value;
+			break;
+		case DOUBLES:
+			((double[]) data)[size] = value;
+			markIntegral(size);
+			break;
+		default:
+			if (kind == BOOLEANS) {
+				widenToObjects();
+			}
+			((Object[]) data)[size] = Long.valueOf(value);
+			break;
+		}
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Appends a Double without boxing it.
+	 *
+	 * @param value
+	 */
+	public void add(double value) {
+		if (kind == EMPTY) {
+			kind = DOUBLES;
+			data = new double[4];
+		} else if (kind == LONGS) {
+			widenToDoubles();
+		} else if (kind == BOOLEANS) {
+			widenToObjects();
+		}
+		ensureCapacity(size + 1);
+		if (kind == DOUBLES) {
+			((double[]) data)[size] = value;
+			if (integral != null) {
+				integral[size] = false;
+			}
+		} else {
+			((Object[]) data)[size] = Double.valueOf(value);
+		}
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Appends a Boolean without boxing it.
+	 *
+	 * @param value
+	 */
+	public void add(boolean value) {
+		if (kind == EMPTY) {
+			kind = BOOLEANS;
+			data = new boolean[4];
+		} else if (kind != BOOLEANS && kind != OBJECTS) {
+			widenToObjects();
+		}
+		ensureCapacity(size + 1);
+		if (kind == BOOLEANS) {
+			((boolean[]) data)[size] = value;
+		} else {
+			((Object[]) data)[size] = Boolean.valueOf(value);
+		}
+		size++;
+		modCount++;
+	}
+
+	@Override
+	public boolean add(Object value) {
+		if (value instanceof Long) {
+			add(((Long) value).longValue());
+		} else if (value instanceof Double) {
+			add(((Double) value).doubleValue());
+		} else if (value instanceof Boolean) {
+			add(((Boolean) value).booleanValue());
+		} else {
+			add(size, value);
+		}
+		return true;
+	}
+
+	@Override
+	public void add(int index, Object value) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		fit(value);
+		ensureCapacity(size + 1);
+		System.arraycopy(data, index, data, index + 1, size - index);
+		if (integral != null) {
+			System.arraycopy(integral, index, integral, index + 1, size - index);
+			integral[index] = false;
+		}
+		size++;
+		modCount++;
+		store(index, value);
+	}
+
+	@Override
+	public Object set(int index, Object value) {
+		Object old = get(index);
+		fit(value);
+		store(index, value);
+		return old;
+	}
+
+	@Override
+	public Object remove(int index) {
+		Object old = get(index);
+		System.arraycopy(data, index + 1, data, index, size - index - 1);
+		if (integral != null) {
+			System.arraycopy(integral, index + 1, integral, index, size - index - 1);
+		}
+		size--;
+		if (kind == OBJECTS) {
+			((Object[]) data)[size] = null;
+		} else if (integral != null) {
+			integral[size] = false;
+		}
+		modCount++;
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		kind = EMPTY;
+		data = null;
+		integral = null;
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * Drops the unused capacity, once the array is complete.
+	 */
+	public void trimToSize() {
+		if (data != null && capacity() > size) {
+			resize(size);
+		}
+	}
+
+	/**
+	 * Widens the storage so that it can hold the value.
+	 */
+	private void fit(Object value) {
+		switch (kind) {
+		case EMPTY:
+			if (value instanceof Long) {
+				kind = LONGS;
+				data = new long[4];
+			} else if (value instanceof Double) {
+				kind = DOUBLES;
+				data = new double[4];
+			} else if (value instanceof Boolean) {
+				kind = BOOLEANS;
+				data = new boolean[4];
+			} else {
+				kind = OBJECTS;
+				data = new Object[4];
+			}
+			break;
+		case LONGS:
+			if (value instanceof Double) {
+				widenToDoubles();
+			} else if (!(value instanceof Long)) {
+				widenToObjects();
+			}
+			break;
+		case DOUBLES:
+			if (value instanceof Long) {
+				long l = ((Long) value).longValue();
+				if (l > EXACT || l < -EXACT) {
+					widenToObjects();
+				}
+			} else if (!(value instanceof Double)) {
+				widenToObjects();
+			}
+			break;
+		case BOOLEANS:
+			if (!(value instanceof Boolean)) {
+				widenToObjects();
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Stores a value the storage can hold.
+	 */
+	private void store(int index, Object value) {
+		switch (kind) {
+		case LONGS:
+			((long[]) data)[index] = ((Long) value).longValue();
+			break;
+		case DOUBLES:
+			((double[]) data)[index] = ((Number) value).doubleValue();
+			if (value instanceof Long) {
+				markIntegral(index);
+			} else if (integral != null) {
+				integral[index] = false;
+			}
+			break;
+		case BOOLEANS:
+			((boolean[]) data)[index] = ((Boolean) value).booleanValue();
+			break;
+		default:
+			((Object[]) data)[index] = value;
+		}
+	}
+
+	private void markIntegral(int index) {
+		if (integral == null) {
+			integral = new boolean[capacity()];
+		}
+		integral[index] = true;
+	}
+
+	private void widenToDoubles() {
+		long[] longs = (long[]) data;
+		for (int i = 0; i < size; i++) {
+			if (longs[i] > EXACT || longs[i] < -EXACT) {
+				widenToObjects();
+				return;
+			}
+		}
+		double[] doubles = new double[longs.length];
+		for (int i = 0; i < size; i++) {
+			doubles[i] = longs[i];
+		}
+		integral = new boolean[longs.length];
+		Arrays.fill(integral, 0, size, true);
+		data = doubles;
+		kind = DOUBLES;
+	}
+
+	private void widenToObjects() {
+		Object[] objects = new Object[Math.max(4, capacity())];
+		for (int i = 0; i < size; i++) {
+			objects[i] = get(i);
+		}
+		data = objects;
+		integral = null;
+		kind = OBJECTS;
+	}
+
+	private int capacity() {
+		switch (kind) {
+		case LONGS:
+			return ((long[]) data).length;
+		case DOUBLES:
+			return ((double[]) data).length;
+		case BOOLEANS:
+			return ((boolean[]) data).length;
+		case OBJECTS:
+			return ((Object[]) data).length;
+		default:
+			return 0;
+		}
+	}
+
+	private void ensureCapacity(int minCapacity) {
+		int capacity = capacity();
+		if (minCapacity > capacity) {
+			resize(Math.max(minCapacity, 2 * capacity));
+		}
+	}
+
+	private void resize(int capacity) {
+		switch (kind) {
+		case LONGS:
+			data = Arrays.copyOf((long[]) data, capacity);
+			break;
+		case DOUBLES:
+			data = Arrays.copyOf((double[]) data, capacity);
+			break;
+		case BOOLEANS:
+			data = Arrays.copyOf((boolean[]) data, capacity);
+			break;
+		default:
+			data = Arrays.copyOf((Object[]) data, capacity);
+		}
+		if (integral != null) {
+			integral = Arrays.copyOf(integral, capacity);
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	public String toJSONString() {
+		return JSONArray.toJSONString(this);
+	}
+
+	public void writeJSONString(Writer out) throws IOException {
+		if (kind == LONGS) {
+			long[] longs = (long[]) data;
+			out.write('[');
+			for (int i = 0; i < size; i++) {
+				if (i > 0) {
+					out.write(',');
+				}
+				out.write(Long.toString(longs[i]));
+			}
+			out.write(']');
+		} else {
+			JSONArray.writeJSONString(this, out);
+		}
+	}
+
+	public String toString() {
+		return toJSONString();
+	}
+
+}
@@ -0,0 +1,134 @@
+package org.json.simple;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A JSON value that is already serialized: its text is written as it is,
+ * without being parsed, escaped or formatted again.
+ * <p>
+ * A RawJSON wraps either a String or UTF-8 encoded bytes.  The text is not
+ * checked, so writing a RawJSON that does not hold exactly one JSON value
+ * produces invalid JSON text.
+ * <pre>
+ * JSONObject response = new JSONObject();
+ * response.put("status", "ok");
+ * response.put("payload", new RawJSON(payloadBytes));
+ * response.writeJSONString(out);
+ * </pre>
+ * Two RawJSONs are equal if their texts are equal.
+ *
+ * @see org.json.simple.parser.RawContentHandler
+ */
+public final class RawJSON implements JSONAware, JSONStreamAware, Serializable {
+
+	private static final long serialVersionUID = -4405946612578133427L;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/* the text, or null if it is held as bytes */
+	private final String text;
+	private final byte[] bytes;
+	private final int offset;
+	private final int length;
+
+	/**
+	 * @param text - the JSON text of a value.
+	 */
+	public RawJSON(String text) {
+		if (text == null) {
+			throw new NullPointerException();
+		}
+		this.text = text;
+		this.bytes = null;
+		this.offset = 0;
+		this.length = 0;
+	}
+
+	/**
+	 * @param b - the UTF-8 encoded JSON text of a value.  The array is not
+	 *            copied, and must not be modified afterwards.
+	 */
+	public RawJSON(byte[] b) {
+		this(b, 0, b.length);
+	}
+
+	/**
+	 * @param b - holds the UTF-8 encoded JSON text of a value.  The array is
+	 *            not copied, and must not be modified afterwards.
+	 * @param off - offset of the text in b.
+	 * @param len - length of the text in bytes.
+	 */
+	public RawJSON(byte[] b, int off, int len) {
+		if (off < 0 || len < 0 || off > b.length - len) {
+			throw new IndexOutOfBoundsException();
+		}
+		this.text = null;
+		this.bytes = b;
+		this.offset = off;
+		this.length = len;
+	}
+
+	/**
+	 * @return the text.
+	 */
+	public String toJSONString() {
+		return text != null ? text : new String(bytes, offset, length, UTF_8);
+	}
+
+	/**
+	 * Writes the text as it is.
+	 */
+	public void writeJSONString(Writer out) throws IOException {
+		out.write(toJSONString());
+	}
+
+	/**
+	 * Writes the text as UTF-8 encoded bytes.  Bytes are copied as they are,
+	 * without being decoded.
+	 *
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		if (text != null) {
+			out.write(text.getBytes(UTF_8));
+		} else {
+			out.write(bytes, offset, length);
+		}
+	}
+
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof RawJSON)) {
+			return false;
+		}
+		return toJSONString().equals(((RawJSON) o).toJSONString());
+	}
+
+	public int hashCode() {
+		return toJSONString().hashCode();
+	}
+
+	public String toString() {
+		return toJSONString();
+	}
+
+	/**
+	 * Serializes only the bytes of the text, not the whole array.
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		if (bytes != null && (offset != 0 || length != bytes.length)) {
+			return new RawJSON(Arrays.copyOfRange(bytes, offset, offset + length));
+		}
+		return this;
+	}
+
+}
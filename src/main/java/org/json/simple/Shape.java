@@ -0,0 +1,144 @@
+package org.json.simple;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The key layout shared by {@link ShapedJSONObject}s with the same keys in
+ * the same order.
+ * <p>
+ * Shapes form a tree rooted at the empty shape of a
+ * {@link ShapedJSONObject.Shapes} registry: the shape of an object is reached
+ * from the root by adding its keys in order, and adding a key to a shape
+ * leads to the same shape as long as the registry keeps it.  Shapes are
+ * immutable and may be shared by threads.
+ * <p>
+ * The tree is bounded, so that objects used as dictionaries, whose keys are
+ * data rather than field names, do not fill the heap with shapes: a shape
+ * has {@link #MAX_KEYS} keys at most.  A shape that already has
+ * {@link #MAX_TRANSITIONS} children forgets those that have not been reused
+ * since it last did so before it gets a new one, so that shared shapes stay
+ * and shapes of data keys go.  A registry that has created
+ * {@link #MAX_SHAPES} shapes starts a new tree.  Objects keep the shapes
+ * they have; objects created later get new shapes, which they share from
+ * then on.
+ */
+final class Shape {
+
+	static final int MAX_KEYS = ShapedJSONObject.MAX_KEYS;
+	static final int MAX_TRANSITIONS = 64;
+	static final int MAX_SHAPES = 1 << 16;
+
+	/* above this size, keys are looked up in a hash table */
+	private static final int LINEAR = 8;
+
+	static final String[] NO_KEYS = new String[0];
+
+	final ShapedJSONObject.Shapes registry;
+	final String[] keys;
+	private final Map<String, Integer> index;
+	private final ConcurrentMap<String, Shape> transitions = new ConcurrentHashMap<String, Shape>(4);
+	/* the shape has been reached again since it was created, or since its parent last forgot shapes */
+	private volatile boolean reused;
+
+	Shape(ShapedJSONObject.Shapes registry, String[] keys) {
+		this.registry = registry;
+		this.keys = keys;
+		if (keys.length > LINEAR) {
+			index = new HashMap<String, Integer>(keys.length * 2);
+			for (int i = 0; i < keys.length; i++) {
+				index.put(keys[i], Integer.valueOf(i));
+			}
+		} else {
+			index = null;
+		}
+	}
+
+	int size() {
+		return keys.length;
+	}
+
+	/**
+	 * @return the position of the key, or -1.
+	 */
+	int indexOf(Object key) {
+		if (index != null) {
+			Integer i = index.get(key);
+			return i != null ? i.intValue() : -1;
+		}
+		String[] k = keys;
+		for (int i = 0; i < k.length; i++) {
+			if (k[i] == key || k[i].equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param key - a key not in this shape.
+	 * @return the shape with the key added at the end, or null if this
+	 *         shape has {@link #MAX_KEYS} keys.
+	 */
+	Shape with(String key) {
+		Shape next = transitions.get(key);
+		if (next != null) {
+			if (!next.reused) {
+				next.reused = true;
+			}
+			return next;
+		}
+		if (keys.length == MAX_KEYS) {
+			return null;
+		}
+		if (!registry.reserve()) {
+			/* the registry has started a new tree */
+			Shape shape = registry.root;
+			for (int i = 0; i < keys.length; i++) {
+				shape = shape.with(keys[i]);
+			}
+			return shape.with(key);
+		}
+		if (transitions.size() >= MAX_TRANSITIONS) {
+			forget();
+		}
+		String[] k = new String[keys.length + 1];
+		System.arraycopy(keys, 0, k, 0, keys.length);
+		k[keys.length] = key;
+		next = new Shape(registry, k);
+		Shape raced = transitions.putIfAbsent(key, next);
+		return raced != null ? raced : next;
+	}
+
+	/**
+	 * Drops the children that have not been reused, and marks the others
+	 * as not reused.
+	 */
+	private void forget() {
+		for (Iterator<Shape> i = transitions.values().iterator(); i.hasNext();) {
+			Shape child = i.next();
+			if (child.reused) {
+				child.reused = false;
+			} else {
+				i.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return the shape with the key at position i removed.
+	 */
+	Shape without(int i) {
+		Shape shape = registry.root;
+		for (int j = 0; j < keys.length; j++) {
+			if (j != i) {
+				shape = shape.with(keys[j]);
+			}
+		}
+		return shape;
+	}
+
+}
@@ -0,0 +1,327 @@
+package org.json.simple;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A JSON object that shares its keys with the other objects that have the
+ * same keys in the same order, and stores only its values.
+ * <p>
+ * In a typical array of records, every object has the same keys.  A
+ * ShapedJSONObject refers to a shared, immutable key layout, its shape,
+ * and holds an array of values in the order of the keys.  Adding a key moves
+ * the object to the shape with that key appended, and removing a key to
+ * the shape without it.  Entries are kept in insertion order.
+ * <p>
+ * Shapes are kept in a {@link Shapes} registry, which objects created
+ * together, such as the objects of one parse, share.  Objects whose keys are
+ * data, such as maps from ids to records, would create a shape for every key
+ * set; a registry is bounded and forgets shapes to make room for new ones,
+ * so that such objects do not keep other objects from getting shapes.  An
+ * object with more than {@link #MAX_KEYS} keys keeps its entries in a
+ * HashMap instead, like a JSONObject.
+ * <p>
+ * A ShapedJSONObject is written as JSON text in the same way as a
+ * JSONObject, and is equal to a JSONObject with the same entries.  It is not
+ * a JSONObject though, so it cannot be cast to one.
+ *
+ * @see org.json.simple.parser.DefaultContentHandler#setObjectType(int)
+ */
+public class ShapedJSONObject extends AbstractMap<String, Object> implements JSONAware, JSONStreamAware, Serializable {
+
+	private static final long serialVersionUID = -2286307472117564163L;
+
+	/** The largest number of keys of an object that has a shape. */
+	public static final int MAX_KEYS = 64;
+
+	/* the registry of the objects created without one */
+	private static final Shapes SHAPES = new Shapes();
+
+	private static final Object[] EMPTY = new Object[0];
+
+	private transient Shape shape;
+	/* the values in the order of the keys of the shape, possibly followed by unused slots */
+	private transient Object[] values = EMPTY;
+
+	/* the entries if the object has no shape, or null */
+	private transient HashMap<String, Object> map;
+
+	public ShapedJSONObject() {
+		this(SHAPES);
+	}
+
+	/**
+	 * @param shapes - the registry of the shapes of the object.
+	 */
+	public ShapedJSONObject(Shapes shapes) {
+		shape = shapes.root;
+	}
+
+	/**
+	 * Allows creation of a ShapedJSONObject from a Map.  After that, both the
+	 * generated object and the Map can be modified independently.
+	 *
+	 * @param map
+	 */
+	public ShapedJSONObject(Map<?, ?> map) {
+		this(SHAPES);
+		values = new Object[map.size()];
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			put(String.valueOf(entry.getKey()), entry.getValue());
+		}
+	}
+
+	@Override
+	public int size() {
+		return map != null ? map.size() : shape.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return map != null ? map.containsKey(key) : shape.indexOf(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (map != null) {
+			return map.get(key);
+		}
+		int i = shape.indexOf(key);
+		return i >= 0 ? values[i] : null;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		if (map != null) {
+			return map.put(key, value);
+		}
+		int i = shape.indexOf(key);
+		if (i >= 0) {
+			Object old = values[i];
+			values[i] = value;
+			return old;
+		}
+		Shape next = key != null ? shape.with(key) : null;
+		if (next == null) {
+			toMap();
+			return map.put(key, value);
+		}
+		int n = shape.size();
+		if (n == values.length) {
+			values = Arrays.copyOf(values, Math.max(4, 2 * n));
+		}
+		values[n] = value;
+		shape = next;
+		return null;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (map != null) {
+			return map.remove(key);
+		}
+		int i = shape.indexOf(key);
+		if (i < 0) {
+			return null;
+		}
+		Object old = values[i];
+		removeAt(i);
+		return old;
+	}
+
+	private void removeAt(int i) {
+		Shape next = shape.without(i);
+		int n = shape.size();
+		System.arraycopy(values, i + 1, values, i, n - i - 1);
+		values[n - 1] = null;
+		shape = next;
+	}
+
+	/**
+	 * Moves the entries to a HashMap, for good.
+	 */
+	private void toMap() {
+		HashMap<String, Object> m = new HashMap<String, Object>();
+		for (int i = 0; i < shape.size(); i++) {
+			m.put(shape.keys[i], values[i]);
+		}
+		map = m;
+		shape = shape.registry.root;
+		values = EMPTY;
+	}
+
+	/**
+	 * @return the shape, or null if the entries are in a HashMap.
+	 */
+	Shape shape() {
+		return map == null ? shape : null;
+	}
+
+	@Override
+	public void clear() {
+		map = null;
+		shape = shape.registry.root;
+		values = EMPTY;
+	}
+
+	/**
+	 * Drops the unused slots after the values, once the object is complete.
+	 */
+	public void trimToSize() {
+		if (map == null && values.length > shape.size()) {
+			values = shape.size() == 0 ? EMPTY : Arrays.copyOf(values, shape.size());
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return map != null ? map.entrySet() : new EntrySet();
+	}
+
+	public String toJSONString() {
+		return JSONObject.toJSONString(this);
+	}
+
+	public void writeJSONString(Writer out) throws IOException {
+		JSONObject.writeJSONString(this, out);
+	}
+
+	public String toString() {
+		return toJSONString();
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeObject(new LinkedHashMap<String, Object>(this));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		Map<String, Object> entries = (Map<String, Object>) in.readObject();
+		shape = SHAPES.root;
+		values = EMPTY;
+		putAll(entries);
+	}
+
+	/**
+	 * A registry of shapes, shared by the objects that should share their
+	 * shapes.  It holds a bounded number of shapes, and is garbage
+	 * collected with the last of its objects.
+	 *
+	 * @see org.json.simple.parser.DefaultContentHandler#setObjectType(int)
+	 */
+	public static final class Shapes {
+
+		/* the shapes created since the root was created */
+		private final AtomicInteger count = new AtomicInteger();
+
+		volatile Shape root = new Shape(this, Shape.NO_KEYS);
+
+		/**
+		 * Counts a new shape.
+		 *
+		 * @return false if the registry is full, in which case it has
+		 *         started a new tree.
+		 */
+		boolean reserve() {
+			if (count.incrementAndGet() <= Shape.MAX_SHAPES) {
+				return true;
+			}
+			synchronized (this) {
+				if (count.get() > Shape.MAX_SHAPES) {
+					root = new Shape(this, Shape.NO_KEYS);
+					count.set(0);
+				}
+			}
+			return false;
+		}
+
+	}
+
+	/**
+	 * The entries of the shape.  Should the object lose its shape while it
+	 * is iterated, the iteration ends.
+	 */
+	private class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+		@Override
+		public int size() {
+			return shape.size();
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			return new Iterator<Map.Entry<String, Object>>() {
+
+				private int next;
+				private int last = -1;
+
+				public boolean hasNext() {
+					return map == null && next < shape.size();
+				}
+
+				public Map.Entry<String, Object> next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					last = next++;
+					return new Entry(last);
+				}
+
+				public void remove() {
+					if (last < 0) {
+						throw new IllegalStateException();
+					}
+					removeAt(last);
+					next = last;
+					last = -1;
+				}
+
+			};
+		}
+
+	}
+
+	private class Entry extends AbstractMap.SimpleEntry<String, Object> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Shape owner;
+		private final int index;
+
+		Entry(int index) {
+			super(shape.keys[index], values[index]);
+			this.owner = shape;
+			this.index = index;
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			if (shape == owner) {
+				values[index] = value;
+			}
+			return super.setValue(value);
+		}
+
+	}
+
+}
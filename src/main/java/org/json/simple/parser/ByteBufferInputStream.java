@@ -0,0 +1,44 @@
+package org.json.simple.parser;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * InputStream over the remaining bytes of a ByteBuffer.  Reads from a view of
+ * the buffer, so the position of the original buffer is not changed.
+ */
+class ByteBufferInputStream extends InputStream {
+
+	private final ByteBuffer buf;
+
+	ByteBufferInputStream(ByteBuffer buf) {
+		this.buf = buf.duplicate();
+	}
+
+	@Override
+	public int read() {
+		if (!buf.hasRemaining()) {
+			return -1;
+		}
+		return buf.get() & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		int n = Math.min(len, buf.remaining());
+		if (n == 0) {
+			return -1;
+		}
+		buf.get(b, off, n);
+		return n;
+	}
+
+	@Override
+	public int available() {
+		return buf.remaining();
+	}
+
+}
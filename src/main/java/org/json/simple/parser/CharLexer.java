@@ -0,0 +1,560 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import org.json.simple.RawJSON;
+
+/**
+ * Hand-written scanner for JSON text.
+ * <p>
+ * Produces exactly the same tokens, positions and errors as the generated
+ * {@link Yylex}, but dispatches directly on the first character of a token
+ * instead of walking the DFA tables, and scans white space, digits and
+ * unescaped runs of string characters in tight loops over the buffer.
+ *
+ * @see JSONParser#LEXER_HANDWRITTEN
+ */
+class CharLexer extends ValueLexer implements ReaderLexer {
+
+	private static final int BUFFER_SIZE = 16384;
+
+	/** the reader, or null when scanning a char array in place */
+	private Reader in;
+
+	/** the characters being scanned */
+	private char[] buf;
+
+	/** buffer owned by this scanner for reader input */
+	private char[] ownBuf = new char[BUFFER_SIZE];
+
+	/** index of the next character to scan */
+	private int pos;
+
+	/** index after the last valid character in buf */
+	private int end;
+
+	/** index of the first character of the token being scanned */
+	private int tokenStart;
+
+	/** character position of buf[0] */
+	private int base;
+
+	/** character position of the current token */
+	private int position;
+
+	private boolean atEOF;
+
+	private boolean blockRefill = true;
+
+	/** scratch space for strings containing escapes */
+	private char[] chars = new char[CHARS_SIZE];
+
+	CharLexer(Reader in) {
+		buf = ownBuf;
+		yyreset(in);
+	}
+
+	public void yyreset(Reader in) {
+		if (buf != ownBuf) {
+			buf = ownBuf;
+			end = 0;
+		} else if (in != null && in == this.in && pos < end) {
+			/* carry over the characters read ahead of the last token */
+			end -= pos;
+			System.arraycopy(buf, pos, buf, 0, end);
+		} else {
+			end = 0;
+		}
+		this.in = in;
+		pos = tokenStart = base = position = 0;
+		atEOF = false;
+	}
+
+	public void yyreset(char[] b, int off, int len) {
+		if (off < 0 || len < 0 || off > b.length - len) {
+			throw new IndexOutOfBoundsException();
+		}
+		in = null;
+		buf = b;
+		pos = tokenStart = off;
+		end = off + len;
+		base = -off;
+		position = 0;
+		atEOF = false;
+	}
+
+	public void setBlockRefill(boolean block) {
+		blockRefill = block;
+	}
+
+	public int getPosition() {
+		return position;
+	}
+
+	public void trimBuffers(int maxSize) {
+		super.trimBuffers(maxSize);
+		if (isOversized(ownBuf.length, BUFFER_SIZE, maxSize)) {
+			buf = ownBuf = new char[BUFFER_SIZE];
+		}
+		if (isOversized(chars.length, CHARS_SIZE, maxSize)) {
+			chars = new char[CHARS_SIZE];
+		}
+	}
+
+	public int bufferSize() {
+		return Math.max(super.bufferSize(), Math.max(ownBuf.length, chars.length));
+	}
+
+	/**
+	 * Reads more input, keeping the characters from tokenStart on.  Indices
+	 * into buf are translated, so callers must reload cached copies of them.
+	 *
+	 * @return false at the end of input
+	 */
+	private boolean refill() throws IOException {
+		if (in == null || atEOF) {
+			return false;
+		}
+
+		/* make room */
+		if (tokenStart > 0) {
+			System.arraycopy(buf, tokenStart, buf, 0, end - tokenStart);
+			end -= tokenStart;
+			pos -= tokenStart;
+			base += tokenStart;
+			tokenStart = 0;
+		}
+		if (end >= buf.length) {
+			buf = ownBuf = Arrays.copyOf(buf, (int) (1.5 * buf.length));
+		}
+
+		int n = 0;
+		if (blockRefill) {
+			n = in.read(buf, end, buf.length - end);
+		}
+		if (n == 0) {
+			int c = in.read();
+			if (c >= 0) {
+				buf[end] = (char) c;
+				n = 1;
+			} else {
+				n = -1;
+			}
+		}
+		if (n < 0) {
+			atEOF = true;
+			return false;
+		}
+		end += n;
+		return true;
+	}
+
+	/**
+	 * Makes sure at least n characters from pos on are in the buffer.
+	 *
+	 * @return false if the input ends before
+	 */
+	private boolean require(int n) throws IOException {
+		while (end - pos < n) {
+			if (!refill()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the character at pos, or -1 at the end of input
+	 */
+	private int peek() throws IOException {
+		if (pos >= end && !require(1)) {
+			return -1;
+		}
+		return buf[pos];
+	}
+
+	int next() throws IOException, ParseException {
+		for (;;) {
+			/* skip white space */
+			int p = pos;
+			int e = end;
+			char[] b = buf;
+			while (p < e) {
+				char c = b[p];
+				if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+					break;
+				}
+				p++;
+			}
+			pos = tokenStart = p;
+			if (p == e) {
+				if (refill()) {
+					continue;
+				}
+				position = base + end;
+				return Yytoken.TYPE_EOF;
+			}
+
+			position = base + p;
+			switch (b[p]) {
+			case '{':
+				pos = p + 1;
+				return Yytoken.TYPE_LEFT_BRACE;
+			case '}':
+				pos = p + 1;
+				return Yytoken.TYPE_RIGHT_BRACE;
+			case '[':
+				pos = p + 1;
+				return Yytoken.TYPE_LEFT_SQUARE;
+			case ']':
+				pos = p + 1;
+				return Yytoken.TYPE_RIGHT_SQUARE;
+			case ',':
+				pos = p + 1;
+				return Yytoken.TYPE_COMMA;
+			case ':':
+				pos = p + 1;
+				return Yytoken.TYPE_COLON;
+			case '"':
+				pos = p + 1;
+				return string();
+			case '-':
+			case '0': case '1': case '2': case '3': case '4':
+			case '5': case '6': case '7': case '8': case '9':
+				return number();
+			case 't':
+				if (literal("true")) {
+					return TYPE_TRUE;
+				}
+				break;
+			case 'f':
+				if (literal("false")) {
+					return TYPE_FALSE;
+				}
+				break;
+			case 'n':
+				if (literal("null")) {
+					return TYPE_NULL;
+				}
+				break;
+			}
+			throw new ParseException(position, ParseException.ERROR_UNEXPECTED_CHAR, Character.valueOf(buf[pos]));
+		}
+	}
+
+	int skipValue() throws IOException, ParseException {
+		for (;;) {
+			/* skip white space */
+			int p = pos;
+			int e = end;
+			char[] b = buf;
+			while (p < e) {
+				char c = b[p];
+				if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+					break;
+				}
+				p++;
+			}
+			pos = tokenStart = p;
+			if (p < e) {
+				break;
+			}
+			if (!refill()) {
+				position = base + end;
+				return Yytoken.TYPE_EOF;
+			}
+		}
+		position = base + pos;
+		switch (buf[pos]) {
+		case '"':
+			pos++;
+			return fastForward(0, true);
+		case '{':
+		case '[':
+			return skipped(buf[pos++], fastForward(1, false));
+		default:
+			return next();
+		}
+	}
+
+	int skipContainer() throws IOException {
+		return fastForward(1, false);
+	}
+
+	/**
+	 * Scans from pos until depth containers have been closed, or at depth 0
+	 * until the string scanning starts in has been closed.
+	 *
+	 * @return the type of the closing bracket, TYPE_SKIPPED for a closing
+	 *         quote, or Yytoken.TYPE_EOF
+	 */
+	private int fastForward(int depth, boolean inString) throws IOException {
+		for (;;) {
+			int p = pos;
+			int e = end;
+			char[] b = buf;
+			while (p < e) {
+				char c = b[p];
+				if (inString) {
+					if (c == '"') {
+						inString = false;
+						if (depth == 0) {
+							position = base + p;
+							pos = p + 1;
+							return TYPE_SKIPPED;
+						}
+					} else if (c == '\\') {
+						if (p + 1 == e) {
+							/* keep the backslash with the escaped character */
+							break;
+						}
+						p++;
+					}
+				} else if (c == '"') {
+					inString = true;
+				} else if (c == '{' || c == '[') {
+					depth++;
+				} else if ((c == '}' || c == ']') && --depth == 0) {
+					position = base + p;
+					pos = p + 1;
+					return c == '}' ? Yytoken.TYPE_RIGHT_BRACE : Yytoken.TYPE_RIGHT_SQUARE;
+				}
+				p++;
+			}
+			pos = tokenStart = p;
+			if (!refill()) {
+				pos = end;
+				return endOfInput();
+			}
+		}
+	}
+
+	/**
+	 * Matches a literal at pos and consumes it.
+	 */
+	private boolean literal(String s) throws IOException {
+		int n = s.length();
+		if (!require(n)) {
+			return false;
+		}
+		for (int i = 1; i < n; i++) {
+			if (buf[pos + i] != s.charAt(i)) {
+				return false;
+			}
+		}
+		pos += n;
+		return true;
+	}
+
+	/**
+	 * Scans a number, following the rules
+	 * <pre>
+	 * INT = [-]?[0-9]+
+	 * DOUBLE = {INT}((\.[0-9]+)?([eE][-+]?[0-9]+)?)
+	 * </pre>
+	 * An INT followed by an incomplete fraction or exponent is returned on its
+	 * own, the remaining characters are scanned as the next token.
+	 */
+	private int number() throws IOException, ParseException {
+		if (buf[pos] == '-') {
+			pos++;
+		}
+		if (digits() == 0) {
+			/* a lone minus sign */
+			pos = tokenStart;
+			throw new ParseException(position, ParseException.ERROR_UNEXPECTED_CHAR, Character.valueOf('-'));
+		}
+
+		boolean isDouble = false;
+		int length = pos - tokenStart;
+		if (peek() == '.') {
+			pos++;
+			if (digits() > 0) {
+				isDouble = true;
+				length = pos - tokenStart;
+			} else {
+				pos = tokenStart + length;
+			}
+		}
+		int c = peek();
+		if (c == 'e' || c == 'E') {
+			pos++;
+			c = peek();
+			if (c == '-' || c == '+') {
+				pos++;
+			}
+			if (digits() > 0) {
+				isDouble = true;
+				length = pos - tokenStart;
+			}
+		}
+		pos = tokenStart + length;
+
+		return isDouble ? TYPE_DOUBLE : TYPE_LONG;
+	}
+
+	int tokenOffset() {
+		return buf != ownBuf ? tokenStart : -1;
+	}
+
+	RawJSON text(int offset) {
+		return new RawJSON(new String(buf, offset, pos - offset));
+	}
+
+	long longValue() {
+		return parseLong(buf, tokenStart, pos - tokenStart);
+	}
+
+	double doubleValue() {
+		return parseDouble(buf, tokenStart, pos - tokenStart);
+	}
+
+	String numberText() {
+		return new String(buf, tokenStart, pos - tokenStart);
+	}
+
+	/**
+	 * Skips a run of digits.
+	 *
+	 * @return the number of digits skipped
+	 */
+	private int digits() throws IOException {
+		int count = 0;
+		for (;;) {
+			int p = pos;
+			int e = end;
+			char[] b = buf;
+			while (p < e && b[p] >= '0' && b[p] <= '9') {
+				p++;
+			}
+			count += p - pos;
+			pos = p;
+			if (p < e || !refill()) {
+				return count;
+			}
+		}
+	}
+
+	/**
+	 * Scans a string, pos is just after the opening quote.
+	 */
+	private int string() throws IOException {
+		/* fast path: no escapes */
+		char c;
+		for (;;) {
+			int p = pos;
+			int e = end;
+			char[] b = buf;
+			while (p < e && (c = b[p]) != '"' && c != '\\') {
+				p++;
+			}
+			pos = p;
+			if (p < e) {
+				break;
+			}
+			if (!refill()) {
+				return endOfInput();
+			}
+		}
+		int start = tokenStart + 1;
+		if (buf[pos] == '"') {
+			text.set(buf, start, pos - start);
+			position = base + pos;
+			pos++;
+			return TYPE_STRING;
+		}
+
+		/* slow path */
+		int n = pos - start;
+		if (n + 1 > chars.length) {
+			chars = new char[Math.max(n + 1, 2 * chars.length)];
+		}
+		System.arraycopy(buf, start, chars, 0, n);
+		for (;;) {
+			if (pos >= end && !require(1)) {
+				return endOfInput();
+			}
+			c = buf[pos];
+			if (c == '"') {
+				text.set(chars, 0, n);
+				position = base + pos;
+				pos++;
+				return TYPE_STRING;
+			}
+			if (n + 1 > chars.length) {
+				chars = Arrays.copyOf(chars, 2 * chars.length);
+			}
+			if (c == '\\') {
+				if (!require(2)) {
+					/* a lone backslash at the end of input */
+					pos = end;
+					return endOfInput();
+				}
+				n = escape(n);
+			} else {
+				chars[n++] = c;
+				pos++;
+			}
+		}
+	}
+
+	/**
+	 * Unescapes the escape sequence at pos into chars[n].  Unknown escape
+	 * sequences keep the backslash.
+	 *
+	 * @return the new length of chars
+	 */
+	private int escape(int n) throws IOException {
+		char ch;
+		switch (buf[pos + 1]) {
+		case '"':  ch = '"'; break;
+		case '\\': ch = '\\'; break;
+		case '/':  ch = '/'; break;
+		case 'b':  ch = '\b'; break;
+		case 'f':  ch = '\f'; break;
+		case 'n':  ch = '\n'; break;
+		case 'r':  ch = '\r'; break;
+		case 't':  ch = '\t'; break;
+		case 'u':
+			if (require(6)) {
+				int value = 0;
+				int i = 2;
+				for (; i < 6; i++) {
+					int digit = hex(buf[pos + i]);
+					if (digit < 0) {
+						break;
+					}
+					value = (value << 4) | digit;
+				}
+				if (i == 6) {
+					chars[n++] = (char) value;
+					pos += 6;
+					return n;
+				}
+			}
+			chars[n++] = '\\';
+			pos++;
+			return n;
+		default:
+			chars[n++] = '\\';
+			pos++;
+			return n;
+		}
+		chars[n++] = ch;
+		pos += 2;
+		return n;
+	}
+
+	/**
+	 * The input ended inside a string.  As with {@link Yylex}, this is
+	 * reported as the end of input.
+	 */
+	private int endOfInput() {
+		atEOF = true;
+		position = base + end;
+		return Yytoken.TYPE_EOF;
+	}
+
+}
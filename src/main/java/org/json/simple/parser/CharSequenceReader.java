@@ -0,0 +1,81 @@
+package org.json.simple.parser;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Unsynchronized Reader over a range of a CharSequence.
+ * <p>
+ * Characters are copied straight into the caller's array, in bulk where the
+ * sequence supports it, so no intermediate String is created.
+ */
+class CharSequenceReader extends Reader {
+
+	private final CharSequence s;
+	private final CharBuffer charBuffer;
+	private int pos;
+	private final int end;
+
+	/**
+	 * @param s the characters to read
+	 * @param off index of the first character in s
+	 * @param len number of characters
+	 */
+	CharSequenceReader(CharSequence s, int off, int len) {
+		if (off < 0 || len < 0 || off > s.length() - len) {
+			throw new IndexOutOfBoundsException();
+		}
+		this.s = s;
+		this.pos = off;
+		this.end = off + len;
+		if (s instanceof CharBuffer) {
+			charBuffer = ((CharBuffer) s).duplicate();
+			charBuffer.position(charBuffer.position() + off);
+		} else {
+			charBuffer = null;
+		}
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		int n = Math.min(len, end - pos);
+		if (n <= 0) {
+			return -1;
+		}
+		if (s instanceof String) {
+			((String) s).getChars(pos, pos + n, cbuf, off);
+		} else if (s instanceof StringBuilder) {
+			((StringBuilder) s).getChars(pos, pos + n, cbuf, off);
+		} else if (s instanceof StringBuffer) {
+			((StringBuffer) s).getChars(pos, pos + n, cbuf, off);
+		} else if (charBuffer != null) {
+			charBuffer.get(cbuf, off, n);
+		} else {
+			for (int i = 0; i < n; i++) {
+				cbuf[off + i] = s.charAt(pos + i);
+			}
+		}
+		pos += n;
+		return n;
+	}
+
+	@Override
+	public int read() {
+		if (pos >= end) {
+			return -1;
+		}
+		if (charBuffer != null) {
+			pos++;
+			return charBuffer.get();
+		}
+		return s.charAt(pos++);
+	}
+
+	@Override
+	public void close() {
+	}
+
+}
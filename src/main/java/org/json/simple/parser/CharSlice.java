@@ -0,0 +1,64 @@
+package org.json.simple.parser;
+
+import java.nio.charset.Charset;
+
+/**
+ * A reusable CharSequence over a range of a char array, or of a byte array
+ * holding ASCII characters.  The range is set by the scanner and is only
+ * valid until the scanner moves on.
+ */
+final class CharSlice implements CharSequence {
+
+	private static final Charset ASCII = Charset.forName("ISO-8859-1");
+
+	private char[] chars;
+	private byte[] bytes;
+	private int offset;
+	private int length;
+
+	void set(char[] chars, int offset, int length) {
+		this.chars = chars;
+		this.bytes = null;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	void set(byte[] bytes, int offset, int length) {
+		this.chars = null;
+		this.bytes = bytes;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	public int length() {
+		return length;
+	}
+
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		if (chars != null) {
+			return chars[offset + index];
+		}
+		return (char) (bytes[offset + index] & 0xff);
+	}
+
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (chars != null) {
+			return new String(chars, offset + start, end - start);
+		}
+		return new String(bytes, offset + start, end - start, ASCII);
+	}
+
+	public String toString() {
+		if (chars != null) {
+			return new String(chars, offset, length);
+		}
+		return new String(bytes, offset, length, ASCII);
+	}
+
+}
@@ -2,14 +2,36 @@ package org.json.simple.parser;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.json.simple.CompactJSONObject;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.PrimitiveJSONArray;
+import org.json.simple.ShapedJSONObject;
 
 public class DefaultContentHandler implements ContentHandler {
 	
+	/** Objects are built as {@link JSONObject}s. */
+	public static final int OBJECT_HASHED = 0;
+	
+	/** Objects are built as {@link CompactJSONObject}s, which take less memory while they are small. */
+	public static final int OBJECT_COMPACT = 1;
+	
+	/**
+	 * Objects are built as {@link ShapedJSONObject}s, which share their keys with objects of the same keys.
+	 * Objects with more than {@link ShapedJSONObject#MAX_KEYS} keys are built as {@link JSONObject}s.
+	 */
+	public static final int OBJECT_SHAPED = 2;
+	
+	/** Arrays are built as {@link JSONArray}s. */
+	public static final int ARRAY_LIST = 0;
+	
+	/** Arrays are built as {@link PrimitiveJSONArray}s, which store numbers and booleans unboxed. */
+	public static final int ARRAY_PRIMITIVE = 1;
+	
 	private enum ContainerType {
 		ROOT,
 		ENTRY,
@@ -23,9 +45,129 @@ public class DefaultContentHandler implements ContentHandler {
 	ArrayDeque<Object> valueStack;
 	ArrayDeque<ContainerType> containerStack;
 	
+	private int objectType = OBJECT_HASHED;
+	private int arrayType = ARRAY_LIST;
+	private TypedContentHandler typedValues;
+	/* the shapes of the objects built, created with the first of them unless the parser sets them */
+	ShapedJSONObject.Shapes shapes;
+	
 	public DefaultContentHandler() {
 	}
 	
+	/**
+	 * Selects the class of the objects built.
+	 * 
+	 * @param objectType - OBJECT_HASHED, OBJECT_COMPACT or OBJECT_SHAPED.
+	 */
+	public void setObjectType(int objectType) {
+		checkObjectType(objectType);
+		this.objectType = objectType;
+	}
+
+	static void checkObjectType(int objectType) {
+		if (objectType != OBJECT_HASHED && objectType != OBJECT_COMPACT && objectType != OBJECT_SHAPED) {
+			throw new IllegalArgumentException("Unknown object type: " + objectType);
+		}
+	}
+	
+	/**
+	 * @return the class of the objects built.
+	 * @see #setObjectType(int)
+	 */
+	public int getObjectType() {
+		return objectType;
+	}
+	
+	/**
+	 * Selects the class of the arrays built.  With ARRAY_PRIMITIVE, numbers
+	 * and booleans in arrays are passed from the parser to the array without
+	 * being boxed, if the parser uses a hand-written scanner.
+	 * 
+	 * @param arrayType - ARRAY_LIST or ARRAY_PRIMITIVE.
+	 */
+	public void setArrayType(int arrayType) {
+		checkArrayType(arrayType);
+		this.arrayType = arrayType;
+	}
+
+	static void checkArrayType(int arrayType) {
+		if (arrayType != ARRAY_LIST && arrayType != ARRAY_PRIMITIVE) {
+			throw new IllegalArgumentException("Unknown array type: " + arrayType);
+		}
+	}
+	
+	/**
+	 * @return the class of the arrays built.
+	 * @see #setArrayType(int)
+	 */
+	public int getArrayType() {
+		return arrayType;
+	}
+	
+	/**
+	 * @return the handler the parser should pass typed values to, or null
+	 *         to pass them to primitive(Object).  Subclasses may override
+	 *         primitive(Object), so they receive the values boxed.
+	 */
+	TypedContentHandler typedValues() {
+		if (arrayType != ARRAY_PRIMITIVE || getClass() != DefaultContentHandler.class) {
+			return null;
+		}
+		if (typedValues == null) {
+			typedValues = new TypedContentHandlerAdapter(this) {
+				
+				@Override
+				public boolean longValue(long value) throws ParseException, IOException {
+					if (containerStack.peek() != ContainerType.ARRAY) {
+						return super.longValue(value);
+					}
+					((PrimitiveJSONArray) valueStack.peek()).add(value);
+					return true;
+				}
+				
+				@Override
+				public boolean doubleValue(double value) throws ParseException, IOException {
+					if (containerStack.peek() != ContainerType.ARRAY) {
+						return super.doubleValue(value);
+					}
+					((PrimitiveJSONArray) valueStack.peek()).add(value);
+					return true;
+				}
+				
+				@Override
+				public boolean booleanValue(boolean value) throws ParseException, IOException {
+					if (containerStack.peek() != ContainerType.ARRAY) {
+						return super.booleanValue(value);
+					}
+					((PrimitiveJSONArray) valueStack.peek()).add(value);
+					return true;
+				}
+				
+			};
+		}
+		return typedValues;
+	}
+	
+	private List<Object> newArray() {
+		if (arrayType == ARRAY_PRIMITIVE) {
+			return new PrimitiveJSONArray();
+		}
+		return new JSONArray();
+	}
+	
+	private Map<String, Object> newObject() {
+		if (objectType == OBJECT_COMPACT) {
+			return new CompactJSONObject();
+		}
+		if (objectType == OBJECT_SHAPED) {
+			if (shapes == null) {
+				shapes = new ShapedJSONObject.Shapes();
+			}
+			return new ShapedJSONObject(shapes);
+		}
+		return new JSONObject();
+	}
+	
 	public Object getContent() {
 	    Object val = null;
 		if (valueStack.size() > 0) {
@@ -70,13 +212,13 @@ public class DefaultContentHandler implements ContentHandler {
 			// XXX raw types unavoidable due to the way ContainerFactory is written
 			@SuppressWarnings("rawtypes")
 			List array = (List) (valueStack.peek());
-			JSONObject obj = new JSONObject();
+			Map<String, Object> obj = newObject();
 			array.add(obj);
 			valueStack.push(obj);  // put on front of stack so further items can be added to it
 		}
 		else {
 			// entry or root, simply add to stack
-			valueStack.push(new JSONObject());	
+			valueStack.push(newObject());	
 		}
 		containerStack.push(ContainerType.OBJECT);
 		return true;
@@ -88,6 +230,9 @@ public class DefaultContentHandler implements ContentHandler {
 		if (c != ContainerType.OBJECT) {
 			throw new IOException("No object to end");
 		}
+		if (valueStack.peek() instanceof ShapedJSONObject) {
+			((ShapedJSONObject) valueStack.peek()).trimToSize();
+		}
 		
 		// peek at top
 		c = containerStack.peek();
@@ -128,10 +273,32 @@ public class DefaultContentHandler implements ContentHandler {
 		@SuppressWarnings("rawtypes")
 		// XXX raw types unavoidable do to the way ContainerFactory is currently written
 		Map parent = (Map) valueStack.peek();
+		if (parent instanceof ShapedJSONObject && parent.size() == ShapedJSONObject.MAX_KEYS && !parent.containsKey(key)) {
+			parent = unshape((ShapedJSONObject) parent);
+		}
 		parent.put(key, value);
 		return true;
 	}
 
+	/**
+	 * Replaces the shaped object being built, which has too many keys for a
+	 * shape, with a JSONObject.
+	 */
+	@SuppressWarnings("unchecked")
+	private JSONObject unshape(ShapedJSONObject shaped) {
+		JSONObject obj = new JSONObject(shaped);
+		valueStack.pop();
+		Iterator<ContainerType> containers = containerStack.iterator();
+		containers.next();
+		if (containers.next() == ContainerType.ARRAY) {
+			@SuppressWarnings("rawtypes")
+			List array = (List) valueStack.peek();
+			array.set(array.size() - 1, obj);
+		}
+		valueStack.push(obj);
+		return obj;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public boolean startArray() throws ParseException, IOException {
@@ -144,9 +311,11 @@ public class DefaultContentHandler implements ContentHandler {
 			// XXX raw types unavoidable due to the way ContainerFactory is written
 			@SuppressWarnings("rawtypes")
 			List array = (List) (valueStack.peek());
-			array.add(new JSONArray());
+			List<Object> inner = newArray();
+			array.add(inner);
+			valueStack.push(inner);  // put on front of stack so further items can be added to it
 		} else {
-			valueStack.push(new JSONArray());
+			valueStack.push(newArray());
 		}
 		containerStack.push(ContainerType.ARRAY);
 		return true;
@@ -158,11 +327,17 @@ public class DefaultContentHandler implements ContentHandler {
 		if (c != ContainerType.ARRAY) {
 			throw new IOException("No array to end here");
 		}
+		if (arrayType == ARRAY_PRIMITIVE) {
+			((PrimitiveJSONArray) valueStack.peek()).trimToSize();
+		}
 		
 		// if back at root, stop parsing
 		c = containerStack.peek();
 		if (c == ContainerType.ROOT) {
 			return false;
+		} else if (c == ContainerType.ARRAY) {
+			// pop array off stack (already stored in the enclosing array)
+			valueStack.pop();
 		}
 		return true;
 	}
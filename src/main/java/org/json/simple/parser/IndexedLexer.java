@@ -0,0 +1,687 @@
+package org.json.simple.parser;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.json.simple.RawJSON;
+
+/**
+ * Stage 2 of the indexed scanner: produces tokens from a UTF-8 encoded byte
+ * array and its {@link StructuralIndex}.
+ * <p>
+ * White space is never looked at, the scanner jumps from one index entry to
+ * the next.  The end of a string is known before its content is read, and
+ * strings of ASCII characters without escapes are built in one step without
+ * looking at their content again.
+ * <p>
+ * Produces the same tokens, positions and errors as {@link Utf8Lexer}.
+ *
+ * @see JSONParser#LEXER_INDEXED
+ */
+class IndexedLexer extends ValueLexer {
+
+	private static final Charset ASCII = Charset.forName("ISO-8859-1");
+
+	private final StructuralIndex index = new StructuralIndex();
+
+	/** the index entries and their number */
+	private int[] entries;
+	private int size;
+
+	/** the bytes being scanned */
+	private byte[] buf;
+
+	/** index after the last byte */
+	private int end;
+
+	/** the next index entry to visit */
+	private int next;
+
+	/** index of the byte following the last token */
+	private int pos;
+
+	/** index of the first byte of the token being scanned */
+	private int tokenStart;
+
+	/** character position of buf[0], plus the bytes - chars difference seen so far */
+	private int base;
+
+	/** character position of the current token */
+	private int position;
+
+	private boolean atEOF;
+
+	/** set by nextRaw(): the string is plain */
+	private boolean plainString;
+
+	/** scratch space for strings containing escapes or non-ASCII characters */
+	private char[] chars = new char[CHARS_SIZE];
+
+	/**
+	 * Indexes a byte array and resets the scanner to read from it.
+	 *
+	 * @param b
+	 * @param off
+	 * @param len
+	 */
+	void yyreset(byte[] b, int off, int len) {
+		if (off < 0 || len < 0 || off > b.length - len) {
+			throw new IndexOutOfBoundsException();
+		}
+		index.build(b, off, len);
+		entries = index.entries;
+		size = index.count;
+		buf = b;
+		end = off + len;
+		next = 0;
+		pos = tokenStart = off;
+		base = -off;
+		position = 0;
+		atEOF = false;
+	}
+
+	/**
+	 * Resets the scanner to read a range of a byte array that has already
+	 * been indexed, see {@link JSONParallelParser}.  Positions are counted
+	 * from off.
+	 *
+	 * @param b
+	 * @param off - the offset of the first entry of the range, or of white space before it.
+	 * @param len
+	 * @param entries - the index of b.
+	 * @param first - the first entry of the range.
+	 * @param last - the entry after the range.
+	 */
+	void yyreset(byte[] b, int off, int len, int[] entries, int first, int last) {
+		this.entries = entries;
+		size = last;
+		buf = b;
+		end = off + len;
+		next = first;
+		pos = tokenStart = off;
+		base = -off;
+		position = 0;
+		atEOF = false;
+	}
+
+	public int getPosition() {
+		return position;
+	}
+
+	public void trimBuffers(int maxSize) {
+		super.trimBuffers(maxSize);
+		if (isOversized(index.entries.length, StructuralIndex.INITIAL_SIZE, maxSize)) {
+			int[] e = new int[StructuralIndex.INITIAL_SIZE];
+			if (entries == index.entries) {
+				entries = e;
+			}
+			index.entries = e;
+		}
+		if (isOversized(chars.length, CHARS_SIZE, maxSize)) {
+			chars = new char[CHARS_SIZE];
+		}
+	}
+
+	public int bufferSize() {
+		return Math.max(super.bufferSize(), Math.max(index.entries.length, chars.length));
+	}
+
+	int next() throws ParseException {
+		if (atEOF) {
+			return Yytoken.TYPE_EOF;
+		}
+		int p = start();
+		if (p < 0) {
+			position = base + end;
+			return Yytoken.TYPE_EOF;
+		}
+		return token(p);
+	}
+
+	/**
+	 * Finds the first byte of the next token, moving past its index entry.
+	 *
+	 * @return its index, or -1 at the end of input
+	 */
+	private int start() {
+		byte[] b = buf;
+		int p = pos;
+		/*
+		 * Continue right after the last token if it ended inside a run of
+		 * characters, such as 1 in 1true; otherwise only white space can come
+		 * before the next entry.
+		 */
+		if (p >= end || (next < size && p == entries[next])
+				|| b[p] == ' ' || b[p] == '\n' || b[p] == '\r' || b[p] == '\t') {
+			if (next == size) {
+				return -1;
+			}
+			p = entries[next++];
+		}
+		return p;
+	}
+
+	/**
+	 * Scans the token starting at p.
+	 */
+	private int token(int p) throws ParseException {
+		byte[] b = buf;
+		pos = tokenStart = p;
+		position = base + p;
+
+		switch (b[p]) {
+		case '{':
+			pos = p + 1;
+			return Yytoken.TYPE_LEFT_BRACE;
+		case '}':
+			pos = p + 1;
+			return Yytoken.TYPE_RIGHT_BRACE;
+		case '[':
+			pos = p + 1;
+			return Yytoken.TYPE_LEFT_SQUARE;
+		case ']':
+			pos = p + 1;
+			return Yytoken.TYPE_RIGHT_SQUARE;
+		case ',':
+			pos = p + 1;
+			return Yytoken.TYPE_COMMA;
+		case ':':
+			pos = p + 1;
+			return Yytoken.TYPE_COLON;
+		case '"':
+			return string(p + 1);
+		case '-':
+		case '0': case '1': case '2': case '3': case '4':
+		case '5': case '6': case '7': case '8': case '9':
+			return number();
+		case 't':
+			if (literal("true")) {
+				return TYPE_TRUE;
+			}
+			break;
+		case 'f':
+			if (literal("false")) {
+				return TYPE_FALSE;
+			}
+			break;
+		case 'n':
+			if (literal("null")) {
+				return TYPE_NULL;
+			}
+			break;
+		}
+		throw new ParseException(position, ParseException.ERROR_UNEXPECTED_CHAR, Character.valueOf(unexpectedChar()));
+	}
+
+	/**
+	 * Scans the next token like next(), but leaves strings as they are: for
+	 * TYPE_STRING, only {@link #tokenStart()}, {@link #tokenEnd()} and
+	 * {@link #isPlain()} are set, and the string is not decoded.
+	 */
+	int nextRaw() throws ParseException {
+		if (atEOF) {
+			return Yytoken.TYPE_EOF;
+		}
+		int p = start();
+		if (p < 0) {
+			position = base + end;
+			return Yytoken.TYPE_EOF;
+		}
+		if (buf[p] != '"') {
+			return token(p);
+		}
+		pos = tokenStart = p;
+		int close;
+		plainString = false;
+		if (next < size) {
+			close = entries[next++];
+			if (close >= 0) {
+				plainString = true;
+			} else {
+				close = -1 - close;
+			}
+		} else {
+			/* the input ends inside the string */
+			close = end;
+		}
+		if (!plainString) {
+			base -= utf8Surplus(buf, p + 1, close);
+		}
+		if (close == end) {
+			return endOfInput();
+		}
+		position = base + close;
+		pos = close + 1;
+		return TYPE_STRING;
+	}
+
+	/**
+	 * @return the index of the first byte of the current token
+	 */
+	int tokenStart() {
+		return tokenStart;
+	}
+
+	/**
+	 * @return the index after the last byte of the current token
+	 */
+	int tokenEnd() {
+		return pos;
+	}
+
+	/**
+	 * @return whether the string scanned by nextRaw() holds ASCII
+	 *         characters only, without escapes
+	 */
+	boolean isPlain() {
+		return plainString;
+	}
+
+	int skipValue() throws ParseException {
+		if (atEOF) {
+			return Yytoken.TYPE_EOF;
+		}
+		int p = start();
+		if (p < 0) {
+			position = base + end;
+			return Yytoken.TYPE_EOF;
+		}
+		switch (buf[p]) {
+		case '"':
+			pos = tokenStart = p;
+			return fastForward(0, true);
+		case '{':
+		case '[':
+			pos = tokenStart = p;
+			return skipped(buf[p], fastForward(1, false));
+		default:
+			return token(p);
+		}
+	}
+
+	int skipContainer() {
+		if (atEOF) {
+			return Yytoken.TYPE_EOF;
+		}
+		return fastForward(1, false);
+	}
+
+	/**
+	 * Jumps from one index entry to the next until depth containers have
+	 * been closed, or at depth 0 until the string whose opening quote was the
+	 * last entry has been closed.  Only the content of strings that are not
+	 * plain is looked at, to count its characters.
+	 *
+	 * @return the type of the closing bracket, TYPE_SKIPPED for a closing
+	 *         quote, or Yytoken.TYPE_EOF
+	 */
+	private int fastForward(int depth, boolean inString) {
+		int[] e = entries;
+		int n = next;
+		int last = size;
+		byte[] b = buf;
+		int open = pos;
+		for (;;) {
+			if (inString) {
+				/* the next entry is the closing quote */
+				if (n == last) {
+					break;
+				}
+				int close = e[n++];
+				if (close < 0) {
+					close = -1 - close;
+					base -= utf8Surplus(b, open + 1, close);
+				}
+				if (depth == 0) {
+					next = n;
+					position = base + close;
+					pos = close + 1;
+					return TYPE_SKIPPED;
+				}
+				inString = false;
+			}
+			if (n == last) {
+				break;
+			}
+			int p = e[n++];
+			switch (b[p]) {
+			case '"':
+				inString = true;
+				open = p;
+				break;
+			case '{':
+			case '[':
+				depth++;
+				break;
+			case '}':
+			case ']':
+				if (--depth == 0) {
+					next = n;
+					position = base + p;
+					pos = p + 1;
+					return b[p] == '}' ? Yytoken.TYPE_RIGHT_BRACE : Yytoken.TYPE_RIGHT_SQUARE;
+				}
+				break;
+			default:
+				if (b[p] < 0) {
+					/* garbage, counted up to the next entry */
+					base -= utf8Surplus(b, p, n < last ? Math.max(p, e[n]) : end);
+				}
+				break;
+			}
+		}
+		next = n;
+		return endOfInput();
+	}
+
+	/**
+	 * Matches a literal at pos and consumes it.
+	 */
+	private boolean literal(String s) {
+		int n = s.length();
+		if (end - pos < n) {
+			return false;
+		}
+		for (int i = 1; i < n; i++) {
+			if (buf[pos + i] != s.charAt(i)) {
+				return false;
+			}
+		}
+		pos += n;
+		return true;
+	}
+
+	/**
+	 * Decodes the character at pos for an error report.
+	 */
+	private char unexpectedChar() {
+		int c = buf[pos];
+		if (c >= 0) {
+			return (char) c;
+		}
+		decode(0, end);
+		return chars[0];
+	}
+
+	/**
+	 * @return the byte at pos, or -1 at the end of input
+	 */
+	private int peek() {
+		return pos < end ? buf[pos] : -1;
+	}
+
+	/**
+	 * Scans a number, following the rules
+	 * <pre>
+	 * INT = [-]?[0-9]+
+	 * DOUBLE = {INT}((\.[0-9]+)?([eE][-+]?[0-9]+)?)
+	 * </pre>
+	 * An INT followed by an incomplete fraction or exponent is returned on its
+	 * own, the remaining characters are scanned as the next token.
+	 */
+	private int number() throws ParseException {
+		if (buf[pos] == '-') {
+			pos++;
+		}
+		if (digits() == 0) {
+			/* a lone minus sign */
+			pos = tokenStart;
+			throw new ParseException(position, ParseException.ERROR_UNEXPECTED_CHAR, Character.valueOf('-'));
+		}
+
+		boolean isDouble = false;
+		int length = pos - tokenStart;
+		if (peek() == '.') {
+			pos++;
+			if (digits() > 0) {
+				isDouble = true;
+				length = pos - tokenStart;
+			} else {
+				pos = tokenStart + length;
+			}
+		}
+		int c = peek();
+		if (c == 'e' || c == 'E') {
+			pos++;
+			c = peek();
+			if (c == '-' || c == '+') {
+				pos++;
+			}
+			if (digits() > 0) {
+				isDouble = true;
+				length = pos - tokenStart;
+			}
+		}
+		pos = tokenStart + length;
+
+		return isDouble ? TYPE_DOUBLE : TYPE_LONG;
+	}
+
+	int tokenOffset() {
+		return tokenStart;
+	}
+
+	RawJSON text(int offset) {
+		return new RawJSON(Arrays.copyOfRange(buf, offset, pos));
+	}
+
+	long longValue() {
+		return parseLong(tokenStart, pos);
+	}
+
+	double doubleValue() {
+		return parseDouble(buf, tokenStart, pos - tokenStart);
+	}
+
+	String numberText() {
+		return new String(buf, tokenStart, pos - tokenStart, ASCII);
+	}
+
+	/**
+	 * Skips a run of digits.
+	 *
+	 * @return the number of digits skipped
+	 */
+	private int digits() {
+		int p = pos;
+		int e = end;
+		byte[] b = buf;
+		while (p < e && b[p] >= '0' && b[p] <= '9') {
+			p++;
+		}
+		int count = p - pos;
+		pos = p;
+		return count;
+	}
+
+	private long parseLong(int start, int stop) {
+		int p = start;
+		boolean negative = buf[p] == '-';
+		if (negative) {
+			p++;
+		}
+		if (stop - p > 18) {
+			/* may overflow, let Long report it */
+			return Long.parseLong(new String(buf, start, stop - start, ASCII));
+		}
+		long value = 0;
+		while (p < stop) {
+			value = value * 10 + (buf[p++] - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Scans a string whose content starts at start.  The next index entry is
+	 * its closing quote.
+	 */
+	private int string(int start) {
+		int close;
+		boolean plain = false;
+		if (next < size) {
+			close = entries[next++];
+			if (close >= 0) {
+				plain = true;
+			} else {
+				close = -1 - close;
+			}
+		} else {
+			/* the input ends inside the string */
+			close = end;
+		}
+
+		if (plain) {
+			text.set(buf, start, close - start);
+			position = base + close;
+			pos = close + 1;
+			return TYPE_STRING;
+		}
+
+		int n = 0;
+		pos = start;
+		while (pos < close) {
+			if (n + 2 > chars.length) {
+				chars = Arrays.copyOf(chars, Math.max(2 * chars.length, close - pos + 2));
+			}
+			byte c = buf[pos];
+			if (c >= 0) {
+				if (c == '\\') {
+					if (pos + 1 == end) {
+						/* a lone backslash at the end of input */
+						break;
+					}
+					n = escape(n, close);
+				} else {
+					chars[n++] = (char) c;
+					pos++;
+				}
+			} else {
+				n = decode(n, close);
+			}
+		}
+		if (close == end) {
+			return endOfInput();
+		}
+		text.set(chars, 0, n);
+		position = base + close;
+		pos = close + 1;
+		return TYPE_STRING;
+	}
+
+	/**
+	 * Unescapes the escape sequence at pos into chars[n].  Unknown escape
+	 * sequences keep the backslash.
+	 *
+	 * @return the new length of chars
+	 */
+	private int escape(int n, int close) {
+		char ch;
+		switch (buf[pos + 1]) {
+		case '"':  ch = '"'; break;
+		case '\\': ch = '\\'; break;
+		case '/':  ch = '/'; break;
+		case 'b':  ch = '\b'; break;
+		case 'f':  ch = '\f'; break;
+		case 'n':  ch = '\n'; break;
+		case 'r':  ch = '\r'; break;
+		case 't':  ch = '\t'; break;
+		case 'u':
+			if (close - pos >= 6) {
+				int value = 0;
+				int i = 2;
+				for (; i < 6; i++) {
+					int digit = hex(buf[pos + i]);
+					if (digit < 0) {
+						break;
+					}
+					value = (value << 4) | digit;
+				}
+				if (i == 6) {
+					chars[n++] = (char) value;
+					pos += 6;
+					return n;
+				}
+			}
+			chars[n++] = '\\';
+			pos++;
+			return n;
+		default:
+			chars[n++] = '\\';
+			pos++;
+			return n;
+		}
+		chars[n++] = ch;
+		pos += 2;
+		return n;
+	}
+
+	/**
+	 * Decodes the UTF-8 sequence at pos into chars[n].  The sequence must end
+	 * before stop.
+	 *
+	 * @return the new length of chars
+	 */
+	private int decode(int n, int stop) {
+		int b0 = buf[pos] & 0xff;
+		int length;
+		int min;
+		int cp;
+		if ((b0 & 0xe0) == 0xc0) {
+			length = 2;
+			min = 0x80;
+			cp = b0 & 0x1f;
+		} else if ((b0 & 0xf0) == 0xe0) {
+			length = 3;
+			min = 0x800;
+			cp = b0 & 0x0f;
+		} else if ((b0 & 0xf8) == 0xf0) {
+			length = 4;
+			min = 0x10000;
+			cp = b0 & 0x07;
+		} else {
+			return malformed(n);
+		}
+		if (stop - pos < length) {
+			return malformed(n);
+		}
+		for (int i = 1; i < length; i++) {
+			int b = buf[pos + i];
+			if ((b & 0xc0) != 0x80) {
+				return malformed(n);
+			}
+			cp = (cp << 6) | (b & 0x3f);
+		}
+		if (cp < min || cp > Character.MAX_CODE_POINT
+				|| (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)) {
+			return malformed(n);
+		}
+		pos += length;
+		if (cp >= 0x10000) {
+			chars[n++] = Character.highSurrogate(cp);
+			chars[n++] = Character.lowSurrogate(cp);
+			base -= length - 2;
+		} else {
+			chars[n++] = (char) cp;
+			base -= length - 1;
+		}
+		return n;
+	}
+
+	private int malformed(int n) {
+		chars[n++] = REPLACEMENT_CHAR;
+		pos++;
+		return n;
+	}
+
+	/**
+	 * The input ended inside a string.  As with {@link Yylex}, this is
+	 * reported as the end of input.
+	 */
+	private int endOfInput() {
+		atEOF = true;
+		pos = end;
+		position = base + end;
+		return Yytoken.TYPE_EOF;
+	}
+
+}
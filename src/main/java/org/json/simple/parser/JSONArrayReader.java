@@ -0,0 +1,329 @@
+package org.json.simple.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the elements of a top-level JSON array one at a time, so that no more
+ * memory is needed than for the largest element, rather than for the whole
+ * array.
+ * <p>
+ * Elements can be read as objects, iterator style:
+ *
+ * <pre>
+ * JSONArrayReader reader = parser.streamArray(in);
+ * while (reader.hasNext()) {
+ * 	JSONObject element = (JSONObject) reader.next();
+ * 	...
+ * }
+ * </pre>
+ *
+ * or passed to a handler one at a time with {@link #next(ContentHandler)}.
+ * <p>
+ * A large file can be read by several threads with
+ * {@link #split(Path, int)}, which divides the elements into ranges that are
+ * read independently.
+ * <p>
+ * A reader created by a constructor or by split() owns its input and reads
+ * it in blocks; one from {@link JSONParser#streamArray(Reader)} reads as the
+ * parser is set to, see {@link JSONParser#setReadAhead(boolean)}.  Anything
+ * after the end of the array is not parsed, and is not read either unless
+ * the input is read in blocks.  After a ParseException the position in the
+ * input is undefined, and the reader should not be used any further.
+ *
+ * @see JSONParser#streamArray(Reader)
+ */
+public class JSONArrayReader implements Closeable {
+
+	private static final byte[] OPEN = { '[' };
+	private static final byte[] CLOSE = { ']' };
+
+	private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+	private final JSONParser parser;
+	private final Reader reader;
+	private final InputStream stream;
+	/* stream is a file, scanned as by JSONParser.parse(Path) */
+	private final boolean file;
+	private final ValueSplitter elements;
+	private final DefaultContentHandler values = new DefaultContentHandler();
+
+	/* the parse of the array has started */
+	private boolean started;
+
+	/* element read by hasNext() */
+	private boolean hasValue;
+	private Object value;
+
+	/**
+	 * @param in - the characters of the array.
+	 */
+	public JSONArrayReader(Reader in) {
+		this(newParser(), in, null, false);
+	}
+
+	/**
+	 * @param in - the UTF-8 encoded array.
+	 */
+	public JSONArrayReader(InputStream in) {
+		this(newParser(), null, in, false);
+	}
+
+	/**
+	 * Reads the array in a UTF-8 encoded file.  The file is memory mapped,
+	 * and closed by {@link #close()}.
+	 *
+	 * @param path
+	 * @throws IOException
+	 */
+	public JSONArrayReader(Path path) throws IOException {
+		this(newParser(), null, new MappedFileInputStream(path), true);
+	}
+
+	JSONArrayReader(JSONParser parser, Reader reader, InputStream stream, boolean file) {
+		this.parser = parser;
+		this.reader = reader;
+		this.stream = stream;
+		this.file = file;
+		this.elements = new ValueSplitter(parser, 1);
+	}
+
+	/**
+	 * @return a parser for input owned by the reader, which it reads in blocks.
+	 */
+	private static JSONParser newParser() {
+		JSONParser parser = new JSONParser();
+		parser.setReadAhead(true);
+		return parser;
+	}
+
+	/**
+	 * Divides the elements of the array in a UTF-8 encoded file into ranges
+	 * of about the same size, each read by its own reader.  Together, the
+	 * readers return the elements in the order of the list.
+	 * <p>
+	 * The range boundaries are found in one pass over the bytes of the file,
+	 * which only follows strings and nesting and is much cheaper than parsing.
+	 * Ranges end at the commas between elements, so an array without commas
+	 * is not divided.  Error positions reported by a reader are relative to
+	 * its range.
+	 *
+	 * @param path
+	 * @param parts - the number of ranges wanted.
+	 * @return at least one, at most parts readers.
+	 * @throws IOException
+	 */
+	public static List<JSONArrayReader> split(Path path, int parts) throws IOException {
+		if (parts < 1) {
+			throw new IllegalArgumentException("Number of parts: " + parts);
+		}
+		long[] cuts = cuts(path, parts);
+		List<JSONArrayReader> readers = new ArrayList<JSONArrayReader>(cuts.length + 1);
+		try {
+			long from = 0;
+			for (int i = 0; i <= cuts.length; i++) {
+				/* the first range has the opening bracket, the last the closing one */
+				long to = i < cuts.length ? cuts[i] : Long.MAX_VALUE;
+				InputStream in = new MappedFileInputStream(path, from, to);
+				if (i > 0) {
+					in = new SequenceInputStream(new ByteArrayInputStream(OPEN), in);
+				}
+				if (i < cuts.length) {
+					in = new SequenceInputStream(in, new ByteArrayInputStream(CLOSE));
+				}
+				readers.add(new JSONArrayReader(newParser(), null, in, true));
+				/* skip the comma */
+				from = to + 1;
+			}
+		} catch (IOException ie) {
+			for (JSONArrayReader reader : readers) {
+				reader.close();
+			}
+			throw ie;
+		}
+		return readers;
+	}
+
+	/**
+	 * Finds the commas between the elements of the top-level array at which
+	 * a file is divided.
+	 *
+	 * @return the file offsets of the commas, ascending.
+	 */
+	static long[] cuts(Path path, int parts) throws IOException {
+		long[] cuts = new long[parts - 1];
+		int n = 0;
+		MappedFileInputStream in = new MappedFileInputStream(path);
+		try {
+			long size = in.size();
+			long next = size / parts;
+			byte[] buf = new byte[SCAN_BUFFER_SIZE];
+			long pos = 0;
+			int depth = 0;
+			boolean inString = false;
+			boolean escaped = false;
+			int len;
+			scan:
+			while (n < cuts.length && (len = in.read(buf, 0, buf.length)) > 0) {
+				for (int i = 0; i < len; i++) {
+					byte c = buf[i];
+					if (inString) {
+						if (escaped) {
+							escaped = false;
+						} else if (c == '\\') {
+							escaped = true;
+						} else if (c == '"') {
+							inString = false;
+						}
+						continue;
+					}
+					switch (c) {
+					case '"':
+						inString = true;
+						break;
+					case '[':
+					case '{':
+						if (depth == 0 && c != '[') {
+							/* not an array, left to the parser to report */
+							break scan;
+						}
+						depth++;
+						break;
+					case ']':
+					case '}':
+						if (--depth <= 0) {
+							break scan;
+						}
+						break;
+					case ',':
+						if (depth == 1 && pos + i >= next) {
+							cuts[n++] = pos + i;
+							if (n == cuts.length) {
+								break scan;
+							}
+							next = (n + 1) * size / parts;
+						}
+						break;
+					case ' ':
+					case '\t':
+					case '\n':
+					case '\r':
+						break;
+					default:
+						if (depth == 0) {
+							break scan;
+						}
+						break;
+					}
+				}
+				pos += len;
+			}
+		} finally {
+			in.close();
+		}
+		return Arrays.copyOf(cuts, n);
+	}
+
+	/**
+	 * @return the parser reading the elements, for setting its options.
+	 */
+	public JSONParser getParser() {
+		return parser;
+	}
+
+	/**
+	 * Reads the next element and sends it to a handler, framed by
+	 * {@link ContentHandler#startJSON()} and {@link ContentHandler#endJSON()}.
+	 * If the handler stops parsing in the middle of an element, the next call
+	 * continues with the rest of that element.
+	 *
+	 * @param handler
+	 * @return false if there are no more elements.
+	 *
+	 * @throws IOException
+	 * @throws ParseException if the input is not an array, or not valid.
+	 */
+	public boolean next(ContentHandler handler) throws IOException, ParseException {
+		if (hasValue) {
+			throw new IllegalStateException("An element has been read by hasNext()");
+		}
+		if (elements.ended) {
+			return false;
+		}
+		boolean resume = started;
+		started = true;
+		elements.begin(handler);
+		try {
+			if (reader != null) {
+				parser.parse(reader, elements, resume);
+			} else if (file) {
+				parser.parseFile(stream, elements, resume);
+			} else {
+				parser.parse(stream, elements, resume);
+			}
+		} catch (ParseException pe) {
+			elements.open = false;
+			throw pe;
+		} catch (IOException ie) {
+			elements.open = false;
+			throw ie;
+		}
+		return elements.started;
+	}
+
+	/**
+	 * @return true if there is another element.
+	 *
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public boolean hasNext() throws IOException, ParseException {
+		if (!hasValue) {
+			if (next(values)) {
+				value = values.getContent();
+				hasValue = true;
+			}
+		}
+		return hasValue;
+	}
+
+	/**
+	 * @return the next element, as returned by {@link JSONParser#parse(Reader)}.
+	 *
+	 * @throws NoSuchElementException if there are no more elements.
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public Object next() throws IOException, ParseException {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Object result = value;
+		value = null;
+		hasValue = false;
+		return result;
+	}
+
+	/**
+	 * Closes the underlying input.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		if (reader != null) {
+			reader.close();
+		} else {
+			stream.close();
+		}
+	}
+
+}
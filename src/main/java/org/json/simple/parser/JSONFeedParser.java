@@ -0,0 +1,153 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Non-blocking parser for UTF-8 encoded JSON text that arrives in chunks, for
+ * example from a selector loop.
+ * <p>
+ * Input is pushed into the parser with {@link #feed(ByteBuffer)} instead of
+ * being pulled from a stream.  Each call parses as far as the input allows
+ * and sends the events to the handler, then returns; a token cut off by the
+ * end of a chunk is completed by the next one, whether it ends inside a
+ * string, a number, an escape sequence or a UTF-8 sequence.  The bytes of an
+ * incomplete token are kept by the parser, so the buffers passed in can be
+ * reused as soon as feed() returns.  {@link #endOfInput()} completes the text.
+ *
+ * <pre>
+ * DefaultContentHandler handler = new DefaultContentHandler();
+ * JSONFeedParser parser = new JSONFeedParser(handler);
+ * // for each chunk read from the channel
+ * parser.feed(buf);
+ * // when the channel reaches the end of the stream
+ * parser.endOfInput();
+ * Object value = handler.getContent();
+ * </pre>
+ *
+ * If the handler stops parsing by returning false, the next call to feed()
+ * continues where it stopped, unless the handler stopped at the end of the
+ * top-level value, as DefaultContentHandler does: then the rest of the input
+ * is ignored.  The events are the same as from
+ * {@link JSONParser#parse(java.io.InputStream, ContentHandler)}.
+ */
+public class JSONFeedParser {
+
+	private final JSONParser parser = new JSONParser();
+	private final Utf8Lexer lexer = new Utf8Lexer((InputStream) null);
+	private ContentHandler handler;
+	private boolean started;
+	private boolean ended;
+	private boolean finished;
+
+	/**
+	 * @param handler - receives the events of the text.
+	 */
+	public JSONFeedParser(ContentHandler handler) {
+		reset(handler);
+	}
+
+	/**
+	 * Starts a new text, dropping any input not yet parsed.
+	 *
+	 * @param handler - receives the events of the new text.
+	 */
+	public void reset(ContentHandler handler) {
+		this.handler = handler;
+		lexer.yyfeed();
+		started = false;
+		ended = false;
+		finished = false;
+	}
+
+	/**
+	 * Parses the remaining bytes of a buffer, as far as they form complete
+	 * tokens.  The position of the buffer is moved to its limit.
+	 *
+	 * @param buf
+	 * @throws IllegalStateException if endOfInput() has been called.
+	 * @throws ParseException
+	 */
+	public void feed(ByteBuffer buf) throws ParseException {
+		checkOpen();
+		if (finished) {
+			buf.position(buf.limit());
+			return;
+		}
+		lexer.feed(buf);
+		parse();
+	}
+
+	/**
+	 * Parses a range of bytes, as far as they form complete tokens.
+	 *
+	 * @param b
+	 * @param off
+	 * @param len
+	 * @throws IllegalStateException if endOfInput() has been called.
+	 * @throws ParseException
+	 */
+	public void feed(byte[] b, int off, int len) throws ParseException {
+		checkOpen();
+		if (finished) {
+			return;
+		}
+		lexer.feed(b, off, len);
+		parse();
+	}
+
+	/**
+	 * Signals the end of the text and parses the rest of the input.
+	 *
+	 * @throws ParseException
+	 */
+	public void endOfInput() throws ParseException {
+		checkOpen();
+		ended = true;
+		if (finished) {
+			return;
+		}
+		lexer.endFeed();
+		parse();
+	}
+
+	/**
+	 * @return The position of the beginning of the current token.
+	 */
+	public int getPosition() {
+		return parser.getPosition();
+	}
+
+	/**
+	 * Skips the value the handler is being notified of, see
+	 * {@link JSONParser#skipValue()}.  The skipped text may span several
+	 * chunks.
+	 *
+	 * @throws IllegalStateException if not called from a notification that
+	 *             starts a value.
+	 */
+	public void skipValue() {
+		parser.skipValue();
+	}
+
+	private void checkOpen() {
+		if (ended) {
+			throw new IllegalStateException("The end of input has been signalled");
+		}
+	}
+
+	private void parse() throws ParseException {
+		boolean isResume = started;
+		started = true;
+		try {
+			parser.parse(lexer, handler, isResume);
+			finished = parser.isValueFinished();
+		} catch (Utf8Lexer.NeedInput ni) {
+			// wait for the next chunk
+		} catch (IOException ie) {
+			throw new ParseException(-1, ParseException.ERROR_UNEXPECTED_EXCEPTION, ie);
+		}
+	}
+
+}
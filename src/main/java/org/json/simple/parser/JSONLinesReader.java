@@ -0,0 +1,165 @@
+package org.json.simple.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads newline-delimited JSON (JSON Lines, NDJSON): a stream of JSON texts,
+ * one per line.
+ * <p>
+ * All records are read with the same parser, which reads the input in
+ * blocks (see {@link JSONParser#setReadAhead(boolean)}) and carries the
+ * characters it read ahead over from one record to the next, so no parser,
+ * scanner or buffer is created per record, and the input is not read one
+ * character at a time.  The reader owns its input: what it reads ahead is
+ * not left for others.  As everywhere in this parser, white space
+ * between values is skipped, so blank lines are ignored.
+ * <p>
+ * Records can be read as objects, iterator style:
+ *
+ * <pre>
+ * JSONLinesReader reader = new JSONLinesReader(in);
+ * while (reader.hasNext()) {
+ * 	JSONObject record = (JSONObject) reader.next();
+ * 	...
+ * }
+ * </pre>
+ *
+ * or passed to a handler one at a time with {@link #next(ContentHandler)}.
+ * <p>
+ * After a ParseException the position in the stream is undefined, and the
+ * reader should not be used any further.
+ */
+public class JSONLinesReader implements Closeable {
+
+	private final JSONParser parser = new JSONParser();
+	private final Reader reader;
+	private final InputStream stream;
+	private final ValueSplitter record = new ValueSplitter(parser, 0);
+	private final DefaultContentHandler values = new DefaultContentHandler();
+
+	/* record read by hasNext() */
+	private boolean hasValue;
+	private Object value;
+
+	/**
+	 * @param in - the characters of the records.
+	 */
+	public JSONLinesReader(Reader in) {
+		this.reader = in;
+		this.stream = null;
+		parser.setReadAhead(true);
+	}
+
+	/**
+	 * @param in - the UTF-8 encoded records.
+	 */
+	public JSONLinesReader(InputStream in) {
+		this.reader = null;
+		this.stream = in;
+		parser.setReadAhead(true);
+	}
+
+	/**
+	 * Reads the records of a UTF-8 encoded file.  The file is memory mapped,
+	 * and closed by {@link #close()}.
+	 *
+	 * @param path
+	 * @throws IOException
+	 */
+	public JSONLinesReader(Path path) throws IOException {
+		this(new MappedFileInputStream(path));
+	}
+
+	/**
+	 * @return the parser reading the records, for setting its options.
+	 */
+	public JSONParser getParser() {
+		return parser;
+	}
+
+	/**
+	 * Reads the next record and sends it to a handler, framed by
+	 * {@link ContentHandler#startJSON()} and {@link ContentHandler#endJSON()}.
+	 * If the handler stops parsing in the middle of a record, the next call
+	 * continues with the rest of that record.
+	 *
+	 * @param handler
+	 * @return false if there are no more records.
+	 *
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public boolean next(ContentHandler handler) throws IOException, ParseException {
+		if (hasValue) {
+			throw new IllegalStateException("A record has been read by hasNext()");
+		}
+		boolean resume = record.open;
+		record.begin(handler);
+		try {
+			if (reader != null) {
+				parser.parse(reader, record, resume);
+			} else {
+				parser.parse(stream, record, resume);
+			}
+		} catch (ParseException pe) {
+			record.open = false;
+			throw pe;
+		} catch (IOException ie) {
+			record.open = false;
+			throw ie;
+		}
+		return record.started;
+	}
+
+	/**
+	 * @return true if there is another record.
+	 *
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public boolean hasNext() throws IOException, ParseException {
+		if (!hasValue) {
+			if (next(values)) {
+				value = values.getContent();
+				hasValue = true;
+			}
+		}
+		return hasValue;
+	}
+
+	/**
+	 * @return the next record, as returned by {@link JSONParser#parse(Reader)}.
+	 *
+	 * @throws NoSuchElementException if there are no more records.
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public Object next() throws IOException, ParseException {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Object result = value;
+		value = null;
+		hasValue = false;
+		return result;
+	}
+
+	/**
+	 * Closes the underlying input.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		if (reader != null) {
+			reader.close();
+		} else {
+			stream.close();
+		}
+	}
+
+}
@@ -0,0 +1,456 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Parses a single large UTF-8 encoded JSON text on several threads.
+ * <p>
+ * First the {@link StructuralIndex} of the text is built in parallel.  The
+ * text is split into byte ranges, but whether a range starts inside a string
+ * is only known once the ranges before it have been indexed.  So each range
+ * is indexed speculatively under both assumptions, outside and inside a
+ * string, at the same time.  Going through the ranges in order then picks
+ * the right index for each, which takes next to no time, and the picked
+ * indexes are joined into the index of the whole text.
+ * <p>
+ * To build a tree, the members of the top-level array or object are found in
+ * the index and divided among the threads, which build their values with
+ * the indexed scanner; the values are then put together in order.  Events
+ * for a {@link ContentHandler} are sent in order from the calling thread, so
+ * only the index is built in parallel for them.
+ * <p>
+ * The results are the same as from {@link JSONParser#parse(byte[])}.  A text
+ * that is not well-formed is parsed again on the calling thread before the
+ * error is reported, so errors are reported at the same position too.
+ * Small texts are parsed on the calling thread.
+ */
+public class JSONParallelParser {
+
+	/** texts are not split into ranges smaller than this */
+	static final int MIN_RANGE = 1 << 20;
+
+	/** tasks per thread for building values, to even out their sizes */
+	private static final int TASKS_PER_THREAD = 4;
+
+	private final ExecutorService executor;
+	private final int parallelism;
+	private final int minRange;
+
+	/**
+	 * @param executor - runs the parallel tasks.
+	 * @param parallelism - the number of threads to split the work among.
+	 */
+	public JSONParallelParser(ExecutorService executor, int parallelism) {
+		this(executor, parallelism, MIN_RANGE);
+	}
+
+	JSONParallelParser(ExecutorService executor, int parallelism, int minRange) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		}
+		this.executor = executor;
+		this.parallelism = parallelism;
+		this.minRange = minRange;
+	}
+
+	/**
+	 * @param b
+	 * @return Instance of the following: org.json.simple.JSONObject,
+	 *         org.json.simple.JSONArray, java.lang.String, java.lang.Number,
+	 *         java.lang.Boolean, null
+	 * @throws ParseException
+	 */
+	public Object parse(byte[] b) throws ParseException {
+		return parse(b, 0, b.length);
+	}
+
+	/**
+	 * @param b
+	 * @param off
+	 * @param len
+	 * @return Instance of the following: org.json.simple.JSONObject,
+	 *         org.json.simple.JSONArray, java.lang.String, java.lang.Number,
+	 *         java.lang.Boolean, null
+	 * @throws ParseException
+	 */
+	public Object parse(byte[] b, int off, int len) throws ParseException {
+		if (off < 0 || len < 0 || off > b.length - len) {
+			throw new IndexOutOfBoundsException();
+		}
+		StructuralIndex index = index(b, off, len);
+		Object[] tree = tree(b, index);
+		if (tree != null) {
+			return tree[0];
+		}
+		DefaultContentHandler handler = new DefaultContentHandler();
+		parse(b, off, len, index, handler);
+		return handler.getContent();
+	}
+
+	/**
+	 * Sends the events of a text to a handler, in order.
+	 *
+	 * @param b
+	 * @param off
+	 * @param len
+	 * @param contentHandler
+	 * @throws ParseException
+	 */
+	public void parse(byte[] b, int off, int len, ContentHandler contentHandler) throws ParseException {
+		if (off < 0 || len < 0 || off > b.length - len) {
+			throw new IndexOutOfBoundsException();
+		}
+		parse(b, off, len, index(b, off, len), contentHandler);
+	}
+
+	private void parse(byte[] b, int off, int len, StructuralIndex index, ContentHandler contentHandler) throws ParseException {
+		IndexedLexer lexer = new IndexedLexer();
+		lexer.yyreset(b, off, len, index.entries, 0, index.count);
+		try {
+			new JSONParser().parse(lexer, contentHandler, false);
+		} catch (IOException ie) {
+			throw new ParseException(-1, ParseException.ERROR_UNEXPECTED_EXCEPTION, ie);
+		}
+	}
+
+	/**
+	 * Builds the index of a text, in parallel if it is large enough.
+	 */
+	StructuralIndex index(final byte[] b, int off, int len) throws ParseException {
+		StructuralIndex index = new StructuralIndex();
+		int ranges = Math.min(parallelism, len / minRange);
+		if (ranges < 2) {
+			index.build(b, off, len);
+			return index;
+		}
+
+		/* index each range as if outside and as if inside a string */
+		List<Callable<StructuralIndex>> tasks = new ArrayList<Callable<StructuralIndex>>();
+		for (int r = 0; r < ranges; r++) {
+			final int from = off + (int) ((long) len * r / ranges);
+			final int to = off + (int) ((long) len * (r + 1) / ranges);
+			final int outside = StructuralIndex.startState(b, off, from, false);
+			final int inside = StructuralIndex.startState(b, off, from, true);
+			final boolean first = r == 0;
+			tasks.add(new Callable<StructuralIndex>() {
+				public StructuralIndex call() {
+					StructuralIndex part = new StructuralIndex();
+					part.scan(b, from, to, outside);
+					return part;
+				}
+			});
+			tasks.add(new Callable<StructuralIndex>() {
+				public StructuralIndex call() {
+					StructuralIndex part = new StructuralIndex();
+					if (!first) {
+						part.scan(b, from, to, inside);
+					}
+					return part;
+				}
+			});
+		}
+		List<StructuralIndex> parts = invokeAll(tasks);
+
+		/* pick the index of each range by the state the previous one ends in */
+		StructuralIndex[] picked = new StructuralIndex[ranges];
+		boolean inString = false;
+		boolean plain = true;
+		int total = 0;
+		for (int r = 0; r < ranges; r++) {
+			StructuralIndex part = parts.get(2 * r + (inString ? 1 : 0));
+			if (inString) {
+				/* the string continued from the ranges before */
+				plain &= part.headPlain;
+				if (part.headClosed) {
+					if (!plain && part.entries[0] >= 0) {
+						part.entries[0] = -1 - part.entries[0];
+					}
+					plain = part.tailPlain;
+				}
+			} else {
+				plain = part.tailPlain;
+			}
+			inString = part.tailOpen;
+			picked[r] = part;
+			total += part.count;
+		}
+
+		int[] entries = new int[Math.max(total, 1)];
+		int n = 0;
+		for (int r = 0; r < ranges; r++) {
+			System.arraycopy(picked[r].entries, 0, entries, n, picked[r].count);
+			n += picked[r].count;
+			picked[r] = null;
+		}
+		index.entries = entries;
+		index.count = total;
+		return index;
+	}
+
+	/**
+	 * Builds the value of a text whose top-level value is an array or an
+	 * object, by building the values of its members in parallel.
+	 *
+	 * @return the value as the only element, or null if the text is to be
+	 *         parsed on the calling thread.
+	 */
+	private Object[] tree(final byte[] b, StructuralIndex index) throws ParseException {
+		final int[] entries = index.entries;
+		if (parallelism < 2 || index.count == 0) {
+			return null;
+		}
+		byte open = b[entries[0]];
+		if (open != '[' && open != '{') {
+			return null;
+		}
+		final boolean object = open == '{';
+		final int[] members = members(b, entries, index.count, object);
+		if (members == null) {
+			return null;
+		}
+		int count = members.length / 3;
+		if (count < 2 || entries[members[members.length - 1]] - entries[members[1]] < minRange) {
+			return null;
+		}
+
+		/* split the members into tasks of about the same number of bytes */
+		int tasks = Math.min(count, parallelism * TASKS_PER_THREAD);
+		long first = entries[members[1]];
+		long size = entries[members[members.length - 1]] - first;
+		List<Callable<Object[]>> parts = new ArrayList<Callable<Object[]>>();
+		int m = 0;
+		for (int t = 1; t <= tasks && m < count; t++) {
+			final int from = m;
+			long limit = first + size * t / tasks;
+			while (m < count && (m == from || entries[members[3 * m + 1]] < limit)) {
+				m++;
+			}
+			final int to = t == tasks ? count : m;
+			m = to;
+			parts.add(new Callable<Object[]>() {
+				public Object[] call() {
+					return values(b, entries, members, from, to, object);
+				}
+			});
+		}
+		List<Object[]> values = invokeAll(parts);
+		for (int i = 0; i < values.size(); i++) {
+			if (values.get(i) == null) {
+				return null;
+			}
+		}
+
+		if (object) {
+			JSONObject obj = new JSONObject();
+			for (int i = 0; i < values.size(); i++) {
+				Object[] part = values.get(i);
+				for (int j = 0; j < part.length; j += 2) {
+					obj.put((String) part[j], part[j + 1]);
+				}
+			}
+			return new Object[] { obj };
+		}
+		JSONArray array = new JSONArray();
+		array.ensureCapacity(count);
+		for (int i = 0; i < values.size(); i++) {
+			array.addAll(Arrays.asList(values.get(i)));
+		}
+		return new Object[] { array };
+	}
+
+	/**
+	 * Finds the members of the top-level array or object, whose opening
+	 * bracket is the first index entry.
+	 *
+	 * @return three entries per member: the opening quote of its key (-1 in
+	 *         an array), the first entry of its value, and the entry
+	 *         following the value; or null if the members cannot be told
+	 *         apart this way.
+	 */
+	private static int[] members(byte[] b, int[] entries, int count, boolean object) {
+		Members members = new Members();
+		int depth = 0;
+		int key = -1;
+		int value = -1;
+		for (int i = 1; i < count; i++) {
+			byte c = b[entries[i]];
+			if (depth > 0) {
+				if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					depth--;
+				} else if (c == '"') {
+					/* skip the closing quote */
+					i++;
+				}
+				continue;
+			}
+
+			/* a token of the top-level container */
+			int token = i;
+			boolean valueStart = false;
+			boolean end = false;
+			switch (c) {
+			case ',':
+				end = true;
+				break;
+			case ':':
+				if (!object || key < 0 || value >= 0) {
+					return null;
+				}
+				break;
+			case '}':
+			case ']':
+				if (c != (object ? '}' : ']')) {
+					return null;
+				}
+				end = true;
+				break;
+			case '"':
+				if (object && (key < 0 || value >= 0)) {
+					/* a key, ending the last member if a comma was left out */
+					if (value >= 0) {
+						members.add(key, value, token);
+					}
+					key = token;
+					value = -1;
+				} else {
+					valueStart = true;
+				}
+				i++;
+				break;
+			default:
+				valueStart = true;
+				if (c == '{' || c == '[') {
+					depth++;
+				}
+				break;
+			}
+			if (valueStart) {
+				if (object && key < 0) {
+					return null;
+				}
+				if (value >= 0) {
+					if (object) {
+						return null;
+					}
+					/* an array element, a comma was left out */
+					members.add(-1, value, token);
+				}
+				value = token;
+			}
+			if (end) {
+				if (value >= 0) {
+					members.add(key, value, token);
+				} else if (key >= 0) {
+					return null;
+				}
+				key = value = -1;
+				if (c != ',') {
+					return Arrays.copyOf(members.members, members.size);
+				}
+			}
+		}
+		/* the top-level value is not closed */
+		return null;
+	}
+
+	private static class Members {
+
+		int[] members = new int[48];
+		int size;
+
+		void add(int key, int value, int end) {
+			if (size + 3 > members.length) {
+				members = Arrays.copyOf(members, 2 * members.length);
+			}
+			members[size++] = key;
+			members[size++] = value;
+			members[size++] = end;
+		}
+
+	}
+
+	/**
+	 * Builds the keys and values of some members.
+	 *
+	 * @return key and value for each member of an object, the value for each
+	 *         element of an array; or null if one of them is not well-formed.
+	 */
+	private static Object[] values(byte[] b, int[] entries, int[] members, int from, int to, boolean object) {
+		IndexedLexer lexer = new IndexedLexer();
+		JSONParser parser = new JSONParser();
+		DefaultContentHandler handler = new DefaultContentHandler();
+		Object[] values = new Object[(to - from) * (object ? 2 : 1)];
+		int n = 0;
+		try {
+			for (int m = from; m < to; m++) {
+				if (object) {
+					/* the key is a string token, from its opening to its closing quote */
+					int key = members[3 * m];
+					int close = entries[key + 1];
+					if (close < 0) {
+						close = -1 - close;
+					}
+					lexer.yyreset(b, entries[key], close + 1 - entries[key], entries, key, key + 2);
+					values[n++] = value(parser, lexer, handler);
+				}
+				int value = members[3 * m + 1];
+				int end = members[3 * m + 2];
+				lexer.yyreset(b, entries[value], entries[end] - entries[value], entries, value, end);
+				values[n++] = value(parser, lexer, handler);
+			}
+		} catch (ParseException pe) {
+			return null;
+		} catch (IOException ie) {
+			return null;
+		}
+		return values;
+	}
+
+	/**
+	 * Builds the value scanned by a lexer, which must be the only token or
+	 * container within its range.
+	 */
+	private static Object value(JSONParser parser, IndexedLexer lexer, DefaultContentHandler handler) throws ParseException, IOException {
+		parser.parse(lexer, handler, false);
+		if (handler.getContentSize() != 1 || lexer.next() != Yytoken.TYPE_EOF) {
+			throw new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN);
+		}
+		return handler.getContent();
+	}
+
+	private <T> List<T> invokeAll(List<Callable<T>> tasks) throws ParseException {
+		try {
+			List<Future<T>> futures = executor.invokeAll(tasks);
+			List<T> results = new ArrayList<T>(futures.size());
+			for (int i = 0; i < futures.size(); i++) {
+				results.add(futures.get(i).get());
+			}
+			return results;
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new ParseException(-1, ParseException.ERROR_UNEXPECTED_EXCEPTION, ie);
+		} catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new ParseException(-1, ParseException.ERROR_UNEXPECTED_EXCEPTION, cause);
+		}
+	}
+
+}
@@ -5,13 +5,23 @@
 package org.json.simple.parser;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.Deque;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.LazyNumber;
+import org.json.simple.RawJSON;
+import org.json.simple.ShapedJSONObject;
 
 /**
  * Parser for JSON text. Please note that JSONParser is NOT thread-safe.
@@ -27,12 +37,166 @@ public class JSONParser {
 	public static final int S_PASSED_PAIR_KEY = 4;
 	public static final int S_IN_PAIR_VALUE = 5;
 	public static final int S_END = 6;
+	public static final int S_IN_SKIP = 7;// a value the handler skips
 	public static final int S_IN_ERROR = -1;
 
+	/**
+	 * Scan character input with the scanner generated by JFlex from json.lex.
+	 * 
+	 * @see #setLexer(int)
+	 */
+	public static final int LEXER_JFLEX = 0;
+
+	/**
+	 * Scan character input with a hand-written scanner.  It produces the same
+	 * tokens as the JFlex scanner, but avoids the table lookups per character.
+	 * 
+	 * @see #setLexer(int)
+	 */
+	public static final int LEXER_HANDWRITTEN = 1;
+
+	/**
+	 * Scan byte arrays in two stages: first index the positions of all
+	 * structural characters, quotes and values, processing eight bytes at a
+	 * time, then produce the tokens by jumping from one index entry to the
+	 * next.  Best suited to large documents held in memory.  Character input
+	 * and streams are scanned as with LEXER_HANDWRITTEN.
+	 * 
+	 * @see #setLexer(int)
+	 */
+	public static final int LEXER_INDEXED = 2;
+
+	/**
+	 * Return integers as Long, or as BigInteger if they do not fit into a
+	 * long, and other numbers as Double.  The default.
+	 * 
+	 * @see #setNumberType(int)
+	 */
+	public static final int NUMBER_DOUBLE = 0;
+
+	/**
+	 * Return integers as with NUMBER_DOUBLE, and other numbers as BigDecimal,
+	 * so that no digit is lost.
+	 * 
+	 * @see #setNumberType(int)
+	 */
+	public static final int NUMBER_BIG_DECIMAL = 1;
+
+	/**
+	 * Return numbers as {@link LazyNumber}, which keeps the text of the number
+	 * and converts it on first use.
+	 * 
+	 * @see #setNumberType(int)
+	 */
+	public static final int NUMBER_LAZY = 2;
+
+	private static final int FILE_BUFFER_SIZE = 65536;
+
+	private static final byte[] NO_BYTES = new byte[0];
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
 	private Deque<Integer> handlerStatusStack;
-	private Yylex lexer = new Yylex((Reader) null);
+	private int lexerType = -1;
+	private ReaderLexer readerLexer;
+	// separate scanner for String input, so that parsing a String does not
+	// discard characters read ahead from a Reader that is parsed again later
+	private ReaderLexer stringLexer;
+	private Utf8Lexer streamLexer;
+	private Utf8Lexer bytesLexer;
+	private IndexedLexer indexedLexer;
+	private Utf8Lexer fileLexer;
+	private Lexer lexer;
+	// the lexer, if it can scan without boxing
+	private ValueLexer valueLexer;
+	private TypedContentHandler typedHandler;
+	private boolean readAhead = false;
+	private int objectType = DefaultContentHandler.OBJECT_HASHED;
+	private int arrayType = DefaultContentHandler.ARRAY_LIST;
+	private int numberType = NUMBER_DOUBLE;
+	private ShapedJSONObject.Shapes shapes;
+	// type of the current token, Yytoken.TYPE_* or ValueLexer.TYPE_* for values
+	private int type = Yytoken.TYPE_EOF;
+	// the current token, only boxed when needed
 	private Yytoken token = null;
 	private int status = S_INIT;
+	// parsing stopped because a fed lexer ran out of input
+	private boolean needInput;
+	// the handler is notified of a value it may skip, see skipValue()
+	private boolean skippable;
+	private boolean skip;
+	// the skipped value is captured, see captureValue()
+	private boolean capture;
+	// the offset of the captured container in the input, or -1 if its text is written from its tokens
+	private int captureOffset;
+	// the text written so far, and the number of containers open in it
+	private StringBuilder captureText;
+	private int captureDepth;
+	private RawJSON captured;
+
+	public JSONParser() {
+		this(LEXER_JFLEX);
+	}
+
+	/**
+	 * @param lexerType - the scanner to use, LEXER_JFLEX, LEXER_HANDWRITTEN or LEXER_INDEXED.
+	 * @see #setLexer(int)
+	 */
+	public JSONParser(int lexerType) {
+		setLexer(lexerType);
+	}
+
+	/**
+	 * Selects the scanner used for character input, that is for Reader,
+	 * String and CharSequence input.  With LEXER_INDEXED, byte arrays and
+	 * ByteBuffers backed by an array are scanned in two stages; other byte
+	 * input is always scanned as UTF-8 by a dedicated scanner.
+	 * All scanners produce the same results, so they can be swapped freely;
+	 * characters read ahead from a Reader by the previous scanner are dropped,
+	 * though.
+	 * 
+	 * @param lexerType - LEXER_JFLEX, LEXER_HANDWRITTEN or LEXER_INDEXED.
+	 */
+	public void setLexer(int lexerType) {
+		checkLexerType(lexerType);
+		if (lexerType != this.lexerType) {
+			this.lexerType = lexerType;
+			/* created by the first parse that needs them */
+			readerLexer = null;
+			stringLexer = null;
+			lexer = null;
+			reset();
+		}
+	}
+
+	static void checkLexerType(int lexerType) {
+		if (lexerType != LEXER_JFLEX && lexerType != LEXER_HANDWRITTEN && lexerType != LEXER_INDEXED) {
+			throw new IllegalArgumentException("Unknown lexer type: " + lexerType);
+		}
+	}
+
+	/**
+	 * @return the scanner used for character input.
+	 * @see #setLexer(int)
+	 */
+	public int getLexer() {
+		return lexerType;
+	}
+
+	/**
+	 * @param block - whether to read in blocks: only when the reader belongs
+	 *            to the parser, or the caller asked for read-ahead.
+	 */
+	private ReaderLexer newReaderLexer(boolean block) {
+		ReaderLexer readerLexer;
+		if (lexerType == LEXER_JFLEX) {
+			readerLexer = new Yylex((Reader) null);
+		} else {
+			readerLexer = new CharLexer((Reader) null);
+		}
+		readerLexer.setBlockRefill(block);
+		return readerLexer;
+	}
 
 	private int peekStatus(Deque<Integer> statusStack) {
 		if (statusStack.size() == 0)
@@ -50,6 +214,11 @@ public class JSONParser {
 		token = null;
 		status = S_INIT;
 		handlerStatusStack = null;
+		needInput = false;
+		skippable = skip = false;
+		capture = false;
+		captureText = null;
+		captured = null;
 	}
 
 	/**
@@ -61,15 +230,285 @@ public class JSONParser {
 	 * @throws ParseException
 	 */
 	public void reset(Reader in) {
-		lexer.yyreset(in);
+		if (readerLexer == null) {
+			readerLexer = newReaderLexer(readAhead);
+		}
+		lexer = readerLexer;
+		readerLexer.yyreset(in);
 		reset();
 	}
 
+	/**
+	 * Lets go of the input of the last parse, so that a pooled parser does
+	 * not keep it reachable.  Characters read ahead are dropped.
+	 */
+	void detach() {
+		if (readerLexer != null) {
+			readerLexer.yyreset((Reader) null);
+		}
+		if (stringLexer != null) {
+			stringLexer.yyreset((Reader) null);
+		}
+		if (streamLexer != null) {
+			streamLexer.yyreset((InputStream) null);
+		}
+		if (bytesLexer != null) {
+			bytesLexer.yyreset(NO_BYTES, 0, 0);
+		}
+		if (indexedLexer != null) {
+			indexedLexer.yyreset(NO_BYTES, 0, 0);
+		}
+		if (fileLexer != null) {
+			fileLexer.yyreset((InputStream) null);
+		}
+		lexer = null;
+		valueLexer = null;
+		typedHandler = null;
+		shapes = null;
+		reset();
+	}
+
+	/**
+	 * Shrinks the buffers of the scanners that have grown larger than
+	 * maxSize back to their initial size.  Called after {@link #detach()}.
+	 *
+	 * @param maxSize - the largest length of a grown buffer that is kept.
+	 */
+	void trimBuffers(int maxSize) {
+		Lexer[] lexers = lexers();
+		for (int i = 0; i < lexers.length; i++) {
+			if (lexers[i] != null) {
+				lexers[i].trimBuffers(maxSize);
+			}
+		}
+	}
+
+	/**
+	 * @return the length of the largest buffer held by the scanners.
+	 */
+	int bufferSize() {
+		int size = 0;
+		Lexer[] lexers = lexers();
+		for (int i = 0; i < lexers.length; i++) {
+			if (lexers[i] != null) {
+				size = Math.max(size, lexers[i].bufferSize());
+			}
+		}
+		return size;
+	}
+
+	private Lexer[] lexers() {
+		return new Lexer[] { readerLexer, stringLexer, streamLexer, bytesLexer, indexedLexer, fileLexer };
+	}
+
+	/**
+	 * @return true if the top-level value has been parsed, so that only the
+	 *         end of input may follow.
+	 */
+	boolean isValueFinished() {
+		return status == S_IN_FINISHED_VALUE || status == S_END;
+	}
+
+	/**
+	 * A reader over a String passed to the parser, which nobody else reads,
+	 * so it is read in blocks.
+	 */
+	private static class OwnedStringReader extends StringReader {
+
+		OwnedStringReader(String s) {
+			super(s);
+		}
+
+	}
+
+	private void resetString(Reader in) {
+		if (stringLexer == null) {
+			stringLexer = newReaderLexer(true);
+		}
+		lexer = stringLexer;
+		stringLexer.yyreset(in);
+		reset();
+	}
+
+	private void reset(CharSequence s, int off, int len) {
+		if (s instanceof CharBuffer && ((CharBuffer) s).hasArray()) {
+			CharBuffer buf = (CharBuffer) s;
+			if (off < 0 || len < 0 || off > buf.remaining() - len) {
+				throw new IndexOutOfBoundsException();
+			}
+			if (stringLexer == null) {
+				stringLexer = newReaderLexer(true);
+			}
+			lexer = stringLexer;
+			stringLexer.yyreset(buf.array(), buf.arrayOffset() + buf.position() + off, len);
+			reset();
+		} else {
+			resetString(new CharSequenceReader(s, off, len));
+		}
+	}
+
+	private void reset(InputStream in) {
+		if (streamLexer == null) {
+			streamLexer = new Utf8Lexer((InputStream) null);
+			streamLexer.setBlockRefill(readAhead);
+		}
+		lexer = streamLexer;
+		streamLexer.yyreset(in);
+		reset();
+	}
+
+	private void reset(ByteBuffer buf) {
+		if (buf.hasArray()) {
+			reset(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+		} else {
+			if (bytesLexer == null) {
+				bytesLexer = new Utf8Lexer((InputStream) null);
+			}
+			bytesLexer.yyreset(new ByteBufferInputStream(buf));
+			lexer = bytesLexer;
+			reset();
+		}
+	}
+
+	private void reset(byte[] b, int off, int len) {
+		if (lexerType == LEXER_INDEXED) {
+			if (indexedLexer == null) {
+				indexedLexer = new IndexedLexer();
+			}
+			indexedLexer.yyreset(b, off, len);
+			lexer = indexedLexer;
+			reset();
+			return;
+		}
+		if (bytesLexer == null) {
+			bytesLexer = new Utf8Lexer(b, off, len);
+		} else {
+			bytesLexer.yyreset(b, off, len);
+		}
+		lexer = bytesLexer;
+		reset();
+	}
+
+	/**
+	 * Controls whether the parser reads ahead from a Reader in blocks or one
+	 * character at a time (the default).  The same applies to an InputStream,
+	 * which is read in blocks or byte by byte.  Input the parser reads on its
+	 * own, that is Strings, CharSequences, byte arrays, ByteBuffers and
+	 * files, is always read in blocks.
+	 * <p>
+	 * When reading ahead, characters following the end of a JSON value may be
+	 * consumed from the Reader.  They are kept by this parser and used when
+	 * the same Reader is parsed again by it, so several values can be read
+	 * from one stream with consecutive calls to {@link #parse(Reader)}.
+	 * Leave read-ahead off if the Reader is also read by other code, or by
+	 * another parser, after parsing.
+	 * 
+	 * @param readAhead - true to read in blocks, false to read character by character.
+	 */
+	public void setReadAhead(boolean readAhead) {
+		this.readAhead = readAhead;
+		if (readerLexer != null) {
+			readerLexer.setBlockRefill(readAhead);
+		}
+		if (streamLexer != null) {
+			streamLexer.setBlockRefill(readAhead);
+		}
+	}
+
+	/**
+	 * @return true if the parser reads ahead from a Reader in blocks.
+	 * @see #setReadAhead(boolean)
+	 */
+	public boolean isReadAhead() {
+		return readAhead;
+	}
+
+	/**
+	 * Selects the class of the objects built by the parse methods that
+	 * return a value.  With OBJECT_SHAPED, the objects of all the texts the
+	 * parser reads share their shapes.
+	 *
+	 * @param objectType - DefaultContentHandler.OBJECT_HASHED, OBJECT_COMPACT or OBJECT_SHAPED.
+	 * @see DefaultContentHandler#setObjectType(int)
+	 */
+	public void setObjectType(int objectType) {
+		DefaultContentHandler.checkObjectType(objectType);
+		this.objectType = objectType;
+	}
+
+	/**
+	 * @return the class of the objects built by the parse methods.
+	 * @see #setObjectType(int)
+	 */
+	public int getObjectType() {
+		return objectType;
+	}
+
+	/**
+	 * Selects the class of the arrays built by the parse methods that
+	 * return a value.
+	 *
+	 * @param arrayType - DefaultContentHandler.ARRAY_LIST or ARRAY_PRIMITIVE.
+	 * @see DefaultContentHandler#setArrayType(int)
+	 */
+	public void setArrayType(int arrayType) {
+		DefaultContentHandler.checkArrayType(arrayType);
+		this.arrayType = arrayType;
+	}
+
+	/**
+	 * @return the class of the arrays built by the parse methods.
+	 * @see #setArrayType(int)
+	 */
+	public int getArrayType() {
+		return arrayType;
+	}
+
+	/**
+	 * Selects the class of the numbers passed to
+	 * {@link ContentHandler#primitive(Object)} and returned by the parse
+	 * methods.  With NUMBER_BIG_DECIMAL or NUMBER_LAZY, a TypedContentHandler
+	 * receives numbers through primitive(Object) as well, instead of
+	 * longValue() and doubleValue().
+	 * <p>
+	 * With NUMBER_LAZY, a number costs a copy of its text until it is used,
+	 * and it is written out again as it was read.
+	 *
+	 * @param numberType - NUMBER_DOUBLE, NUMBER_BIG_DECIMAL or NUMBER_LAZY.
+	 */
+	public void setNumberType(int numberType) {
+		if (numberType != NUMBER_DOUBLE && numberType != NUMBER_BIG_DECIMAL && numberType != NUMBER_LAZY) {
+			throw new IllegalArgumentException("Unknown number type: " + numberType);
+		}
+		this.numberType = numberType;
+	}
+
+	/**
+	 * @return the class of the numbers.
+	 * @see #setNumberType(int)
+	 */
+	public int getNumberType() {
+		return numberType;
+	}
+
+	private DefaultContentHandler newHandler() {
+		DefaultContentHandler handler = new DefaultContentHandler();
+		handler.setObjectType(objectType);
+		handler.setArrayType(arrayType);
+		if (objectType == DefaultContentHandler.OBJECT_SHAPED) {
+			if (shapes == null) {
+				shapes = new ShapedJSONObject.Shapes();
+			}
+			handler.shapes = shapes;
+		}
+		return handler;
+	}
+
 	/**
 	 * @return The position of the beginning of the current token.
 	 */
 	public int getPosition() {
-		return lexer.getPosition();
+		return lexer != null ? lexer.getPosition() : 0;
 	}
 
 	/**
@@ -86,7 +525,7 @@ public class JSONParser {
 	 * @throws ParseException
 	 */
 	public Object parse(String s) throws ParseException {
-		DefaultContentHandler handler = new DefaultContentHandler();
+		DefaultContentHandler handler = newHandler();
 		parse(s, handler);
 		return handler.getContent();
 	}
@@ -134,7 +573,7 @@ public class JSONParser {
 	 * @throws ParseException
 	 */
 	public void parse(String s, ContentHandler handler) throws ParseException {
-		StringReader in = new StringReader(s);
+		StringReader in = new OwnedStringReader(s);
 		try {
 			parse(in, handler);
 		} catch (IOException ie) {
@@ -155,7 +594,7 @@ public class JSONParser {
 	 * @throws ParseException
 	 */
 	public Object parse(Reader in) throws IOException, ParseException {
-		DefaultContentHandler handler = new DefaultContentHandler();
+		DefaultContentHandler handler = newHandler();
 		parse(in, handler);
 		return handler.getContent();
 	}
@@ -204,10 +643,318 @@ public class JSONParser {
 	}
 	
 	private void nextToken() throws ParseException, IOException {
+		if (valueLexer != null) {
+			type = valueLexer.next();
+			token = null;
+			return;
+		}
 		token = lexer.yylex();
 		if (token == null) {
 			token = new Yytoken(Yytoken.TYPE_EOF, null);
 		}
+		type = token.type;
+		if (type == Yytoken.TYPE_VALUE) {
+			Object value = token.value;
+			if (value instanceof String) {
+				type = ValueLexer.TYPE_STRING;
+			} else if (value instanceof Long || value instanceof BigInteger) {
+				type = ValueLexer.TYPE_LONG;
+			} else if (value instanceof LazyNumber) {
+				type = ((LazyNumber) value).isIntegral() ? ValueLexer.TYPE_LONG : ValueLexer.TYPE_DOUBLE;
+			} else if (value instanceof Number) {
+				type = ValueLexer.TYPE_DOUBLE;
+			} else if (value instanceof Boolean) {
+				type = ((Boolean) value).booleanValue() ? ValueLexer.TYPE_TRUE : ValueLexer.TYPE_FALSE;
+			} else {
+				type = ValueLexer.TYPE_NULL;
+			}
+		}
+	}
+
+	/**
+	 * @return the type of the current token, with all values as Yytoken.TYPE_VALUE.
+	 */
+	private int tokenType() {
+		return type >= ValueLexer.TYPE_STRING ? Yytoken.TYPE_VALUE : type;
+	}
+
+	/**
+	 * @return the current token, boxed.
+	 */
+	private Yytoken token() {
+		if (token == null) {
+			token = valueLexer.toYytoken(type);
+		}
+		return token;
+	}
+
+	private String stringValue() {
+		return valueLexer != null ? valueLexer.stringValue() : (String) token.value;
+	}
+
+	/**
+	 * Passes the current value token to the handler, unboxed if it is a
+	 * TypedContentHandler.
+	 */
+	private boolean primitive(ContentHandler contentHandler) throws ParseException, IOException {
+		if (typedHandler == null) {
+			return contentHandler.primitive(token().value);
+		}
+		switch (type) {
+		case ValueLexer.TYPE_STRING:
+			return typedHandler.stringValue(valueLexer != null ? valueLexer.charSequenceValue() : (String) token.value);
+		case ValueLexer.TYPE_LONG:
+			if (numberType != NUMBER_DOUBLE) {
+				return contentHandler.primitive(token().value);
+			}
+			if (valueLexer == null) {
+				if (token.value instanceof BigInteger) {
+					return contentHandler.primitive(token.value);
+				}
+				return typedHandler.longValue(((Number) token.value).longValue());
+			}
+			long value;
+			try {
+				value = valueLexer.longValue();
+			} catch (NumberFormatException e) {
+				/* too large for a long, a BigInteger */
+				return contentHandler.primitive(token().value);
+			}
+			return typedHandler.longValue(value);
+		case ValueLexer.TYPE_DOUBLE:
+			if (numberType != NUMBER_DOUBLE) {
+				return contentHandler.primitive(token().value);
+			}
+			return typedHandler.doubleValue(valueLexer != null ? valueLexer.doubleValue() : ((Number) token.value).doubleValue());
+		case ValueLexer.TYPE_TRUE:
+			return typedHandler.booleanValue(true);
+		case ValueLexer.TYPE_FALSE:
+			return typedHandler.booleanValue(false);
+		default:
+			return typedHandler.nullValue();
+		}
+	}
+
+	/*
+	 * The notifications after which the handler may skip the value.
+	 */
+
+	private boolean startObject(ContentHandler contentHandler) throws ParseException, IOException {
+		skippable = true;
+		return skipRequested(contentHandler.startObject());
+	}
+
+	private boolean startArray(ContentHandler contentHandler) throws ParseException, IOException {
+		skippable = true;
+		return skipRequested(contentHandler.startArray());
+	}
+
+	private boolean startObjectEntry(ContentHandler contentHandler, String key) throws ParseException, IOException {
+		skippable = true;
+		return skipRequested(contentHandler.startObjectEntry(key));
+	}
+
+	private boolean skipRequested(boolean result) {
+		skippable = false;
+		if (skip) {
+			skip = false;
+			status = S_IN_SKIP;
+		}
+		return result;
+	}
+
+	/**
+	 * Skips the value the handler is being notified of.  It may be called
+	 * from {@link ContentHandler#startObjectEntry(String)}, which skips the
+	 * value of the entry, so that endObjectEntry() is the next notification;
+	 * and from {@link ContentHandler#startObject()} or
+	 * {@link ContentHandler#startArray()}, which skips the content of the
+	 * object or array, so that endObject() or endArray() is next.
+	 * <p>
+	 * The hand-written scanners fast-forward over the skipped text by
+	 * matching brackets and quotes only: strings are not unescaped, numbers
+	 * not converted and no tokens created, and nothing in between is checked
+	 * for errors.  The JFlex scanner still scans the skipped tokens, without
+	 * passing them to the handler.
+	 * <p>
+	 * If the handler also stops parsing, the value is skipped when parsing
+	 * is resumed.
+	 * 
+	 * @throws IllegalStateException if not called from one of these notifications.
+	 */
+	public void skipValue() {
+		if (!skippable) {
+			throw new IllegalStateException("No value to skip");
+		}
+		skip = true;
+	}
+
+	/**
+	 * Skips the value the handler is being notified of, like
+	 * {@link #skipValue()}, but keeps its JSON text: during the notification
+	 * that follows the skipped value, that is endObjectEntry(), endObject()
+	 * or endArray(), {@link #getCapturedValue()} returns it.  When called
+	 * from startObject() or startArray(), the text is that of the whole
+	 * object or array, brackets included.
+	 * <p>
+	 * If the input is held in an array, as for byte arrays, and for
+	 * CharBuffers backed by an array with LEXER_HANDWRITTEN, the text is
+	 * copied from the input as it is.  Otherwise the value is scanned into
+	 * tokens and its text is written from them, so it may differ from the
+	 * input in white space and in the way strings and numbers are written.
+	 * 
+	 * @throws IllegalStateException if not called from one of these notifications.
+	 * @see RawContentHandler
+	 */
+	public void captureValue() {
+		skipValue();
+		capture = true;
+		captured = null;
+		captureOffset = valueLexer != null ? valueLexer.tokenOffset() : -1;
+		captureText = null;
+		if (captureOffset < 0 && (type == Yytoken.TYPE_LEFT_BRACE || type == Yytoken.TYPE_LEFT_SQUARE)) {
+			captureText = new StringBuilder(type == Yytoken.TYPE_LEFT_BRACE ? "{" : "[");
+			captureDepth = 1;
+		}
+	}
+
+	/**
+	 * @return the text of the last value skipped by {@link #captureValue()},
+	 *         or null if it has not been read yet.
+	 */
+	public RawJSON getCapturedValue() {
+		return captured;
+	}
+
+	/**
+	 * Reads the next token like skipToken(), and captures the value read.
+	 */
+	private void captureToken() throws ParseException, IOException {
+		if (captureOffset >= 0) {
+			skipToken();
+			if (type >= ValueLexer.TYPE_STRING) {
+				captured = valueLexer.text(valueLexer.tokenOffset());
+				capture = false;
+			}
+			return;
+		}
+		if (captureText == null) {
+			nextToken();
+			if (type >= ValueLexer.TYPE_STRING) {
+				captured = new RawJSON(JSONValue.toJSONString(token().value));
+				capture = false;
+				return;
+			}
+			if (type != Yytoken.TYPE_LEFT_BRACE && type != Yytoken.TYPE_LEFT_SQUARE) {
+				return;
+			}
+			captureText = new StringBuilder(type == Yytoken.TYPE_LEFT_BRACE ? "{" : "[");
+			captureDepth = 1;
+		}
+		int open = captureText.charAt(0);
+		captureTokens();
+		type = ValueLexer.skipped(open, type);
+		token = null;
+	}
+
+	/**
+	 * Fast-forwards over the rest of the container like skipContainer(),
+	 * and captures the container.
+	 */
+	private void captureContainer() throws ParseException, IOException {
+		if (captureOffset >= 0) {
+			skipContainer();
+			captured = valueLexer.text(captureOffset);
+			capture = false;
+			return;
+		}
+		captureTokens();
+	}
+
+	/**
+	 * Writes out the tokens of the captured container until it is closed.
+	 */
+	private void captureTokens() throws ParseException, IOException {
+		StringBuilder sb = captureText;
+		do {
+			nextToken();
+			switch (type) {
+			case Yytoken.TYPE_EOF:
+				return;
+			case Yytoken.TYPE_LEFT_BRACE:
+				captureDepth++;
+				sb.append('{');
+				break;
+			case Yytoken.TYPE_LEFT_SQUARE:
+				captureDepth++;
+				sb.append('[');
+				break;
+			case Yytoken.TYPE_RIGHT_BRACE:
+				captureDepth--;
+				sb.append('}');
+				break;
+			case Yytoken.TYPE_RIGHT_SQUARE:
+				captureDepth--;
+				sb.append(']');
+				break;
+			case Yytoken.TYPE_COMMA:
+				sb.append(',');
+				break;
+			case Yytoken.TYPE_COLON:
+				sb.append(':');
+				break;
+			default:
+				sb.append(JSONValue.toJSONString(token().value));
+			}
+		} while (captureDepth > 0);
+		captured = new RawJSON(sb.toString());
+		captureText = null;
+		capture = false;
+	}
+
+	/**
+	 * Reads the next token like nextToken(), but a string or container is
+	 * fast-forwarded over, and counts as one value.
+	 */
+	private void skipToken() throws ParseException, IOException {
+		if (valueLexer != null) {
+			type = valueLexer.skipValue();
+			token = null;
+			return;
+		}
+		nextToken();
+		if (type == Yytoken.TYPE_LEFT_BRACE || type == Yytoken.TYPE_LEFT_SQUARE) {
+			int open = type == Yytoken.TYPE_LEFT_BRACE ? '{' : '[';
+			skipContainer();
+			type = ValueLexer.skipped(open, type);
+		}
+	}
+
+	/**
+	 * Fast-forwards over the rest of the container whose opening bracket was
+	 * the last token.  The current token is then its closing bracket, or the
+	 * end of input.
+	 */
+	private void skipContainer() throws ParseException, IOException {
+		if (valueLexer != null) {
+			type = valueLexer.skipContainer();
+			token = null;
+			return;
+		}
+		int depth = 1;
+		do {
+			nextToken();
+			switch (type) {
+			case Yytoken.TYPE_LEFT_BRACE:
+			case Yytoken.TYPE_LEFT_SQUARE:
+				depth++;
+				break;
+			case Yytoken.TYPE_RIGHT_BRACE:
+			case Yytoken.TYPE_RIGHT_SQUARE:
+				depth--;
+				break;
+			}
+		} while (depth > 0 && type != Yytoken.TYPE_EOF);
 	}
 
 	/**
@@ -221,7 +968,7 @@ public class JSONParser {
 	 * @throws ParseException
 	 */
 	public void parse(String s, ContentHandler contentHandler, boolean resume) throws ParseException {
-		StringReader in = new StringReader(s);
+		StringReader in = new OwnedStringReader(s);
 		try {
 			parse(in, contentHandler, resume);
 		} catch (IOException ie) {
@@ -232,6 +979,403 @@ public class JSONParser {
 		}
 	}
 	
+	/**
+	 * Parse UTF-8 encoded JSON text into java object.
+	 * 
+	 * @param b
+	 * @return Instance of the following: org.json.simple.JSONObject,
+	 *         org.json.simple.JSONArray, java.lang.String, java.lang.Number,
+	 *         java.lang.Boolean, null
+	 * 
+	 * @throws ParseException
+	 */
+	public Object parse(byte[] b) throws ParseException {
+		DefaultContentHandler handler = newHandler();
+		parse(b, 0, b.length, handler);
+		return handler.getContent();
+	}
+
+	/**
+	 * Parse UTF-8 encoded JSON text into java object.
+	 * 
+	 * @param b
+	 * @param contentHandler handler for constructing JSON objects
+	 * 
+	 * @throws ParseException
+	 */
+	public void parse(byte[] b, ContentHandler contentHandler) throws ParseException {
+		parse(b, 0, b.length, contentHandler);
+	}
+
+	/**
+	 * Parse UTF-8 encoded JSON text from a range of a byte array.  The bytes
+	 * are scanned in place, without being copied.
+	 * 
+	 * @param b
+	 * @param off offset of the JSON text in b
+	 * @param len length of the JSON text in bytes
+	 * @param contentHandler handler for constructing JSON objects
+	 * 
+	 * @throws ParseException
+	 */
+	public void parse(byte[] b, int off, int len, ContentHandler contentHandler) throws ParseException {
+		reset(b, off, len);
+		try {
+			parse(contentHandler, false);
+		} catch (IOException ie) {
+			throw new ParseException(-1, ParseException.ERROR_UNEXPECTED_EXCEPTION, ie);
+		}
+	}
+
+	/**
+	 * Parse UTF-8 encoded JSON text into java object.
+	 * 
+	 * @param b
+	 * @param contentHandler handler for constructing JSON objects
+	 * @param isResume resume from previous byte array, b is ignored
+	 * 
+	 * @see #parse(Reader, ContentHandler, boolean)
+	 * @throws ParseException
+	 */
+	public void parse(byte[] b, ContentHandler contentHandler, boolean isResume) throws ParseException {
+		if (!isResume || handlerStatusStack == null) {
+			reset(b, 0, b.length);
+		}
+		try {
+			parse(contentHandler, isResume);
+		} catch (IOException ie) {
+			throw new ParseException(-1, ParseException.ERROR_UNEXPECTED_EXCEPTION, ie);
+		}
+	}
+
+	/**
+	 * Parse UTF-8 encoded JSON text lazily: the text is checked and the
+	 * positions of its values are recorded, but no value is built until it
+	 * is read through the returned {@link LazyJSON}.  The text is scanned in
+	 * two stages, as with LEXER_INDEXED, whatever the scanner selected.
+	 * <p>
+	 * The LazyJSON refers to b, which must not be modified while it is used.
+	 * 
+	 * @param b
+	 * @return the value of the text; an empty text is read as null.
+	 * @throws ParseException if the text is not valid, as for {@link #parse(byte[])}
+	 */
+	public LazyJSON parseLazy(byte[] b) throws ParseException {
+		return parseLazy(b, 0, b.length);
+	}
+
+	/**
+	 * Parse UTF-8 encoded JSON text from a range of a byte array lazily.
+	 * 
+	 * @param b
+	 * @param off offset of the JSON text in b
+	 * @param len length of the JSON text in bytes
+	 * @return the value of the text
+	 * @throws ParseException
+	 * @see #parseLazy(byte[])
+	 */
+	public LazyJSON parseLazy(byte[] b, int off, int len) throws ParseException {
+		if (indexedLexer == null) {
+			indexedLexer = new IndexedLexer();
+		}
+		indexedLexer.yyreset(b, off, len);
+		lexer = indexedLexer;
+		reset();
+		Tape tape = new Tape(b, off, len);
+		try {
+			tape.build(indexedLexer);
+		} catch (ParseException pe) {
+			status = S_IN_ERROR;
+			throw pe;
+		}
+		status = S_END;
+		return new LazyJSON(tape, 0);
+	}
+
+	/**
+	 * Parse JSON text lazily, from its UTF-8 encoding.
+	 * 
+	 * @param s
+	 * @return the value of the text
+	 * @throws ParseException
+	 * @see #parseLazy(byte[])
+	 */
+	public LazyJSON parseLazy(String s) throws ParseException {
+		return parseLazy(s.getBytes(UTF_8));
+	}
+
+	/**
+	 * Parse UTF-8 encoded JSON text into java object from the input stream.
+	 * Reads until end of the next JSON object, array, or value.
+	 * <p>
+	 * The bytes are decoded by the parser itself, so there is no need to wrap
+	 * the stream in an InputStreamReader.
+	 * 
+	 * @param in
+	 * @return Instance of the following: org.json.simple.JSONObject,
+	 *         org.json.simple.JSONArray, java.lang.String, java.lang.Number,
+	 *         java.lang.Boolean, null
+	 * 
+	 * @see #setReadAhead(boolean)
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public Object parse(InputStream in) throws IOException, ParseException {
+		DefaultContentHandler handler = newHandler();
+		parse(in, handler, false);
+		return handler.getContent();
+	}
+
+	/**
+	 * Parse UTF-8 encoded JSON text into java object from the input stream.
+	 * 
+	 * @param in
+	 * @param contentHandler handler for constructing JSON objects
+	 * 
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public void parse(InputStream in, ContentHandler contentHandler) throws IOException, ParseException {
+		parse(in, contentHandler, false);
+	}
+
+	/**
+	 * Stream processing of UTF-8 encoded JSON text.
+	 * 
+	 * @see #parse(Reader, ContentHandler, boolean)
+	 * 
+	 * @param in
+	 * @param contentHandler
+	 * @param isResume
+	 *            - Indicates if it continues previous parsing operation. If set
+	 *            to true, resume parsing the old stream, and parameter 'in'
+	 *            will be ignored.
+	 * 
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public void parse(InputStream in, ContentHandler contentHandler, boolean isResume) throws IOException, ParseException {
+		if (!isResume || handlerStatusStack == null) {
+			reset(in);
+		}
+		parse(contentHandler, isResume);
+	}
+
+	/**
+	 * Parse UTF-8 encoded JSON text from the remaining bytes of a buffer.
+	 * 
+	 * @param buf
+	 * @return Instance of the following: org.json.simple.JSONObject,
+	 *         org.json.simple.JSONArray, java.lang.String, java.lang.Number,
+	 *         java.lang.Boolean, null
+	 * 
+	 * @see #parse(ByteBuffer, ContentHandler)
+	 * @throws ParseException
+	 */
+	public Object parse(ByteBuffer buf) throws ParseException {
+		DefaultContentHandler handler = newHandler();
+		parse(buf, handler);
+		return handler.getContent();
+	}
+
+	/**
+	 * Parse UTF-8 encoded JSON text from the bytes between the position and
+	 * the limit of a buffer.  The position of the buffer is not changed.
+	 * <p>
+	 * The backing array of a heap buffer is scanned in place.  A direct buffer
+	 * is read in blocks into a buffer kept by the parser, so no temporary
+	 * arrays or Strings of the size of the input are created.
+	 * 
+	 * @param buf
+	 * @param contentHandler handler for constructing JSON objects
+	 * 
+	 * @throws ParseException
+	 */
+	public void parse(ByteBuffer buf, ContentHandler contentHandler) throws ParseException {
+		reset(buf);
+		try {
+			parse(contentHandler, false);
+		} catch (IOException ie) {
+			throw new ParseException(-1, ParseException.ERROR_UNEXPECTED_EXCEPTION, ie);
+		}
+	}
+
+	/**
+	 * Parse JSON text from a range of a character sequence.
+	 * 
+	 * @param s
+	 * @param off index of the first character of the JSON text in s
+	 * @param len length of the JSON text
+	 * @return Instance of the following: org.json.simple.JSONObject,
+	 *         org.json.simple.JSONArray, java.lang.String, java.lang.Number,
+	 *         java.lang.Boolean, null
+	 * 
+	 * @see #parse(CharSequence, int, int, ContentHandler)
+	 * @throws ParseException
+	 */
+	public Object parse(CharSequence s, int off, int len) throws ParseException {
+		DefaultContentHandler handler = newHandler();
+		parse(s, off, len, handler);
+		return handler.getContent();
+	}
+
+	/**
+	 * Parse JSON text from a range of a character sequence, such as a String,
+	 * a StringBuilder or a CharBuffer.  For a CharBuffer, <code>off</code> is
+	 * relative to its position, and the position is not changed.
+	 * <p>
+	 * The backing array of a heap CharBuffer is scanned in place.  Other
+	 * sequences are copied in blocks into a buffer kept by the parser, without
+	 * creating a String of the range first.
+	 * 
+	 * @param s
+	 * @param off index of the first character of the JSON text in s
+	 * @param len length of the JSON text
+	 * @param contentHandler handler for constructing JSON objects
+	 * 
+	 * @throws ParseException
+	 */
+	public void parse(CharSequence s, int off, int len, ContentHandler contentHandler) throws ParseException {
+		reset(s, off, len);
+		try {
+			parse(contentHandler, false);
+		} catch (IOException ie) {
+			throw new ParseException(-1, ParseException.ERROR_UNEXPECTED_EXCEPTION, ie);
+		}
+	}
+
+	/**
+	 * Parse a UTF-8 encoded JSON file into java object.
+	 * 
+	 * @param path
+	 * @return Instance of the following: org.json.simple.JSONObject,
+	 *         org.json.simple.JSONArray, java.lang.String, java.lang.Number,
+	 *         java.lang.Boolean, null
+	 * 
+	 * @see #parse(Path, ContentHandler)
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public Object parse(Path path) throws IOException, ParseException {
+		DefaultContentHandler handler = newHandler();
+		parse(path, handler);
+		return handler.getContent();
+	}
+
+	/**
+	 * Parse a UTF-8 encoded JSON file.
+	 * <p>
+	 * The file is memory mapped and scanned from the mapped pages in windows
+	 * of at most 256MB, so files larger than 2GB can be parsed and no more
+	 * heap is used than for the largest single token.  The file is closed
+	 * when this method returns, even if the handler stopped parsing early.
+	 * 
+	 * @param path
+	 * @param contentHandler handler for constructing JSON objects
+	 * 
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public void parse(Path path, ContentHandler contentHandler) throws IOException, ParseException {
+		MappedFileInputStream in = new MappedFileInputStream(path);
+		try {
+			resetFile(in);
+			parse(contentHandler, false);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Parses UTF-8 encoded JSON text from a file opened by the caller, which
+	 * is read in blocks, as by {@link #parse(Path, ContentHandler)}.
+	 *
+	 * @param in - a stream over the file, owned by the caller and the parser.
+	 * @param contentHandler
+	 * @param isResume - continue the previous parse of the file.
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	void parseFile(InputStream in, ContentHandler contentHandler, boolean isResume) throws IOException, ParseException {
+		if (!isResume || handlerStatusStack == null) {
+			resetFile(in);
+		}
+		parse(contentHandler, isResume);
+	}
+
+	private void resetFile(InputStream in) {
+		if (fileLexer == null) {
+			fileLexer = new Utf8Lexer(in, FILE_BUFFER_SIZE);
+		} else {
+			fileLexer.yyreset(in);
+		}
+		lexer = fileLexer;
+		reset();
+	}
+
+	/**
+	 * Reads the elements of a top-level array one at a time, instead of
+	 * building the whole array first.  This parser reads the elements, and
+	 * must not be used otherwise until the reader is done.
+	 * 
+	 * @param in
+	 * @return a reader returning the elements in order.
+	 * 
+	 * @see JSONArrayReader
+	 */
+	public JSONArrayReader streamArray(Reader in) {
+		return new JSONArrayReader(this, in, null, false);
+	}
+
+	/**
+	 * Reads the elements of a UTF-8 encoded top-level array one at a time.
+	 * 
+	 * @param in
+	 * @return a reader returning the elements in order.
+	 * 
+	 * @see #streamArray(Reader)
+	 */
+	public JSONArrayReader streamArray(InputStream in) {
+		return new JSONArrayReader(this, null, in, false);
+	}
+
+	/**
+	 * Reads the elements of the top-level array in a UTF-8 encoded file one
+	 * at a time.  The file is memory mapped, and closed when the reader is
+	 * closed.  {@link JSONArrayReader#split(Path, int)} divides a file among
+	 * several readers instead.
+	 * 
+	 * @param path
+	 * @return a reader returning the elements in order.
+	 * 
+	 * @see #streamArray(Reader)
+	 * @throws IOException
+	 */
+	public JSONArrayReader streamArray(Path path) throws IOException {
+		return new JSONArrayReader(this, null, new MappedFileInputStream(path), true);
+	}
+
+	/**
+	 * Parses from a scanner set up by the caller, such as the one
+	 * {@link JSONFeedParser} feeds, or one over a part of a text that
+	 * {@link JSONParallelParser} has indexed.
+	 * 
+	 * @param lexer
+	 * @param contentHandler
+	 * @param isResume - continue the previous parse on lexer.
+	 * 
+	 * @throws Utf8Lexer.NeedInput when all input fed so far has been parsed.
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	void parse(Lexer lexer, ContentHandler contentHandler, boolean isResume) throws IOException, ParseException {
+		this.lexer = lexer;
+		if (!isResume) {
+			reset();
+		}
+		parse(contentHandler, isResume);
+	}
+
 	/**
 	 * Parse JSON text into java object from the input source.
 	 * 
@@ -242,7 +1386,7 @@ public class JSONParser {
 	 */
 	@Deprecated
 	public Object parse(String s, ContainerFactory factory) throws ParseException {
-		StringReader in = new StringReader(s);
+		StringReader in = new OwnedStringReader(s);
 		try {
 			return parse(in, factory);
 		} catch (IOException ie) {
@@ -285,16 +1429,40 @@ public class JSONParser {
 	 */
 	public void parse(Reader in, ContentHandler contentHandler, boolean isResume) throws IOException, ParseException {
 		
+		if (!isResume || handlerStatusStack == null) {
+			if (in instanceof OwnedStringReader) {
+				resetString(in);
+			} else {
+				reset(in);
+			}
+		}
+		parse(contentHandler, isResume);
+	}
+
+	/**
+	 * Runs the parser on the current lexer.
+	 */
+	private void parse(ContentHandler contentHandler, boolean isResume) throws IOException, ParseException {
+		
 		if (handlerStatusStack == null) {
 			isResume = false;
 		}
 		
 		if (!isResume) {
-			reset(in);
 			handlerStatusStack = new ArrayDeque<Integer>();
 		}
 
 		Deque<Integer> statusStack = handlerStatusStack;
+		valueLexer = lexer instanceof ValueLexer ? (ValueLexer) lexer : null;
+		if (valueLexer != null) {
+			valueLexer.numberType = numberType;
+		} else if (lexer instanceof Yylex) {
+			((Yylex) lexer).numberType = numberType;
+		}
+		typedHandler = contentHandler instanceof TypedContentHandler ? (TypedContentHandler) contentHandler : null;
+		if (typedHandler == null && valueLexer != null && contentHandler instanceof DefaultContentHandler) {
+			typedHandler = ((DefaultContentHandler) contentHandler).typedValues();
+		}
 
 		try {
 			do {
@@ -302,25 +1470,28 @@ public class JSONParser {
 				switch (status) {
 				case S_INIT:
 					// we are in "root" (no object)
-					contentHandler.startJSON();
+					if (!needInput) {
+						contentHandler.startJSON();
+					}
+					needInput = false;
 					nextToken();
-					switch (token.type) {
+					switch (tokenType()) {
 					case Yytoken.TYPE_VALUE:
 						status = S_IN_FINISHED_VALUE;
 						statusStack.push(status);
-						if (!contentHandler.primitive(token.value))
+						if (!primitive(contentHandler))
 							return;
 						break;
 					case Yytoken.TYPE_LEFT_BRACE:
 						status = S_IN_OBJECT;
 						statusStack.push(status);
-						if (!contentHandler.startObject())
+						if (!startObject(contentHandler))
 							return;
 						break;
 					case Yytoken.TYPE_LEFT_SQUARE:
 						status = S_IN_ARRAY;
 						statusStack.push(status);
-						if (!contentHandler.startArray())
+						if (!startArray(contentHandler))
 							return;
 						break;
 					case Yytoken.TYPE_EOF:
@@ -336,15 +1507,15 @@ public class JSONParser {
 				case S_IN_OBJECT:
 					nextToken();
 					// must be a string (key) or comma or close brace
-					switch (token.type) {
+					switch (tokenType()) {
 					case Yytoken.TYPE_COMMA:
 						break;
 					case Yytoken.TYPE_VALUE:
-						if (token.value instanceof String) {
-							String key = (String) token.value;
+						if (type == ValueLexer.TYPE_STRING) {
+							String key = stringValue();
 							status = S_PASSED_PAIR_KEY;
 							statusStack.push(status);
-							if (!contentHandler.startObjectEntry(key))
+							if (!startObjectEntry(contentHandler, key))
 								return;
 						} else {
 							status = S_IN_ERROR;
@@ -370,13 +1541,13 @@ public class JSONParser {
 				case S_PASSED_PAIR_KEY:
 					nextToken();
 					// must be a colon then value/array/object
-					switch (token.type) {
+					switch (tokenType()) {
 					case Yytoken.TYPE_COLON:
 						break;
 					case Yytoken.TYPE_VALUE:
 						statusStack.pop();
 						status = peekStatus(statusStack);
-						if (!contentHandler.primitive(token.value))
+						if (!primitive(contentHandler))
 							return;
 						if (!contentHandler.endObjectEntry())
 							return;
@@ -386,7 +1557,7 @@ public class JSONParser {
 						statusStack.push(S_IN_PAIR_VALUE);
 						status = S_IN_ARRAY;
 						statusStack.push(status);
-						if (!contentHandler.startArray())
+						if (!startArray(contentHandler))
 							return;
 						break;
 					case Yytoken.TYPE_LEFT_BRACE:
@@ -394,7 +1565,7 @@ public class JSONParser {
 						statusStack.push(S_IN_PAIR_VALUE);
 						status = S_IN_OBJECT;
 						statusStack.push(status);
-						if (!contentHandler.startObject())
+						if (!startObject(contentHandler))
 							return;
 						break;
 					default:
@@ -416,11 +1587,11 @@ public class JSONParser {
 
 				case S_IN_ARRAY:
 					nextToken();
-					switch (token.type) {
+					switch (tokenType()) {
 					case Yytoken.TYPE_COMMA:
 						break;
 					case Yytoken.TYPE_VALUE:
-						if (!contentHandler.primitive(token.value))
+						if (!primitive(contentHandler))
 							return;
 						break;
 					case Yytoken.TYPE_RIGHT_SQUARE:
@@ -436,13 +1607,13 @@ public class JSONParser {
 					case Yytoken.TYPE_LEFT_BRACE:
 						status = S_IN_OBJECT;
 						statusStack.push(status);
-						if (!contentHandler.startObject())
+						if (!startObject(contentHandler))
 							return;
 						break;
 					case Yytoken.TYPE_LEFT_SQUARE:
 						status = S_IN_ARRAY;
 						statusStack.push(status);
-						if (!contentHandler.startArray())
+						if (!startArray(contentHandler))
 							return;
 						break;
 					default:
@@ -452,32 +1623,82 @@ public class JSONParser {
 					
 				case S_IN_FINISHED_VALUE:
 					nextToken();
-					if (token.type == Yytoken.TYPE_EOF) {
+					if (type == Yytoken.TYPE_EOF) {
 						contentHandler.endJSON();
 						status = S_END;
 						return;
 					} else {
 						status = S_IN_ERROR;
-						throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token);
+						throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token());
 					}
 					// break;
 					
 				case S_END:
 					return;
 
+				case S_IN_SKIP:
+					/*
+					 * Fast-forward over the value the handler skips: the
+					 * value of the entry, or the rest of the container, on
+					 * top of the stack.
+					 */
+					if (peekStatus(statusStack) == S_PASSED_PAIR_KEY) {
+						if (capture) {
+							captureToken();
+						} else {
+							skipToken();
+						}
+						switch (tokenType()) {
+						case Yytoken.TYPE_COLON:
+							break;
+						case Yytoken.TYPE_VALUE:
+							statusStack.pop();
+							status = peekStatus(statusStack);
+							if (!contentHandler.endObjectEntry())
+								return;
+							break;
+						default:
+							status = S_IN_ERROR;
+						}
+					} else {
+						if (capture) {
+							captureContainer();
+						} else {
+							skipContainer();
+						}
+						boolean isObject = peekStatus(statusStack) == S_IN_OBJECT;
+						if (type != (isObject ? Yytoken.TYPE_RIGHT_BRACE : Yytoken.TYPE_RIGHT_SQUARE)) {
+							status = S_IN_ERROR;
+							break;
+						}
+						statusStack.pop();
+						if (statusStack.size() > 0) {
+							status = peekStatus(statusStack);
+						} else {
+							status = S_IN_FINISHED_VALUE;
+						}
+						if (!(isObject ? contentHandler.endObject() : contentHandler.endArray()))
+							return;
+					}
+					break;
+
 				case S_IN_ERROR:
-					throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token);
+					throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token());
 				}// switch
 				if (status == S_IN_ERROR) {
-					throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token);
+					throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token());
 				}
-			} while (token.type != Yytoken.TYPE_EOF);
+			} while (type != Yytoken.TYPE_EOF);
 		} catch (IOException ie) {
 			status = S_IN_ERROR;
 			throw ie;
 		} catch (ParseException pe) {
 			status = S_IN_ERROR;
 			throw pe;
+		} catch (Utf8Lexer.NeedInput ni) {
+			// the state is kept, parsing continues when more input is fed
+			needInput = true;
+			throw ni;
 		} catch (RuntimeException re) {
 			status = S_IN_ERROR;
 			throw re;
@@ -487,6 +1708,6 @@ public class JSONParser {
 		}
 
 		status = S_IN_ERROR;
-		throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token);
+		throw new ParseException(getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token());
 	}
 }
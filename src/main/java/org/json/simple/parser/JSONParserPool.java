@@ -0,0 +1,110 @@
+package org.json.simple.parser;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded pool of parsers, so that parsing many small documents does not
+ * allocate a new parser and its buffers for each of them.
+ * <p>
+ * Parsers are kept in a fixed number of slots that are claimed with
+ * compare-and-set.  The pool never blocks and does not depend on the
+ * identity of threads, so it works the same for any number of platform or
+ * virtual threads: when all pooled parsers are in use, {@link #acquire()}
+ * creates a new one, and when all slots are taken, {@link #release(JSONParser)}
+ * drops the parser.
+ * <p>
+ * Buffers that a parser grew beyond the size limit for a large document
+ * are shrunk back to their initial size when the parser is returned, so
+ * that the pool does not keep them.
+ *
+ * <pre>
+ * JSONParser parser = pool.acquire();
+ * try {
+ * 	return parser.parse(s);
+ * } finally {
+ * 	pool.release(parser);
+ * }
+ * </pre>
+ */
+public class JSONParserPool {
+
+	/** Default size limit of the buffers kept by pooled parsers, in chars or bytes. */
+	public static final int DEFAULT_MAX_BUFFER_SIZE = 65536;
+
+	private final AtomicReferenceArray<JSONParser> slots;
+	private final int lexerType;
+	private final int maxBufferSize;
+
+	/**
+	 * Creates a pool of twice as many parsers as there are processors.
+	 */
+	public JSONParserPool() {
+		this(2 * Runtime.getRuntime().availableProcessors(), JSONParser.LEXER_JFLEX, DEFAULT_MAX_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param size - the maximum number of idle parsers kept.
+	 * @param lexerType - the scanner of the parsers, see {@link JSONParser#setLexer(int)}.
+	 * @param maxBufferSize - buffers that grew larger are shrunk on release.
+	 */
+	public JSONParserPool(int size, int lexerType, int maxBufferSize) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Pool size must be positive: " + size);
+		}
+		JSONParser.checkLexerType(lexerType);
+		this.slots = new AtomicReferenceArray<JSONParser>(size);
+		this.lexerType = lexerType;
+		this.maxBufferSize = maxBufferSize;
+	}
+
+	/**
+	 * @return an idle parser from the pool, or a new one.  It should be
+	 *         returned with {@link #release(JSONParser)} after use.
+	 */
+	public JSONParser acquire() {
+		int n = slots.length();
+		int start = probe(n);
+		for (int i = 0; i < n; i++) {
+			int slot = (start + i) % n;
+			JSONParser parser = slots.get(slot);
+			if (parser != null && slots.compareAndSet(slot, parser, null)) {
+				return parser;
+			}
+		}
+		return new JSONParser(lexerType);
+	}
+
+	/**
+	 * Returns a parser to the pool.  The parser lets go of its last input,
+	 * its grown buffers are shrunk, and its settings are restored.  The parser must not be used by the
+	 * caller afterwards.
+	 *
+	 * @param parser
+	 */
+	public void release(JSONParser parser) {
+		parser.detach();
+		parser.trimBuffers(maxBufferSize);
+		parser.setLexer(lexerType);
+		parser.setReadAhead(false);
+		parser.setObjectType(DefaultContentHandler.OBJECT_HASHED);
+		parser.setArrayType(DefaultContentHandler.ARRAY_LIST);
+		parser.setNumberType(JSONParser.NUMBER_DOUBLE);
+		int n = slots.length();
+		int start = probe(n);
+		for (int i = 0; i < n; i++) {
+			int slot = (start + i) % n;
+			if (slots.get(slot) == null && slots.compareAndSet(slot, null, parser)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Spreads threads over the slots to reduce contention.
+	 */
+	private static int probe(int n) {
+		long id = Thread.currentThread().getId();
+		return (int) ((id ^ (id >>> 16)) & 0x7fffffff) % n;
+	}
+
+}
@@ -0,0 +1,892 @@
+package org.json.simple.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled JSONPath expression.
+ * <p>
+ * The supported subset is:
+ * <ul>
+ * <li><code>$</code> - the root value,</li>
+ * <li><code>.name</code> or <code>['name']</code> - a child of an object,</li>
+ * <li><code>[0]</code>, <code>[-1]</code> - an element of an array,
+ * counted from the end if negative,</li>
+ * <li><code>[start:end:step]</code> - a slice of an array, with a positive
+ * step; each of the three may be left out,</li>
+ * <li><code>['a','b']</code>, <code>[0,2]</code> - several of the above,</li>
+ * <li><code>.*</code> or <code>[*]</code> - every child,</li>
+ * <li><code>..</code> - recursive descent: <code>..name</code>,
+ * <code>..*</code> or <code>..[...]</code> select among all descendants,</li>
+ * <li><code>[?(filter)]</code> - the children for which the filter holds.
+ * A filter compares relative paths such as <code>@.price</code> or
+ * <code>@['a'][0]</code>, or <code>@</code> itself, with literals and each
+ * other using <code>== != &lt; &lt;= &gt; &gt;=</code>, and combines the
+ * comparisons with <code>&amp;&amp; || !</code> and parentheses.  A relative
+ * path alone tests that the value exists.  Literals are numbers, strings
+ * in single or double quotes, <code>true</code>, <code>false</code> and
+ * <code>null</code>.</li>
+ * </ul>
+ * A value is selected at most once per path, even if several branches of a
+ * recursive descent lead to it.
+ * <p>
+ * A JSON Pointer (RFC 6901) such as <code>/store/book/0</code> is compiled
+ * as well: each of its tokens selects a child of an object, or an element
+ * of an array if the token is an index.
+ * <p>
+ * A compiled path is immutable and can be shared between threads.  It can
+ * be evaluated against a tree of {@link java.util.Map}s and
+ * {@link java.util.List}s, such as {@link org.json.simple.JSONObject}s and
+ * {@link org.json.simple.JSONArray}s, with {@link #select(Object)}, and
+ * against the events of a parse with {@link JSONPathContentHandler}.
+ * Expressions that are used over and over again can be kept compiled in a
+ * {@link JSONPathCache}.
+ *
+ * @see JSONPathContentHandler
+ */
+public class JSONPath {
+
+	/*
+	 * Kinds of steps.
+	 */
+	static final int NAMES = 0;
+	static final int INDEXES = 1;
+	static final int SLICE = 2;
+	static final int WILDCARD = 3;
+	static final int FILTER = 4;
+
+	/*
+	 * Filter operators.
+	 */
+	static final int OR = 0;
+	static final int AND = 1;
+	static final int NOT = 2;
+	static final int EXISTS = 3;
+	static final int EQ = 4;
+	static final int NE = 5;
+	static final int LT = 6;
+	static final int LE = 7;
+	static final int GT = 8;
+	static final int GE = 9;
+
+	/* the value of a relative path that leads nowhere */
+	private static final Object MISSING = new Object();
+
+	private final String expression;
+	final Step[] steps;
+
+	/* each step selects a single child, so the path selects one value at most */
+	private final boolean definite;
+
+	private JSONPath(String expression, Step[] steps) {
+		this.expression = expression;
+		this.steps = steps;
+		boolean definite = true;
+		for (int i = 0; i < steps.length; i++) {
+			definite &= !steps[i].descendant && steps[i].isSingle();
+		}
+		this.definite = definite;
+	}
+
+	/**
+	 * Compiles a JSONPath expression or a JSON Pointer.
+	 *
+	 * @param expression - a path starting with <code>$</code>, or a JSON
+	 *            Pointer: empty or starting with <code>/</code>.
+	 * @return the compiled path.
+	 * @throws ParseException if the expression is not valid; the position is
+	 *             that of the offending character within the expression.
+	 */
+	public static JSONPath compile(String expression) throws ParseException {
+		Compiler c = new Compiler(expression);
+		List<Step> steps = new ArrayList<Step>();
+		if (expression.length() == 0 || expression.charAt(0) == '/') {
+			while (c.pos < expression.length()) {
+				steps.add(c.token());
+			}
+		} else {
+			c.expect('$');
+			while (c.pos < expression.length()) {
+				steps.add(c.step(false));
+			}
+		}
+		return new JSONPath(expression, steps.toArray(new Step[steps.size()]));
+	}
+
+	/**
+	 * Evaluates the path against a tree.
+	 *
+	 * @param value - the root of a tree of Maps, Lists and primitives.
+	 * @return the selected values, in document order.
+	 */
+	public List<Object> select(Object value) {
+		List<Object> out = new ArrayList<Object>();
+		if (definite) {
+			Object found = walk(value);
+			if (found != MISSING) {
+				out.add(found);
+			}
+		} else {
+			select(value, 0, out);
+		}
+		return out;
+	}
+
+	/**
+	 * Evaluates the path against a tree, for a single value.
+	 *
+	 * @param value - the root of a tree of Maps, Lists and primitives.
+	 * @return the first value selected, in document order, or null if there
+	 *         is none.
+	 */
+	public Object selectFirst(Object value) {
+		if (definite) {
+			Object found = walk(value);
+			return found != MISSING ? found : null;
+		}
+		List<Object> out = new ArrayList<Object>();
+		select(value, 0, out);
+		return out.isEmpty() ? null : out.get(0);
+	}
+
+	/**
+	 * @return whether each step selects one child at most, as in a JSON
+	 *         Pointer, so that the path selects one value at most.
+	 */
+	public boolean isDefinite() {
+		return definite;
+	}
+
+	/**
+	 * Follows a definite path.
+	 *
+	 * @return the value at the end of the path, or MISSING.
+	 */
+	@SuppressWarnings("rawtypes")
+	private Object walk(Object value) {
+		for (int i = 0; i < steps.length; i++) {
+			Step step = steps[i];
+			if (value instanceof Map) {
+				if (step.kind != NAMES) {
+					return MISSING;
+				}
+				Map map = (Map) value;
+				value = map.get(step.names[0]);
+				if (value == null && !map.containsKey(step.names[0])) {
+					return MISSING;
+				}
+			} else if (value instanceof List) {
+				if (step.indexes == null) {
+					return MISSING;
+				}
+				List list = (List) value;
+				int index = step.indexes[0] < 0 ? step.indexes[0] + list.size() : step.indexes[0];
+				if (index < 0 || index >= list.size()) {
+					return MISSING;
+				}
+				value = list.get(index);
+			} else {
+				return MISSING;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * @return the expression this path was compiled from.
+	 */
+	public String toString() {
+		return expression;
+	}
+
+	/**
+	 * Evaluates the steps from <code>from</code> on, against a value that
+	 * has been reached by the steps before.
+	 *
+	 * @param value - a JSON value built of Maps, Lists and primitives.
+	 * @param from - the index of the first step to evaluate.
+	 * @param out - receives the selected values, in document order.
+	 */
+	void select(Object value, int from, List<Object> out) {
+		select(value, new int[] { from }, 1, out);
+	}
+
+	/**
+	 * @param states - the indexes of the next step of each branch that reached value.
+	 */
+	@SuppressWarnings("rawtypes")
+	private void select(Object value, int[] states, int count, List<Object> out) {
+		int[] next = null;
+		for (int i = 0; i < count; i++) {
+			if (states[i] == steps.length) {
+				out.add(value);
+				if (count == 1) {
+					return;
+				}
+			}
+		}
+		if (value instanceof Map) {
+			Iterator iter = ((Map) value).entrySet().iterator();
+			while (iter.hasNext()) {
+				Map.Entry entry = (Map.Entry) iter.next();
+				Object child = entry.getValue();
+				String key = String.valueOf(entry.getKey());
+				int n = 0;
+				for (int i = 0; i < count; i++) {
+					if (states[i] < steps.length) {
+						if (next == null) {
+							next = new int[2 * count];
+						}
+						n = childStates(steps[states[i]], states[i], key, -1, 0, child, next, n);
+					}
+				}
+				if (n > 0) {
+					select(child, Arrays.copyOf(next, n), n, out);
+				}
+			}
+		} else if (value instanceof List) {
+			List list = (List) value;
+			int size = list.size();
+			for (int index = 0; index < size; index++) {
+				Object child = list.get(index);
+				int n = 0;
+				for (int i = 0; i < count; i++) {
+					if (states[i] < steps.length) {
+						if (next == null) {
+							next = new int[2 * count];
+						}
+						n = childStates(steps[states[i]], states[i], null, index, size, child, next, n);
+					}
+				}
+				if (n > 0) {
+					select(child, Arrays.copyOf(next, n), n, out);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the states in which a child is reached from a parent in state j.
+	 */
+	private static int childStates(Step step, int j, String key, int index, int size, Object child, int[] next, int n) {
+		if (step.descendant) {
+			n = add(next, n, j);
+		}
+		boolean matches;
+		if (step.kind == FILTER) {
+			matches = step.filter.test(child);
+		} else {
+			matches = key != null ? step.matches(key) : step.matches(index, size);
+		}
+		if (matches) {
+			n = add(next, n, j + 1);
+		}
+		return n;
+	}
+
+	private static int add(int[] states, int n, int state) {
+		for (int i = 0; i < n; i++) {
+			if (states[i] == state) {
+				return n;
+			}
+		}
+		states[n] = state;
+		return n + 1;
+	}
+
+	/**
+	 * A step of a path, or of a relative path in a filter.
+	 */
+	static final class Step {
+
+		/* preceded by .. */
+		boolean descendant;
+		int kind;
+		String[] names;
+		/* for NAMES, the index of the name if it is a JSON Pointer token that is an array index */
+		int[] indexes;
+		/* slice bounds, end is Integer.MAX_VALUE if left out */
+		int start;
+		int end = Integer.MAX_VALUE;
+		int stride = 1;
+		Filter filter;
+
+		boolean matches(String key) {
+			if (kind == WILDCARD) {
+				return true;
+			}
+			if (kind == NAMES) {
+				for (int i = 0; i < names.length; i++) {
+					if (names[i].equals(key)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @param size - the size of the array, or -1 if not known; it must
+		 *            be known if needsSize().
+		 */
+		boolean matches(int index, int size) {
+			switch (kind) {
+			case WILDCARD:
+				return true;
+			case NAMES:
+				return indexes != null && indexes[0] == index;
+			case INDEXES:
+				for (int i = 0; i < indexes.length; i++) {
+					if ((indexes[i] < 0 ? indexes[i] + size : indexes[i]) == index) {
+						return true;
+					}
+				}
+				return false;
+			case SLICE:
+				int from = start < 0 ? Math.max(0, start + size) : start;
+				int to = end < 0 ? end + size : end;
+				return index >= from && index < to && (index - from) % stride == 0;
+			default:
+				return false;
+			}
+		}
+
+		/**
+		 * @return whether the step selects one child at most.
+		 */
+		boolean isSingle() {
+			return kind == NAMES && names.length == 1 || kind == INDEXES && indexes.length == 1;
+		}
+
+		/**
+		 * @return whether the elements the step selects depend on the size of the array.
+		 */
+		boolean needsSize() {
+			if (kind == INDEXES) {
+				for (int i = 0; i < indexes.length; i++) {
+					if (indexes[i] < 0) {
+						return true;
+					}
+				}
+			}
+			return kind == SLICE && (start < 0 || end < 0);
+		}
+
+	}
+
+	/**
+	 * A node of a filter expression.
+	 */
+	static final class Filter {
+
+		int op;
+		Filter left;
+		Filter right;
+		/* an operand: a relative path, or a literal if path is null */
+		Step[] path;
+		Object literal;
+
+		boolean test(Object value) {
+			switch (op) {
+			case OR:
+				return left.test(value) || right.test(value);
+			case AND:
+				return left.test(value) && right.test(value);
+			case NOT:
+				return !left.test(value);
+			case EXISTS:
+				return left.operand(value) != MISSING;
+			default:
+				return compare(left.operand(value), right.operand(value));
+			}
+		}
+
+		@SuppressWarnings("rawtypes")
+		private Object operand(Object value) {
+			if (path == null) {
+				return literal;
+			}
+			for (int i = 0; i < path.length; i++) {
+				Step step = path[i];
+				if (step.kind == NAMES && value instanceof Map) {
+					Map map = (Map) value;
+					if (!map.containsKey(step.names[0])) {
+						return MISSING;
+					}
+					value = map.get(step.names[0]);
+				} else if (step.kind == INDEXES && value instanceof List) {
+					List list = (List) value;
+					int index = step.indexes[0] < 0 ? step.indexes[0] + list.size() : step.indexes[0];
+					if (index < 0 || index >= list.size()) {
+						return MISSING;
+					}
+					value = list.get(index);
+				} else {
+					return MISSING;
+				}
+			}
+			return value;
+		}
+
+		private boolean compare(Object a, Object b) {
+			if (a == MISSING || b == MISSING) {
+				return op == NE && a != b;
+			}
+			if (op == EQ || op == NE) {
+				return equal(a, b) == (op == EQ);
+			}
+			int c;
+			if (a instanceof Number && b instanceof Number) {
+				c = compareNumbers((Number) a, (Number) b);
+			} else if (a instanceof String && b instanceof String) {
+				c = ((String) a).compareTo((String) b);
+			} else {
+				return false;
+			}
+			switch (op) {
+			case LT:
+				return c < 0;
+			case LE:
+				return c <= 0;
+			case GT:
+				return c > 0;
+			default:
+				return c >= 0;
+			}
+		}
+
+		private static boolean equal(Object a, Object b) {
+			if (a instanceof Number && b instanceof Number) {
+				return compareNumbers((Number) a, (Number) b) == 0;
+			}
+			return a == null ? b == null : a.equals(b);
+		}
+
+		private static int compareNumbers(Number a, Number b) {
+			if (isIntegral(a) && isIntegral(b)) {
+				long x = a.longValue();
+				long y = b.longValue();
+				return x < y ? -1 : (x == y ? 0 : 1);
+			}
+			return Double.compare(a.doubleValue(), b.doubleValue());
+		}
+
+		private static boolean isIntegral(Number n) {
+			return n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte;
+		}
+
+	}
+
+	/**
+	 * Recursive descent compiler of expressions.
+	 */
+	private static final class Compiler {
+
+		final String s;
+		int pos;
+
+		Compiler(String s) {
+			this.s = s;
+		}
+
+		/**
+		 * Compiles the JSON Pointer token at pos, which is at a slash.
+		 */
+		Step token() throws ParseException {
+			pos++;
+			StringBuilder sb = new StringBuilder();
+			while (pos < s.length() && s.charAt(pos) != '/') {
+				char c = s.charAt(pos++);
+				if (c == '~') {
+					char d = peek();
+					if (d != '0' && d != '1') {
+						throw unexpected(pos);
+					}
+					pos++;
+					c = d == '0' ? '~' : '/';
+				}
+				sb.append(c);
+			}
+			Step step = new Step();
+			step.kind = NAMES;
+			step.names = new String[] { sb.toString() };
+			if (isIndex(step.names[0])) {
+				step.indexes = new int[] { Integer.parseInt(step.names[0]) };
+			}
+			return step;
+		}
+
+		private static boolean isIndex(String token) {
+			if (token.length() == 0 || token.length() > 9 || token.charAt(0) == '0' && token.length() > 1) {
+				return false;
+			}
+			for (int i = 0; i < token.length(); i++) {
+				if (token.charAt(i) < '0' || token.charAt(i) > '9') {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Compiles the step at pos, after <code>$</code> or <code>@</code>.
+		 *
+		 * @param relative - within a filter, where only single names and
+		 *            indexes are allowed.
+		 */
+		Step step(boolean relative) throws ParseException {
+			Step step = new Step();
+			int at = pos;
+			char c = next();
+			if (c == '.') {
+				if (!relative && peek() == '.') {
+					pos++;
+					step.descendant = true;
+					if (peek() == '[') {
+						pos++;
+						bracket(step);
+						return step;
+					}
+				}
+				if (peek() == '*' && !relative) {
+					pos++;
+					step.kind = WILDCARD;
+				} else {
+					step.kind = NAMES;
+					step.names = new String[] { name() };
+				}
+			} else if (c == '[') {
+				bracket(step);
+				if (relative && (step.kind != NAMES && step.kind != INDEXES
+						|| step.names != null && step.names.length > 1
+						|| step.indexes != null && step.indexes.length > 1)) {
+					throw unexpected(at);
+				}
+			} else {
+				throw unexpected(at);
+			}
+			return step;
+		}
+
+		/**
+		 * Compiles the rest of a step in brackets, after the opening bracket.
+		 */
+		private void bracket(Step step) throws ParseException {
+			skipSpaces();
+			char c = peek();
+			if (c == '*') {
+				pos++;
+				step.kind = WILDCARD;
+			} else if (c == '?') {
+				pos++;
+				skipSpaces();
+				expect('(');
+				step.kind = FILTER;
+				step.filter = or();
+				skipSpaces();
+				expect(')');
+			} else if (c == '\'' || c == '"') {
+				List<String> names = new ArrayList<String>();
+				names.add(string());
+				while (skipSpaces() == ',') {
+					pos++;
+					skipSpaces();
+					names.add(string());
+				}
+				step.kind = NAMES;
+				step.names = names.toArray(new String[names.size()]);
+			} else {
+				Integer first = integer();
+				if (skipSpaces() == ':') {
+					step.kind = SLICE;
+					step.start = first != null ? first.intValue() : 0;
+					pos++;
+					Integer end = integer();
+					if (end != null) {
+						step.end = end.intValue();
+					}
+					if (skipSpaces() == ':') {
+						pos++;
+						int at = pos;
+						Integer stride = integer();
+						if (stride != null) {
+							if (stride.intValue() <= 0) {
+								throw unexpected(at);
+							}
+							step.stride = stride.intValue();
+						}
+					}
+				} else {
+					if (first == null) {
+						throw unexpected(pos);
+					}
+					List<Integer> indexes = new ArrayList<Integer>();
+					indexes.add(first);
+					while (skipSpaces() == ',') {
+						pos++;
+						skipSpaces();
+						Integer index = integer();
+						if (index == null) {
+							throw unexpected(pos);
+						}
+						indexes.add(index);
+					}
+					step.kind = INDEXES;
+					step.indexes = new int[indexes.size()];
+					for (int i = 0; i < step.indexes.length; i++) {
+						step.indexes[i] = indexes.get(i).intValue();
+					}
+				}
+			}
+			skipSpaces();
+			expect(']');
+		}
+
+		private Filter or() throws ParseException {
+			Filter f = and();
+			while (skipSpaces() == '|') {
+				expect('|');
+				expect('|');
+				f = node(OR, f, and());
+			}
+			return f;
+		}
+
+		private Filter and() throws ParseException {
+			Filter f = unary();
+			while (skipSpaces() == '&') {
+				expect('&');
+				expect('&');
+				f = node(AND, f, unary());
+			}
+			return f;
+		}
+
+		private Filter unary() throws ParseException {
+			char c = skipSpaces();
+			if (c == '!') {
+				pos++;
+				return node(NOT, unary(), null);
+			}
+			if (c == '(') {
+				pos++;
+				Filter f = or();
+				skipSpaces();
+				expect(')');
+				return f;
+			}
+			int at = pos;
+			Filter left = operand();
+			int op = operator();
+			if (op < 0) {
+				if (left.path == null) {
+					throw unexpected(at);
+				}
+				return node(EXISTS, left, null);
+			}
+			skipSpaces();
+			return node(op, left, operand());
+		}
+
+		private int operator() throws ParseException {
+			char c = skipSpaces();
+			char d = pos + 1 < s.length() ? s.charAt(pos + 1) : 0;
+			int op;
+			if (c == '=' && d == '=') {
+				op = EQ;
+			} else if (c == '!' && d == '=') {
+				op = NE;
+			} else if (c == '<') {
+				op = d == '=' ? LE : LT;
+			} else if (c == '>') {
+				op = d == '=' ? GE : GT;
+			} else {
+				return -1;
+			}
+			pos += op == LT || op == GT ? 1 : 2;
+			return op;
+		}
+
+		private Filter operand() throws ParseException {
+			Filter f = new Filter();
+			int at = pos;
+			char c = peek();
+			if (c == '@') {
+				pos++;
+				List<Step> path = new ArrayList<Step>();
+				while (peek() == '.' || peek() == '[') {
+					path.add(step(true));
+				}
+				f.path = path.toArray(new Step[path.size()]);
+			} else if (c == '\'' || c == '"') {
+				f.literal = string();
+			} else if (c == '-' || c >= '0' && c <= '9') {
+				f.literal = number();
+			} else if (s.startsWith("true", pos)) {
+				pos += 4;
+				f.literal = Boolean.TRUE;
+			} else if (s.startsWith("false", pos)) {
+				pos += 5;
+				f.literal = Boolean.FALSE;
+			} else if (s.startsWith("null", pos)) {
+				pos += 4;
+			} else {
+				throw unexpected(at);
+			}
+			return f;
+		}
+
+		private static Filter node(int op, Filter left, Filter right) {
+			Filter f = new Filter();
+			f.op = op;
+			f.left = left;
+			f.right = right;
+			return f;
+		}
+
+		private String name() throws ParseException {
+			int from = pos;
+			while (pos < s.length()) {
+				char c = s.charAt(pos);
+				if (!Character.isLetterOrDigit(c) && c != '_' && c != '$' && c != '-') {
+					break;
+				}
+				pos++;
+			}
+			if (pos == from) {
+				throw unexpected(pos);
+			}
+			return s.substring(from, pos);
+		}
+
+		private String string() throws ParseException {
+			char quote = next();
+			if (quote != '\'' && quote != '"') {
+				throw unexpected(pos - 1);
+			}
+			StringBuilder sb = new StringBuilder();
+			for (;;) {
+				int at = pos;
+				char c = next();
+				if (c == quote) {
+					return sb.toString();
+				}
+				if (c == '\\') {
+					at = pos;
+					c = next();
+					switch (c) {
+					case 'b':
+						c = '\b';
+						break;
+					case 'f':
+						c = '\f';
+						break;
+					case 'n':
+						c = '\n';
+						break;
+					case 'r':
+						c = '\r';
+						break;
+					case 't':
+						c = '\t';
+						break;
+					case 'u':
+						if (pos + 4 > s.length()) {
+							throw unexpected(s.length());
+						}
+						try {
+							c = (char) Integer.parseInt(s.substring(pos, pos + 4), 16);
+						} catch (NumberFormatException e) {
+							throw unexpected(at);
+						}
+						pos += 4;
+						break;
+					case '\'':
+					case '"':
+					case '\\':
+					case '/':
+						break;
+					default:
+						throw unexpected(at);
+					}
+				}
+				sb.append(c);
+			}
+		}
+
+		/**
+		 * @return the integer at pos, or null if there is none.
+		 */
+		private Integer integer() throws ParseException {
+			int from = pos;
+			if (peek() == '-') {
+				pos++;
+			}
+			while (pos < s.length() && s.charAt(pos) >= '0' && s.charAt(pos) <= '9') {
+				pos++;
+			}
+			if (pos == from) {
+				return null;
+			}
+			try {
+				return Integer.valueOf(s.substring(from, pos));
+			} catch (NumberFormatException e) {
+				throw unexpected(from);
+			}
+		}
+
+		private Number number() throws ParseException {
+			int from = pos;
+			boolean integral = true;
+			while (pos < s.length() && "0123456789+-.eE".indexOf(s.charAt(pos)) >= 0) {
+				if ("0123456789+-".indexOf(s.charAt(pos)) < 0) {
+					integral = false;
+				}
+				pos++;
+			}
+			try {
+				String text = s.substring(from, pos);
+				return integral ? (Number) Long.valueOf(text) : (Number) Double.valueOf(text);
+			} catch (NumberFormatException e) {
+				throw unexpected(from);
+			}
+		}
+
+		private char skipSpaces() {
+			while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+				pos++;
+			}
+			return peek();
+		}
+
+		private char peek() {
+			return pos < s.length() ? s.charAt(pos) : 0;
+		}
+
+		private char next() throws ParseException {
+			if (pos == s.length()) {
+				throw unexpected(pos);
+			}
+			return s.charAt(pos++);
+		}
+
+		void expect(char c) throws ParseException {
+			if (peek() != c || pos == s.length()) {
+				throw unexpected(pos);
+			}
+			pos++;
+		}
+
+		private ParseException unexpected(int at) {
+			if (at >= s.length()) {
+				return new ParseException(at, ParseException.ERROR_UNEXPECTED_TOKEN, new Yytoken(Yytoken.TYPE_EOF, null));
+			}
+			return new ParseException(at, ParseException.ERROR_UNEXPECTED_CHAR, Character.valueOf(s.charAt(at)));
+		}
+
+	}
+
+}
@@ -0,0 +1,66 @@
+package org.json.simple.parser;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded cache of compiled paths, keyed by expression, so that an
+ * expression evaluated over and over again is compiled once.
+ * <p>
+ * Compiled paths are kept in a fixed number of slots, chosen by the hash of
+ * the expression.  An expression can be kept in either of two neighbouring
+ * slots; when both hold other expressions, the new one replaces the first.
+ * Lookups never block or allocate, and any number of threads can share a
+ * cache.
+ *
+ * <pre>
+ * JSONPathCache cache = new JSONPathCache(1024);
+ * Object price = cache.get("$.order.items[0].price").selectFirst(document);
+ * </pre>
+ */
+public class JSONPathCache {
+
+	private final AtomicReferenceArray<JSONPath> slots;
+
+	/**
+	 * @param size - the maximum number of compiled paths kept.
+	 */
+	public JSONPathCache(int size) {
+		if (size < 2) {
+			throw new IllegalArgumentException("Cache size must be at least 2: " + size);
+		}
+		this.slots = new AtomicReferenceArray<JSONPath>(size);
+	}
+
+	/**
+	 * @param expression - see {@link JSONPath#compile(String)}.
+	 * @return the compiled path, from the cache if it is there.
+	 * @throws ParseException if the expression is not valid.
+	 */
+	public JSONPath get(String expression) throws ParseException {
+		int n = slots.length();
+		int h = expression.hashCode();
+		int first = ((h ^ (h >>> 16)) & 0x7fffffff) % n;
+		int second = first + 1 < n ? first + 1 : 0;
+		JSONPath path = slots.get(first);
+		if (path != null && path.toString().equals(expression)) {
+			return path;
+		}
+		path = slots.get(second);
+		if (path != null && path.toString().equals(expression)) {
+			return path;
+		}
+		JSONPath compiled = JSONPath.compile(expression);
+		slots.set(path == null ? second : first, compiled);
+		return compiled;
+	}
+
+	/**
+	 * Drops all compiled paths.
+	 */
+	public void clear() {
+		for (int i = 0; i < slots.length(); i++) {
+			slots.set(i, null);
+		}
+	}
+
+}
@@ -0,0 +1,354 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates JSONPath expressions against the events of a parse, without
+ * building the tree of the text.
+ * <p>
+ * All paths are evaluated in a single pass.  Only the values selected by a
+ * path are built, and each is passed to {@link #match(int, Object)} as soon
+ * as it is complete, so a value is passed on before the values enclosing
+ * it.  By default the matches are collected, see {@link #getMatches(int)}.
+ *
+ * <pre>
+ * JSONParser parser = new JSONParser();
+ * JSONPathContentHandler handler = new JSONPathContentHandler(parser,
+ * 		JSONPath.compile("$.data[*].id"), JSONPath.compile("$..error"));
+ * parser.parse(in, handler);
+ * List&lt;Object&gt; ids = handler.getMatches(0);
+ * </pre>
+ *
+ * Values that no path can reach into are skipped with
+ * {@link JSONParser#skipValue()}.
+ * <p>
+ * Some values can only be selected once they are complete: an element
+ * tested by a filter, and an array indexed from its end.  These values are
+ * built, and the rest of the path is evaluated on them as on a tree.
+ */
+public class JSONPathContentHandler implements ContentHandler {
+
+	private final JSONParser parser;
+	private final JSONPath[] paths;
+	private final List<List<Object>> matches;
+
+	/*
+	 * A state is a pair of a path p and a step j, stored as two ints: the
+	 * value has been reached by the steps before j.  If j is negative, the
+	 * value is reached by the steps before ~j if it passes the filter of
+	 * step ~j.
+	 */
+
+	/* the states of the value that starts next */
+	private int[] pending = new int[8];
+	private int pendingCount;
+
+	/* the open objects and arrays in which some path is still evaluated */
+	private Frame[] frames = new Frame[8];
+	private int depth;
+
+	/* values being built */
+	private final List<Capture> captures = new ArrayList<Capture>();
+
+	/* a container has been skipped, its end is the next event */
+	private boolean skipped;
+
+	/* match() asked to stop */
+	private boolean stopped;
+
+	/**
+	 * @param parser - the parser this handler is used with, for skipping
+	 *            values; or null to evaluate without skipping.
+	 * @param paths
+	 */
+	public JSONPathContentHandler(JSONParser parser, JSONPath... paths) {
+		this.parser = parser;
+		this.paths = paths.clone();
+		this.matches = new ArrayList<List<Object>>(paths.length);
+		for (int i = 0; i < paths.length; i++) {
+			matches.add(new ArrayList<Object>());
+		}
+	}
+
+	/**
+	 * Receives a value selected by a path.  By default the value is added to
+	 * the matches of the path.
+	 *
+	 * @param path - the index of the path in the constructor arguments.
+	 * @param value - the value, built as by {@link DefaultContentHandler}.
+	 * @return false to stop parsing.
+	 * @throws ParseException
+	 */
+	protected boolean match(int path, Object value) throws ParseException {
+		matches.get(path).add(value);
+		return true;
+	}
+
+	/**
+	 * @param path - the index of the path in the constructor arguments.
+	 * @return the values selected by the path in the last text, in the order
+	 *         in which they were completed.
+	 */
+	public List<Object> getMatches(int path) {
+		return matches.get(path);
+	}
+
+	private static class Frame {
+
+		int[] states = new int[8];
+		int count;
+		/* the index of the next element of an array, or -1 in an object */
+		int index;
+
+	}
+
+	private static class Capture {
+
+		final DefaultContentHandler builder = new DefaultContentHandler();
+		/* the frame depth of the value */
+		int depth;
+		int path;
+		/* the step from which to evaluate the path on the value */
+		int from;
+		/* the filter the value has to pass, or null */
+		JSONPath.Filter filter;
+
+	}
+
+	@Override
+	public void startJSON() throws ParseException, IOException {
+		for (int i = 0; i < matches.size(); i++) {
+			matches.get(i).clear();
+		}
+		depth = 0;
+		captures.clear();
+		skipped = false;
+		stopped = false;
+		pendingCount = 0;
+		for (int p = 0; p < paths.length; p++) {
+			addPending(p, 0);
+		}
+	}
+
+	@Override
+	public void endJSON() throws ParseException, IOException {
+	}
+
+	private void addPending(int p, int j) {
+		for (int i = 0; i < pendingCount; i += 2) {
+			if (pending[i] == p && pending[i + 1] == j) {
+				return;
+			}
+		}
+		if (pendingCount + 2 > pending.length) {
+			pending = Arrays.copyOf(pending, 2 * pending.length);
+		}
+		pending[pendingCount++] = p;
+		pending[pendingCount++] = j;
+	}
+
+	/**
+	 * Works out the states of a child of the innermost open container.
+	 *
+	 * @param key - the key of an entry, or null for an array element.
+	 */
+	private void childStates(String key) {
+		pendingCount = 0;
+		if (depth == 0) {
+			return;
+		}
+		Frame frame = frames[depth - 1];
+		for (int i = 0; i < frame.count; i += 2) {
+			int p = frame.states[i];
+			int j = frame.states[i + 1];
+			JSONPath.Step step = paths[p].steps[j];
+			if (step.descendant) {
+				addPending(p, j);
+			}
+			if (step.kind == JSONPath.FILTER) {
+				addPending(p, ~j);
+			} else if (key != null ? step.matches(key) : step.matches(frame.index, -1)) {
+				addPending(p, j + 1);
+			}
+		}
+		if (key == null) {
+			frame.index++;
+		}
+	}
+
+	/**
+	 * @return whether nothing needs the value that starts next.
+	 */
+	private boolean skippable() {
+		return parser != null && pendingCount == 0 && captures.isEmpty();
+	}
+
+	private boolean inArray() {
+		return depth > 0 && frames[depth - 1].index >= 0;
+	}
+
+	@Override
+	public boolean startObject() throws ParseException, IOException {
+		return start(false);
+	}
+
+	@Override
+	public boolean startArray() throws ParseException, IOException {
+		return start(true);
+	}
+
+	private boolean start(boolean isArray) throws ParseException, IOException {
+		if (inArray()) {
+			childStates(null);
+		}
+		if (skippable()) {
+			skipped = true;
+			parser.skipValue();
+			return true;
+		}
+
+		if (depth == frames.length) {
+			frames = Arrays.copyOf(frames, 2 * depth);
+		}
+		Frame frame = frames[depth];
+		if (frame == null) {
+			frame = frames[depth] = new Frame();
+		}
+		frame.count = 0;
+		frame.index = isArray ? 0 : -1;
+		depth++;
+
+		for (int i = 0; i < pendingCount; i += 2) {
+			int p = pending[i];
+			int j = pending[i + 1];
+			JSONPath path = paths[p];
+			if (j < 0) {
+				capture(p, ~j + 1, path.steps[~j].filter);
+			} else if (j == path.steps.length || path.steps[j].needsSize()) {
+				capture(p, j, null);
+			} else {
+				if (frame.count + 2 > frame.states.length) {
+					frame.states = Arrays.copyOf(frame.states, 2 * frame.states.length);
+				}
+				frame.states[frame.count++] = p;
+				frame.states[frame.count++] = j;
+			}
+		}
+
+		for (int i = 0; i < captures.size(); i++) {
+			DefaultContentHandler builder = captures.get(i).builder;
+			if (isArray) {
+				builder.startArray();
+			} else {
+				builder.startObject();
+			}
+		}
+		return true;
+	}
+
+	private void capture(int p, int from, JSONPath.Filter filter) throws ParseException, IOException {
+		Capture capture = new Capture();
+		capture.depth = depth;
+		capture.path = p;
+		capture.from = from;
+		capture.filter = filter;
+		capture.builder.startJSON();
+		captures.add(capture);
+	}
+
+	@Override
+	public boolean endObject() throws ParseException, IOException {
+		return end(false);
+	}
+
+	@Override
+	public boolean endArray() throws ParseException, IOException {
+		return end(true);
+	}
+
+	private boolean end(boolean isArray) throws ParseException, IOException {
+		if (skipped) {
+			skipped = false;
+			return true;
+		}
+		for (int i = 0; i < captures.size(); i++) {
+			DefaultContentHandler builder = captures.get(i).builder;
+			if (isArray) {
+				builder.endArray();
+			} else {
+				builder.endObject();
+			}
+		}
+		/* the values of this depth were captured last */
+		for (int i = captures.size() - 1; i >= 0 && captures.get(i).depth == depth; i--) {
+			Capture capture = captures.remove(i);
+			matched(capture.path, capture.from, capture.filter, capture.builder.getContent());
+		}
+		depth--;
+		return !stopped;
+	}
+
+	@Override
+	public boolean startObjectEntry(String key) throws ParseException, IOException {
+		childStates(key);
+		if (skippable()) {
+			parser.skipValue();
+			return true;
+		}
+		for (int i = 0; i < captures.size(); i++) {
+			captures.get(i).builder.startObjectEntry(key);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean endObjectEntry() throws ParseException, IOException {
+		for (int i = 0; i < captures.size(); i++) {
+			captures.get(i).builder.endObjectEntry();
+		}
+		return true;
+	}
+
+	@Override
+	public boolean primitive(Object value) throws ParseException, IOException {
+		if (inArray()) {
+			childStates(null);
+		}
+		for (int i = 0; i < captures.size(); i++) {
+			captures.get(i).builder.primitive(value);
+		}
+		for (int i = 0; i < pendingCount; i += 2) {
+			int p = pending[i];
+			int j = pending[i + 1];
+			if (j < 0) {
+				matched(p, ~j + 1, paths[p].steps[~j].filter, value);
+			} else if (j == paths[p].steps.length) {
+				matched(p, j, null, value);
+			}
+		}
+		return !stopped;
+	}
+
+	/**
+	 * Passes on the values selected from a complete value.
+	 */
+	private void matched(int p, int from, JSONPath.Filter filter, Object value) throws ParseException {
+		if (filter != null && !filter.test(value)) {
+			return;
+		}
+		JSONPath path = paths[p];
+		if (from == path.steps.length) {
+			stopped |= !match(p, value);
+			return;
+		}
+		List<Object> values = new ArrayList<Object>();
+		path.select(value, from, values);
+		for (int i = 0; i < values.size(); i++) {
+			stopped |= !match(p, values.get(i));
+		}
+	}
+
+}
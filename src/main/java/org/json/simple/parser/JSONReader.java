@@ -0,0 +1,485 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull parser for JSON text.
+ * <p>
+ * Instead of calling back a {@link ContentHandler}, the reader returns the
+ * next token of the text from {@link #nextToken()}, and the value of the
+ * token is read unboxed with {@link #getLong()}, {@link #getDouble()},
+ * {@link #getBoolean()} or {@link #getCharSequence()}.  Numbers are only
+ * converted when they are asked for, and strings are returned as a
+ * CharSequence that is only valid until the next call to nextToken(), so in
+ * the steady state reading a token allocates nothing.  A reader can be
+ * reused for another input with one of the reset methods.
+ * <p>
+ * The reader accepts the same JSON text as {@link JSONParser}, and reports
+ * errors with the same positions.
+ *
+ * <pre>
+ * JSONReader reader = new JSONReader(in);
+ * long sum = 0;
+ * while (reader.nextToken() != JSONReader.END_DOCUMENT) {
+ * 	if (reader.getToken() == JSONReader.KEY) {
+ * 		if ("amount".contentEquals(reader.getCharSequence())) {
+ * 			reader.nextToken();
+ * 			sum += reader.getLong();
+ * 		} else {
+ * 			reader.skipValue();
+ * 		}
+ * 	}
+ * }
+ * </pre>
+ */
+public class JSONReader {
+
+	/** The end of the text has been reached. */
+	public static final int END_DOCUMENT = 0;
+	public static final int START_OBJECT = 1;
+	public static final int END_OBJECT = 2;
+	public static final int START_ARRAY = 3;
+	public static final int END_ARRAY = 4;
+	/** The key of an object entry; the next token is its value. */
+	public static final int KEY = 5;
+	public static final int STRING = 6;
+	/** An integer, a number without fraction or exponent. */
+	public static final int LONG = 7;
+	public static final int DOUBLE = 8;
+	public static final int BOOLEAN = 9;
+	public static final int NULL = 10;
+
+	private CharLexer charLexer;
+	private Utf8Lexer utf8Lexer;
+	private ValueLexer lexer;
+
+	private int[] statusStack = new int[16];
+	private int depth;
+	private int status;
+
+	/** the current token, one of END_DOCUMENT .. NULL */
+	private int token;
+
+	/** the type of the last token returned by the lexer */
+	private int type;
+
+	/**
+	 * Reads JSON text from a reader.
+	 *
+	 * @param in
+	 */
+	public JSONReader(Reader in) {
+		reset(in);
+	}
+
+	/**
+	 * Reads UTF-8 encoded JSON text from an input stream.
+	 *
+	 * @param in
+	 */
+	public JSONReader(InputStream in) {
+		reset(in);
+	}
+
+	/**
+	 * Reads UTF-8 encoded JSON text from a byte array.
+	 *
+	 * @param b
+	 */
+	public JSONReader(byte[] b) {
+		reset(b, 0, b.length);
+	}
+
+	/**
+	 * Reads JSON text from a string.
+	 *
+	 * @param s
+	 */
+	public JSONReader(String s) {
+		reset(s);
+	}
+
+	/**
+	 * Starts reading a new text from a reader.  Characters read ahead from
+	 * the same reader are kept, so several texts can be read from one reader.
+	 *
+	 * @param in
+	 */
+	public void reset(Reader in) {
+		if (charLexer == null) {
+			charLexer = new CharLexer(in);
+		} else {
+			charLexer.yyreset(in);
+		}
+		lexer = charLexer;
+		reset();
+	}
+
+	/**
+	 * Starts reading a new text from a string.
+	 *
+	 * @param s
+	 */
+	public void reset(String s) {
+		char[] chars = s.toCharArray();
+		if (charLexer == null) {
+			charLexer = new CharLexer((Reader) null);
+		}
+		charLexer.yyreset(chars, 0, chars.length);
+		lexer = charLexer;
+		reset();
+	}
+
+	/**
+	 * Starts reading a new UTF-8 encoded text from an input stream.  Bytes
+	 * read ahead from the same stream are kept.
+	 *
+	 * @param in
+	 */
+	public void reset(InputStream in) {
+		if (utf8Lexer == null) {
+			utf8Lexer = new Utf8Lexer(in);
+		} else {
+			utf8Lexer.yyreset(in);
+		}
+		lexer = utf8Lexer;
+		reset();
+	}
+
+	/**
+	 * Starts reading a new UTF-8 encoded text from a range of a byte array.
+	 * The bytes are read in place and must not be modified while reading.
+	 *
+	 * @param b
+	 * @param off
+	 * @param len
+	 */
+	public void reset(byte[] b, int off, int len) {
+		if (utf8Lexer == null) {
+			utf8Lexer = new Utf8Lexer(b, off, len);
+		} else {
+			utf8Lexer.yyreset(b, off, len);
+		}
+		lexer = utf8Lexer;
+		reset();
+	}
+
+	private void reset() {
+		depth = 0;
+		status = JSONParser.S_INIT;
+		token = END_DOCUMENT;
+	}
+
+	private void push(int status) {
+		if (depth == statusStack.length) {
+			statusStack = Arrays.copyOf(statusStack, 2 * depth);
+		}
+		statusStack[depth++] = status;
+	}
+
+	private int peekStatus() {
+		return depth == 0 ? -1 : statusStack[depth - 1];
+	}
+
+	/**
+	 * Reads the next token.
+	 *
+	 * @return the token, one of the constants of this class.  END_DOCUMENT
+	 *         is returned once the top-level value has been read, and from
+	 *         then on.  Like {@link JSONParser#parse(Reader)}, the reader
+	 *         does not look at the input after the top-level value, so a
+	 *         following text can be read after {@link #reset(Reader)}.
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public int nextToken() throws IOException, ParseException {
+		try {
+			for (;;) {
+				switch (status) {
+				case JSONParser.S_INIT:
+					type = lexer.next();
+					switch (type) {
+					case Yytoken.TYPE_LEFT_BRACE:
+						status = JSONParser.S_IN_OBJECT;
+						push(status);
+						return token = START_OBJECT;
+					case Yytoken.TYPE_LEFT_SQUARE:
+						status = JSONParser.S_IN_ARRAY;
+						push(status);
+						return token = START_ARRAY;
+					case Yytoken.TYPE_EOF:
+						status = JSONParser.S_END;
+						return token = END_DOCUMENT;
+					default:
+						if (type < ValueLexer.TYPE_STRING) {
+							throw unexpectedToken();
+						}
+						status = JSONParser.S_IN_FINISHED_VALUE;
+						return token = valueToken();
+					}
+
+				case JSONParser.S_IN_OBJECT:
+					type = lexer.next();
+					switch (type) {
+					case Yytoken.TYPE_COMMA:
+						break;
+					case ValueLexer.TYPE_STRING:
+						status = JSONParser.S_PASSED_PAIR_KEY;
+						push(status);
+						return token = KEY;
+					case Yytoken.TYPE_RIGHT_BRACE:
+						depth--;
+						status = depth > 0 ? peekStatus() : JSONParser.S_IN_FINISHED_VALUE;
+						return token = END_OBJECT;
+					default:
+						throw unexpectedToken();
+					}
+					break;
+
+				case JSONParser.S_PASSED_PAIR_KEY:
+					type = lexer.next();
+					switch (type) {
+					case Yytoken.TYPE_COLON:
+						break;
+					case Yytoken.TYPE_LEFT_SQUARE:
+						depth--;
+						push(JSONParser.S_IN_PAIR_VALUE);
+						status = JSONParser.S_IN_ARRAY;
+						push(status);
+						return token = START_ARRAY;
+					case Yytoken.TYPE_LEFT_BRACE:
+						depth--;
+						push(JSONParser.S_IN_PAIR_VALUE);
+						status = JSONParser.S_IN_OBJECT;
+						push(status);
+						return token = START_OBJECT;
+					default:
+						if (type < ValueLexer.TYPE_STRING) {
+							throw unexpectedToken();
+						}
+						depth--;
+						status = peekStatus();
+						return token = valueToken();
+					}
+					break;
+
+				case JSONParser.S_IN_PAIR_VALUE:
+					/* the end of an object entry whose value is a container */
+					depth--;
+					status = peekStatus();
+					break;
+
+				case JSONParser.S_IN_ARRAY:
+					type = lexer.next();
+					switch (type) {
+					case Yytoken.TYPE_COMMA:
+						break;
+					case Yytoken.TYPE_RIGHT_SQUARE:
+						if (depth > 1) {
+							depth--;
+							status = peekStatus();
+						} else {
+							status = JSONParser.S_IN_FINISHED_VALUE;
+						}
+						return token = END_ARRAY;
+					case Yytoken.TYPE_LEFT_BRACE:
+						status = JSONParser.S_IN_OBJECT;
+						push(status);
+						return token = START_OBJECT;
+					case Yytoken.TYPE_LEFT_SQUARE:
+						status = JSONParser.S_IN_ARRAY;
+						push(status);
+						return token = START_ARRAY;
+					default:
+						if (type < ValueLexer.TYPE_STRING) {
+							throw unexpectedToken();
+						}
+						return token = valueToken();
+					}
+					break;
+
+				case JSONParser.S_IN_FINISHED_VALUE:
+				case JSONParser.S_END:
+					status = JSONParser.S_END;
+					return token = END_DOCUMENT;
+
+				default:
+					throw unexpectedToken();
+				}
+			}
+		} catch (IOException ie) {
+			status = JSONParser.S_IN_ERROR;
+			throw ie;
+		} catch (ParseException pe) {
+			status = JSONParser.S_IN_ERROR;
+			throw pe;
+		} catch (RuntimeException re) {
+			status = JSONParser.S_IN_ERROR;
+			throw re;
+		}
+	}
+
+	private int valueToken() {
+		switch (type) {
+		case ValueLexer.TYPE_STRING:
+			return STRING;
+		case ValueLexer.TYPE_LONG:
+			return LONG;
+		case ValueLexer.TYPE_DOUBLE:
+			return DOUBLE;
+		case ValueLexer.TYPE_NULL:
+			return NULL;
+		default:
+			return BOOLEAN;
+		}
+	}
+
+	private ParseException unexpectedToken() {
+		status = JSONParser.S_IN_ERROR;
+		return new ParseException(lexer.getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, lexer.toYytoken(type));
+	}
+
+	/**
+	 * @return the current token, the one last returned by nextToken().
+	 */
+	public int getToken() {
+		return token;
+	}
+
+	/**
+	 * Skips the value of the current token: for START_OBJECT or START_ARRAY,
+	 * skips to the matching END_OBJECT or END_ARRAY, which becomes the
+	 * current token; for KEY, skips the value of the entry.  Does nothing
+	 * for the other tokens.
+	 * <p>
+	 * The content of a skipped object or array is only scanned for brackets
+	 * and quotes: strings are not unescaped, numbers not converted, and
+	 * nothing is checked for errors.
+	 *
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	public void skipValue() throws IOException, ParseException {
+		if (token == KEY) {
+			nextToken();
+		}
+		if (token != START_OBJECT && token != START_ARRAY) {
+			return;
+		}
+		boolean isObject = token == START_OBJECT;
+		try {
+			type = lexer.skipContainer();
+		} catch (IOException ie) {
+			status = JSONParser.S_IN_ERROR;
+			throw ie;
+		}
+		/* the closing bracket, as nextToken() reads it */
+		if (isObject) {
+			if (type != Yytoken.TYPE_RIGHT_BRACE) {
+				throw unexpectedToken();
+			}
+			depth--;
+			status = depth > 0 ? peekStatus() : JSONParser.S_IN_FINISHED_VALUE;
+			token = END_OBJECT;
+		} else {
+			if (type != Yytoken.TYPE_RIGHT_SQUARE) {
+				throw unexpectedToken();
+			}
+			if (depth > 1) {
+				depth--;
+				status = peekStatus();
+			} else {
+				status = JSONParser.S_IN_FINISHED_VALUE;
+			}
+			token = END_ARRAY;
+		}
+	}
+
+	/**
+	 * @return the value of the current LONG token, or of a DOUBLE token cast to long.
+	 * @throws NumberFormatException if a LONG token does not fit into a long
+	 * @throws IllegalStateException if the current token is not a number
+	 */
+	public long getLong() {
+		if (token == LONG) {
+			return lexer.longValue();
+		}
+		if (token == DOUBLE) {
+			return (long) lexer.doubleValue();
+		}
+		throw notA("number");
+	}
+
+	/**
+	 * @return the value of the current LONG or DOUBLE token.
+	 * @throws IllegalStateException if the current token is not a number
+	 */
+	public double getDouble() {
+		if (token == LONG || token == DOUBLE) {
+			return lexer.doubleValue();
+		}
+		throw notA("number");
+	}
+
+	/**
+	 * @return the value of the current BOOLEAN token.
+	 * @throws IllegalStateException if the current token is not a boolean
+	 */
+	public boolean getBoolean() {
+		if (token == BOOLEAN) {
+			return type == ValueLexer.TYPE_TRUE;
+		}
+		throw notA("boolean");
+	}
+
+	/**
+	 * @return the content of the current KEY or STRING token.  The
+	 *         CharSequence is reused, it is only valid until the next call to
+	 *         nextToken().
+	 * @throws IllegalStateException if the current token is not a key or a string
+	 */
+	public CharSequence getCharSequence() {
+		if (token == KEY || token == STRING) {
+			return lexer.charSequenceValue();
+		}
+		throw notA("string");
+	}
+
+	/**
+	 * @return the content of the current KEY or STRING token as a String.
+	 * @throws IllegalStateException if the current token is not a key or a string
+	 */
+	public String getString() {
+		if (token == KEY || token == STRING) {
+			return lexer.stringValue();
+		}
+		throw notA("string");
+	}
+
+	/**
+	 * @return the value of the current token as {@link JSONParser} reports
+	 *         it: a String, Long, BigInteger, Double, Boolean or null.
+	 * @throws IllegalStateException if the current token is not a value
+	 */
+	public Object getValue() {
+		if (token < KEY) {
+			throw notA("value");
+		}
+		return lexer.toYytoken(type).value;
+	}
+
+	/**
+	 * @return The position of the beginning of the current token.
+	 */
+	public int getPosition() {
+		return lexer.getPosition();
+	}
+
+	private IllegalStateException notA(String what) {
+		return new IllegalStateException("Not a " + what + ": " + lexer.toYytoken(type));
+	}
+
+}
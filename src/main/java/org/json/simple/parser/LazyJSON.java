@@ -0,0 +1,342 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONAware;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+
+/**
+ * A value of a JSON text parsed by {@link JSONParser#parseLazy(byte[])},
+ * read on demand.
+ * <p>
+ * Parsing lazily only checks the text and records where each value is: no
+ * JSONObject, JSONArray or String is created.  A LazyJSON navigates the
+ * record, and a string or number is only converted when it is read, so a
+ * handler that reads a few fields of a large document pays for those
+ * fields only.  {@link #toJSON()} builds the whole value, as
+ * {@link JSONParser#parse(byte[])} would have returned it.
+ * <pre>
+ * LazyJSON order = parser.parseLazy(bytes);
+ * String id = order.get("id").stringValue();
+ * long quantity = order.get("items").get(0).get("quantity").longValue();
+ * </pre>
+ * Members are found by comparing keys in order, and elements by counting
+ * from the last element read in the same array, so reading all entries of
+ * a container one after the other takes linear time.
+ * <p>
+ * A LazyJSON refers to the bytes of the text, which must not be modified
+ * while it is used.  It can be read by several threads.
+ */
+public final class LazyJSON implements JSONAware {
+
+	/* by Tape type */
+	private static final String[] TYPES = {
+		null, "an object", "an array", "a string", "a string", "a number", "a number", "a boolean", "a boolean", "null"
+	};
+
+	private final Tape tape;
+	private final int index;
+
+	/* the position and tape index of the last element found by get(int), or 0 */
+	private volatile long cursor;
+
+	LazyJSON(Tape tape, int index) {
+		this.tape = tape;
+		this.index = index;
+	}
+
+	private int type() {
+		return Tape.type(tape.entries[index]);
+	}
+
+	public boolean isObject() {
+		return type() == Tape.OBJECT;
+	}
+
+	public boolean isArray() {
+		return type() == Tape.ARRAY;
+	}
+
+	public boolean isString() {
+		int type = type();
+		return type == Tape.PLAIN_STRING || type == Tape.STRING;
+	}
+
+	public boolean isNumber() {
+		int type = type();
+		return type == Tape.LONG || type == Tape.DOUBLE;
+	}
+
+	public boolean isBoolean() {
+		int type = type();
+		return type == Tape.TRUE || type == Tape.FALSE;
+	}
+
+	public boolean isNull() {
+		return type() == Tape.NULL;
+	}
+
+	/**
+	 * @return the number of entries of an object or elements of an array
+	 * @throws ClassCastException if the value is not an object or an array.
+	 */
+	public int size() {
+		if (type() != Tape.OBJECT && type() != Tape.ARRAY) {
+			throw new ClassCastException("Not a container, but " + TYPES[type()]);
+		}
+		return tape.count(index);
+	}
+
+	/**
+	 * @param key
+	 * @return the value of the entry with the key, or null if the object has no such entry
+	 * @throws ClassCastException if the value is not an object.
+	 */
+	public LazyJSON get(String key) {
+		int i = entry(key);
+		return i >= 0 ? new LazyJSON(tape, i + 1) : null;
+	}
+
+	/**
+	 * @param key
+	 * @return whether the object has an entry with the key
+	 * @throws ClassCastException if the value is not an object.
+	 */
+	public boolean containsKey(String key) {
+		return entry(key) >= 0;
+	}
+
+	/**
+	 * @return the index of the key of the entry, or -1
+	 */
+	private int entry(String key) {
+		if (type() != Tape.OBJECT) {
+			throw new ClassCastException("Not an object, but " + TYPES[type()]);
+		}
+		Tape t = tape;
+		int end = t.next(index);
+		/* with duplicate keys, the last entry wins, as in a JSONObject */
+		int found = -1;
+		for (int i = index + 1; i < end; i = t.next(i + 1)) {
+			if (t.keyEquals(i, key)) {
+				found = i;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @return the keys of the object, in order
+	 * @throws ClassCastException if the value is not an object.
+	 */
+	public List<String> keys() {
+		if (type() != Tape.OBJECT) {
+			throw new ClassCastException("Not an object, but " + TYPES[type()]);
+		}
+		Tape t = tape;
+		List<String> keys = new ArrayList<String>();
+		int end = t.next(index);
+		for (int i = index + 1; i < end; i = t.next(i + 1)) {
+			keys.add(t.string(i));
+		}
+		return keys;
+	}
+
+	/**
+	 * @param n
+	 * @return the element at position n of the array
+	 * @throws ClassCastException if the value is not an array.
+	 * @throws IndexOutOfBoundsException if there is no such element.
+	 */
+	public LazyJSON get(int n) {
+		if (type() != Tape.ARRAY) {
+			throw new ClassCastException("Not an array, but " + TYPES[type()]);
+		}
+		if (n < 0) {
+			throw new IndexOutOfBoundsException(String.valueOf(n));
+		}
+		Tape t = tape;
+		int end = t.next(index);
+		long c = cursor;
+		int element = (int) (c >>> 32);
+		int i = (int) c;
+		if (c == 0 || element > n) {
+			element = 0;
+			i = index + 1;
+		}
+		for (; element < n && i < end; element++) {
+			i = t.next(i);
+		}
+		if (i >= end) {
+			throw new IndexOutOfBoundsException(String.valueOf(n));
+		}
+		cursor = (long) element << 32 | i;
+		return new LazyJSON(tape, i);
+	}
+
+	/**
+	 * @return the string
+	 * @throws ClassCastException if the value is not a string.
+	 */
+	public String stringValue() {
+		if (!isString()) {
+			throw new ClassCastException("Not a string, but " + TYPES[type()]);
+		}
+		return tape.string(index);
+	}
+
+	/**
+	 * @return the number as a long, as by Number.longValue()
+	 * @throws ClassCastException if the value is not a number.
+	 * @throws NumberFormatException if it is an integer that does not fit into a long.
+	 */
+	public long longValue() {
+		switch (type()) {
+		case Tape.LONG:
+			return tape.longValue(index);
+		case Tape.DOUBLE:
+			return (long) tape.doubleValue(index);
+		default:
+			throw new ClassCastException("Not a number, but " + TYPES[type()]);
+		}
+	}
+
+	/**
+	 * @return the number as a double, as by Number.doubleValue()
+	 * @throws ClassCastException if the value is not a number.
+	 */
+	public double doubleValue() {
+		if (!isNumber()) {
+			throw new ClassCastException("Not a number, but " + TYPES[type()]);
+		}
+		return tape.doubleValue(index);
+	}
+
+	/**
+	 * @return the boolean
+	 * @throws ClassCastException if the value is not a boolean.
+	 */
+	public boolean booleanValue() {
+		if (!isBoolean()) {
+			throw new ClassCastException("Not a boolean, but " + TYPES[type()]);
+		}
+		return type() == Tape.TRUE;
+	}
+
+	/**
+	 * Builds the value, as {@link JSONParser#parse(byte[])} returns it.
+	 *
+	 * @return Instance of the following: org.json.simple.JSONObject,
+	 *         org.json.simple.JSONArray, java.lang.String, java.lang.Number,
+	 *         java.lang.Boolean, null
+	 */
+	public Object toJSON() {
+		if (type() != Tape.OBJECT && type() != Tape.ARRAY) {
+			return tape.value(index);
+		}
+		DefaultContentHandler handler = new DefaultContentHandler();
+		try {
+			replay(handler);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} catch (ParseException e) {
+			throw new IllegalStateException(e);
+		}
+		return handler.getContent();
+	}
+
+	/**
+	 * @return the object, built as by {@link #toJSON()}
+	 * @throws ClassCastException if the value is not an object.
+	 */
+	public JSONObject toJSONObject() {
+		if (type() != Tape.OBJECT) {
+			throw new ClassCastException("Not an object, but " + TYPES[type()]);
+		}
+		return (JSONObject) toJSON();
+	}
+
+	/**
+	 * @return the array, built as by {@link #toJSON()}
+	 * @throws ClassCastException if the value is not an array.
+	 */
+	public JSONArray toJSONArray() {
+		if (type() != Tape.ARRAY) {
+			throw new ClassCastException("Not an array, but " + TYPES[type()]);
+		}
+		return (JSONArray) toJSON();
+	}
+
+	/**
+	 * Passes the value to a handler, as JSONParser would when parsing it.
+	 */
+	private void replay(ContentHandler handler) throws ParseException, IOException {
+		Tape t = tape;
+		int stop = t.next(index);
+		/* the ends of the open containers, and whether they are objects */
+		int[] ends = new int[16];
+		boolean[] objects = new boolean[16];
+		int depth = 0;
+		int i = index;
+		handler.startJSON();
+		for (;;) {
+			while (depth > 0 && i == ends[depth - 1]) {
+				depth--;
+				if (objects[depth]) {
+					handler.endObject();
+				} else {
+					handler.endArray();
+				}
+				if (depth > 0 && objects[depth - 1]) {
+					handler.endObjectEntry();
+				}
+			}
+			if (i == stop) {
+				break;
+			}
+			boolean inObject = depth > 0 && objects[depth - 1];
+			if (inObject) {
+				handler.startObjectEntry(t.string(i++));
+			}
+			int type = Tape.type(t.entries[i]);
+			if (type == Tape.OBJECT || type == Tape.ARRAY) {
+				if (depth == ends.length) {
+					ends = Arrays.copyOf(ends, 2 * depth);
+					objects = Arrays.copyOf(objects, 2 * depth);
+				}
+				ends[depth] = t.next(i);
+				objects[depth] = type == Tape.OBJECT;
+				depth++;
+				if (type == Tape.OBJECT) {
+					handler.startObject();
+				} else {
+					handler.startArray();
+				}
+				i++;
+			} else {
+				handler.primitive(t.value(i++));
+				if (inObject) {
+					handler.endObjectEntry();
+				}
+			}
+		}
+		handler.endJSON();
+	}
+
+	/**
+	 * @return the value as JSON text, written from the value built by {@link #toJSON()}
+	 */
+	public String toJSONString() {
+		return JSONValue.toJSONString(toJSON());
+	}
+
+	public String toString() {
+		return toJSONString();
+	}
+
+}
@@ -0,0 +1,41 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+
+/**
+ * Source of tokens for {@link JSONParser}.
+ * 
+ * @see Yylex
+ */
+interface Lexer {
+
+	/**
+	 * Scans the next token.
+	 * 
+	 * @return the next token, or null at the end of input
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	Yytoken yylex() throws IOException, ParseException;
+
+	/**
+	 * @return The character position of the beginning of the current token.
+	 */
+	int getPosition();
+
+	/**
+	 * Replaces the buffers that have grown larger than both their initial
+	 * size and <code>maxSize</code> with buffers of their initial size, so
+	 * that a pooled scanner does not keep what it grew for one large input.
+	 * Only called while the scanner has no input.
+	 * 
+	 * @param maxSize - the largest length of a grown buffer that is kept.
+	 */
+	void trimBuffers(int maxSize);
+
+	/**
+	 * @return The length of the largest buffer held by the scanner.
+	 */
+	int bufferSize();
+
+}
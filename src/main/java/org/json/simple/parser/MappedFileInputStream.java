@@ -0,0 +1,115 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file through memory mapped windows.
+ * <p>
+ * A single MappedByteBuffer cannot cover more than 2GB, so the file is mapped
+ * one window at a time, and the next window is mapped when the previous one
+ * has been read.  Reading copies straight from the mapped pages into the
+ * caller's array, without system calls or intermediate buffers.
+ */
+class MappedFileInputStream extends InputStream {
+
+	/** size of a mapped window */
+	static final long WINDOW_SIZE = 1L << 28;
+
+	private final FileChannel channel;
+	private final long size;
+	private final long windowSize;
+
+	/** file offset of the current window */
+	private long offset;
+	private MappedByteBuffer window;
+
+	MappedFileInputStream(Path path) throws IOException {
+		this(path, WINDOW_SIZE);
+	}
+
+	MappedFileInputStream(Path path, long windowSize) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = channel.size();
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Reads a range of a file.
+	 *
+	 * @param path
+	 * @param from - the file offset of the first byte read.
+	 * @param to - the file offset after the last byte read.
+	 * @throws IOException
+	 */
+	MappedFileInputStream(Path path, long from, long to) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = Math.min(to, channel.size());
+		this.windowSize = WINDOW_SIZE;
+		this.offset = from;
+	}
+
+	/**
+	 * @return the size of the file, or the end of the range read.
+	 */
+	long size() {
+		return size;
+	}
+
+	/**
+	 * Maps the next window if the current one has been read.
+	 *
+	 * @return false at the end of the file
+	 */
+	private boolean nextWindow() throws IOException {
+		if (window != null) {
+			if (window.hasRemaining()) {
+				return true;
+			}
+			offset += window.capacity();
+			window = null;
+		}
+		if (offset >= size) {
+			return false;
+		}
+		window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowSize, size - offset));
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!nextWindow()) {
+			return -1;
+		}
+		return window.get() & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!nextWindow()) {
+			return -1;
+		}
+		int n = Math.min(len, window.remaining());
+		window.get(b, off, n);
+		return n;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int) Math.min(Integer.MAX_VALUE, size - offset - (window == null ? 0 : window.position()));
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+}
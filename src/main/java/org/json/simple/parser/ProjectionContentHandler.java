@@ -0,0 +1,369 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds only the parts of a JSON text found at a set of paths, as
+ * {@link DefaultContentHandler} would build them, and skips everything else.
+ * <p>
+ * A path is either a JSON Pointer such as <code>/user/name</code> or
+ * <code>/items/0/id</code>, or the same in dotted form,
+ * <code>user.name</code> or <code>items.0.id</code>.  The empty path stands
+ * for the whole text.  The result has the structure of the full text, cut
+ * down to the requested values and the objects and arrays enclosing them:
+ * an array keeps the requested elements in their order.
+ *
+ * <pre>
+ * JSONParser parser = new JSONParser();
+ * ProjectionContentHandler handler = new ProjectionContentHandler(parser, "/user/name", "/items/0/id");
+ * parser.parse(in, handler);
+ * JSONObject projection = (JSONObject) handler.getContent();
+ * </pre>
+ *
+ * Values that are not on any path are skipped with
+ * {@link JSONParser#skipValue()}, so they are not even scanned into tokens.
+ * Once the value at every path has been built, the enclosing objects and
+ * arrays are closed and the parse is stopped, without reading the rest of
+ * the input.
+ */
+public class ProjectionContentHandler extends DefaultContentHandler {
+
+	private final JSONParser parser;
+	private final Node root = new Node();
+	private final int paths;
+
+	/* nodes of the open objects and arrays being filtered */
+	private Frame[] frames = new Frame[8];
+	private int depth;
+
+	/* key and node of the value of the current entry */
+	private String entryKey;
+	private Node entry;
+
+	/* nesting depth within a requested value, which is built completely */
+	private int inside;
+	private Node requested;
+
+	/* nesting depth within a value that is not wanted */
+	private int skipping;
+
+	/* number of paths whose value has been built */
+	private int found;
+	private int generation;
+
+	/**
+	 * @param parser - the parser this handler is used with, for skipping
+	 *            values; or null to filter without skipping.
+	 * @param paths - JSON Pointers or dotted paths.
+	 */
+	public ProjectionContentHandler(JSONParser parser, String... paths) {
+		this.parser = parser;
+		for (int i = 0; i < paths.length; i++) {
+			String[] keys = split(paths[i]);
+			Node node = root;
+			for (int j = 0; j < keys.length && !node.requested; j++) {
+				node = node.child(keys[j], true);
+			}
+			node.requested = true;
+			node.children = null;
+		}
+		this.paths = count(root);
+	}
+
+	/**
+	 * Splits a JSON Pointer or a dotted path into its keys.
+	 */
+	static String[] split(String path) {
+		if (path.length() == 0) {
+			return new String[0];
+		}
+		if (path.charAt(0) != '/') {
+			return path.split("\\.", -1);
+		}
+		String[] keys = path.substring(1).split("/", -1);
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = keys[i].replace("~1", "/").replace("~0", "~");
+		}
+		return keys;
+	}
+
+	private static int count(Node node) {
+		if (node.requested) {
+			return 1;
+		}
+		int n = 0;
+		if (node.children != null) {
+			for (Node child : node.children.values()) {
+				n += count(child);
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Node of the path tree: a requested value, or an object or array on the
+	 * way to one.
+	 */
+	private static class Node {
+
+		Map<String, Node> children;
+		/* the largest child key that is an array index, or -1 */
+		int maxIndex = -1;
+		boolean requested;
+		/* the generation of the text in which the value was built */
+		int found = -1;
+
+		Node child(String key, boolean create) {
+			Node child = children != null ? children.get(key) : null;
+			if (child == null && create) {
+				if (children == null) {
+					children = new HashMap<String, Node>();
+				}
+				child = new Node();
+				children.put(key, child);
+				if (isIndex(key)) {
+					maxIndex = Math.max(maxIndex, Integer.parseInt(key));
+				}
+			}
+			return child;
+		}
+
+		Node element(int index) {
+			return index <= maxIndex ? children.get(Integer.toString(index)) : null;
+		}
+
+		private static boolean isIndex(String key) {
+			if (key.length() == 0 || key.length() > 9 || (key.charAt(0) == '0' && key.length() > 1)) {
+				return false;
+			}
+			for (int i = 0; i < key.length(); i++) {
+				if (key.charAt(i) < '0' || key.charAt(i) > '9') {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+	/**
+	 * An open object or array on the way to requested values.
+	 */
+	private static class Frame {
+
+		Node node;
+		/* the index of the next element of an array, or -1 in an object */
+		int index;
+		/* the current entry of an object has been passed on */
+		boolean entry;
+
+	}
+
+	private void push(Node node, boolean isArray) {
+		if (depth == frames.length) {
+			frames = Arrays.copyOf(frames, 2 * depth);
+		}
+		Frame frame = frames[depth];
+		if (frame == null) {
+			frame = frames[depth] = new Frame();
+		}
+		frame.node = node;
+		frame.index = isArray ? 0 : -1;
+		frame.entry = false;
+		depth++;
+	}
+
+	/**
+	 * @return the node of the value that starts now, or null if it is not wanted.
+	 */
+	private Node valueNode() {
+		if (depth == 0) {
+			return root;
+		}
+		Frame frame = frames[depth - 1];
+		if (frame.index >= 0) {
+			return frame.node.element(frame.index++);
+		}
+		return entry;
+	}
+
+	/**
+	 * Passes on the entry whose value is wanted, now that the value starts.
+	 */
+	private boolean startEntry() throws ParseException, IOException {
+		if (depth > 0 && entry != null) {
+			Frame frame = frames[depth - 1];
+			if (frame.index < 0 && !frame.entry) {
+				frame.entry = true;
+				return super.startObjectEntry(entryKey);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Notes that the value of a node has been built.
+	 *
+	 * @return false if all values have been built, after closing the open
+	 *         objects and arrays.
+	 */
+	private boolean found(Node node) throws ParseException, IOException {
+		if (node.found != generation) {
+			node.found = generation;
+			found++;
+		}
+		if (found < paths) {
+			return true;
+		}
+		while (depth > 0) {
+			Frame frame = frames[--depth];
+			if (frame.index >= 0) {
+				super.endArray();
+			} else {
+				if (frame.entry) {
+					super.endObjectEntry();
+				}
+				super.endObject();
+			}
+		}
+		return false;
+	}
+
+	private void skip() {
+		if (parser != null) {
+			parser.skipValue();
+		}
+	}
+
+	@Override
+	public void startJSON() throws ParseException, IOException {
+		super.startJSON();
+		depth = 0;
+		entry = null;
+		inside = 0;
+		skipping = 0;
+		found = 0;
+		generation++;
+	}
+
+	@Override
+	public boolean startObject() throws ParseException, IOException {
+		return start(false);
+	}
+
+	@Override
+	public boolean startArray() throws ParseException, IOException {
+		return start(true);
+	}
+
+	private boolean start(boolean isArray) throws ParseException, IOException {
+		if (skipping > 0) {
+			skipping++;
+			return true;
+		}
+		if (inside > 0) {
+			inside++;
+		} else {
+			Node node = valueNode();
+			if (node == null) {
+				skipping = 1;
+				skip();
+				return true;
+			}
+			startEntry();
+			if (node.requested) {
+				inside = 1;
+				requested = node;
+			} else {
+				push(node, isArray);
+			}
+		}
+		return isArray ? super.startArray() : super.startObject();
+	}
+
+	@Override
+	public boolean endObject() throws ParseException, IOException {
+		return end(false);
+	}
+
+	@Override
+	public boolean endArray() throws ParseException, IOException {
+		return end(true);
+	}
+
+	private boolean end(boolean isArray) throws ParseException, IOException {
+		if (skipping > 0) {
+			skipping--;
+			return true;
+		}
+		if (inside > 0) {
+			boolean result = isArray ? super.endArray() : super.endObject();
+			if (--inside == 0) {
+				return found(requested) && result;
+			}
+			return result;
+		}
+		depth--;
+		return isArray ? super.endArray() : super.endObject();
+	}
+
+	@Override
+	public boolean startObjectEntry(String key) throws ParseException, IOException {
+		if (skipping > 0) {
+			return true;
+		}
+		if (inside > 0) {
+			return super.startObjectEntry(key);
+		}
+		entry = frames[depth - 1].node.child(key, false);
+		if (entry == null) {
+			skip();
+			return true;
+		}
+		entryKey = key;
+		if (entry.requested) {
+			return startEntry();
+		}
+		/* passed on when its value turns out to be an object or array */
+		return true;
+	}
+
+	@Override
+	public boolean endObjectEntry() throws ParseException, IOException {
+		if (skipping > 0) {
+			return true;
+		}
+		if (inside > 0) {
+			return super.endObjectEntry();
+		}
+		Frame frame = frames[depth - 1];
+		entry = null;
+		if (frame.entry) {
+			frame.entry = false;
+			return super.endObjectEntry();
+		}
+		return true;
+	}
+
+	@Override
+	public boolean primitive(Object value) throws ParseException, IOException {
+		if (skipping > 0) {
+			return true;
+		}
+		if (inside > 0) {
+			return super.primitive(value);
+		}
+		Node node = valueNode();
+		if (node == null || !node.requested) {
+			/* not wanted, or not the object or array on the way to a wanted value */
+			return true;
+		}
+		startEntry();
+		boolean result = super.primitive(value);
+		return found(node) && result;
+	}
+
+}
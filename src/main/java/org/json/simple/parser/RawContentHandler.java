@@ -0,0 +1,214 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.json.simple.JSONValue;
+import org.json.simple.RawJSON;
+
+/**
+ * Builds a JSON text as {@link DefaultContentHandler} would, except for the
+ * values found at a set of paths, which are kept as {@link RawJSON} text
+ * instead of being built.
+ * <p>
+ * A path is either a JSON Pointer such as <code>/payload</code> or
+ * <code>/items/0/payload</code>, or the same in dotted form,
+ * <code>payload</code> or <code>items.0.payload</code>.  The empty path
+ * stands for the whole text.
+ *
+ * <pre>
+ * JSONParser parser = new JSONParser();
+ * RawContentHandler handler = new RawContentHandler(parser, "/payload");
+ * parser.parse(bytes, handler);
+ * JSONObject message = (JSONObject) handler.getContent();
+ * RawJSON payload = (RawJSON) message.get("payload");
+ * </pre>
+ *
+ * The values at the paths are captured with {@link JSONParser#captureValue()},
+ * so they are fast-forwarded over, and their text is copied from the input
+ * when the input is held in an array.  This holds for entries of objects,
+ * and for objects and arrays anywhere; a number, string, boolean or null
+ * found as an element of an array or as the whole text has already been
+ * read when the handler sees it, and is written again from its value, so
+ * that with the path <code>arr.0</code> the element <code>1.50e3</code>
+ * comes back as <code>1500.0</code>.  Written out again with
+ * {@link JSONValue#writeJSONString(Object, java.io.Writer)}, they are
+ * passed through as they are.
+ */
+public class RawContentHandler extends DefaultContentHandler {
+
+	private final JSONParser parser;
+	private final Node root = new Node();
+
+	/* nodes of the open objects and arrays, null if they are on no path */
+	private Node[] nodes = new Node[8];
+	/* the index of the next element of an array, or -1 in an object */
+	private int[] indexes = new int[8];
+	private int depth;
+
+	/* the node of the value of the current entry */
+	private Node entry;
+
+	/* the value being skipped is captured */
+	private boolean captured;
+
+	/**
+	 * @param parser - the parser this handler is used with.
+	 * @param paths - JSON Pointers or dotted paths.
+	 */
+	public RawContentHandler(JSONParser parser, String... paths) {
+		if (parser == null) {
+			throw new NullPointerException();
+		}
+		this.parser = parser;
+		for (int i = 0; i < paths.length; i++) {
+			String[] keys = ProjectionContentHandler.split(paths[i]);
+			Node node = root;
+			for (int j = 0; j < keys.length && !node.raw; j++) {
+				node = node.child(keys[j]);
+			}
+			node.raw = true;
+			node.children = null;
+		}
+	}
+
+	/**
+	 * Node of the path tree: a value kept raw, or an object or array on the
+	 * way to one.
+	 */
+	private static class Node {
+
+		Map<String, Node> children;
+		/* the largest child key that is an array index, or -1 */
+		int maxIndex = -1;
+		boolean raw;
+
+		Node child(String key) {
+			if (children == null) {
+				children = new HashMap<String, Node>();
+			}
+			Node child = children.get(key);
+			if (child == null) {
+				child = new Node();
+				children.put(key, child);
+				if (key.matches("0|[1-9][0-9]{0,8}")) {
+					maxIndex = Math.max(maxIndex, Integer.parseInt(key));
+				}
+			}
+			return child;
+		}
+
+		Node get(String key) {
+			return children != null ? children.get(key) : null;
+		}
+
+		Node element(int index) {
+			return index <= maxIndex ? children.get(Integer.toString(index)) : null;
+		}
+
+	}
+
+	/**
+	 * @return the node of the value that starts now, or null if it is on no path.
+	 */
+	private Node valueNode() {
+		if (depth == 0) {
+			return root;
+		}
+		Node node = nodes[depth - 1];
+		if (indexes[depth - 1] < 0) {
+			return entry;
+		}
+		int index = indexes[depth - 1]++;
+		return node != null ? node.element(index) : null;
+	}
+
+	@Override
+	public void startJSON() throws ParseException, IOException {
+		super.startJSON();
+		depth = 0;
+		entry = null;
+		captured = false;
+	}
+
+	@Override
+	public boolean startObject() throws ParseException, IOException {
+		return start(false);
+	}
+
+	@Override
+	public boolean startArray() throws ParseException, IOException {
+		return start(true);
+	}
+
+	private boolean start(boolean isArray) throws ParseException, IOException {
+		Node node = valueNode();
+		if (node != null && node.raw) {
+			parser.captureValue();
+			captured = true;
+			return true;
+		}
+		if (depth == nodes.length) {
+			nodes = Arrays.copyOf(nodes, 2 * depth);
+			indexes = Arrays.copyOf(indexes, 2 * depth);
+		}
+		nodes[depth] = node;
+		indexes[depth] = isArray ? 0 : -1;
+		depth++;
+		return isArray ? super.startArray() : super.startObject();
+	}
+
+	@Override
+	public boolean endObject() throws ParseException, IOException {
+		return end(false);
+	}
+
+	@Override
+	public boolean endArray() throws ParseException, IOException {
+		return end(true);
+	}
+
+	private boolean end(boolean isArray) throws ParseException, IOException {
+		if (captured) {
+			captured = false;
+			return super.primitive(parser.getCapturedValue());
+		}
+		depth--;
+		return isArray ? super.endArray() : super.endObject();
+	}
+
+	@Override
+	public boolean startObjectEntry(String key) throws ParseException, IOException {
+		Node node = nodes[depth - 1];
+		entry = node != null ? node.get(key) : null;
+		boolean result = super.startObjectEntry(key);
+		if (entry != null && entry.raw) {
+			parser.captureValue();
+			captured = true;
+		}
+		return result;
+	}
+
+	@Override
+	public boolean endObjectEntry() throws ParseException, IOException {
+		entry = null;
+		if (captured) {
+			captured = false;
+			super.primitive(parser.getCapturedValue());
+		}
+		return super.endObjectEntry();
+	}
+
+	@Override
+	public boolean primitive(Object value) throws ParseException, IOException {
+		Node node = valueNode();
+		if (node != null && node.raw) {
+			/* an element or the whole text; entries are captured by the parser */
+			return super.primitive(new RawJSON(JSONValue.toJSONString(value)));
+		}
+		return super.primitive(value);
+	}
+
+}
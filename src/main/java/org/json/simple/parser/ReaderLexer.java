@@ -0,0 +1,37 @@
+package org.json.simple.parser;
+
+import java.io.Reader;
+
+/**
+ * A {@link Lexer} for character input, read from a Reader or scanned in place
+ * from a char array.
+ * 
+ * @see Yylex
+ * @see CharLexer
+ */
+interface ReaderLexer extends Lexer {
+
+	/**
+	 * Resets the scanner to read from a new reader.  Characters read ahead
+	 * from the same reader are kept.
+	 * 
+	 * @param in
+	 */
+	void yyreset(Reader in);
+
+	/**
+	 * Resets the scanner to scan a range of a char array in place.
+	 * 
+	 * @param buf
+	 * @param off
+	 * @param len
+	 */
+	void yyreset(char[] buf, int off, int len);
+
+	/**
+	 * @param block true to read from the reader in blocks, false to read
+	 *            one character at a time
+	 */
+	void setBlockRefill(boolean block);
+
+}
@@ -0,0 +1,274 @@
+package org.json.simple.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Stage 1 of the indexed scanner: finds where the tokens of a UTF-8 encoded
+ * JSON text start.
+ * <p>
+ * Most of a JSON text is string content and indentation, and neither holds
+ * any token.  Both are skipped eight bytes at a time: each block of eight
+ * bytes is read as a long and tested for quotes and backslashes, or for
+ * anything but spaces, with SWAR (SIMD within a register) arithmetic.  The
+ * remaining bytes are classified one by one through a table.
+ * <p>
+ * The index holds, in ascending order, the offset of
+ * <ul>
+ * <li>every structural character <code>{ } [ ] , :</code> outside strings,</li>
+ * <li>every unescaped quote, so each opening quote is followed by its
+ * closing quote.  The offset of a closing quote is stored as
+ * <code>-1 - offset</code> if the string contains escapes or non-ASCII
+ * characters, so that plain strings need not be looked at again,</li>
+ * <li>the first byte of every other run of characters outside strings,
+ * that is the start of numbers, literals and garbage.</li>
+ * </ul>
+ * White space is never indexed.  An unterminated string has no closing quote
+ * entry.
+ * <p>
+ * A text can also be indexed in parts, see {@link #scan(byte[], int, int, int)}.
+ * A part that starts inside a string begins with the closing quote of that
+ * string, and only tells whether the part of the string it saw is plain.
+ *
+ * @see IndexedLexer
+ */
+final class StructuralIndex {
+
+	private static final long ONES = 0x0101010101010101L;
+	private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+
+	private static final long QUOTE = '"' * ONES;
+	private static final long BACKSLASH = '\\' * ONES;
+	private static final long SPACE = ' ' * ONES;
+
+	private static final byte OTHER = 0;
+	private static final byte WHITESPACE = 1;
+	private static final byte STRUCTURAL = 2;
+	private static final byte STRING = 3;
+
+	private static final byte[] CLASSES = new byte[256];
+
+	/*
+	 * States in which scan() can start.
+	 */
+	/** outside strings, not within a run of other characters */
+	static final int START_OUTSIDE = 0;
+	/** within a run of other characters, such as a number */
+	static final int START_IN_RUN = 1;
+	/** inside a string */
+	static final int START_IN_STRING = 2;
+	/** inside a string, the first byte is escaped by a backslash */
+	static final int START_ESCAPED = 3;
+
+	static {
+		CLASSES[' '] = CLASSES['\t'] = CLASSES['\n'] = CLASSES['\r'] = WHITESPACE;
+		CLASSES['{'] = CLASSES['}'] = CLASSES['['] = CLASSES[']'] = STRUCTURAL;
+		CLASSES[','] = CLASSES[':'] = STRUCTURAL;
+		CLASSES['"'] = STRING;
+	}
+
+	static final int INITIAL_SIZE = 64;
+
+	/** offsets of the indexed bytes */
+	int[] entries = new int[INITIAL_SIZE];
+
+	/** number of valid entries */
+	int count;
+
+	/** set by closingQuote(): the string holds ASCII characters only, without escapes */
+	private boolean plain;
+
+	/*
+	 * Set by scan() for a part that starts inside a string.
+	 */
+	/** the string ends in this part, its closing quote is the first entry */
+	boolean headClosed;
+	/** the bytes of the string in this part are plain */
+	boolean headPlain;
+
+	/*
+	 * Set by scan() for a part that ends inside a string.
+	 */
+	/** the part ends inside a string */
+	boolean tailOpen;
+	/** the bytes of that string in this part are plain */
+	boolean tailPlain;
+
+	/**
+	 * Indexes a range of a byte array.
+	 *
+	 * @param b
+	 * @param off
+	 * @param len
+	 */
+	void build(byte[] b, int off, int len) {
+		count = 0;
+		scan(b, off, off + len, START_OUTSIDE);
+	}
+
+	/**
+	 * Indexes the bytes from <code>from</code> to <code>to</code>, and
+	 * appends their entries.
+	 *
+	 * @param b
+	 * @param from
+	 * @param to
+	 * @param start - the state at from, one of the START_ constants.
+	 */
+	void scan(byte[] b, int from, int to, int start) {
+		ByteBuffer words = ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN);
+		int end = to;
+		int[] e = entries;
+		int n = count;
+		boolean inRun = start == START_IN_RUN;
+		int p = from;
+
+		tailOpen = false;
+		if (start >= START_IN_STRING) {
+			if (start == START_ESCAPED) {
+				p++;
+			}
+			p = p < end ? closingQuote(b, words, p, end) : end;
+			headPlain = plain && start != START_ESCAPED;
+			headClosed = p < end;
+			if (n + 1 > e.length) {
+				e = entries = Arrays.copyOf(e, 2 * e.length);
+			}
+			if (headClosed) {
+				e[n++] = headPlain ? p : -1 - p;
+				p++;
+			} else {
+				tailOpen = true;
+				tailPlain = headPlain;
+			}
+		}
+
+		while (p < end) {
+			/* an entry is added per byte at most */
+			if (n + 2 > e.length) {
+				e = entries = Arrays.copyOf(e, Math.max(n + 2, 2 * e.length));
+			}
+
+			switch (CLASSES[b[p] & 0xff]) {
+			case WHITESPACE:
+				inRun = false;
+				p++;
+				/* indentation */
+				while (p <= end - 8 && words.getLong(p) == SPACE) {
+					p += 8;
+				}
+				break;
+			case STRUCTURAL:
+				inRun = false;
+				e[n++] = p++;
+				break;
+			case STRING:
+				inRun = false;
+				e[n++] = p++;
+				p = closingQuote(b, words, p, end);
+				if (p < end) {
+					e[n++] = plain ? p : -1 - p;
+					p++;
+				} else {
+					tailOpen = true;
+					tailPlain = plain;
+				}
+				break;
+			default:
+				if (!inRun) {
+					inRun = true;
+					e[n++] = p;
+				}
+				p++;
+				break;
+			}
+		}
+		count = n;
+	}
+
+	/**
+	 * Works out the state in which a part of a text starts, given whether it
+	 * starts inside a string.  Only the bytes before the part are looked at.
+	 *
+	 * @param b
+	 * @param off - the start of the text.
+	 * @param from - the start of the part.
+	 * @param inString
+	 * @return one of the START_ constants.
+	 */
+	static int startState(byte[] b, int off, int from, boolean inString) {
+		if (inString) {
+			/* an odd number of backslashes escapes the first byte */
+			int p = from;
+			while (p > off && b[p - 1] == '\\') {
+				p--;
+			}
+			return ((from - p) & 1) != 0 ? START_ESCAPED : START_IN_STRING;
+		}
+		/* outside strings, an other character is always part of a run */
+		return from > off && CLASSES[b[from - 1] & 0xff] == OTHER ? START_IN_RUN : START_OUTSIDE;
+	}
+
+	/**
+	 * Finds the quote closing a string.
+	 *
+	 * @param p - the index after the opening quote, or of the first byte to look at.
+	 * @return the index of the closing quote, or end if the string is not terminated.
+	 */
+	private int closingQuote(byte[] b, ByteBuffer words, int p, int end) {
+		long bytes = 0;	// the bytes seen, or'ed together
+		plain = true;
+		for (;;) {
+			long found = 0;
+			while (p <= end - 8) {
+				long x = words.getLong(p);
+				found = equal(x, QUOTE) | equal(x, BACKSLASH);
+				if (found != 0) {
+					/* little endian: the lowest set bit belongs to the first byte */
+					bytes |= x & ((found & -found) - 1);
+					p += Long.numberOfTrailingZeros(found) >>> 3;
+					break;
+				}
+				bytes |= x;
+				p += 8;
+			}
+			if (found == 0) {
+				while (p < end && b[p] != '"' && b[p] != '\\') {
+					bytes |= b[p];
+					p++;
+				}
+				if (p == end) {
+					if ((bytes & HIGH_BITS) != 0) {
+						plain = false;
+					}
+					return end;
+				}
+			}
+			if (b[p] == '"') {
+				if ((bytes & HIGH_BITS) != 0) {
+					plain = false;
+				}
+				return p;
+			}
+			/* skip the escaped byte */
+			plain = false;
+			p += 2;
+			if (p >= end) {
+				return end;
+			}
+		}
+	}
+
+	/**
+	 * @return 0x80 in every byte of x that equals the byte repeated in
+	 *         pattern, 0 in the other bytes
+	 */
+	private static long equal(long x, long pattern) {
+		long t = x ^ pattern;
+		/* no carries between bytes, unlike the usual (t - ONES) & ~t */
+		return ~(((t & LOW7) + LOW7) | t | LOW7);
+	}
+
+}
@@ -0,0 +1,399 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A parsed JSON text as a flat array of longs, one per value, that point
+ * into the UTF-8 encoded text instead of holding the values.
+ * <p>
+ * Each entry holds the type of the value in its top four bits.  For a
+ * string, a number or a literal, the rest holds the length of its text and
+ * the offset of its first byte; the text of a string is its content between
+ * the quotes.  For an object or an array, the rest holds the number of
+ * entries or elements and the index of the first entry after the container.
+ * The entries of an object are its keys, each followed by its value, so
+ * the tape lists the values of the text in order.
+ * <p>
+ * The text is scanned and checked when the tape is built, so that reading
+ * a value later cannot fail, except for an integer that does not fit into
+ * a long.  Strings and numbers are only converted when they are read.
+ *
+ * @see LazyJSON
+ */
+final class Tape {
+
+	private static final Charset ASCII = Charset.forName("ISO-8859-1");
+
+	/*
+	 * Types of the entries.
+	 */
+	static final int OBJECT = 1;
+	static final int ARRAY = 2;
+	/** a string of ASCII characters without escapes */
+	static final int PLAIN_STRING = 3;
+	static final int STRING = 4;
+	static final int LONG = 5;
+	static final int DOUBLE = 6;
+	static final int TRUE = 7;
+	static final int FALSE = 8;
+	static final int NULL = 9;
+
+	private static final int OFFSET_BITS = 31;
+	private static final int LENGTH_BITS = 29;
+	private static final int COUNT_BITS = 28;
+	/** a length or count too large for its field */
+	static final int LENGTH_UNKNOWN = (1 << LENGTH_BITS) - 1;
+	static final int COUNT_UNKNOWN = (1 << COUNT_BITS) - 1;
+
+	/*
+	 * States of the builder, as in JSONParser.
+	 */
+	private static final int S_INIT = 0;
+	private static final int S_IN_OBJECT = 1;
+	private static final int S_PASSED_PAIR_KEY = 2;
+	private static final int S_IN_ARRAY = 3;
+	private static final int S_END = 4;
+
+	/** the text */
+	final byte[] buf;
+	/** index after the text */
+	private final int end;
+
+	long[] entries = new long[16];
+	int size;
+
+	/** tape indexes of the open containers, and their number of children */
+	private int[] open = new int[16];
+	private int[] counts = new int[16];
+	private int depth;
+
+	Tape(byte[] b, int off, int len) {
+		buf = b;
+		end = off + len;
+	}
+
+	/**
+	 * Builds the tape from the tokens of the text.  The same texts are
+	 * accepted, and the same errors reported, as by {@link JSONParser}.
+	 *
+	 * @param lexer - a scanner reset to the text.
+	 * @throws ParseException
+	 */
+	void build(IndexedLexer lexer) throws ParseException {
+		int status = S_INIT;
+		for (;;) {
+			if (status == S_END) {
+				/* like JSONParser.parse(), stop after the first value */
+				return;
+			}
+			int type = lexer.nextRaw();
+			switch (status) {
+			case S_IN_OBJECT:
+				if (type == Yytoken.TYPE_COMMA) {
+					continue;
+				}
+				if (type == ValueLexer.TYPE_STRING) {
+					append(lexer, type);
+					counts[depth - 1]++;
+					status = S_PASSED_PAIR_KEY;
+					continue;
+				}
+				if (type == Yytoken.TYPE_RIGHT_BRACE) {
+					status = close();
+					continue;
+				}
+				throw error(lexer, type);
+			case S_PASSED_PAIR_KEY:
+				if (type == Yytoken.TYPE_COLON) {
+					continue;
+				}
+				break;
+			case S_IN_ARRAY:
+				if (type == Yytoken.TYPE_COMMA) {
+					continue;
+				}
+				if (type == Yytoken.TYPE_RIGHT_SQUARE) {
+					status = close();
+					continue;
+				}
+				break;
+			default:
+				if (type == Yytoken.TYPE_EOF) {
+					/* an empty text, parsed as null */
+					append(NULL, end, 0);
+					return;
+				}
+			}
+
+			/* a value */
+			if (status == S_IN_ARRAY) {
+				counts[depth - 1]++;
+			}
+			switch (type) {
+			case Yytoken.TYPE_LEFT_BRACE:
+				push(OBJECT);
+				status = S_IN_OBJECT;
+				break;
+			case Yytoken.TYPE_LEFT_SQUARE:
+				push(ARRAY);
+				status = S_IN_ARRAY;
+				break;
+			case ValueLexer.TYPE_STRING:
+			case ValueLexer.TYPE_LONG:
+			case ValueLexer.TYPE_DOUBLE:
+			case ValueLexer.TYPE_TRUE:
+			case ValueLexer.TYPE_FALSE:
+			case ValueLexer.TYPE_NULL:
+				append(lexer, type);
+				status = parentStatus();
+				break;
+			default:
+				throw error(lexer, type);
+			}
+		}
+	}
+
+	private ParseException error(IndexedLexer lexer, int type) {
+		Yytoken token;
+		if (type == ValueLexer.TYPE_STRING) {
+			int start = lexer.tokenStart() + 1;
+			token = new Yytoken(Yytoken.TYPE_VALUE, string(start, lexer.tokenEnd() - 1 - start, !lexer.isPlain()));
+		} else {
+			token = lexer.toYytoken(type);
+		}
+		return new ParseException(lexer.getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, token);
+	}
+
+	/**
+	 * @return the state after a value in the innermost open container
+	 */
+	private int parentStatus() {
+		if (depth == 0) {
+			return S_END;
+		}
+		return type(entries[open[depth - 1]]) == OBJECT ? S_IN_OBJECT : S_IN_ARRAY;
+	}
+
+	private void append(IndexedLexer lexer, int type) {
+		int start = lexer.tokenStart();
+		int length = lexer.tokenEnd() - start;
+		switch (type) {
+		case ValueLexer.TYPE_STRING:
+			append(lexer.isPlain() ? PLAIN_STRING : STRING, start + 1, length - 2);
+			break;
+		case ValueLexer.TYPE_LONG:
+			append(LONG, start, length);
+			break;
+		case ValueLexer.TYPE_DOUBLE:
+			append(DOUBLE, start, length);
+			break;
+		case ValueLexer.TYPE_TRUE:
+			append(TRUE, start, length);
+			break;
+		case ValueLexer.TYPE_FALSE:
+			append(FALSE, start, length);
+			break;
+		default:
+			append(NULL, start, length);
+		}
+	}
+
+	private void append(int type, int offset, int length) {
+		if (size == entries.length) {
+			entries = Arrays.copyOf(entries, 2 * size);
+		}
+		entries[size++] = (long) type << 60 | (long) Math.min(length, LENGTH_UNKNOWN) << OFFSET_BITS | offset;
+	}
+
+	private void push(int type) {
+		if (depth == open.length) {
+			open = Arrays.copyOf(open, 2 * depth);
+			counts = Arrays.copyOf(counts, 2 * depth);
+		}
+		open[depth] = size;
+		counts[depth] = 0;
+		depth++;
+		append(type, 0, 0);
+	}
+
+	/**
+	 * Closes the innermost open container.
+	 *
+	 * @return the state after it
+	 */
+	private int close() {
+		depth--;
+		int i = open[depth];
+		entries[i] = (long) type(entries[i]) << 60 | (long) Math.min(counts[depth], COUNT_UNKNOWN) << 32 | size;
+		return parentStatus();
+	}
+
+	static int type(long entry) {
+		return (int) (entry >>> 60);
+	}
+
+	static int offset(long entry) {
+		return (int) entry & Integer.MAX_VALUE;
+	}
+
+	static int length(long entry) {
+		return (int) (entry >>> OFFSET_BITS) & LENGTH_UNKNOWN;
+	}
+
+	/**
+	 * @return the number of entries or elements of a container
+	 */
+	int count(int index) {
+		int count = (int) (entries[index] >>> 32) & COUNT_UNKNOWN;
+		if (count == COUNT_UNKNOWN) {
+			int step = type(entries[index]) == OBJECT ? 2 : 1;
+			count = 0;
+			for (int i = index + 1; i < next(index); i = skip(i, step)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the index of the entry after the value at index
+	 */
+	int next(int index) {
+		long entry = entries[index];
+		int type = type(entry);
+		return type == OBJECT || type == ARRAY ? (int) entry : index + 1;
+	}
+
+	/**
+	 * Moves past a number of values.
+	 */
+	int skip(int index, int values) {
+		for (int i = 0; i < values; i++) {
+			index = next(index);
+		}
+		return index;
+	}
+
+	/**
+	 * @return whether the string at index equals the key, without converting it
+	 */
+	boolean keyEquals(int index, String key) {
+		long entry = entries[index];
+		int length = length(entry);
+		if (type(entry) != PLAIN_STRING || length == LENGTH_UNKNOWN) {
+			return key.equals(string(index));
+		}
+		if (length != key.length()) {
+			return false;
+		}
+		byte[] b = buf;
+		int offset = offset(entry);
+		for (int i = 0; i < length; i++) {
+			if (b[offset + i] != key.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the value at index, which is not a container, as JSONParser returns it
+	 */
+	Object value(int index) {
+		long entry = entries[index];
+		switch (type(entry)) {
+		case PLAIN_STRING:
+		case STRING:
+			return string(index);
+		case LONG:
+			return integer(index);
+		case DOUBLE:
+			return Double.valueOf(doubleValue(index));
+		case TRUE:
+			return Boolean.TRUE;
+		case FALSE:
+			return Boolean.FALSE;
+		default:
+			return null;
+		}
+	}
+
+	String string(int index) {
+		long entry = entries[index];
+		return string(offset(entry), length(entry), type(entry) == STRING);
+	}
+
+	private String string(int offset, int length, boolean escaped) {
+		if (!escaped && length != LENGTH_UNKNOWN) {
+			return new String(buf, offset, length, ASCII);
+		}
+		/* from the opening quote, the string is the first token */
+		int len = length != LENGTH_UNKNOWN ? length + 2 : end - offset + 1;
+		return (String) token(offset - 1, len);
+	}
+
+	long longValue(int index) {
+		long entry = entries[index];
+		int p = offset(entry);
+		int stop = p + length(entry);
+		byte[] b = buf;
+		boolean negative = b[p] == '-';
+		if (negative) {
+			p++;
+		}
+		if (stop - p > 18) {
+			/* may overflow, let Long report it */
+			return Long.parseLong(new String(b, offset(entry), length(entry), ASCII));
+		}
+		long value = 0;
+		while (p < stop) {
+			value = value * 10 + (b[p++] - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * @return the integer at index as a Long, or a BigInteger if it does not fit
+	 */
+	private Number integer(int index) {
+		try {
+			return Long.valueOf(longValue(index));
+		} catch (NumberFormatException e) {
+			long entry = entries[index];
+			return new BigInteger(new String(buf, offset(entry), length(entry), ASCII));
+		}
+	}
+
+	double doubleValue(int index) {
+		long entry = entries[index];
+		if (type(entry) == LONG && length(entry) <= 18) {
+			return longValue(index);
+		}
+		int offset = offset(entry);
+		int length = length(entry);
+		char[] c = new char[length];
+		for (int i = 0; i < length; i++) {
+			c[i] = (char) buf[offset + i];
+		}
+		return ValueLexer.parseDouble(c, 0, length);
+	}
+
+	/**
+	 * Scans the first value of a range of the text.
+	 */
+	private Object token(int off, int len) {
+		Utf8Lexer lexer = new Utf8Lexer(buf, off, len);
+		try {
+			return lexer.value(lexer.next());
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} catch (ParseException e) {
+			/* the text was checked when the tape was built */
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+
+/**
+ * A {@link ContentHandler} that receives primitive values unboxed.
+ * <p>
+ * When the handler passed to {@link JSONParser} implements this interface,
+ * the parser calls the typed methods below instead of
+ * {@link ContentHandler#primitive(Object)}.  With the hand-written scanners
+ * (see {@link JSONParser#setLexer(int)}) no Long, Double or String is
+ * created for a value at all: numbers are converted straight from the input,
+ * and strings are passed as a CharSequence over the scanner's buffer.
+ * <p>
+ * Numbers are passed to longValue(long) and doubleValue(double) only with
+ * the default {@link JSONParser#NUMBER_DOUBLE}, and integers too large for
+ * a long are passed to primitive(Object) as BigInteger.  With
+ * {@link JSONParser#NUMBER_BIG_DECIMAL} or {@link JSONParser#NUMBER_LAZY}
+ * (see {@link JSONParser#setNumberType(int)}) all numbers are passed to
+ * primitive(Object), boxed as that number type selects.
+ * <p>
+ * {@link TypedContentHandlerAdapter} implements the typed methods by boxing
+ * the value and calling primitive(Object).
+ *
+ * @see TypedContentHandlerAdapter
+ */
+public interface TypedContentHandler extends ContentHandler {
+
+	/**
+	 * Receive notification of a JSON string value.
+	 *
+	 * @param value - the string.  It is only valid during the call, use
+	 *            value.toString() to keep it.
+	 *
+	 * @return false if the handler wants to stop parsing after return.
+	 * @throws ParseException
+	 */
+	boolean stringValue(CharSequence value) throws ParseException, IOException;
+
+	/**
+	 * Receive notification of a JSON integer, a number without fraction or
+	 * exponent.
+	 *
+	 * @param value
+	 *
+	 * @return false if the handler wants to stop parsing after return.
+	 * @throws ParseException
+	 */
+	boolean longValue(long value) throws ParseException, IOException;
+
+	/**
+	 * Receive notification of a JSON number with fraction or exponent.
+	 *
+	 * @param value
+	 *
+	 * @return false if the handler wants to stop parsing after return.
+	 * @throws ParseException
+	 */
+	boolean doubleValue(double value) throws ParseException, IOException;
+
+	/**
+	 * Receive notification of a JSON true or false.
+	 *
+	 * @param value
+	 *
+	 * @return false if the handler wants to stop parsing after return.
+	 * @throws ParseException
+	 */
+	boolean booleanValue(boolean value) throws ParseException, IOException;
+
+	/**
+	 * Receive notification of a JSON null.
+	 *
+	 * @return false if the handler wants to stop parsing after return.
+	 * @throws ParseException
+	 */
+	boolean nullValue() throws ParseException, IOException;
+
+}
@@ -0,0 +1,88 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+
+/**
+ * Adapts a plain {@link ContentHandler} to {@link TypedContentHandler}: the
+ * typed methods box their value and pass it to
+ * {@link ContentHandler#primitive(Object)}, all other notifications are
+ * forwarded as they are.
+ * <p>
+ * Subclasses can override the typed methods for the values they want to see
+ * unboxed, and leave the rest to the wrapped handler.
+ */
+public class TypedContentHandlerAdapter implements TypedContentHandler {
+
+	private final ContentHandler handler;
+
+	/**
+	 * @param handler - the handler receiving the notifications.
+	 */
+	public TypedContentHandlerAdapter(ContentHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * @return the wrapped handler.
+	 */
+	public ContentHandler getHandler() {
+		return handler;
+	}
+
+	public void startJSON() throws ParseException, IOException {
+		handler.startJSON();
+	}
+
+	public void endJSON() throws ParseException, IOException {
+		handler.endJSON();
+	}
+
+	public boolean startObject() throws ParseException, IOException {
+		return handler.startObject();
+	}
+
+	public boolean endObject() throws ParseException, IOException {
+		return handler.endObject();
+	}
+
+	public boolean startObjectEntry(String key) throws ParseException, IOException {
+		return handler.startObjectEntry(key);
+	}
+
+	public boolean endObjectEntry() throws ParseException, IOException {
+		return handler.endObjectEntry();
+	}
+
+	public boolean startArray() throws ParseException, IOException {
+		return handler.startArray();
+	}
+
+	public boolean endArray() throws ParseException, IOException {
+		return handler.endArray();
+	}
+
+	public boolean primitive(Object value) throws ParseException, IOException {
+		return handler.primitive(value);
+	}
+
+	public boolean stringValue(CharSequence value) throws ParseException, IOException {
+		return primitive(value.toString());
+	}
+
+	public boolean longValue(long value) throws ParseException, IOException {
+		return primitive(Long.valueOf(value));
+	}
+
+	public boolean doubleValue(double value) throws ParseException, IOException {
+		return primitive(Double.valueOf(value));
+	}
+
+	public boolean booleanValue(boolean value) throws ParseException, IOException {
+		return primitive(Boolean.valueOf(value));
+	}
+
+	public boolean nullValue() throws ParseException, IOException {
+		return primitive(null);
+	}
+
+}
@@ -0,0 +1,892 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.json.simple.RawJSON;
+
+/**
+ * Scanner for UTF-8 encoded JSON text.
+ * <p>
+ * Produces the same tokens as {@link Yylex}, but reads bytes directly from a
+ * byte array or an InputStream instead of going through an InputStreamReader.
+ * Structural characters, literals and numbers are plain ASCII and are scanned
+ * as bytes; UTF-8 is only decoded inside strings, and strings consisting of
+ * ASCII characters only are built from the bytes in one step.
+ * <p>
+ * Malformed UTF-8 sequences are replaced by U+FFFD.  Positions are reported
+ * in characters, the same way {@link Yylex} reports them.
+ * <p>
+ * Besides pulling from a stream, the scanner can be fed chunks of input, see
+ * {@link #yyfeed()}.  It then throws {@link NeedInput} when a token runs into
+ * the end of the input fed so far.
+ *
+ * @see Yylex
+ */
+class Utf8Lexer extends ValueLexer {
+
+	private static final int BUFFER_SIZE = 16384;
+
+	private static final Charset ASCII = Charset.forName("ISO-8859-1");
+
+	/** the input stream, or null when scanning a byte array */
+	private InputStream in;
+
+	/** the bytes being scanned */
+	private byte[] buf;
+
+	/** buffer owned by this scanner for stream input */
+	private byte[] streamBuf;
+
+	/** initial size of streamBuf */
+	private int streamBufSize = BUFFER_SIZE;
+
+	/** index of the next byte to scan */
+	private int pos;
+
+	/** index after the last valid byte in buf */
+	private int end;
+
+	/** index of the first byte of the token being scanned */
+	private int tokenStart;
+
+	/** character position of buf[0], plus the bytes - chars difference seen so far */
+	private int base;
+
+	/** character position of the current token */
+	private int position;
+
+	private boolean atEOF;
+
+	private boolean blockRefill = true;
+
+	/** input is fed with feed(), and its end has not been signalled */
+	private boolean feeding;
+
+	/** the last token ran into the end of the input fed so far */
+	private boolean needInput;
+
+	/** offset from tokenStart where scanning of a string cut off by NeedInput continues */
+	private int resumeString;
+
+	/** number of chars of that string already unescaped, or -1 if none */
+	private int resumeChars;
+
+	/** a fast-forward cut off by NeedInput continues with the following state */
+	private boolean skipping;
+	private int skipDepth;
+	private boolean skipInString;
+	/** the opening bracket of the value skipped by skipValue() */
+	private byte skipOpen;
+
+	/** scratch space for strings containing escapes or non-ASCII characters */
+	private char[] chars = new char[CHARS_SIZE];
+
+	Utf8Lexer(InputStream in) {
+		this(in, BUFFER_SIZE);
+	}
+
+	Utf8Lexer(InputStream in, int bufferSize) {
+		streamBufSize = bufferSize;
+		streamBuf = new byte[bufferSize];
+		yyreset(in);
+	}
+
+	Utf8Lexer(byte[] b, int off, int len) {
+		yyreset(b, off, len);
+	}
+
+	/**
+	 * Resets the scanner to read from a new input stream.
+	 * <p>
+	 * If <code>in</code> is the stream the scanner was reading from, bytes that
+	 * were already read ahead but not yet scanned are kept and will be scanned
+	 * first.
+	 *
+	 * @param in the new input stream
+	 */
+	final void yyreset(InputStream in) {
+		if (streamBuf == null) {
+			streamBuf = new byte[streamBufSize];
+		}
+		if (in != null && in == this.in && buf == streamBuf && pos < end) {
+			end -= pos;
+			System.arraycopy(buf, pos, buf, 0, end);
+		} else {
+			end = 0;
+		}
+		this.in = in;
+		buf = streamBuf;
+		pos = tokenStart = base = position = 0;
+		atEOF = false;
+		feeding = needInput = skipping = false;
+		resumeString = 0;
+	}
+
+	/**
+	 * Resets the scanner to read from a byte array.  The array is scanned in
+	 * place and must not be modified until scanning is finished.
+	 *
+	 * @param b the bytes to scan
+	 * @param off offset of the first byte
+	 * @param len number of bytes
+	 */
+	final void yyreset(byte[] b, int off, int len) {
+		if (off < 0 || len < 0 || off > b.length - len) {
+			throw new IndexOutOfBoundsException();
+		}
+		in = null;
+		buf = b;
+		pos = tokenStart = off;
+		end = off + len;
+		base = -off;
+		position = 0;
+		atEOF = false;
+		feeding = needInput = skipping = false;
+		resumeString = 0;
+	}
+
+	/**
+	 * Resets the scanner to scan input passed to {@link #feed(ByteBuffer)}.
+	 * Until {@link #endFeed()} is called, running out of input throws
+	 * {@link NeedInput}; the token being scanned is then scanned again when
+	 * more input has been fed.  A string keeps what has been scanned of it.
+	 */
+	final void yyfeed() {
+		yyreset((InputStream) null);
+		feeding = true;
+	}
+
+	/**
+	 * Appends the remaining bytes of a buffer to the input, the position of
+	 * the buffer is moved to its limit.
+	 */
+	final void feed(ByteBuffer src) {
+		int n = src.remaining();
+		src.get(space(n), end, n);
+		end += n;
+	}
+
+	final void feed(byte[] b, int off, int len) {
+		if (off < 0 || len < 0 || off > b.length - len) {
+			throw new IndexOutOfBoundsException();
+		}
+		System.arraycopy(b, off, space(len), end, len);
+		end += len;
+	}
+
+	/**
+	 * Signals that no more input will be fed.
+	 */
+	final void endFeed() {
+		feeding = false;
+		restart();
+	}
+
+	/**
+	 * Goes back to the start of a token that ran out of input.
+	 */
+	private void restart() {
+		if (needInput) {
+			pos = tokenStart;
+			needInput = false;
+		}
+	}
+
+	/**
+	 * Drops the bytes before the current token, and makes room for n more.
+	 *
+	 * @return buf
+	 */
+	private byte[] space(int n) {
+		if (!feeding) {
+			throw new IllegalStateException("Not accepting input");
+		}
+		if (tokenStart > 0) {
+			System.arraycopy(buf, tokenStart, buf, 0, end - tokenStart);
+			end -= tokenStart;
+			pos -= tokenStart;
+			base += tokenStart;
+			tokenStart = 0;
+		}
+		restart();
+		if (end + n > buf.length) {
+			buf = streamBuf = Arrays.copyOf(buf, Math.max(end + n, (int) (1.5 * buf.length)));
+		}
+		return buf;
+	}
+
+	final void setBlockRefill(boolean block) {
+		blockRefill = block;
+	}
+
+	public void trimBuffers(int maxSize) {
+		super.trimBuffers(maxSize);
+		if (streamBuf != null && isOversized(streamBuf.length, streamBufSize, maxSize)) {
+			byte[] b = new byte[streamBufSize];
+			if (buf == streamBuf) {
+				buf = b;
+			}
+			streamBuf = b;
+		}
+		if (isOversized(chars.length, CHARS_SIZE, maxSize)) {
+			chars = new char[CHARS_SIZE];
+		}
+	}
+
+	public int bufferSize() {
+		int size = Math.max(super.bufferSize(), chars.length);
+		return streamBuf == null ? size : Math.max(size, streamBuf.length);
+	}
+
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Reads more input, keeping the bytes from tokenStart on.  All indices into
+	 * buf are translated, so callers must reload cached copies of them.
+	 *
+	 * @return false at the end of input
+	 */
+	private boolean refill() throws IOException {
+		if (in == null || atEOF) {
+			if (feeding) {
+				needInput = true;
+				throw NeedInput.INSTANCE;
+			}
+			return false;
+		}
+
+		/* make room */
+		if (tokenStart > 0) {
+			System.arraycopy(buf, tokenStart, buf, 0, end - tokenStart);
+			end -= tokenStart;
+			pos -= tokenStart;
+			base += tokenStart;
+			tokenStart = 0;
+		}
+		if (end >= buf.length) {
+			buf = streamBuf = Arrays.copyOf(buf, (int) (1.5 * buf.length));
+		}
+
+		int n;
+		if (blockRefill) {
+			n = in.read(buf, end, buf.length - end);
+			if (n == 0) {
+				n = readByte();
+			}
+		} else {
+			n = readByte();
+		}
+		if (n < 0) {
+			atEOF = true;
+			return false;
+		}
+		end += n;
+		return true;
+	}
+
+	private int readByte() throws IOException {
+		int c = in.read();
+		if (c < 0) {
+			return -1;
+		}
+		buf[end] = (byte) c;
+		return 1;
+	}
+
+	/**
+	 * Makes sure at least n bytes from pos on are in the buffer.
+	 *
+	 * @return false if the input ends before
+	 */
+	private boolean require(int n) throws IOException {
+		while (end - pos < n) {
+			if (!refill()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	int next() throws IOException, ParseException {
+		for (;;) {
+			/* skip white space */
+			int p = pos;
+			int e = end;
+			byte[] b = buf;
+			while (p < e) {
+				byte c = b[p];
+				if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+					break;
+				}
+				p++;
+			}
+			pos = tokenStart = p;
+			if (p == e) {
+				if (refill()) {
+					continue;
+				}
+				position = base + end;
+				return Yytoken.TYPE_EOF;
+			}
+
+			position = base + p;
+			switch (b[p]) {
+			case '{':
+				pos = p + 1;
+				return Yytoken.TYPE_LEFT_BRACE;
+			case '}':
+				pos = p + 1;
+				return Yytoken.TYPE_RIGHT_BRACE;
+			case '[':
+				pos = p + 1;
+				return Yytoken.TYPE_LEFT_SQUARE;
+			case ']':
+				pos = p + 1;
+				return Yytoken.TYPE_RIGHT_SQUARE;
+			case ',':
+				pos = p + 1;
+				return Yytoken.TYPE_COMMA;
+			case ':':
+				pos = p + 1;
+				return Yytoken.TYPE_COLON;
+			case '"':
+				pos = p + 1;
+				return string();
+			case '-':
+			case '0': case '1': case '2': case '3': case '4':
+			case '5': case '6': case '7': case '8': case '9':
+				return number();
+			case 't':
+				if (literal("true")) {
+					return TYPE_TRUE;
+				}
+				break;
+			case 'f':
+				if (literal("false")) {
+					return TYPE_FALSE;
+				}
+				break;
+			case 'n':
+				if (literal("null")) {
+					return TYPE_NULL;
+				}
+				break;
+			}
+			throw new ParseException(position, ParseException.ERROR_UNEXPECTED_CHAR, Character.valueOf(unexpectedChar()));
+		}
+	}
+
+	int skipValue() throws IOException, ParseException {
+		if (skipping) {
+			/* a string, or the container opened by skipOpen */
+			boolean inString = skipInString && skipDepth == 0;
+			int type = fastForward(0, false);
+			return inString ? type : skipped(skipOpen, type);
+		}
+		for (;;) {
+			/* skip white space */
+			int p = pos;
+			int e = end;
+			byte[] b = buf;
+			while (p < e) {
+				byte c = b[p];
+				if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+					break;
+				}
+				p++;
+			}
+			pos = tokenStart = p;
+			if (p < e) {
+				break;
+			}
+			if (!refill()) {
+				position = base + end;
+				return Yytoken.TYPE_EOF;
+			}
+		}
+		position = base + pos;
+		switch (buf[pos]) {
+		case '"':
+			pos++;
+			return fastForward(0, true);
+		case '{':
+		case '[':
+			skipOpen = buf[pos++];
+			return skipped(skipOpen, fastForward(1, false));
+		default:
+			return next();
+		}
+	}
+
+	int skipContainer() throws IOException {
+		return fastForward(1, false);
+	}
+
+	/**
+	 * Scans from pos until depth containers have been closed, or at depth 0
+	 * until the string scanning starts in has been closed.  When fed input
+	 * runs out, the state is kept and the next call continues with it,
+	 * whatever its arguments.
+	 *
+	 * @return the type of the closing bracket, TYPE_SKIPPED for a closing
+	 *         quote, or Yytoken.TYPE_EOF
+	 */
+	private int fastForward(int depth, boolean inString) throws IOException {
+		if (skipping) {
+			depth = skipDepth;
+			inString = skipInString;
+			skipping = false;
+		}
+		for (;;) {
+			int p = pos;
+			int e = end;
+			byte[] b = buf;
+			while (p < e) {
+				byte c = b[p];
+				if (inString && c != '"' && c != '\\' && c >= 0) {
+					/* plain string content */
+					p++;
+					while (p < e && (c = b[p]) != '"' && c != '\\' && c >= 0) {
+						p++;
+					}
+					continue;
+				}
+				if (c < 0) {
+					/* count chars, not bytes, as decode() does */
+					if ((c & 0xc0) == 0x80) {
+						base--;
+					} else if ((c & 0xf8) == 0xf0) {
+						base++;
+					}
+				} else if (inString) {
+					if (c == '"') {
+						inString = false;
+						if (depth == 0) {
+							position = base + p;
+							pos = p + 1;
+							return TYPE_SKIPPED;
+						}
+					} else if (c == '\\') {
+						if (p + 1 == e) {
+							/* keep the backslash with the escaped byte */
+							break;
+						}
+						if (b[p + 1] < 0) {
+							/* not an escape, the byte is counted */
+							p++;
+							continue;
+						}
+						p++;
+					}
+				} else if (c == '"') {
+					inString = true;
+				} else if (c == '{' || c == '[') {
+					depth++;
+				} else if ((c == '}' || c == ']') && --depth == 0) {
+					position = base + p;
+					pos = p + 1;
+					return c == '}' ? Yytoken.TYPE_RIGHT_BRACE : Yytoken.TYPE_RIGHT_SQUARE;
+				}
+				p++;
+			}
+			pos = tokenStart = p;
+			skipDepth = depth;
+			skipInString = inString;
+			skipping = true;
+			if (!refill()) {
+				skipping = false;
+				pos = end;
+				return endOfInput();
+			}
+			skipping = false;
+		}
+	}
+
+	/**
+	 * Matches a literal at pos and consumes it.
+	 */
+	private boolean literal(String s) throws IOException {
+		int n = s.length();
+		if (!require(n)) {
+			return false;
+		}
+		for (int i = 1; i < n; i++) {
+			if (buf[pos + i] != s.charAt(i)) {
+				return false;
+			}
+		}
+		pos += n;
+		return true;
+	}
+
+	/**
+	 * Decodes the character at pos for an error report.
+	 */
+	private char unexpectedChar() throws IOException {
+		int c = buf[pos];
+		if (c >= 0) {
+			return (char) c;
+		}
+		decode(0);
+		return chars[0];
+	}
+
+	/**
+	 * @return the byte at pos, or -1 at the end of input
+	 */
+	private int peek() throws IOException {
+		if (pos >= end && !require(1)) {
+			return -1;
+		}
+		return buf[pos];
+	}
+
+	/**
+	 * Scans a number, following the rules
+	 * <pre>
+	 * INT = [-]?[0-9]+
+	 * DOUBLE = {INT}((\.[0-9]+)?([eE][-+]?[0-9]+)?)
+	 * </pre>
+	 * An INT followed by an incomplete fraction or exponent is returned on its
+	 * own, the remaining characters are scanned as the next token.
+	 */
+	private int number() throws IOException, ParseException {
+		if (buf[pos] == '-') {
+			pos++;
+		}
+		if (digits() == 0) {
+			/* a lone minus sign */
+			pos = tokenStart;
+			throw new ParseException(position, ParseException.ERROR_UNEXPECTED_CHAR, Character.valueOf('-'));
+		}
+
+		boolean isDouble = false;
+		int length = pos - tokenStart;
+		if (peek() == '.') {
+			pos++;
+			if (digits() > 0) {
+				isDouble = true;
+				length = pos - tokenStart;
+			} else {
+				pos = tokenStart + length;
+			}
+		}
+		int c = peek();
+		if (c == 'e' || c == 'E') {
+			pos++;
+			c = peek();
+			if (c == '-' || c == '+') {
+				pos++;
+			}
+			if (digits() > 0) {
+				isDouble = true;
+				length = pos - tokenStart;
+			}
+		}
+		pos = tokenStart + length;
+
+		return isDouble ? TYPE_DOUBLE : TYPE_LONG;
+	}
+
+	int tokenOffset() {
+		return buf != streamBuf ? tokenStart : -1;
+	}
+
+	RawJSON text(int offset) {
+		return new RawJSON(Arrays.copyOfRange(buf, offset, pos));
+	}
+
+	long longValue() {
+		return parseLong(tokenStart, pos);
+	}
+
+	double doubleValue() {
+		return parseDouble(buf, tokenStart, pos - tokenStart);
+	}
+
+	String numberText() {
+		return new String(buf, tokenStart, pos - tokenStart, ASCII);
+	}
+
+	/**
+	 * Skips a run of digits.
+	 *
+	 * @return the number of digits skipped
+	 */
+	private int digits() throws IOException {
+		int count = 0;
+		for (;;) {
+			int p = pos;
+			int e = end;
+			byte[] b = buf;
+			while (p < e && b[p] >= '0' && b[p] <= '9') {
+				p++;
+			}
+			count += p - pos;
+			pos = p;
+			if (p < e || !refill()) {
+				return count;
+			}
+		}
+	}
+
+	private long parseLong(int start, int stop) {
+		int p = start;
+		boolean negative = buf[p] == '-';
+		if (negative) {
+			p++;
+		}
+		if (stop - p > 18) {
+			/* may overflow, let Long report it */
+			return Long.parseLong(new String(buf, start, stop - start, ASCII));
+		}
+		long value = 0;
+		while (p < stop) {
+			value = value * 10 + (buf[p++] - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Scans a string, pos is just after the opening quote.
+	 */
+	private int string() throws IOException {
+		if (resumeString > 0) {
+			/* continue where the input fed so far ended */
+			pos = tokenStart + resumeString;
+			resumeString = 0;
+			if (resumeChars >= 0) {
+				return slowString(resumeChars);
+			}
+		}
+
+		/* fast path: ASCII without escapes */
+		byte c;
+		for (;;) {
+			int p = pos;
+			int e = end;
+			byte[] b = buf;
+			while (p < e && (c = b[p]) != '"' && c != '\\' && c >= 0) {
+				p++;
+			}
+			pos = p;
+			if (p < e) {
+				break;
+			}
+			try {
+				if (!refill()) {
+					return endOfInput();
+				}
+			} catch (NeedInput ni) {
+				throw suspendString(-1, ni);
+			}
+		}
+		int start = tokenStart + 1;
+		if (buf[pos] == '"') {
+			text.set(buf, start, pos - start);
+			position = base + pos;
+			pos++;
+			return TYPE_STRING;
+		}
+
+		/* slow path */
+		int n = pos - start;
+		if (n + 2 > chars.length) {
+			chars = new char[Math.max(n + 2, 2 * chars.length)];
+		}
+		for (int i = 0; i < n; i++) {
+			chars[i] = (char) buf[start + i];
+		}
+		return slowString(n);
+	}
+
+	/**
+	 * Scans the rest of a string containing escapes or non-ASCII characters,
+	 * the first n characters of which are in chars.
+	 */
+	private int slowString(int n) throws IOException {
+		byte c;
+		for (;;) {
+			try {
+				if (pos >= end && !require(1)) {
+					return endOfInput();
+				}
+				c = buf[pos];
+				if (c == '"') {
+					text.set(chars, 0, n);
+					position = base + pos;
+					pos++;
+					return TYPE_STRING;
+				}
+				if (n + 2 > chars.length) {
+					chars = Arrays.copyOf(chars, 2 * chars.length);
+				}
+				if (c >= 0) {
+					if (c == '\\') {
+						if (!require(2)) {
+							/* a lone backslash at the end of input */
+							pos = end;
+							return endOfInput();
+						}
+						n = escape(n);
+					} else {
+						chars[n++] = (char) c;
+						pos++;
+					}
+				} else {
+					n = decode(n);
+				}
+			} catch (NeedInput ni) {
+				throw suspendString(n, ni);
+			}
+		}
+	}
+
+	/**
+	 * Remembers how far a string was scanned when the input fed so far ran
+	 * out.  Escapes and UTF-8 sequences are only consumed when complete, so
+	 * scanning continues at pos with the first n chars already unescaped.
+	 */
+	private NeedInput suspendString(int n, NeedInput ni) {
+		resumeString = pos - tokenStart;
+		resumeChars = n;
+		return ni;
+	}
+
+	/**
+	 * Unescapes the escape sequence at pos into chars[n].  Unknown escape
+	 * sequences keep the backslash.
+	 *
+	 * @return the new length of chars
+	 */
+	private int escape(int n) throws IOException {
+		char ch;
+		switch (buf[pos + 1]) {
+		case '"':  ch = '"'; break;
+		case '\\': ch = '\\'; break;
+		case '/':  ch = '/'; break;
+		case 'b':  ch = '\b'; break;
+		case 'f':  ch = '\f'; break;
+		case 'n':  ch = '\n'; break;
+		case 'r':  ch = '\r'; break;
+		case 't':  ch = '\t'; break;
+		case 'u':
+			if (require(6)) {
+				int value = 0;
+				int i = 2;
+				for (; i < 6; i++) {
+					int digit = hex(buf[pos + i]);
+					if (digit < 0) {
+						break;
+					}
+					value = (value << 4) | digit;
+				}
+				if (i == 6) {
+					chars[n++] = (char) value;
+					pos += 6;
+					return n;
+				}
+			}
+			chars[n++] = '\\';
+			pos++;
+			return n;
+		default:
+			chars[n++] = '\\';
+			pos++;
+			return n;
+		}
+		chars[n++] = ch;
+		pos += 2;
+		return n;
+	}
+
+	/**
+	 * Decodes the UTF-8 sequence at pos into chars[n].
+	 *
+	 * @return the new length of chars
+	 */
+	private int decode(int n) throws IOException {
+		int b0 = buf[pos] & 0xff;
+		int length;
+		int min;
+		int cp;
+		if ((b0 & 0xe0) == 0xc0) {
+			length = 2;
+			min = 0x80;
+			cp = b0 & 0x1f;
+		} else if ((b0 & 0xf0) == 0xe0) {
+			length = 3;
+			min = 0x800;
+			cp = b0 & 0x0f;
+		} else if ((b0 & 0xf8) == 0xf0) {
+			length = 4;
+			min = 0x10000;
+			cp = b0 & 0x07;
+		} else {
+			return malformed(n);
+		}
+		if (!require(length)) {
+			return malformed(n);
+		}
+		for (int i = 1; i < length; i++) {
+			int b = buf[pos + i];
+			if ((b & 0xc0) != 0x80) {
+				return malformed(n);
+			}
+			cp = (cp << 6) | (b & 0x3f);
+		}
+		if (cp < min || cp > Character.MAX_CODE_POINT
+				|| (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)) {
+			return malformed(n);
+		}
+		pos += length;
+		if (cp >= 0x10000) {
+			chars[n++] = Character.highSurrogate(cp);
+			chars[n++] = Character.lowSurrogate(cp);
+			base -= length - 2;
+		} else {
+			chars[n++] = (char) cp;
+			base -= length - 1;
+		}
+		return n;
+	}
+
+	private int malformed(int n) {
+		chars[n++] = REPLACEMENT_CHAR;
+		pos++;
+		return n;
+	}
+
+	/**
+	 * The input ended inside a string.  As with {@link Yylex}, this is
+	 * reported as the end of input.
+	 */
+	private int endOfInput() {
+		atEOF = true;
+		position = base + end;
+		return Yytoken.TYPE_EOF;
+	}
+
+	/**
+	 * Thrown when scanning fed input runs into the end of what has been fed.
+	 * A single instance without stack trace is used.
+	 */
+	static final class NeedInput extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		static final NeedInput INSTANCE = new NeedInput();
+
+		private NeedInput() {
+			super("More input needed", null, false, false);
+		}
+
+	}
+
+}
@@ -0,0 +1,513 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.json.simple.LazyNumber;
+import org.json.simple.RawJSON;
+
+/**
+ * Base of the hand-written scanners.  Besides producing {@link Yytoken}s, they
+ * can scan without allocating: {@link #next()} returns the type of the next
+ * token, and the value of a value token is read unboxed through the
+ * accessors, which are valid until next() is called again.  Numbers are only
+ * converted when their value is asked for.
+ *
+ * @see JSONReader
+ */
+abstract class ValueLexer implements Lexer {
+
+	/*
+	 * Types returned by next() for the values that yylex() reports as
+	 * Yytoken.TYPE_VALUE.  The other types are those of Yytoken.
+	 */
+	static final int TYPE_STRING = 7;
+	static final int TYPE_LONG = 8;
+	static final int TYPE_DOUBLE = 9;
+	static final int TYPE_TRUE = 10;
+	static final int TYPE_FALSE = 11;
+	static final int TYPE_NULL = 12;
+	/** a string or container passed over by skipValue() */
+	static final int TYPE_SKIPPED = 13;
+
+	static final char REPLACEMENT_CHAR = '\uFFFD';
+
+	/** powers of ten that are exact doubles */
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/** the content of the current string token */
+	final CharSlice text = new CharSlice();
+
+	/** initial size of the scratch space of subclasses for strings with escapes */
+	static final int CHARS_SIZE = 128;
+
+	private static final int NUMBER_SIZE = 32;
+
+	/** scratch space for converting numbers held as bytes */
+	private char[] number = new char[NUMBER_SIZE];
+
+	/** the class of the numbers boxed by value(), one of JSONParser.NUMBER_* */
+	int numberType = JSONParser.NUMBER_DOUBLE;
+
+	/**
+	 * Scans the next token.
+	 *
+	 * @return one of the Yytoken.TYPE_* types other than TYPE_VALUE, or one
+	 *         of the TYPE_* types of values; Yytoken.TYPE_EOF at the end of input
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	abstract int next() throws IOException, ParseException;
+
+	/**
+	 * Scans the next token like next(), but a string or container value is
+	 * fast-forwarded over as by {@link #skipContainer()}, and counts as one
+	 * TYPE_SKIPPED token.  A container closed by the wrong kind of bracket
+	 * returns the type of that bracket instead.
+	 *
+	 * @return the type of the token, TYPE_SKIPPED, or Yytoken.TYPE_EOF if
+	 *         the input ends first
+	 * @throws IOException
+	 * @throws ParseException
+	 */
+	abstract int skipValue() throws IOException, ParseException;
+
+	/**
+	 * Fast-forwards over the rest of the container whose opening bracket was
+	 * the last token, and its closing bracket.  Only brackets and quotes are
+	 * matched: nothing in between is unescaped, converted or checked, and
+	 * the kind of the nested brackets is not compared.
+	 *
+	 * @return Yytoken.TYPE_RIGHT_BRACE or TYPE_RIGHT_SQUARE for the closing
+	 *         bracket, or Yytoken.TYPE_EOF if the input ends first
+	 * @throws IOException
+	 */
+	abstract int skipContainer() throws IOException;
+
+	/**
+	 * @return the index of the first byte or char of the current token in
+	 *         the input, if the whole input is held in an array; otherwise -1
+	 */
+	abstract int tokenOffset();
+
+	/**
+	 * @param offset - a value returned by tokenOffset() for this input.
+	 * @return a copy of the input from offset to the end of the current token
+	 */
+	abstract RawJSON text(int offset);
+
+	/**
+	 * @return the value of the current TYPE_LONG token
+	 * @throws NumberFormatException if it does not fit into a long
+	 */
+	abstract long longValue();
+
+	/**
+	 * @return the value of the current TYPE_LONG or TYPE_DOUBLE token
+	 */
+	abstract double doubleValue();
+
+	/**
+	 * @return the text of the current TYPE_LONG or TYPE_DOUBLE token
+	 */
+	abstract String numberText();
+
+	/**
+	 * @return the content of the current TYPE_STRING token, valid until
+	 *         next() is called
+	 */
+	CharSequence charSequenceValue() {
+		return text;
+	}
+
+	String stringValue() {
+		return text.toString();
+	}
+
+	public Yytoken yylex() throws IOException, ParseException {
+		int type = next();
+		if (type == Yytoken.TYPE_EOF) {
+			return null;
+		}
+		return toYytoken(type);
+	}
+
+	public void trimBuffers(int maxSize) {
+		if (isOversized(number.length, NUMBER_SIZE, maxSize)) {
+			number = new char[NUMBER_SIZE];
+		}
+	}
+
+	public int bufferSize() {
+		return number.length;
+	}
+
+	/**
+	 * @return true if a buffer has grown larger than both its initial size
+	 *         and maxSize, see {@link Lexer#trimBuffers(int)}
+	 */
+	static boolean isOversized(int length, int initialSize, int maxSize) {
+		return length > initialSize && length > maxSize;
+	}
+
+	/**
+	 * Boxes the current token.
+	 *
+	 * @param type - the type returned by next().
+	 */
+	Yytoken toYytoken(int type) {
+		if (type >= TYPE_STRING) {
+			return new Yytoken(Yytoken.TYPE_VALUE, value(type));
+		}
+		return new Yytoken(type, null);
+	}
+
+	/**
+	 * @param type - the type returned by next(), one of the types of values.
+	 * @return the value of the current token, as Yylex reports it
+	 */
+	Object value(int type) {
+		switch (type) {
+		case TYPE_STRING:
+			return stringValue();
+		case TYPE_LONG:
+		case TYPE_DOUBLE:
+			return number(type);
+		case TYPE_TRUE:
+			return Boolean.TRUE;
+		case TYPE_FALSE:
+			return Boolean.FALSE;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Boxes the current number as selected by numberType.
+	 *
+	 * @param type - TYPE_LONG or TYPE_DOUBLE.
+	 */
+	Number number(int type) {
+		if (numberType != JSONParser.NUMBER_DOUBLE) {
+			return number(numberText(), type == TYPE_DOUBLE, numberType);
+		}
+		if (type == TYPE_DOUBLE) {
+			return Double.valueOf(doubleValue());
+		}
+		try {
+			return Long.valueOf(longValue());
+		} catch (NumberFormatException e) {
+			return new BigInteger(numberText());
+		}
+	}
+
+	/**
+	 * Boxes a number held as chars, as selected by numberType.
+	 */
+	static Number number(char[] c, int off, int len, boolean isDouble, int numberType) {
+		if (numberType != JSONParser.NUMBER_DOUBLE) {
+			return number(new String(c, off, len), isDouble, numberType);
+		}
+		if (isDouble) {
+			return Double.valueOf(parseDouble(c, off, len));
+		}
+		try {
+			return Long.valueOf(parseLong(c, off, len));
+		} catch (NumberFormatException e) {
+			return new BigInteger(new String(c, off, len));
+		}
+	}
+
+	private static Number number(String text, boolean isDouble, int numberType) {
+		if (numberType == JSONParser.NUMBER_LAZY) {
+			return new LazyNumber(text);
+		}
+		if (isDouble) {
+			return new BigDecimal(text);
+		}
+		return new LazyNumber(text).value();
+	}
+
+	/**
+	 * Converts a number held as ASCII bytes.
+	 */
+	double parseDouble(byte[] b, int off, int len) {
+		if (len > number.length) {
+			number = new char[Math.max(len, 2 * number.length)];
+		}
+		for (int i = 0; i < len; i++) {
+			number[i] = (char) b[off + i];
+		}
+		return parseDouble(number, 0, len);
+	}
+
+	/**
+	 * Converts an integer matching <code>[-]?[0-9]+</code> without creating
+	 * a String, unless it has more than 18 digits and may not fit.
+	 *
+	 * @throws NumberFormatException if it does not fit into a long
+	 */
+	static long parseLong(char[] c, int off, int len) {
+		int p = off;
+		int end = off + len;
+		boolean negative = c[p] == '-';
+		if (negative) {
+			p++;
+		}
+		if (end - p > 18) {
+			/* may overflow, let Long report it */
+			return Long.parseLong(new String(c, off, len));
+		}
+		long value = 0;
+		while (p < end) {
+			value = value * 10 + (c[p++] - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Converts a number matching
+	 * <pre>
+	 * [-]?[0-9]+(\.[0-9]+)?([eE][-+]?[0-9]+)?
+	 * </pre>
+	 * to the same double as Double.parseDouble(), without creating a String
+	 * when it has at most 19 significant digits and its decimal exponent is
+	 * within the range of doubles.
+	 * <p>
+	 * When the digits fit into 53 bits and the exponent is within +-22, both
+	 * are exact doubles, and a single multiplication or division rounds
+	 * correctly.  Otherwise the digits are multiplied by a 128 bit
+	 * approximation of the power of ten, as in the algorithm of Eisel and
+	 * Lemire (Number Parsing at a Gigabyte per Second, 2021), and the rare
+	 * products too close to halfway between two doubles are left to
+	 * Double.parseDouble().
+	 */
+	static double parseDouble(char[] c, int off, int len) {
+		int p = off;
+		int end = off + len;
+		boolean negative = c[p] == '-';
+		if (negative) {
+			p++;
+		}
+		/* the significant digits, as an unsigned long */
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean fraction = false;
+		for (; p < end; p++) {
+			char ch = c[p];
+			if (ch >= '0' && ch <= '9') {
+				if (digits == 19) {
+					return Double.parseDouble(new String(c, off, len));
+				}
+				mantissa = mantissa * 10 + (ch - '0');
+				if (mantissa != 0) {
+					digits++;
+				}
+				if (fraction) {
+					exponent--;
+				}
+			} else if (ch == '.') {
+				fraction = true;
+			} else {
+				break;
+			}
+		}
+		if (p < end) {
+			/* the exponent */
+			p++;
+			boolean negativeExponent = c[p] == '-';
+			if (negativeExponent || c[p] == '+') {
+				p++;
+			}
+			int e = 0;
+			for (; p < end; p++) {
+				if (e > 1000) {
+					return Double.parseDouble(new String(c, off, len));
+				}
+				e = e * 10 + (c[p] - '0');
+			}
+			exponent += negativeExponent ? -e : e;
+		}
+		double value;
+		if (mantissa >= 0 && mantissa <= 1L << 53 && exponent >= -22 && exponent <= 22) {
+			value = mantissa;
+			if (exponent < 0) {
+				value /= POWERS_OF_TEN[-exponent];
+			} else {
+				value *= POWERS_OF_TEN[exponent];
+			}
+		} else {
+			value = multiply(mantissa, exponent);
+			if (value != value) {
+				return Double.parseDouble(new String(c, off, len));
+			}
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Rounds w * 10^q to the nearest double.
+	 *
+	 * @param w - an unsigned long.
+	 * @return the double, or NaN if it cannot be told cheaply
+	 */
+	private static double multiply(long w, int q) {
+		if (w == 0 || q < PowersOfFive.MIN) {
+			return 0.0;
+		}
+		if (q > PowersOfFive.MAX) {
+			return Double.POSITIVE_INFINITY;
+		}
+		int lz = Long.numberOfLeadingZeros(w);
+		w <<= lz;
+		/* the top 128 bits of w * 5^q, truncated */
+		long[] powers = PowersOfFive.POWERS;
+		int index = 2 * (q - PowersOfFive.MIN);
+		long high = multiplyHigh(w, powers[index]);
+		long low = w * powers[index];
+		if ((high & 0x1ff) == 0x1ff) {
+			/* the bits below the 55 kept may carry into them */
+			long lower = multiplyHigh(w, powers[index + 1]);
+			low += lower;
+			if (low + Long.MIN_VALUE < lower + Long.MIN_VALUE) {
+				high++;
+			}
+			if (low == -1L && (q < -27 || q > 55)) {
+				/* 5^q is inexact and the carry is still unknown */
+				return Double.NaN;
+			}
+		}
+		int upperBit = (int) (high >>> 63);
+		int shift = upperBit + 9;
+		long mantissa = high >>> shift;
+		/* floor(log2(10^q)) + 63, with the exponent bias */
+		int power2 = ((217706 * q) >> 16) + 63 + upperBit - lz + 1023;
+		if (power2 <= 0) {
+			/* a subnormal number */
+			if (1 - power2 >= 64) {
+				return 0.0;
+			}
+			mantissa >>>= 1 - power2;
+			mantissa += mantissa & 1;
+			mantissa >>>= 1;
+			/* rounding up may reach the smallest normal number */
+			return Double.longBitsToDouble(mantissa);
+		}
+		if ((low == 0 || low == 1) && q >= -4 && q <= 23 && (mantissa & 3) == 1 && mantissa << shift == high) {
+			/* exactly halfway, round to even */
+			mantissa &= ~1L;
+		}
+		mantissa += mantissa & 1;
+		mantissa >>>= 1;
+		if (mantissa >= 2L << 52) {
+			mantissa = 1L << 52;
+			power2++;
+		}
+		if (power2 >= 0x7ff) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return Double.longBitsToDouble((long) power2 << 52 | mantissa & ~(1L << 52));
+	}
+
+	/**
+	 * @return the high 64 bits of the unsigned product of x and y
+	 */
+	private static long multiplyHigh(long x, long y) {
+		long x0 = x & 0xffffffffL;
+		long x1 = x >>> 32;
+		long y0 = y & 0xffffffffL;
+		long y1 = y >>> 32;
+		long p01 = x0 * y1;
+		long middle = x1 * y0 + ((x0 * y0) >>> 32) + (p01 & 0xffffffffL);
+		return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+	}
+
+	/**
+	 * The powers of five from 5^-342 to 5^308, each as the top 128 bits of its
+	 * binary expansion, high word first.  Built on first use.
+	 */
+	private static final class PowersOfFive {
+
+		static final int MIN = -342;
+		static final int MAX = 308;
+
+		static final long[] POWERS = new long[2 * (MAX - MIN + 1)];
+
+		static {
+			BigInteger five = BigInteger.valueOf(5);
+			for (int q = MIN; q <= MAX; q++) {
+				BigInteger c;
+				if (q < 0) {
+					/* a reciprocal, rounded up */
+					BigInteger power = five.pow(-q);
+					int z = power.bitLength();
+					int b = q >= -27 ? z + 127 : 2 * z + 128;
+					c = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+					c = c.shiftRight(Math.max(0, c.bitLength() - 128));
+				} else {
+					/* truncated */
+					BigInteger power = five.pow(q);
+					c = power.bitLength() > 128 ? power.shiftRight(power.bitLength() - 128) : power.shiftLeft(128 - power.bitLength());
+				}
+				POWERS[2 * (q - MIN)] = c.shiftRight(64).longValue();
+				POWERS[2 * (q - MIN) + 1] = c.longValue();
+			}
+		}
+
+	}
+
+	/**
+	 * Checks the closing bracket of a container skipped by skipValue().
+	 *
+	 * @param open - the opening bracket.
+	 * @param type - the type returned by skipContainer().
+	 * @return TYPE_SKIPPED if the brackets match, otherwise type
+	 */
+	static int skipped(int open, int type) {
+		return type == (open == '{' ? Yytoken.TYPE_RIGHT_BRACE : Yytoken.TYPE_RIGHT_SQUARE) ? TYPE_SKIPPED : type;
+	}
+
+	/**
+	 * Counts the characters that skipped UTF-8 bytes decode to less than
+	 * their number of bytes, assuming well-formed sequences.
+	 *
+	 * @return the number of bytes minus the number of chars
+	 */
+	static int utf8Surplus(byte[] b, int from, int to) {
+		int surplus = 0;
+		for (int i = from; i < to; i++) {
+			int c = b[i];
+			if (c < 0) {
+				if ((c & 0xc0) == 0x80) {
+					surplus++;
+				} else if ((c & 0xf8) == 0xf0) {
+					/* a supplementary character takes two chars */
+					surplus--;
+				}
+			}
+		}
+		return surplus;
+	}
+
+	/**
+	 * @return the value of an ASCII hex digit, or -1
+	 */
+	static int hex(int c) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		if (c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+		if (c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		}
+		return -1;
+	}
+
+}
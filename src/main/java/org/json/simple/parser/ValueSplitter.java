@@ -0,0 +1,180 @@
+package org.json.simple.parser;
+
+import java.io.IOException;
+
+/**
+ * Passes the events of the values at one nesting level on to a handler, each
+ * framed by {@link ContentHandler#startJSON()} and
+ * {@link ContentHandler#endJSON()} as a JSON text of its own, and stops the
+ * parser after each value.
+ * <p>
+ * At level 0 these are the top-level values of a stream of texts, at level 1
+ * the elements of a top-level array.  Any other top-level value is an error
+ * at level 1.
+ *
+ * @see JSONLinesReader
+ * @see JSONArrayReader
+ */
+class ValueSplitter implements TypedContentHandler {
+
+	private final JSONParser parser;
+	private final int level;
+
+	private ContentHandler handler;
+	private TypedContentHandler typed;
+
+	/* nesting depth, including the enclosing array */
+	private int depth;
+	/* depth at which the values start, once the enclosing array has started */
+	private int base;
+	/* a value has been started by the current call */
+	boolean started;
+	/* a value has been started and not finished */
+	boolean open;
+	/* the enclosing array, or the input, has ended */
+	boolean ended;
+
+	/**
+	 * @param parser - the parser sending the events, for error positions.
+	 * @param level - 0 or 1.
+	 */
+	ValueSplitter(JSONParser parser, int level) {
+		this.parser = parser;
+		this.level = level;
+	}
+
+	/**
+	 * Sets the handler for the next call to the parser.  Unless a value is
+	 * open, the call starts a new value.
+	 *
+	 * @param handler
+	 */
+	void begin(ContentHandler handler) {
+		this.handler = handler;
+		this.typed = handler instanceof TypedContentHandler ? (TypedContentHandler) handler : null;
+		if (!open) {
+			started = false;
+			depth = base;
+		}
+	}
+
+	private void value() throws ParseException, IOException {
+		if (!open) {
+			open = true;
+			started = true;
+			handler.startJSON();
+		}
+	}
+
+	private boolean end(boolean result) throws ParseException, IOException {
+		if (depth == level) {
+			open = false;
+			handler.endJSON();
+			return false;
+		}
+		return result;
+	}
+
+	private ParseException notArray(int type, Object value) {
+		return new ParseException(parser.getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, new Yytoken(type, value));
+	}
+
+	public void startJSON() {
+		// deferred until there is a value
+	}
+
+	public void endJSON() {
+		// end of input
+		ended = true;
+	}
+
+	public boolean startObject() throws ParseException, IOException {
+		if (depth < level) {
+			throw notArray(Yytoken.TYPE_LEFT_BRACE, null);
+		}
+		value();
+		depth++;
+		return handler.startObject();
+	}
+
+	public boolean endObject() throws ParseException, IOException {
+		depth--;
+		return end(handler.endObject());
+	}
+
+	public boolean startObjectEntry(String key) throws ParseException, IOException {
+		return handler.startObjectEntry(key);
+	}
+
+	public boolean endObjectEntry() throws ParseException, IOException {
+		return handler.endObjectEntry();
+	}
+
+	public boolean startArray() throws ParseException, IOException {
+		if (depth < level) {
+			base = ++depth;
+			return true;
+		}
+		value();
+		depth++;
+		return handler.startArray();
+	}
+
+	public boolean endArray() throws ParseException, IOException {
+		depth--;
+		if (depth < level) {
+			ended = true;
+			return false;
+		}
+		return end(handler.endArray());
+	}
+
+	public boolean primitive(Object value) throws ParseException, IOException {
+		if (depth < level) {
+			throw notArray(Yytoken.TYPE_VALUE, value);
+		}
+		value();
+		return end(handler.primitive(value));
+	}
+
+	public boolean stringValue(CharSequence value) throws ParseException, IOException {
+		if (depth < level) {
+			throw notArray(Yytoken.TYPE_VALUE, value.toString());
+		}
+		value();
+		return end(typed != null ? typed.stringValue(value) : handler.primitive(value.toString()));
+	}
+
+	public boolean longValue(long value) throws ParseException, IOException {
+		if (depth < level) {
+			throw notArray(Yytoken.TYPE_VALUE, Long.valueOf(value));
+		}
+		value();
+		return end(typed != null ? typed.longValue(value) : handler.primitive(Long.valueOf(value)));
+	}
+
+	public boolean doubleValue(double value) throws ParseException, IOException {
+		if (depth < level) {
+			throw notArray(Yytoken.TYPE_VALUE, Double.valueOf(value));
+		}
+		value();
+		return end(typed != null ? typed.doubleValue(value) : handler.primitive(Double.valueOf(value)));
+	}
+
+	public boolean booleanValue(boolean value) throws ParseException, IOException {
+		if (depth < level) {
+			throw notArray(Yytoken.TYPE_VALUE, Boolean.valueOf(value));
+		}
+		value();
+		return end(typed != null ? typed.booleanValue(value) : handler.primitive(Boolean.valueOf(value)));
+	}
+
+	public boolean nullValue() throws ParseException, IOException {
+		if (depth < level) {
+			throw notArray(Yytoken.TYPE_VALUE, null);
+		}
+		value();
+		return end(typed != null ? typed.nullValue() : handler.primitive(null));
+	}
+
+}
@@ -4,7 +4,7 @@ package org.json.simple.parser;
 
 import java.util.Arrays;
 
-class Yylex {
+class Yylex implements ReaderLexer {
 
 	/** This character denotes the end of file */
 	public static final int YYEOF = -1;
@@ -232,6 +232,9 @@ class Yylex {
       the source of the yytext() string */
 	private char zzBuffer[] = new char[ZZ_BUFFERSIZE];
 
+	/** the buffer owned by the scanner, zzBuffer may point to a caller's array instead */
+	private char zzOwnBuffer[] = zzBuffer;
+
 	/** the textposition at the last accepting state */
 	private int zzMarkedPos;
 
@@ -269,12 +272,85 @@ class Yylex {
 	private boolean zzAtEOF;
 
 	/* user code: */
-	private StringBuffer sb=new StringBuffer();
+	/* fill the buffer in blocks rather than a character at a time, see zzRefill() */
+	private boolean zzBlockRefill=false;
+
+	/**
+	 * Switches between single character refill, the default, and block
+	 * refill.
+	 *
+	 * @see #zzRefill()
+	 * @param block true to read from the reader in blocks
+	 */
+	public final void setBlockRefill(boolean block){
+		zzBlockRefill=block;
+	}
+
+	/* the builder of strings with escapes, reused from one string to the next */
+	private StringBuilder sb=new StringBuilder();
 
-	int getPosition(){
+	/* a builder larger than this is not kept for the next string */
+	private static final int MAX_KEPT_CAPACITY=16384;
+
+	/* the class of the numbers, one of JSONParser.NUMBER_* */
+	int numberType=JSONParser.NUMBER_DOUBLE;
+
+	public int getPosition(){
 		return yychar;
 	}
 
+	public void trimBuffers(int maxSize){
+		if(zzOwnBuffer.length>ZZ_BUFFERSIZE && zzOwnBuffer.length>maxSize){
+			zzBuffer=zzOwnBuffer=new char[ZZ_BUFFERSIZE];
+		}
+		if(sb.capacity()>maxSize){
+			sb=new StringBuilder();
+		}
+	}
+
+	public int bufferSize(){
+		return Math.max(zzOwnBuffer.length,sb.capacity());
+	}
+
+	/**
+	 * Scans a string right after its opening quote.  When the string has no
+	 * escapes and ends within the buffer, it is created from the buffer in
+	 * one copy, and its closing quote becomes the current token, as if it had
+	 * been matched by the STRING_BEGIN rules.
+	 *
+	 * @return the string, or null if it must be matched rule by rule.
+	 */
+	private String plainString(){
+		char[] b=zzBuffer;
+		int start=zzMarkedPos;
+		for(int p=start;p<zzEndRead;p++){
+			char c=b[p];
+			if(c=='"'){
+				yychar+=p-zzStartRead;
+				zzStartRead=p;
+				zzMarkedPos=p+1;
+				return new String(b,start,p-start);
+			}
+			if(c=='\\'){
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Starts a string with escapes, or one that extends beyond the buffer.
+	 */
+	private void beginString(){
+		if(sb.capacity()>MAX_KEPT_CAPACITY){
+			sb=new StringBuilder();
+		}
+		else{
+			sb.setLength(0);
+		}
+		yybegin(STRING_BEGIN);
+	}
+
 
 
 	/**
@@ -316,19 +392,18 @@ class Yylex {
 	}
 
 
-	// XXX THIS WAS SUPER UNSAFE
-	//     Buffering like this assumes the Reader/InputStream will
-	//        not be used for anything else outside this particular 
-	//        instance of the tokenizer.  It will consume characters
-	//        to fill the buffer, even though it may not lex them.
-	//        Any extra characters are discarded once the lexer
-	//        runs out of scope.
-	//        
-	//     Solution: rely on an underlying BufferedReader instead
-	//        (which is its purpose).  Here, read a single character
-	//        at a time.
 	/**
-	 * Refills the input buffer (with a single character)
+	 * Refills the input buffer.
+	 *
+	 * By default a single character is read at a time, so that the reader
+	 * is never consumed past the last token returned, and the same Reader
+	 * can be shared with code outside this scanner.
+	 *
+	 * In block mode (see {@link #setBlockRefill(boolean)}) as many
+	 * characters as fit are requested from the reader in one call.
+	 * Characters read beyond the end of the current document are not lost:
+	 * they stay in the buffer and are lexed first when the scanner is reset
+	 * to the same reader again (see {@link #yyreset(java.io.Reader)}).
 	 *
 	 * @return      <code>false</code>, iff there was new input.
 	 * 
@@ -336,6 +411,11 @@ class Yylex {
 	 */
 	private boolean zzRefill() throws java.io.IOException {
 
+		/* scanning a caller's array in place: there is nothing more */
+		if (zzReader == null) {
+			return true;
+		}
+
 		/* first: make room (if you can) */
 		if (zzStartRead > 0) {
 			System.arraycopy(zzBuffer, zzStartRead,
@@ -350,21 +430,28 @@ class Yylex {
 		}
 
 		/* is the buffer big enough? */
-		if (zzCurrentPos >= zzBuffer.length) {
+		if (zzEndRead >= zzBuffer.length) {
 			/* if not: blow it up */
-			zzBuffer = Arrays.copyOf(zzBuffer, (int)(1.5*zzBuffer.length));
+			zzBuffer = zzOwnBuffer = Arrays.copyOf(zzBuffer, (int)(1.5*zzBuffer.length));
+		}
+
+		if (zzBlockRefill) {
+			/* finally: fill the buffer with new input */
+			int numRead = zzReader.read(zzBuffer, zzEndRead,
+					zzBuffer.length-zzEndRead);
+
+			if (numRead > 0) {
+				zzEndRead+= numRead;
+				return false;
+			}
+			// numRead < 0
+			if (numRead < 0) {
+				return true;
+			}
+			// unlikely but not impossible: read 0 characters, but not at end of stream,
+			// fall through to a single character read
 		}
 
-		//    /* finally: fill the buffer with new input */
-		//    int numRead = zzReader.read(zzBuffer, zzEndRead,
-		//                                            zzBuffer.length-zzEndRead);
-		//
-		//    if (numRead > 0) {
-		//      zzEndRead+= numRead;
-		//      return false;
-		//    }
-		//    // unlikely but not impossible: read 0 characters, but not at end of stream    
-		//    if (numRead == 0) {
 		int c = zzReader.read();
 		if (c == -1) {
 			return true;
@@ -372,10 +459,6 @@ class Yylex {
 			zzBuffer[zzEndRead++] = (char) c;
 			return false;
 		}     
-		//    }
-		//
-		//	// numRead < 0
-		//    return true;
 	}
 
 
@@ -395,23 +478,58 @@ class Yylex {
 	 * Resets the scanner to read from a new input stream.
 	 * Does not close the old reader.
 	 *
-	 * All internal variables are reset, the old input stream 
-	 * <b>cannot</b> be reused (internal buffer is discarded and lost).
+	 * All internal variables are reset.  If <code>reader</code> is the same
+	 * reader the scanner was reading from, characters that were already
+	 * buffered but not yet scanned are kept and will be scanned first;
+	 * otherwise the internal buffer is discarded and lost.
 	 * Lexical state is set to <tt>ZZ_INITIAL</tt>.
 	 *
 	 * @param reader   the new input stream 
 	 */
 	public final void yyreset(java.io.Reader reader) {
+		if (zzBuffer != zzOwnBuffer) {
+			zzBuffer = zzOwnBuffer;
+			zzEndRead = 0;
+		} else if (reader != null && reader == zzReader && zzMarkedPos < zzEndRead) {
+			/* carry over the characters read ahead of the last token */
+			zzEndRead -= zzMarkedPos;
+			System.arraycopy(zzBuffer, zzMarkedPos, zzBuffer, 0, zzEndRead);
+		} else {
+			zzEndRead = 0;
+		}
 		zzReader = reader;
 		zzAtBOL  = true;
 		zzAtEOF  = false;
-		zzEndRead = zzStartRead = 0;
+		zzStartRead = 0;
 		zzCurrentPos = zzMarkedPos = 0;
 		yyline = yychar = yycolumn = 0;
 		zzLexicalState = YYINITIAL;
 	}
 
 
+	/**
+	 * Resets the scanner to scan a range of a char array in place.  The array
+	 * is not copied and must not be modified until scanning is finished.
+	 *
+	 * @param buf   the characters to scan
+	 * @param off   offset of the first character
+	 * @param len   number of characters
+	 */
+	public final void yyreset(char[] buf, int off, int len) {
+		if (off < 0 || len < 0 || off > buf.length - len) {
+			throw new IndexOutOfBoundsException();
+		}
+		zzReader = null;
+		zzBuffer = buf;
+		zzAtBOL  = true;
+		zzAtEOF  = false;
+		zzStartRead = zzCurrentPos = zzMarkedPos = off;
+		zzEndRead = off + len;
+		yyline = yychar = yycolumn = 0;
+		zzLexicalState = YYINITIAL;
+	}
+
+
 	/**
 	 * Returns the current lexical state.
 	 */
@@ -587,11 +705,11 @@ class Yylex {
 
 			switch (zzAction < 0 ? zzAction : ZZ_ACTION[zzAction]) {
 			case 11: 
-			{ sb.append(yytext());
+			{ sb.append(zzBuffer, zzStartRead, zzMarkedPos-zzStartRead);
 			}
 			case 25: break;
 			case 4: 
-			{ sb = null; sb = new StringBuffer(); yybegin(STRING_BEGIN);
+			{ String s=plainString(); if(s!=null) return new Yytoken(Yytoken.TYPE_VALUE, s); beginString();
 			}
 			case 26: break;
 			case 16: 
@@ -619,7 +737,7 @@ class Yylex {
 			}
 			case 32: break;
 			case 21: 
-			{ Double val=Double.valueOf(yytext()); return new Yytoken(Yytoken.TYPE_VALUE, val);
+			{ Number val=ValueLexer.number(zzBuffer, zzStartRead, zzMarkedPos-zzStartRead, true, numberType); return new Yytoken(Yytoken.TYPE_VALUE, val);
 			}
 			case 33: break;
 			case 1: 
@@ -655,13 +773,8 @@ class Yylex {
 			}
 			case 41: break;
 			case 24: 
-			{ try{
-				int ch=Integer.parseInt(yytext().substring(2),16);
-				sb.append((char)ch);
-			}
-			catch(Exception e){
-				throw new ParseException(yychar, ParseException.ERROR_UNEXPECTED_EXCEPTION, e);
-			}
+			{ int p=zzStartRead+2;
+			sb.append((char)(ValueLexer.hex(zzBuffer[p])<<12|ValueLexer.hex(zzBuffer[p+1])<<8|ValueLexer.hex(zzBuffer[p+2])<<4|ValueLexer.hex(zzBuffer[p+3])));
 			}
 			case 42: break;
 			case 20: 
@@ -673,7 +786,7 @@ class Yylex {
 			}
 			case 44: break;
 			case 2: 
-			{ Long val=Long.valueOf(yytext()); return new Yytoken(Yytoken.TYPE_VALUE, val);
+			{ Number val=ValueLexer.number(zzBuffer, zzStartRead, zzMarkedPos-zzStartRead, false, numberType); return new Yytoken(Yytoken.TYPE_VALUE, val);
 			}
 			case 45: break;
 			case 18: 
@@ -0,0 +1,120 @@
+package org.json.simple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.json.simple.parser.DefaultContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.JSONParserPool;
+
+import junit.framework.TestCase;
+
+public class CompactJSONObjectTest extends TestCase {
+
+	public void testMap() {
+		CompactJSONObject obj = new CompactJSONObject();
+		assertTrue(obj.isEmpty());
+		assertNull(obj.put("a", Long.valueOf(1)));
+		assertNull(obj.put("b", null));
+		assertEquals(Long.valueOf(1), obj.put("a", "x"));
+		assertEquals(2, obj.size());
+		assertEquals("x", obj.get("a"));
+		assertTrue(obj.containsKey("b"));
+		assertFalse(obj.containsKey("c"));
+		assertNull(obj.get("c"));
+		assertEquals("{\"a\":\"x\",\"b\":null}", obj.toJSONString());
+		assertEquals("{\"a\":\"x\",\"b\":null}", JSONValue.toJSONString(obj));
+
+		JSONObject hashed = new JSONObject();
+		hashed.put("b", null);
+		hashed.put("a", "x");
+		assertEquals(hashed, obj);
+		assertEquals(obj, hashed);
+		assertEquals(hashed.hashCode(), obj.hashCode());
+		assertEquals(obj, new CompactJSONObject(hashed));
+
+		assertEquals("x", obj.remove("a"));
+		assertNull(obj.remove("a"));
+		assertEquals(1, obj.size());
+		obj.clear();
+		assertTrue(obj.isEmpty());
+	}
+
+	public void testAgainstHashMap() {
+		Random random = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			CompactJSONObject obj = new CompactJSONObject();
+			Map<String, Object> expected = new HashMap<String, Object>();
+			for (int op = 0; op < 60; op++) {
+				String key = "k" + random.nextInt(CompactJSONObject.THRESHOLD + 4);
+				Object value = Integer.valueOf(random.nextInt(5));
+				switch (random.nextInt(5)) {
+				case 0:
+					assertEquals(expected.remove(key), obj.remove(key));
+					break;
+				case 1:
+					Iterator<Map.Entry<String, Object>> iter = obj.entrySet().iterator();
+					while (iter.hasNext()) {
+						Map.Entry<String, Object> entry = iter.next();
+						if (entry.getValue().equals(value)) {
+							iter.remove();
+							expected.remove(entry.getKey());
+						} else {
+							entry.setValue(Integer.valueOf(-1));
+							expected.put(entry.getKey(), Integer.valueOf(-1));
+						}
+					}
+					break;
+				default:
+					assertEquals(expected.put(key, value), obj.put(key, value));
+				}
+				assertEquals(expected, obj);
+				assertEquals(expected.size(), obj.size());
+				assertEquals(expected.get(key), obj.get(key));
+				assertEquals(expected.containsKey(key), obj.containsKey(key));
+			}
+		}
+	}
+
+	public void testParse() throws Exception {
+		String text = "{\"a\":{\"b\":[{\"c\":1},{}]},\"d\":{\"1\":1,\"2\":2,\"3\":3,\"4\":4,\"5\":5,\"6\":6,\"7\":7,\"8\":8,\"9\":9}}";
+		JSONParser parser = new JSONParser();
+		parser.setObjectType(DefaultContentHandler.OBJECT_COMPACT);
+		Map<?, ?> obj = (Map<?, ?>) parser.parse(text);
+		assertTrue(obj instanceof CompactJSONObject);
+		assertTrue(((Map<?, ?>) obj.get("a")) instanceof CompactJSONObject);
+		assertTrue(((JSONArray) ((Map<?, ?>) obj.get("a")).get("b")).get(1) instanceof CompactJSONObject);
+		assertEquals(new JSONParser().parse(text), obj);
+		assertEquals(new JSONParser().parse(text), parser.parse(text.getBytes("UTF-8")));
+
+		JSONParserPool pool = new JSONParserPool(1, JSONParser.LEXER_JFLEX, 1000);
+		parser = pool.acquire();
+		parser.setObjectType(DefaultContentHandler.OBJECT_COMPACT);
+		pool.release(parser);
+		assertTrue(pool.acquire().parse(text) instanceof JSONObject);
+
+		try {
+			parser.setObjectType(7);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	public void testSerializable() throws Exception {
+		CompactJSONObject obj = new CompactJSONObject();
+		obj.put("a", "b");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(obj);
+		out.close();
+		Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(obj, copy);
+	}
+
+}
@@ -0,0 +1,229 @@
+package org.json.simple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import junit.framework.TestCase;
+
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONLinesReader;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.json.simple.parser.TypedContentHandlerAdapter;
+
+public class JSONLinesTest extends TestCase {
+
+	private static final String LINES = "{\"id\":1,\"msg\":\"a\\nb\"}\n[1,{\"k\":[2]}]\n\n\"text\"\n42\nnull\n{}\n";
+
+	public void testReadValues() throws Exception {
+		assertEquals(expected(), readAll(new JSONLinesReader(new StringReader(LINES))));
+		assertEquals(expected(), readAll(new JSONLinesReader(new ByteArrayInputStream(LINES.getBytes("UTF-8")))));
+
+		File file = File.createTempFile("records", ".ndjson");
+		try {
+			FileOutputStream out = new FileOutputStream(file);
+			out.write(LINES.getBytes("UTF-8"));
+			out.close();
+			JSONLinesReader reader = new JSONLinesReader(file.toPath());
+			assertEquals(expected(), readAll(reader));
+			reader.close();
+		} finally {
+			file.delete();
+		}
+
+		JSONLinesReader reader = new JSONLinesReader(new StringReader(""));
+		assertFalse(reader.hasNext());
+		try {
+			reader.next();
+			fail();
+		} catch (NoSuchElementException e) {
+		}
+	}
+
+	public void testLexers() throws Exception {
+		String s = JSONStreamTest.getJSONSampleLong();
+		String lines = s + "\n" + s + "\n" + s;
+		Object reference = new JSONParser().parse(s);
+		int[] lexers = { JSONParser.LEXER_JFLEX, JSONParser.LEXER_HANDWRITTEN };
+		for (int i = 0; i < lexers.length; i++) {
+			JSONLinesReader reader = new JSONLinesReader(new StringReader(lines));
+			reader.getParser().setLexer(lexers[i]);
+			int n = 0;
+			while (reader.hasNext()) {
+				assertEquals(reference, reader.next());
+				n++;
+			}
+			assertEquals(3, n);
+		}
+	}
+
+	public void testBlockReads() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append("{\"id\":").append(i).append(",\"name\":\"n").append(i).append("\"}\n");
+		}
+		final String lines = sb.toString();
+		final int[] reads = new int[1];
+		Reader in = new FilterReader(new StringReader(lines)) {
+			public int read() throws IOException {
+				reads[0]++;
+				return super.read();
+			}
+
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				reads[0]++;
+				return super.read(cbuf, off, len);
+			}
+		};
+		assertEquals(1000, readAll(new JSONLinesReader(in)).size());
+		assertTrue(reads[0] < 10);
+
+		reads[0] = 0;
+		InputStream stream = new FilterInputStream(new ByteArrayInputStream(lines.getBytes("UTF-8"))) {
+			public int read() throws IOException {
+				reads[0]++;
+				return super.read();
+			}
+
+			public int read(byte[] b, int off, int len) throws IOException {
+				reads[0]++;
+				return super.read(b, off, len);
+			}
+		};
+		assertEquals(1000, readAll(new JSONLinesReader(stream)).size());
+		assertTrue(reads[0] < 10);
+	}
+
+	public void testHandler() throws Exception {
+		final StringBuffer sb = new StringBuffer();
+		ContentHandler handler = new TypedContentHandlerAdapter(null) {
+			public void startJSON() {
+				sb.append('<');
+			}
+
+			public void endJSON() {
+				sb.append('>');
+			}
+
+			public boolean startObjectEntry(String key) {
+				sb.append(key);
+				return !key.equals("stop");
+			}
+
+			public boolean endObjectEntry() {
+				return true;
+			}
+
+			public boolean startObject() {
+				sb.append('{');
+				return true;
+			}
+
+			public boolean endObject() {
+				sb.append('}');
+				return true;
+			}
+
+			public boolean startArray() {
+				sb.append('[');
+				return true;
+			}
+
+			public boolean endArray() {
+				sb.append(']');
+				return true;
+			}
+
+			public boolean longValue(long value) {
+				sb.append(value);
+				return true;
+			}
+
+			public boolean primitive(Object value) {
+				sb.append(value);
+				return true;
+			}
+		};
+		JSONLinesReader reader = new JSONLinesReader(new StringReader("1\n[2,3]\n{\"stop\":4,\"x\":5}\n"));
+		assertTrue(reader.next(handler));
+		assertTrue(reader.next(handler));
+		assertTrue(reader.next(handler));
+		assertEquals("<1><[23]><{stop", sb.toString());
+		// continues with the rest of the record
+		assertTrue(reader.next(handler));
+		assertFalse(reader.next(handler));
+		assertEquals("<1><[23]><{stop4x5}>", sb.toString());
+	}
+
+	public void testParseError() throws Exception {
+		JSONLinesReader reader = new JSONLinesReader(new StringReader("[1]\n[2,}\n"));
+		assertEquals("[1]", reader.next().toString());
+		try {
+			reader.next();
+			fail();
+		} catch (ParseException e) {
+			assertEquals(ParseException.ERROR_UNEXPECTED_TOKEN, e.getErrorType());
+		}
+	}
+
+	public void testWriteAndRead() throws Exception {
+		StringWriter out = new StringWriter();
+		JSONLinesWriter writer = new JSONLinesWriter(out);
+		List records = expected();
+		for (int i = 0; i < records.size(); i++) {
+			writer.write(records.get(i));
+		}
+		writer.close();
+		assertEquals("{\"msg\":\"a\\nb\",\"id\":1}\n[1,{\"k\":[2]}]\n\"text\"\n42\nnull\n{}\n", out.toString());
+		assertEquals(records, readAll(new JSONLinesReader(new StringReader(out.toString()))));
+	}
+
+	public void testFlushInterval() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		JSONLinesWriter writer = new JSONLinesWriter(bytes);
+		assertEquals(0, writer.getFlushInterval());
+		writer.setFlushInterval(2);
+		writer.write("x");
+		assertEquals(0, bytes.size());
+		writer.write("é");
+		assertEquals("\"x\"\n\"é\"\n", bytes.toString("UTF-8"));
+		writer.write(Long.valueOf(1));
+		assertEquals(9, bytes.size());
+		writer.flush();
+		assertEquals("\"x\"\n\"é\"\n1\n", bytes.toString("UTF-8"));
+		writer.close();
+	}
+
+	private static List expected() throws ParseException {
+		JSONParser parser = new JSONParser();
+		List list = new ArrayList();
+		list.add(parser.parse("{\"id\":1,\"msg\":\"a\\nb\"}"));
+		list.add(parser.parse("[1,{\"k\":[2]}]"));
+		list.add("text");
+		list.add(Long.valueOf(42));
+		list.add(null);
+		list.add(new JSONObject());
+		return list;
+	}
+
+	private static List readAll(JSONLinesReader reader) throws Exception {
+		List list = new ArrayList();
+		while (reader.hasNext()) {
+			list.add(reader.next());
+		}
+		return list;
+	}
+
+}
@@ -1,8 +1,12 @@
 package org.json.simple;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.CharArrayReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.StringReader;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.concurrent.Callable;
@@ -284,4 +288,47 @@ public class JSONStreamTest {
 		server.close();
 	}
 
+	@Test
+	public void testReadAheadCarryOver() throws Exception {
+		String jsonFirst = getJSONSampleMedium();
+		String jsonSecond = getJSONSampleLong();
+		CharArrayReader reader = new CharArrayReader((jsonFirst + "[1,2] " + jsonSecond).toCharArray());
+
+		JSONParser parser = new JSONParser();
+		parser.setReadAhead(true);
+		Assert.assertTrue(parser.isReadAhead());
+		Assert.assertEquals(parser.parse(jsonFirst), parser.parse(reader));
+		// parsing a String in between must not lose the characters read ahead
+		Object reference = parser.parse(jsonSecond);
+		Assert.assertEquals("[1,2]", parser.parse(reader).toString());
+		Assert.assertEquals(reference, parser.parse(reader));
+	}
+
+	@Test
+	public void testFreshParsersShareReader() throws Exception {
+		BufferedReader reader = new BufferedReader(new StringReader("[1] [2]"));
+		Assert.assertFalse(new JSONParser().isReadAhead());
+		Assert.assertEquals("[1]", new JSONParser().parse(reader).toString());
+		Assert.assertEquals("[2]", new JSONParser().parse(reader).toString());
+		reader = new BufferedReader(new StringReader("[1] [2]"));
+		Assert.assertEquals("[1]", new JSONParser(JSONParser.LEXER_HANDWRITTEN).parse(reader).toString());
+		Assert.assertEquals("[2]", new JSONParser(JSONParser.LEXER_HANDWRITTEN).parse(reader).toString());
+		StringReader shared = new StringReader("[1] [2]");
+		Assert.assertEquals("[1]", new JSONParser().parse(shared).toString());
+		Assert.assertEquals("[2]", new JSONParser().parse(shared).toString());
+		InputStream in = new ByteArrayInputStream("[1] [2]".getBytes("UTF-8"));
+		Assert.assertEquals("[1]", new JSONParser().parse(in).toString());
+		Assert.assertEquals("[2]", new JSONParser().parse(in).toString());
+	}
+
+	@Test
+	public void testNoReadAhead() throws Exception {
+		CharArrayReader reader = new CharArrayReader("{\"a\":1}rest".toCharArray());
+
+		JSONParser parser = new JSONParser();
+		parser.setReadAhead(false);
+		Assert.assertEquals("{\"a\":1}", parser.parse(reader).toString());
+		Assert.assertEquals('r', reader.read());
+	}
+
 }
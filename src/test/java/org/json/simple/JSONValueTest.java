@@ -1,6 +1,7 @@
 package org.json.simple;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
 
 import org.json.simple.parser.JSONParser;
@@ -265,4 +266,14 @@ public class JSONValueTest extends TestCase {
 	    Object obj = parser.parse(jsonString); 
 	    assertEquals(jobj, obj);
 	}
+	
+	public void testParseReaderTwice() throws Exception {
+		StringReader in = new StringReader("{\"a\":1} {\"b\":2}");
+		assertEquals("{\"a\":1}", JSONValue.parseWithException(in).toString());
+		assertEquals("{\"b\":2}", JSONValue.parseWithException(in).toString());
+		
+		in = new StringReader("{\"a\":1} {\"b\":2}");
+		assertEquals("{\"a\":1}", JSONValue.parse(in).toString());
+		assertEquals("{\"b\":2}", JSONValue.parse(in).toString());
+	}
 }
@@ -0,0 +1,38 @@
+package org.json.simple;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import junit.framework.TestCase;
+
+public class LazyNumberTest extends TestCase {
+
+	public void testValue() {
+		assertEquals(Long.valueOf(-42), new LazyNumber("-42").value());
+		assertEquals(Long.valueOf(Long.MIN_VALUE), new LazyNumber("-9223372036854775808").value());
+		assertEquals(new BigInteger("12345678901234567890"), new LazyNumber("12345678901234567890").value());
+		assertEquals(Double.valueOf(1500), new LazyNumber("1.5e3").value());
+		assertEquals(1500, new LazyNumber("1.5e3").intValue());
+		assertEquals(7, new LazyNumber("7").longValue());
+		assertEquals(0.1f, new LazyNumber("0.1").floatValue(), 0);
+		assertEquals(new BigDecimal("0.10000000000000000001"), new LazyNumber("0.10000000000000000001").bigDecimalValue());
+		assertTrue(new LazyNumber("-12").isIntegral());
+		assertFalse(new LazyNumber("1E2").isIntegral());
+		try {
+			new LazyNumber("x").longValue();
+			fail();
+		} catch (NumberFormatException e) {
+		}
+	}
+
+	public void testWrittenVerbatim() {
+		JSONArray array = new JSONArray();
+		array.add(new LazyNumber("1.50e3"));
+		array.add(new LazyNumber("12345678901234567890"));
+		assertEquals("[1.50e3,12345678901234567890]", array.toJSONString());
+		assertEquals(new LazyNumber("1.0"), new LazyNumber("1.0"));
+		assertFalse(new LazyNumber("1.0").equals(new LazyNumber("1.00")));
+		assertFalse(new LazyNumber("1").equals(Long.valueOf(1)));
+	}
+
+}
@@ -0,0 +1,153 @@
+package org.json.simple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.json.simple.parser.DefaultContentHandler;
+import org.json.simple.parser.JSONParser;
+
+import junit.framework.TestCase;
+
+public class PrimitiveJSONArrayTest extends TestCase {
+
+	public void testWidening() {
+		PrimitiveJSONArray array = new PrimitiveJSONArray();
+		array.add(1L);
+		array.add(Long.valueOf(-2));
+		assertEquals(-2L, array.getLong(1));
+		assertEquals(1.0, array.getDouble(0), 0);
+		assertEquals("[1,-2]", array.toJSONString());
+
+		/* longs to doubles, the longs stay Longs */
+		array.add(2.5);
+		assertEquals(Long.valueOf(1), array.get(0));
+		assertEquals(Double.valueOf(2.5), array.get(2));
+		assertEquals(2L, array.getLong(2));
+		array.add(3L);
+		assertEquals(Arrays.<Object> asList(Long.valueOf(1), Long.valueOf(-2), Double.valueOf(2.5), Long.valueOf(3)), array);
+		assertEquals("[1,-2,2.5,3]", array.toJSONString());
+
+		/* a long a double cannot hold */
+		array.add(Long.MAX_VALUE);
+		assertEquals(Long.valueOf(Long.MAX_VALUE), array.get(4));
+		assertEquals(Long.MAX_VALUE, array.getLong(4));
+		assertEquals(Double.valueOf(2.5), array.get(2));
+
+		PrimitiveJSONArray flags = new PrimitiveJSONArray();
+		flags.add(true);
+		flags.add(false);
+		assertTrue(flags.getBoolean(0));
+		flags.add("x");
+		assertEquals(Arrays.<Object> asList(Boolean.TRUE, Boolean.FALSE, "x"), flags);
+		assertFalse(flags.getBoolean(1));
+
+		PrimitiveJSONArray doubles = new PrimitiveJSONArray();
+		doubles.add(0.5);
+		doubles.add((Object) null);
+		assertNull(doubles.get(1));
+		assertEquals("[0.5,null]", doubles.toJSONString());
+		try {
+			doubles.getDouble(1);
+			fail();
+		} catch (NullPointerException e) {
+		}
+		try {
+			doubles.get(2);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+		}
+		assertEquals("[]", new PrimitiveJSONArray().toJSONString());
+	}
+
+	public void testAgainstArrayList() {
+		Object[] values = { Long.valueOf(1), Long.valueOf(-7), Long.valueOf(Long.MIN_VALUE), Double.valueOf(0.25),
+				Double.valueOf(-0.0), Boolean.TRUE, Boolean.FALSE, null, "s", Integer.valueOf(3) };
+		Random random = new Random(11);
+		for (int round = 0; round < 300; round++) {
+			PrimitiveJSONArray array = new PrimitiveJSONArray();
+			List<Object> expected = new ArrayList<Object>();
+			/* most rounds stay within one or two kinds */
+			int kinds = 1 + random.nextInt(values.length);
+			int first = random.nextInt(values.length - kinds + 1);
+			for (int op = 0; op < 40; op++) {
+				Object value = values[first + random.nextInt(kinds)];
+				int index = expected.isEmpty() ? 0 : random.nextInt(expected.size());
+				switch (random.nextInt(6)) {
+				case 0:
+					if (!expected.isEmpty()) {
+						assertEquals(expected.remove(index), array.remove(index));
+					}
+					break;
+				case 1:
+					if (!expected.isEmpty()) {
+						assertEquals(expected.set(index, value), array.set(index, value));
+					}
+					break;
+				case 2:
+					expected.add(index, value);
+					array.add(index, value);
+					break;
+				case 3:
+					Iterator<Object> iter = array.iterator();
+					for (int i = 0; iter.hasNext(); i++) {
+						if (iter.next() == null) {
+							iter.remove();
+							expected.remove(i--);
+						}
+					}
+					break;
+				default:
+					expected.add(value);
+					array.add(value);
+				}
+				assertEquals(expected, array);
+				assertEquals(array, expected);
+				assertEquals(expected.hashCode(), array.hashCode());
+				assertEquals(JSONValue.toJSONString(expected), array.toJSONString());
+			}
+			array.trimToSize();
+			assertEquals(expected, array);
+		}
+	}
+
+	public void testParse() throws Exception {
+		String text = "{\"v\":[1,2,3],\"w\":[0.5,1,-2.5e3],\"f\":[true,false],\"m\":[1,\"a\",null,[2]],\"e\":[],\"n\":1}";
+		int[] lexers = { JSONParser.LEXER_JFLEX, JSONParser.LEXER_HANDWRITTEN, JSONParser.LEXER_INDEXED };
+		for (int i = 0; i < lexers.length; i++) {
+			JSONParser parser = new JSONParser(lexers[i]);
+			parser.setArrayType(DefaultContentHandler.ARRAY_PRIMITIVE);
+			JSONObject obj = (JSONObject) parser.parse(text);
+			assertEquals(new JSONParser().parse(text), obj);
+			assertEquals(obj, parser.parse(text.getBytes("UTF-8")));
+			PrimitiveJSONArray v = (PrimitiveJSONArray) obj.get("v");
+			assertEquals(3L, v.getLong(2));
+			assertEquals(-2500.0, ((PrimitiveJSONArray) obj.get("w")).getDouble(2), 0);
+			assertEquals(Long.valueOf(1), ((PrimitiveJSONArray) obj.get("w")).get(1));
+			assertTrue(((PrimitiveJSONArray) obj.get("f")).getBoolean(0));
+			assertTrue(((List<?>) obj.get("m")).get(3) instanceof PrimitiveJSONArray);
+			assertEquals(text, obj.get("n"), Long.valueOf(1));
+		}
+		assertTrue(new JSONParser().parse("[1]") instanceof JSONArray);
+	}
+
+	public void testSerializable() throws Exception {
+		PrimitiveJSONArray array = new PrimitiveJSONArray();
+		array.add(1L);
+		array.add(0.5);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(array);
+		out.close();
+		Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(array, copy);
+		assertEquals(Long.valueOf(1), ((List<?>) copy).get(0));
+	}
+
+}
@@ -0,0 +1,52 @@
+package org.json.simple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+public class RawJSONTest extends TestCase {
+
+	public void testWrittenVerbatim() throws Exception {
+		JSONObject obj = new JSONObject();
+		obj.put("raw", new RawJSON("{\"a\": [1, 2.50, \"\\u00e9\"]}"));
+		assertEquals("{\"raw\":{\"a\": [1, 2.50, \"\\u00e9\"]}}", obj.toJSONString());
+
+		JSONArray array = new JSONArray();
+		byte[] b = "x[\"é\",null]y".getBytes("UTF-8");
+		array.add(new RawJSON(b, 1, b.length - 2));
+		array.add(new RawJSON("true"));
+		StringWriter out = new StringWriter();
+		JSONValue.writeJSONString(array, out);
+		assertEquals("[[\"é\",null],true]", out.toString());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new RawJSON(b, 1, b.length - 2).writeTo(bytes);
+		assertEquals("[\"é\",null]", bytes.toString("UTF-8"));
+		bytes.reset();
+		new RawJSON("\"é\"").writeTo(bytes);
+		assertEquals("\"é\"", bytes.toString("UTF-8"));
+	}
+
+	public void testEquals() throws Exception {
+		byte[] b = "[1]".getBytes("UTF-8");
+		assertEquals(new RawJSON("[1]"), new RawJSON(b));
+		assertEquals(new RawJSON("[1]").hashCode(), new RawJSON(b).hashCode());
+		assertFalse(new RawJSON("[1]").equals(new RawJSON("[ 1]")));
+		assertFalse(new RawJSON("1").equals(Long.valueOf(1)));
+	}
+
+	public void testSerializable() throws Exception {
+		byte[] b = "xx{}yy".getBytes("UTF-8");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(new RawJSON(b, 2, 2));
+		out.close();
+		Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(new RawJSON("{}"), copy);
+	}
+
+}
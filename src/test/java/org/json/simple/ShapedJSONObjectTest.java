@@ -0,0 +1,191 @@
+package org.json.simple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.json.simple.parser.DefaultContentHandler;
+import org.json.simple.parser.JSONParser;
+
+import junit.framework.TestCase;
+
+public class ShapedJSONObjectTest extends TestCase {
+
+	public void testShapes() {
+		ShapedJSONObject a = new ShapedJSONObject();
+		a.put("id", Long.valueOf(1));
+		a.put("name", "x");
+		ShapedJSONObject b = new ShapedJSONObject();
+		b.put(new String("id"), Long.valueOf(2));
+		b.put(new String("name"), "y");
+		assertSame(a.shape(), b.shape());
+		assertEquals(2, a.shape().size());
+
+		/* transitions */
+		b.put("extra", Boolean.TRUE);
+		assertNotSame(a.shape(), b.shape());
+		b.remove("extra");
+		assertSame(a.shape(), b.shape());
+		b.remove("id");
+		ShapedJSONObject c = new ShapedJSONObject();
+		c.put("name", "z");
+		assertSame(c.shape(), b.shape());
+		assertEquals("{\"name\":\"y\"}", b.toJSONString());
+
+		/* same keys, different order */
+		c.put("id", Long.valueOf(3));
+		assertNotSame(a.shape(), c.shape());
+		assertEquals(a.keySet(), c.keySet());
+	}
+
+	public void testDictionary() {
+		ShapedJSONObject obj = new ShapedJSONObject();
+		Map<String, Object> expected = new HashMap<String, Object>();
+		for (int i = 0; i < Shape.MAX_KEYS + 10; i++) {
+			obj.put("key" + i, Integer.valueOf(i));
+			expected.put("key" + i, Integer.valueOf(i));
+		}
+		assertNull(obj.shape());
+		assertEquals(expected, obj);
+		obj.put(null, "n");
+		assertEquals("n", obj.get(null));
+
+		obj.clear();
+		obj.put("key0", "again");
+		assertNotNull(obj.shape());
+	}
+
+	public void testAgainstHashMap() {
+		Random random = new Random(7);
+		for (int round = 0; round < 200; round++) {
+			ShapedJSONObject obj = new ShapedJSONObject();
+			Map<String, Object> expected = new HashMap<String, Object>();
+			for (int op = 0; op < 60; op++) {
+				String key = "k" + random.nextInt(12);
+				Object value = Integer.valueOf(random.nextInt(5));
+				switch (random.nextInt(5)) {
+				case 0:
+					assertEquals(expected.remove(key), obj.remove(key));
+					break;
+				case 1:
+					Iterator<Map.Entry<String, Object>> iter = obj.entrySet().iterator();
+					while (iter.hasNext()) {
+						Map.Entry<String, Object> entry = iter.next();
+						if (entry.getValue().equals(value)) {
+							iter.remove();
+							expected.remove(entry.getKey());
+						} else {
+							entry.setValue(Integer.valueOf(-1));
+							expected.put(entry.getKey(), Integer.valueOf(-1));
+						}
+					}
+					break;
+				default:
+					assertEquals(expected.put(key, value), obj.put(key, value));
+				}
+				assertEquals(expected, obj);
+				assertEquals(obj, expected);
+				assertEquals(expected.hashCode(), obj.hashCode());
+				assertEquals(expected.get(key), obj.get(key));
+			}
+		}
+	}
+
+	public void testParse() throws Exception {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < 100; i++) {
+			sb.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"tags\":{\"a\":1},\"name\":\"n").append(i).append("\"}");
+		}
+		String text = sb.append(']').toString();
+		JSONParser parser = new JSONParser(JSONParser.LEXER_HANDWRITTEN);
+		parser.setObjectType(DefaultContentHandler.OBJECT_SHAPED);
+		List<?> records = (List<?>) parser.parse(text);
+		assertEquals(new JSONParser().parse(text), records);
+		ShapedJSONObject first = (ShapedJSONObject) records.get(0);
+		for (int i = 1; i < records.size(); i++) {
+			ShapedJSONObject record = (ShapedJSONObject) records.get(i);
+			assertSame(first.shape(), record.shape());
+			assertSame(first.shape().keys[0], record.keySet().iterator().next());
+			assertTrue(record.get("tags") instanceof ShapedJSONObject);
+		}
+		assertEquals("{\"id\":0,\"tags\":{\"a\":1},\"name\":\"n0\"}", first.toJSONString());
+	}
+
+	public void testDataKeys() throws Exception {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < 3 * Shape.MAX_TRANSITIONS; i++) {
+			sb.append("{\"user").append(i).append("\":1},");
+			if (i % 50 == 0) {
+				sb.append("{\"id\":\"a\",\"name\":\"b\"},");
+			}
+		}
+		String text = sb.append("{\"id\":\"x\",\"email\":1},{\"id\":\"y\",\"email\":2}]").toString();
+		JSONParser parser = new JSONParser();
+		parser.setObjectType(DefaultContentHandler.OBJECT_SHAPED);
+		List<?> objects = (List<?>) parser.parse(text);
+		assertEquals(new JSONParser().parse(text), objects);
+		ShapedJSONObject x = (ShapedJSONObject) objects.get(objects.size() - 2);
+		ShapedJSONObject y = (ShapedJSONObject) objects.get(objects.size() - 1);
+		assertNotNull(x.shape());
+		assertSame(x.shape(), y.shape());
+		ShapedJSONObject first = (ShapedJSONObject) objects.get(1);
+		assertEquals("b", first.get("name"));
+		int records = 0;
+		for (int i = 2; i < objects.size(); i++) {
+			ShapedJSONObject record = (ShapedJSONObject) objects.get(i);
+			if (record.containsKey("name")) {
+				assertSame(first.shape(), record.shape());
+				records++;
+			}
+		}
+		assertEquals(3, records);
+
+		/* a full registry starts over */
+		ShapedJSONObject.Shapes shapes = new ShapedJSONObject.Shapes();
+		for (int i = 0; i < Shape.MAX_SHAPES + 10; i++) {
+			new ShapedJSONObject(shapes).put("key" + i, null);
+		}
+		ShapedJSONObject a = new ShapedJSONObject(shapes);
+		a.put("id", "a");
+		ShapedJSONObject b = new ShapedJSONObject(shapes);
+		b.put("id", "b");
+		assertSame(a.shape(), b.shape());
+	}
+
+	public void testParseManyKeys() throws Exception {
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i <= ShapedJSONObject.MAX_KEYS; i++) {
+			sb.append(i > 0 ? "," : "").append("\"k").append(i).append("\":").append(i);
+		}
+		String big = sb.append('}').toString();
+		String text = "[" + big + ",{\"a\":" + big + "},{\"b\":1}]";
+		JSONParser parser = new JSONParser();
+		parser.setObjectType(DefaultContentHandler.OBJECT_SHAPED);
+		List<?> objects = (List<?>) parser.parse(text);
+		assertEquals(new JSONParser().parse(text), objects);
+		assertTrue(objects.get(0) instanceof JSONObject);
+		assertTrue(((Map<?, ?>) objects.get(1)).get("a") instanceof JSONObject);
+		assertTrue(objects.get(1) instanceof ShapedJSONObject);
+		assertTrue(parser.parse(big) instanceof JSONObject);
+	}
+
+	public void testSerializable() throws Exception {
+		ShapedJSONObject obj = new ShapedJSONObject();
+		obj.put("a", "b");
+		obj.put("c", null);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(obj);
+		out.close();
+		ShapedJSONObject copy = (ShapedJSONObject) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(obj, copy);
+		assertSame(obj.shape(), copy.shape());
+	}
+
+}
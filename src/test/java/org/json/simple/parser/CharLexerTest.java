@@ -0,0 +1,66 @@
+package org.json.simple.parser;
+
+import java.io.StringReader;
+
+import org.json.simple.JSONStreamTest;
+
+import junit.framework.TestCase;
+
+public class CharLexerTest extends TestCase {
+
+	private static final String[] SAMPLES = {
+		"\"\\/\"",
+		"\"abc\\/\\r\\b\\n\\t\\f\\\\\"",
+		"[\t \n\r\n{ \t \t\n\r}",
+		"\b\f{",
+		"{a : b}",
+		"{\"k\":\"\\u4e2d\\x\\u12\\uD83D\\uDE00\"}",
+		"[0, -12, 3.5, 1e5, 1.e5, -0.25E-3, 1.5e, -, true, false, null]",
+		"[tru]",
+		"\"unterminated",
+		"\"\\",
+	};
+
+	public void testSameTokensAsYylex() throws Exception {
+		for (int i = 0; i < SAMPLES.length; i++) {
+			String s = SAMPLES[i];
+			assertEquals(s, tokens(new Yylex(new StringReader(s))), tokens(new CharLexer(new StringReader(s))));
+
+			CharLexer inPlace = new CharLexer(null);
+			char[] framed = ("[[" + s + "]]").toCharArray();
+			inPlace.yyreset(framed, 2, s.length());
+			assertEquals(s, tokens(new Yylex(new StringReader(s))), tokens(inPlace));
+		}
+	}
+
+	public void testSelectLexer() throws Exception {
+		String json = JSONStreamTest.getJSONSampleLong();
+		JSONParser parser = new JSONParser(JSONParser.LEXER_HANDWRITTEN);
+		assertEquals(JSONParser.LEXER_HANDWRITTEN, parser.getLexer());
+		Object handwritten = parser.parse(new StringReader(json));
+		parser.setLexer(JSONParser.LEXER_JFLEX);
+		assertEquals(handwritten, parser.parse(new StringReader(json)));
+		assertEquals(handwritten, parser.parse(json));
+
+		try {
+			parser.setLexer(42);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	private static String tokens(Lexer lexer) throws Exception {
+		StringBuffer sb = new StringBuffer();
+		try {
+			Yytoken token;
+			do {
+				token = lexer.yylex();
+				sb.append(token).append('@').append(lexer.getPosition()).append(' ');
+			} while (token != null);
+		} catch (ParseException e) {
+			sb.append(e.getMessage());
+		}
+		return sb.toString();
+	}
+
+}
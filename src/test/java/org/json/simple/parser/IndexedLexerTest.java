@@ -0,0 +1,94 @@
+package org.json.simple.parser;
+
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+public class IndexedLexerTest extends TestCase {
+
+	private static final String[] SAMPLES = {
+		"\"\\/\"",
+		"\"abc\\/\\r\\b\\n\\t\\f\\\\\"",
+		"[\t \n\r\n{ \t \t\n\r}",
+		"{\"café\":\"中文😀\",\"k\":\"\\u4e2d\\x\\u12\"}",
+		"[0, -12, 3.5, 1e5, 1.e5, -0.25E-3, true, false, null]",
+		"[1true\"a\"-2-3]",
+		"{a : b}",
+		"[\"é\" tru]",
+		"\"a\\\\\"b\"",
+		"\"unterminated \\\"",
+		"\"ends with a backslash \\",
+	};
+
+	public void testSameTokensAsYylex() throws Exception {
+		for (int i = 0; i < SAMPLES.length; i++) {
+			String s = SAMPLES[i];
+			assertSameTokens(s);
+			/* move everything across the eight byte boundaries */
+			for (int pad = 1; pad < 10; pad++) {
+				StringBuffer sb = new StringBuffer();
+				for (int j = 0; j < pad; j++) {
+					sb.append(' ');
+				}
+				assertSameTokens(sb + s);
+				assertSameTokens("[\"" + sb + "\"," + s);
+			}
+		}
+	}
+
+	public void testIndex() throws Exception {
+		byte[] b = "{\"a\\\"\": [12, tr], \"é\" : null}".getBytes("UTF-8");
+		StructuralIndex index = new StructuralIndex();
+		index.build(b, 0, b.length);
+		int[] expected = { 0, 1, -1 - 5, 6, 8, 9, 11, 13, 15, 16, 18, -1 - 21, 23, 25, 29 };
+		assertEquals(expected.length, index.count);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], index.entries[i]);
+		}
+	}
+
+	public void testParseBytes() throws Exception {
+		StringBuffer sb = new StringBuffer("[");
+		for (int i = 0; i < 1000; i++) {
+			sb.append("{\"id\": ").append(i).append(", \"name\": \"n\\u00e4me ").append(i)
+					.append("\",\n    \"values\": [1.5, true, null, \"").append("x\\\"y").append("\"]},");
+		}
+		sb.append("\"Jürgen\"]");
+		String s = sb.toString();
+		byte[] b = s.getBytes("UTF-8");
+		Object reference = new JSONParser().parse(s);
+		JSONParser parser = new JSONParser(JSONParser.LEXER_INDEXED);
+		assertEquals(reference, parser.parse(b));
+		assertEquals(reference, parser.parse(s));
+
+		try {
+			parser.parse("[1, 2 x]".getBytes("UTF-8"));
+			fail();
+		} catch (ParseException e) {
+			assertEquals(ParseException.ERROR_UNEXPECTED_CHAR, e.getErrorType());
+			assertEquals(6, e.getPosition());
+		}
+	}
+
+	private static void assertSameTokens(String s) throws Exception {
+		byte[] b = s.getBytes("UTF-8");
+		IndexedLexer lexer = new IndexedLexer();
+		lexer.yyreset(b, 0, b.length);
+		assertEquals(s, tokens(new Yylex(new StringReader(s))), tokens(lexer));
+	}
+
+	private static String tokens(Lexer lexer) throws Exception {
+		StringBuffer sb = new StringBuffer();
+		try {
+			Yytoken token;
+			do {
+				token = lexer.yylex();
+				sb.append(token).append('@').append(lexer.getPosition()).append(' ');
+			} while (token != null);
+		} catch (ParseException e) {
+			sb.append(e.getMessage());
+		}
+		return sb.toString();
+	}
+
+}
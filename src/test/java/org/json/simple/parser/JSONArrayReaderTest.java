@@ -0,0 +1,224 @@
+package org.json.simple.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.json.simple.JSONArray;
+
+public class JSONArrayReaderTest extends TestCase {
+
+	private static final String ARRAY = " [ {\"id\":1,\"tags\":[\"a\",\"b,]\"]}, [1,[2,[]]] ,\"x\\\"]\", 42, -1.5, true, null, {} ] trailing";
+
+	public void testElements() throws Exception {
+		JSONArray expected = (JSONArray) new JSONParser().parse(ARRAY.substring(0, ARRAY.indexOf("trailing")));
+		JSONParser parser = new JSONParser();
+		assertEquals(expected, readAll(parser.streamArray(new StringReader(ARRAY))));
+		assertEquals(expected, readAll(parser.streamArray(new ByteArrayInputStream(ARRAY.getBytes("UTF-8")))));
+
+		File file = write(ARRAY);
+		try {
+			JSONArrayReader reader = parser.streamArray(file.toPath());
+			assertEquals(expected, readAll(reader));
+			reader.close();
+		} finally {
+			file.delete();
+		}
+
+		JSONArrayReader reader = new JSONArrayReader(new StringReader("[]"));
+		assertFalse(reader.hasNext());
+		try {
+			reader.next();
+			fail();
+		} catch (NoSuchElementException e) {
+		}
+		assertFalse(new JSONArrayReader(new StringReader("  ")).hasNext());
+	}
+
+	public void testNotArray() throws Exception {
+		String[] texts = { "{\"a\":[1]}", "1", "\"s\"", "[1,2" };
+		for (int i = 0; i < texts.length; i++) {
+			JSONArrayReader reader = new JSONArrayReader(new StringReader(texts[i]));
+			try {
+				while (reader.hasNext()) {
+					reader.next();
+				}
+				fail(texts[i]);
+			} catch (ParseException e) {
+				assertEquals(ParseException.ERROR_UNEXPECTED_TOKEN, e.getErrorType());
+			}
+		}
+	}
+
+	public void testHandler() throws Exception {
+		final List<String> events = new ArrayList<String>();
+		ContentHandler handler = new TypedContentHandlerAdapter(null) {
+			public void startJSON() {
+				events.add("(");
+			}
+
+			public void endJSON() {
+				events.add(")");
+			}
+
+			public boolean startArray() {
+				events.add("[");
+				return true;
+			}
+
+			public boolean endArray() {
+				events.add("]");
+				return true;
+			}
+
+			public boolean longValue(long value) {
+				events.add(String.valueOf(value));
+				/* stop in the middle of an element */
+				return value != 2;
+			}
+		};
+		JSONArrayReader reader = new JSONArrayReader(new StringReader("[1,[2,3],4]"));
+		while (reader.next(handler)) {
+			events.add("|");
+		}
+		assertEquals("[(, 1, ), |, (, [, 2, |, 3, ], ), |, (, 4, ), |]", events.toString());
+	}
+
+	public void testSplit() throws Exception {
+		Random random = new Random(13);
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < 2000; i++) {
+			if (i > 0) {
+				sb.append(random.nextBoolean() ? ",\n" : " , ");
+			}
+			switch (random.nextInt(4)) {
+			case 0:
+				sb.append("{\"n\":").append(i).append(",\"s\":\"a,\\\\\\\"],[b\"}");
+				break;
+			case 1:
+				sb.append("[").append(i).append(",[\",\"]]");
+				break;
+			case 2:
+				sb.append("\"").append(i).append(",]\"");
+				break;
+			default:
+				sb.append(i);
+			}
+		}
+		sb.append("]\n");
+		String text = sb.toString();
+		JSONArray expected = (JSONArray) new JSONParser().parse(text);
+
+		File file = write(text);
+		try {
+			int[] parts = { 1, 2, 7, 64, 5000 };
+			for (int i = 0; i < parts.length; i++) {
+				List<JSONArrayReader> readers = JSONArrayReader.split(file.toPath(), parts[i]);
+				assertTrue(readers.size() <= parts[i]);
+				if (parts[i] <= 64) {
+					assertEquals(parts[i], readers.size());
+				}
+				JSONArray all = new JSONArray();
+				for (JSONArrayReader reader : readers) {
+					all.addAll(readAll(reader));
+					reader.close();
+				}
+				assertEquals(expected, all);
+			}
+		} finally {
+			file.delete();
+		}
+
+		file = write("{\"a\":[1,2,3],\"b\":2}");
+		try {
+			assertEquals(1, JSONArrayReader.split(file.toPath(), 4).size());
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testBlockReads() throws Exception {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < 1000; i++) {
+			sb.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"name\":\"n").append(i).append("\"}");
+		}
+		String text = sb.append("]").toString();
+		final int[] reads = new int[1];
+		Reader in = new FilterReader(new StringReader(text)) {
+			public int read() throws IOException {
+				reads[0]++;
+				return super.read();
+			}
+
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				reads[0]++;
+				return super.read(cbuf, off, len);
+			}
+		};
+		assertEquals(1000, readAll(new JSONArrayReader(in)).size());
+		assertTrue(reads[0] < 10);
+
+		reads[0] = 0;
+		InputStream stream = new FilterInputStream(new ByteArrayInputStream(text.getBytes("UTF-8"))) {
+			public int read() throws IOException {
+				reads[0]++;
+				return super.read();
+			}
+
+			public int read(byte[] b, int off, int len) throws IOException {
+				reads[0]++;
+				return super.read(b, off, len);
+			}
+		};
+		assertEquals(1000, readAll(new JSONArrayReader(stream)).size());
+		assertTrue(reads[0] < 10);
+
+		/* files are read with the parser's file scanner */
+		File file = write(text);
+		try {
+			List<JSONArrayReader> readers = new ArrayList<JSONArrayReader>();
+			readers.add(new JSONArrayReader(file.toPath()));
+			readers.add(new JSONParser().streamArray(file.toPath()));
+			readers.addAll(JSONArrayReader.split(file.toPath(), 2));
+			int n = 0;
+			for (JSONArrayReader reader : readers) {
+				n += readAll(reader).size();
+				assertTrue(reader.getParser().bufferSize() >= 65536);
+				reader.close();
+			}
+			assertEquals(3000, n);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static JSONArray readAll(JSONArrayReader reader) throws Exception {
+		JSONArray values = new JSONArray();
+		while (reader.hasNext()) {
+			values.add(reader.next());
+		}
+		assertFalse(reader.hasNext());
+		return values;
+	}
+
+	private static File write(String text) throws Exception {
+		File file = File.createTempFile("array", ".json");
+		FileOutputStream out = new FileOutputStream(file);
+		out.write(text.getBytes("UTF-8"));
+		out.close();
+		return file;
+	}
+
+}
@@ -0,0 +1,180 @@
+package org.json.simple.parser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+import org.json.simple.JSONStreamTest;
+
+public class JSONFeedParserTest extends TestCase {
+
+	private static final String[] SAMPLES = {
+		"{\"name\":\"Jürgen\",\"values\":[1,-22,3.5e1,true,false,null],\"nested\":{\"a\":{},\"b\":[[]]}}",
+		"[\"esc \\\" \\\\ \\/ \\b \\f \\n \\r \\t \\u00e9\\u20AC \\x\",\"\uD83D\uDE00 ü €\"]",
+		"[12345678901234, -0.5, 1E+2, 7e-3, 1.x, 2e, -]",
+		"\"top\"",
+		"  42  ",
+		"",
+		"[1,,2 3]",
+		"{\"a\" 1}",
+		"{\"a\":1",
+		"[1]]",
+		"{\"a\":tru}",
+		"[\"unterminated",
+		"[\"ends in escape\\",
+		"[\"ab\", \"\\u12\"]",
+	};
+
+	public void testChunkBoundaries() throws Exception {
+		for (int i = 0; i < SAMPLES.length; i++) {
+			byte[] b = SAMPLES[i].getBytes("UTF-8");
+			String expected = streamEvents(b);
+			for (int split = 0; split <= b.length; split++) {
+				Recorder r = new Recorder();
+				JSONFeedParser parser = new JSONFeedParser(r);
+				try {
+					parser.feed(ByteBuffer.wrap(b, 0, split));
+					parser.feed(ByteBuffer.wrap(b, split, b.length - split));
+					parser.endOfInput();
+				} catch (ParseException e) {
+					r.sb.append(e);
+				}
+				assertEquals(SAMPLES[i] + " split at " + split, expected, r.sb.toString());
+			}
+			assertEquals(SAMPLES[i], expected, feedEvents(b, 1));
+		}
+	}
+
+	public void testLargeInput() throws Exception {
+		byte[] b = JSONStreamTest.getJSONSampleLong().getBytes("UTF-8");
+		String expected = streamEvents(b);
+		int[] sizes = { 1, 7, 100, 5000, 100000 };
+		for (int i = 0; i < sizes.length; i++) {
+			assertEquals(expected, feedEvents(b, sizes[i]));
+		}
+	}
+
+	public void testLongStringInSmallChunks() throws Exception {
+		StringBuffer sb = new StringBuffer("[\"");
+		for (int i = 0; i < 20000; i++) {
+			sb.append(i % 3 == 0 ? "é" : i % 3 == 1 ? "\\n" : "a");
+		}
+		sb.append("\"]");
+		byte[] b = sb.toString().getBytes("UTF-8");
+		assertEquals(streamEvents(b), feedEvents(b, 3));
+	}
+
+	public void testDefaultContentHandler() throws Exception {
+		DefaultContentHandler handler = new DefaultContentHandler();
+		JSONFeedParser parser = new JSONFeedParser(handler);
+		byte[] b = "{\"a\":[1,2.5],\"b\":\"x\"}".getBytes("UTF-8");
+		parser.feed(b, 0, 10);
+		parser.feed(b, 10, b.length - 10);
+		parser.endOfInput();
+		assertEquals(new JSONParser().parse(new String(b, "UTF-8")), handler.getContent());
+		try {
+			parser.feed(b, 0, 1);
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		parser.reset(handler);
+		parser.feed(b, 0, 4);
+		parser.reset(handler);
+		parser.feed("[true]".getBytes("UTF-8"), 0, 6);
+		parser.endOfInput();
+		assertEquals("[true]", handler.getContent().toString());
+	}
+
+	public void testTrailingInputIgnored() throws Exception {
+		String[] texts = { "[1,{\"a\":2}]", "{\"a\":[]}", "\"s\"", "42 " };
+		for (int i = 0; i < texts.length; i++) {
+			byte[] b = (texts[i] + " x [").getBytes("UTF-8");
+			DefaultContentHandler handler = new DefaultContentHandler();
+			new JSONParser().parse(new ByteArrayInputStream(b), handler);
+			Object expected = handler.getContent();
+
+			handler = new DefaultContentHandler();
+			JSONFeedParser parser = new JSONFeedParser(handler);
+			parser.feed(b, 0, texts[i].length());
+			ByteBuffer rest = ByteBuffer.wrap(b, texts[i].length(), b.length - texts[i].length());
+			parser.feed(rest);
+			assertFalse(rest.hasRemaining());
+			parser.endOfInput();
+			assertEquals(texts[i], expected, handler.getContent());
+		}
+	}
+
+	private static String feedEvents(byte[] b, int chunk) {
+		Recorder r = new Recorder();
+		JSONFeedParser parser = new JSONFeedParser(r);
+		try {
+			for (int off = 0; off < b.length; off += chunk) {
+				parser.feed(b, off, Math.min(chunk, b.length - off));
+			}
+			parser.endOfInput();
+		} catch (ParseException e) {
+			r.sb.append(e);
+		}
+		return r.sb.toString();
+	}
+
+	private static String streamEvents(byte[] b) throws Exception {
+		Recorder r = new Recorder();
+		try {
+			new JSONParser().parse(new ByteArrayInputStream(b), r);
+		} catch (ParseException e) {
+			r.sb.append(e);
+		}
+		return r.sb.toString();
+	}
+
+	private static class Recorder implements ContentHandler {
+
+		final StringBuffer sb = new StringBuffer();
+
+		public void startJSON() {
+			sb.append("startJSON ");
+		}
+
+		public void endJSON() {
+			sb.append("endJSON ");
+		}
+
+		public boolean startObject() {
+			sb.append("{ ");
+			return true;
+		}
+
+		public boolean endObject() {
+			sb.append("} ");
+			return true;
+		}
+
+		public boolean startObjectEntry(String key) {
+			sb.append(key).append(": ");
+			return true;
+		}
+
+		public boolean endObjectEntry() {
+			return true;
+		}
+
+		public boolean startArray() {
+			sb.append("[ ");
+			return true;
+		}
+
+		public boolean endArray() {
+			sb.append("] ");
+			return true;
+		}
+
+		public boolean primitive(Object value) {
+			sb.append(value == null ? "null" : value.getClass().getSimpleName() + "(" + value + ")").append(' ');
+			return true;
+		}
+	}
+
+}
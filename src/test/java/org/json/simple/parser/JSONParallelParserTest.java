@@ -0,0 +1,111 @@
+package org.json.simple.parser;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.json.simple.JSONStreamTest;
+
+public class JSONParallelParserTest extends TestCase {
+
+	private static final String[] SAMPLES = {
+		"[{\"name\":\"Jürgen\",\"v\":[1,-22,3.5e1,true,false,null]},{\"a\":{},\"b\":[[1],[2,[3]]]},\"x\\\\\\\"y\",12345678901]",
+		"{\"a\":\"\\\\\\\\\",\"b\":[\"\\\"]\\\"\",\"é\\u00e9\"],\"c\" 3, \"d\":\"e\"\"f\":1,,\"g\"::2}",
+		"  [1 2,,3, \"s\" \"t\" , {\"k\":[]} ]  trailing",
+		"\"top \\\" string\"",
+		"12345",
+		"[1,2",
+		"[1,[2,3}]",
+		"{\"a\":1,\"b\"}",
+		"{\"a\":1 2}",
+		"[1:2]",
+		"[\"unterminated, 1, 2",
+		"[1true, 2]",
+		"",
+	};
+
+	private ExecutorService executor;
+
+	protected void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	protected void tearDown() {
+		executor.shutdown();
+	}
+
+	public void testIndex() throws Exception {
+		Random random = new Random(1);
+		for (int i = 0; i < 200; i++) {
+			byte[] b = randomText(random, 1 + random.nextInt(300)).getBytes("UTF-8");
+			assertIndex(b, 1 + random.nextInt(8), 1 + random.nextInt(8));
+		}
+		byte[] b = JSONStreamTest.getJSONSampleLong().getBytes("UTF-8");
+		for (int ranges = 2; ranges <= 16; ranges++) {
+			assertIndex(b, ranges, b.length / ranges);
+		}
+	}
+
+	public void testSameAsParser() throws Exception {
+		for (int i = 0; i < SAMPLES.length; i++) {
+			byte[] b = SAMPLES[i].getBytes("UTF-8");
+			String expected = sequential(b);
+			for (int minRange = 1; minRange <= 8; minRange++) {
+				JSONParallelParser parser = new JSONParallelParser(executor, 4, minRange);
+				assertEquals(SAMPLES[i], expected, parallel(parser, b));
+			}
+			assertEquals(SAMPLES[i], expected, parallel(new JSONParallelParser(executor, 1, 1), b));
+		}
+		byte[] b = ("[" + JSONStreamTest.getJSONSampleLong() + "," + JSONStreamTest.getJSONSampleMedium() + ",\"é\",[[]]]").getBytes("UTF-8");
+		assertEquals(sequential(b), parallel(new JSONParallelParser(executor, 3, 64), b));
+	}
+
+	public void testContentHandler() throws Exception {
+		byte[] b = SAMPLES[0].getBytes("UTF-8");
+		DefaultContentHandler handler = new DefaultContentHandler();
+		new JSONParallelParser(executor, 4, 4).parse(b, 0, b.length, handler);
+		assertEquals(new JSONParser().parse(b), handler.getContent());
+	}
+
+	private void assertIndex(byte[] b, int parallelism, int minRange) throws Exception {
+		StructuralIndex expected = new StructuralIndex();
+		expected.build(b, 0, b.length);
+		StructuralIndex index = new JSONParallelParser(executor, parallelism, minRange).index(b, 0, b.length);
+		assertEquals(new String(b, "UTF-8"),
+				Arrays.toString(Arrays.copyOf(expected.entries, expected.count)),
+				Arrays.toString(Arrays.copyOf(index.entries, index.count)));
+	}
+
+	private static String sequential(byte[] b) {
+		try {
+			return String.valueOf(new JSONParser().parse(b));
+		} catch (ParseException e) {
+			return e.toString();
+		}
+	}
+
+	private static String parallel(JSONParallelParser parser, byte[] b) {
+		try {
+			return String.valueOf(parser.parse(b));
+		} catch (ParseException e) {
+			return e.toString();
+		}
+	}
+
+	private static final String[] PIECES = {
+		"\"", "\\", "\\\\", "\\\"", "\\u00e9", "é", "€", "a", "12", "-3.5e2", "true", "null",
+		" ", "        ", "\n", "{", "}", "[", "]", ",", ":",
+	};
+
+	private static String randomText(Random random, int pieces) {
+		StringBuffer sb = new StringBuffer();
+		for (int i = 0; i < pieces; i++) {
+			sb.append(PIECES[random.nextInt(PIECES.length)]);
+		}
+		return sb.toString();
+	}
+
+}
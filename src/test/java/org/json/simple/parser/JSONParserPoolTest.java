@@ -0,0 +1,128 @@
+package org.json.simple.parser;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONValue;
+
+public class JSONParserPoolTest extends TestCase {
+
+	public void testReuse() throws Exception {
+		JSONParserPool pool = new JSONParserPool(2, JSONParser.LEXER_JFLEX, 100);
+		JSONParser parser = pool.acquire();
+		assertEquals("[1]", parser.parse("[1]").toString());
+		pool.release(parser);
+		assertSame(parser, pool.acquire());
+		assertNotSame(parser, pool.acquire());
+	}
+
+	public void testUnknownLexerType() {
+		try {
+			new JSONParserPool(1, 42, 100);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			new JSONParserPool(0, JSONParser.LEXER_JFLEX, 100);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	public void testSettingsRestored() throws Exception {
+		JSONParserPool pool = new JSONParserPool(1, JSONParser.LEXER_JFLEX, 100);
+		JSONParser parser = pool.acquire();
+		parser.setLexer(JSONParser.LEXER_INDEXED);
+		parser.setReadAhead(false);
+		assertEquals("{\"a\":1}", parser.parse("{\"a\":1}".getBytes("UTF-8")).toString());
+		pool.release(parser);
+		parser = pool.acquire();
+		assertEquals(0, parser.getPosition());
+		StringReader in = new StringReader("[1] [2]");
+		assertEquals("[1]", parser.parse(in).toString());
+		assertEquals(' ', in.read());
+	}
+
+	public void testGrownBuffersShrunk() throws Exception {
+		StringBuffer sb = new StringBuffer("[\"");
+		for (int i = 0; i < 50000; i++) {
+			sb.append('a');
+		}
+		String s = sb.append("\\n\"]").toString();
+		int[] lexerTypes = { JSONParser.LEXER_JFLEX, JSONParser.LEXER_HANDWRITTEN };
+		for (int t = 0; t < lexerTypes.length; t++) {
+			JSONParserPool pool = new JSONParserPool(1, lexerTypes[t], 100);
+			JSONParser parser = pool.acquire();
+			parser.parse("[\"a\"]");
+			int size = parser.bufferSize();
+			assertEquals(50001, ((String) ((JSONArray) parser.parse(s)).get(0)).length());
+			assertTrue(parser.bufferSize() > 50000);
+			pool.release(parser);
+			assertSame(parser, pool.acquire());
+			assertEquals(size, parser.bufferSize());
+			assertEquals(50001, ((String) ((JSONArray) parser.parse(s)).get(0)).length());
+		}
+	}
+
+	public void testLongInputKept() throws Exception {
+		StringBuffer sb = new StringBuffer("[1");
+		for (int i = 0; i < 50000; i++) {
+			sb.append(",1");
+		}
+		String s = sb.append("]").toString();
+		JSONParserPool pool = new JSONParserPool(1, JSONParser.LEXER_JFLEX, 100);
+		JSONParser parser = pool.acquire();
+		assertEquals(50001, ((JSONArray) parser.parse(new StringReader(s))).size());
+		assertEquals(50001, ((JSONArray) parser.parse(s)).size());
+		int size = parser.bufferSize();
+		assertTrue(parser.getPosition() > 100000);
+		pool.release(parser);
+		assertSame(parser, pool.acquire());
+		assertEquals(size, parser.bufferSize());
+	}
+
+	public void testReleaseAfterError() throws Exception {
+		JSONParserPool pool = new JSONParserPool(1, JSONParser.LEXER_JFLEX, 100);
+		JSONParser parser = pool.acquire();
+		try {
+			parser.parse("[1,");
+			fail();
+		} catch (ParseException e) {
+		}
+		pool.release(parser);
+		parser = pool.acquire();
+		assertEquals("[2]", parser.parse("[2]").toString());
+	}
+
+	public void testConcurrentParse() throws Exception {
+		final String s = "[{\"k\":\"v\"},1,2.5,true,null]";
+		final Throwable[] failure = new Throwable[1];
+		List threads = new ArrayList();
+		for (int t = 0; t < 8; t++) {
+			Thread thread = new Thread() {
+				public void run() {
+					try {
+						for (int i = 0; i < 2000; i++) {
+							JSONArray a = (JSONArray) JSONValue.parseWithException(s);
+							assertEquals(5, a.size());
+							assertEquals(s, a.toJSONString());
+						}
+					} catch (Throwable e) {
+						failure[0] = e;
+					}
+				}
+			};
+			thread.start();
+			threads.add(thread);
+		}
+		for (int t = 0; t < threads.size(); t++) {
+			((Thread) threads.get(t)).join();
+		}
+		assertNull(String.valueOf(failure[0]), failure[0]);
+	}
+
+}
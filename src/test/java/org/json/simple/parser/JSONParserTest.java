@@ -0,0 +1,394 @@
+package org.json.simple.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.json.simple.JSONValue;
+import org.json.simple.LazyNumber;
+
+import junit.framework.TestCase;
+
+public class JSONParserTest extends TestCase {
+
+	private static final String JSON = "{\"name\":\"Jürgen\",\"values\":[1,22,333,4.5e1],\"nested\":{\"ok\":true,\"none\":null}}";
+
+	public void testParseByteBuffer() throws Exception {
+		JSONParser parser = new JSONParser();
+		Object reference = parser.parse(JSON);
+		byte[] b = JSON.getBytes("UTF-8");
+
+		ByteBuffer heap = ByteBuffer.allocate(b.length + 10);
+		heap.position(4);
+		heap.put(b);
+		heap.flip();
+		heap.position(4);
+		assertEquals(reference, parser.parse(heap.slice()));
+		assertEquals(reference, parser.parse(heap));
+		assertEquals(4, heap.position());
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(b.length);
+		direct.put(b);
+		direct.flip();
+		assertEquals(reference, parser.parse(direct));
+		assertEquals(0, direct.position());
+	}
+
+	public void testParseCharSequence() throws Exception {
+		JSONParser parser = new JSONParser();
+		Object reference = parser.parse(JSON);
+		String framed = "ab" + JSON + "cd";
+
+		assertEquals(reference, parser.parse(framed, 2, JSON.length()));
+		assertEquals(reference, parser.parse(new StringBuilder(framed), 2, JSON.length()));
+
+		CharBuffer heap = CharBuffer.wrap(framed.toCharArray());
+		heap.position(1);
+		assertEquals(reference, parser.parse(heap, 1, JSON.length()));
+		assertEquals(1, heap.position());
+
+		CharBuffer readOnly = CharBuffer.wrap(framed);
+		assertEquals(reference, parser.parse(readOnly, 2, JSON.length()));
+
+		try {
+			parser.parse(heap, 0, JSON.length() + 10);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
+
+	public void testNestedArrays() throws Exception {
+		String json = "[1,[2],[[3,4],[]],{\"a\":[5,[6]]},7]";
+		int[] lexers = { JSONParser.LEXER_JFLEX, JSONParser.LEXER_HANDWRITTEN, JSONParser.LEXER_INDEXED };
+		for (int i = 0; i < lexers.length; i++) {
+			JSONParser parser = new JSONParser(lexers[i]);
+			DefaultContentHandler handler = new DefaultContentHandler();
+			parser.parse(json, handler);
+			assertEquals(json, JSONValue.toJSONString(handler.getContent()));
+			assertEquals(json, JSONValue.toJSONString(parser.parse(json.getBytes("UTF-8"))));
+		}
+	}
+
+	public void testLexersCreatedOnDemand() throws Exception {
+		JSONParser parser = new JSONParser();
+		assertEquals(0, parser.bufferSize());
+		assertEquals(0, parser.getPosition());
+		assertEquals("[1]", parser.parse("[1]").toString());
+		int size = parser.bufferSize();
+		assertTrue(size > 0);
+		parser.setLexer(JSONParser.LEXER_HANDWRITTEN);
+		assertEquals(0, parser.bufferSize());
+		assertEquals("[2]", parser.parse(new StringReader("[2]")).toString());
+		assertEquals(size, parser.bufferSize());
+	}
+
+	public void testCharArrayInPlace() throws Exception {
+		char[] chars = "[1,\"x\"]".toCharArray();
+		Yylex lexer = new Yylex((java.io.Reader) null);
+		lexer.yyreset(chars, 3, 3);
+		Yytoken token = lexer.yylex();
+		assertEquals("x", token.value);
+		assertNull(lexer.yylex());
+		assertEquals("[1,\"x\"]", new String(chars));
+	}
+
+	public void testTypedContentHandler() throws Exception {
+		int[] lexers = { JSONParser.LEXER_JFLEX, JSONParser.LEXER_HANDWRITTEN, JSONParser.LEXER_INDEXED };
+		for (int i = 0; i < lexers.length; i++) {
+			JSONParser parser = new JSONParser(lexers[i]);
+
+			final long[] longs = new long[1];
+			final double[] doubles = new double[1];
+			final StringBuffer strings = new StringBuffer();
+			TypedContentHandler handler = new TypedContentHandlerAdapter(new DefaultContentHandler()) {
+				public boolean stringValue(CharSequence value) throws ParseException, IOException {
+					strings.append(value).append(',');
+					return super.stringValue(value);
+				}
+
+				public boolean longValue(long value) throws ParseException, IOException {
+					longs[0] += value;
+					return super.longValue(value);
+				}
+
+				public boolean doubleValue(double value) throws ParseException, IOException {
+					doubles[0] += value;
+					return super.doubleValue(value);
+				}
+			};
+			parser.parse(JSON, handler);
+			assertEquals(356, longs[0]);
+			assertEquals(45.0, doubles[0], 0);
+			assertEquals("Jürgen,", strings.toString());
+			parser.parse(JSON.getBytes("UTF-8"), handler);
+			assertEquals(712, longs[0]);
+
+			/* the adapter alone behaves like the wrapped handler */
+			DefaultContentHandler content = new DefaultContentHandler();
+			parser.parse(JSON.getBytes("UTF-8"), new TypedContentHandlerAdapter(content));
+			assertEquals(parser.parse(JSON), content.getContent());
+		}
+	}
+
+	public void testNumberType() throws Exception {
+		String json = "[12345678901234567890,-9223372036854775808,0.1,1.50e3,{\"id\":-98765432109876543210}]";
+		int[] lexers = { JSONParser.LEXER_JFLEX, JSONParser.LEXER_HANDWRITTEN, JSONParser.LEXER_INDEXED };
+		for (int i = 0; i < lexers.length; i++) {
+			JSONParser parser = new JSONParser(lexers[i]);
+			assertEquals(JSONParser.NUMBER_DOUBLE, parser.getNumberType());
+			Object[] inputs = { json, json.getBytes("UTF-8") };
+			for (int j = 0; j < inputs.length; j++) {
+				parser.setNumberType(JSONParser.NUMBER_DOUBLE);
+				List<?> list = (List<?>) parse(parser, inputs[j]);
+				assertEquals(new BigInteger("12345678901234567890"), list.get(0));
+				assertEquals(Long.valueOf(Long.MIN_VALUE), list.get(1));
+				assertEquals(Double.valueOf(0.1), list.get(2));
+				assertEquals(Double.valueOf(1500), list.get(3));
+				assertEquals(new BigInteger("-98765432109876543210"), ((Map<?, ?>) list.get(4)).get("id"));
+
+				parser.setNumberType(JSONParser.NUMBER_BIG_DECIMAL);
+				list = (List<?>) parse(parser, inputs[j]);
+				assertEquals(new BigInteger("12345678901234567890"), list.get(0));
+				assertEquals(Long.valueOf(Long.MIN_VALUE), list.get(1));
+				assertEquals(new BigDecimal("0.1"), list.get(2));
+				assertEquals(new BigDecimal("1.50e3"), list.get(3));
+
+				parser.setNumberType(JSONParser.NUMBER_LAZY);
+				list = (List<?>) parse(parser, inputs[j]);
+				assertEquals(new LazyNumber("1.50e3"), list.get(3));
+				assertEquals(json, JSONValue.toJSONString(list));
+
+				parser.setArrayType(DefaultContentHandler.ARRAY_PRIMITIVE);
+				assertEquals(json, JSONValue.toJSONString(parse(parser, inputs[j])));
+				parser.setArrayType(DefaultContentHandler.ARRAY_LIST);
+			}
+
+			/* an integer too large for longValue() is passed to primitive() */
+			final List<Object> values = new ArrayList<Object>();
+			TypedContentHandler handler = new TypedContentHandlerAdapter(new DefaultContentHandler()) {
+				public boolean primitive(Object value) throws ParseException, IOException {
+					values.add(value);
+					return true;
+				}
+
+				public boolean longValue(long value) throws ParseException, IOException {
+					values.add("long " + value);
+					return true;
+				}
+
+				public boolean doubleValue(double value) throws ParseException, IOException {
+					values.add("double " + value);
+					return true;
+				}
+			};
+			parser.setNumberType(JSONParser.NUMBER_DOUBLE);
+			parser.parse("[12345678901234567890,7,0.5]", handler);
+			assertEquals(Arrays.asList(new BigInteger("12345678901234567890"), "long 7", "double 0.5"), values);
+			values.clear();
+			parser.setNumberType(JSONParser.NUMBER_LAZY);
+			parser.parse("[7,0.5]".getBytes("UTF-8"), handler);
+			assertEquals(Arrays.asList(new LazyNumber("7"), new LazyNumber("0.5")), values);
+			values.clear();
+			parser.setNumberType(JSONParser.NUMBER_BIG_DECIMAL);
+			parser.parse("[7,0.5,12345678901234567890]", handler);
+			assertEquals(Arrays.asList(Long.valueOf(7), new BigDecimal("0.5"), new BigInteger("12345678901234567890")), values);
+		}
+
+		try {
+			new JSONParser().setNumberType(42);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			new JSONParser().setObjectType(42);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			new JSONParser().setArrayType(42);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	private static Object parse(JSONParser parser, Object input) throws Exception {
+		return input instanceof String ? parser.parse((String) input) : parser.parse((byte[]) input);
+	}
+
+	public void testSkipValue() throws Exception {
+		String text = "{\"id\":7,\"skip\":{\"s\":\"a}]\\\"\\\\\",\"n\":[1,{},[[]]]},\"big\":[\"ü😀\",[true 1e5 {}],\"x\"],"
+				+ "\"s\":\"\\u00e9\", \"str\": \"no\\\"{\", \"keep\":[1,2],\"name\":\"Jürgen\"}";
+		String expected = "{ id 7 . skip . big . s \u00e9 . str . keep [ ] . name Jürgen . } ";
+		assertEquals(expected, skipEvents(text));
+
+		/* the hand-written scanners do not look at tokens within skipped values */
+		SkipRecorder recorder = new SkipRecorder();
+		recorder.parser = new JSONParser(JSONParser.LEXER_HANDWRITTEN);
+		recorder.parser.parse("{\"skip\":[tru, 1e, -, \u0001],\"a\":1}", recorder);
+		assertEquals("{ skip . a 1 . } ", recorder.sb.toString());
+
+		/* the text after a skipped value is still checked, with the same positions */
+		String[] errors = { "{\"big\":[\"ü😀\",{}] 1}", "{\"skip\":\"ü😀\\\"\" 1}", "{\"skip\":[1}", "{\"skip\":[1}}",
+				"{\"skip\":[1,", "{\"skip\":\"abc", "{\"skip\":}", "{\"skip\" \"x\"", "[[1] 2 ["};
+		for (int i = 0; i < errors.length; i++) {
+			int position = -1;
+			try {
+				new JSONParser().parse(errors[i].replace("\"skip\"", "\"kept\"").replace("\"big\"", "\"bag\""));
+			} catch (ParseException e) {
+				position = e.getPosition();
+			}
+			try {
+				skipEvents(errors[i]);
+				fail(errors[i]);
+			} catch (ParseException e) {
+				assertEquals(errors[i], position, e.getPosition());
+			}
+		}
+
+		/* only the outermost brackets are matched */
+		try {
+			skipEvents("{\"skip\":{\"a\":[1}");
+			fail();
+		} catch (ParseException e) {
+			assertEquals(Yytoken.TYPE_EOF, ((Yytoken) e.getUnexpectedObject()).type);
+		}
+
+		/* a handler stopping the parse as well */
+		JSONParser parser = new JSONParser(JSONParser.LEXER_HANDWRITTEN);
+		SkipRecorder stopping = new SkipRecorder() {
+			public boolean startObjectEntry(String key) {
+				super.startObjectEntry(key);
+				return !key.equals("skip");
+			}
+		};
+		stopping.parser = parser;
+		StringReader in = new StringReader("{\"skip\":[1,2],\"a\":3}");
+		parser.parse(in, stopping, false);
+		assertEquals("{ skip ", stopping.sb.toString());
+		parser.parse(in, stopping, true);
+		assertEquals("{ skip . a 3 . } ", stopping.sb.toString());
+
+		try {
+			parser.skipValue();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	/**
+	 * Parses a text with every scanner, skipping the entries named skip or
+	 * big, and the content of arrays named keep.
+	 *
+	 * @return the events that are left, the same for all scanners
+	 */
+	private static String skipEvents(String text) throws Exception {
+		byte[] b = text.getBytes("UTF-8");
+		String result = null;
+		for (int i = 0; i < 6; i++) {
+			JSONParser parser = new JSONParser(i == 1 ? JSONParser.LEXER_HANDWRITTEN : i == 4 ? JSONParser.LEXER_INDEXED : JSONParser.LEXER_JFLEX);
+			SkipRecorder recorder = new SkipRecorder();
+			if (i == 5) {
+				/* fed byte by byte */
+				JSONFeedParser feed = new JSONFeedParser(recorder);
+				recorder.feed = feed;
+				for (int j = 0; j < b.length; j++) {
+					feed.feed(b, j, 1);
+				}
+				feed.endOfInput();
+			} else {
+				recorder.parser = parser;
+				if (i < 2) {
+					parser.parse(text, recorder);
+				} else if (i == 2) {
+					parser.parse(new StringReader(text), recorder);
+				} else if (i == 3) {
+					parser.parse(new ByteArrayInputStream(b), recorder);
+				} else {
+					parser.parse(b, recorder);
+				}
+			}
+			String events = recorder.sb.toString();
+			if (result == null) {
+				result = events;
+			} else {
+				assertEquals("scanner " + i, result, events);
+			}
+		}
+		return result;
+	}
+
+	private static class SkipRecorder implements ContentHandler {
+
+		final StringBuffer sb = new StringBuffer();
+		JSONParser parser;
+		JSONFeedParser feed;
+		private String key;
+
+		private void skip() {
+			if (parser != null) {
+				parser.skipValue();
+			} else {
+				feed.skipValue();
+			}
+		}
+
+		public void startJSON() {
+		}
+
+		public void endJSON() {
+		}
+
+		public boolean startObject() {
+			sb.append("{ ");
+			return true;
+		}
+
+		public boolean endObject() {
+			sb.append("} ");
+			return true;
+		}
+
+		public boolean startObjectEntry(String key) {
+			this.key = key;
+			sb.append(key).append(' ');
+			if (key.equals("skip") || key.equals("big") || key.equals("str")) {
+				skip();
+			}
+			return true;
+		}
+
+		public boolean endObjectEntry() {
+			sb.append(". ");
+			key = null;
+			return true;
+		}
+
+		public boolean startArray() {
+			sb.append("[ ");
+			if ("keep".equals(key)) {
+				skip();
+			}
+			return true;
+		}
+
+		public boolean endArray() {
+			sb.append("] ");
+			return true;
+		}
+
+		public boolean primitive(Object value) {
+			sb.append(value).append(' ');
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,127 @@
+package org.json.simple.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.json.simple.JSONValue;
+
+public class JSONPathContentHandlerTest extends TestCase {
+
+	private static final String STORE = "{\"store\":{\"book\":["
+			+ "{\"category\":\"reference\",\"author\":\"Nigel Rees\",\"title\":\"Sayings of the Century\",\"price\":8.95},"
+			+ "{\"category\":\"fiction\",\"author\":\"Evelyn Waugh\",\"title\":\"Sword of Honour\",\"price\":12.99},"
+			+ "{\"category\":\"fiction\",\"author\":\"Herman Melville\",\"title\":\"Moby Dick\",\"isbn\":\"0-553-21311-3\",\"price\":8.99},"
+			+ "{\"category\":\"fiction\",\"author\":\"J. R. R. Tolkien\",\"title\":\"The Lord of the Rings\",\"isbn\":\"0-395-19395-8\",\"price\":22}"
+			+ "],\"bicycle\":{\"color\":\"red\",\"price\":19.95}},\"expensive\":10,\"a\":{\"a\":{\"b\":[1,{\"b\":2}]}},\"e\":[[],{},null]}";
+
+	private static final String[] PATHS = { "$", "$.store.book[*].author", "$..author", "$.store.*", "$.store..price",
+			"$..book[2]", "$..book[-1]", "$..book[-2:]", "$..book[0,1]", "$..book[:2]", "$..book[1:4:2]",
+			"$..book[?(@.isbn)]", "$..book[?(@.price<10)].title", "$..book[?(@.price >= 12.99 && @.category == 'fiction')]",
+			"$..book[?(!(@.price < 20) || @.author == \"Nigel Rees\")].price", "$..*", "$..b", "$..a..b", "$.a.a.b[1].b",
+			"$['store']['bicycle','x']['color']", "$.e[*]", "$.e[?(@ == null)]", "$..[0]", "$..book.length", "$.nothing",
+			"$.a.a.b[?(@ > 0)]", "$..[?(@.b)]" };
+
+	private static final int[] LEXERS = { JSONParser.LEXER_JFLEX, JSONParser.LEXER_HANDWRITTEN, JSONParser.LEXER_INDEXED };
+
+	public void testMatches() throws Exception {
+		assertMatches("[\"Nigel Rees\",\"Evelyn Waugh\",\"Herman Melville\",\"J. R. R. Tolkien\"]", "$.store.book[*].author");
+		assertMatches("[8.95,12.99,8.99,22,19.95]", "$.store..price");
+		assertMatches("[\"Sayings of the Century\",\"Moby Dick\"]", "$..book[?(@.price<10)].title");
+		assertMatches("[\"0-395-19395-8\"]", "$..book[-1].isbn");
+		assertMatches("[12.99,22]", "$..book[1:4:2].price");
+		assertMatches("[8.99,22]", "$..book[?(@.isbn)].price", "$..book[?(@.price > 8.95 && @.price != 12.99)].price");
+		assertMatches("[2,[1,{\"b\":2}]]", "$.a..b");
+		assertMatches("[\"red\"]", "$['store']['bicycle']['color']");
+		assertMatches("[null]", "$.e[?(@ == null)]");
+		assertMatches("[]", "$.nothing.at.all");
+		assertMatches("[\"Moby Dick\"]", "/store/book/2/title");
+	}
+
+	public void testAgainstTree() throws Exception {
+		JSONPath[] paths = new JSONPath[PATHS.length];
+		for (int i = 0; i < paths.length; i++) {
+			paths[i] = JSONPath.compile(PATHS[i]);
+		}
+		Object tree = new JSONParser().parse(STORE);
+		for (int l = 0; l < LEXERS.length; l++) {
+			for (int s = 0; s < 2; s++) {
+				JSONParser parser = new JSONParser(LEXERS[l]);
+				JSONPathContentHandler handler = new JSONPathContentHandler(s == 0 ? null : parser, paths);
+				parser.parse(STORE, handler);
+				for (int i = 0; i < paths.length; i++) {
+					List<Object> expected = new ArrayList<Object>();
+					paths[i].select(tree, 0, expected);
+					assertEquals(PATHS[i], sorted(expected), sorted(handler.getMatches(i)));
+				}
+			}
+		}
+	}
+
+	public void testStop() throws Exception {
+		JSONParser parser = new JSONParser(JSONParser.LEXER_HANDWRITTEN);
+		final List<Object> seen = new ArrayList<Object>();
+		JSONPathContentHandler handler = new JSONPathContentHandler(parser, JSONPath.compile("$.items[*].id")) {
+			protected boolean match(int path, Object value) {
+				seen.add(value);
+				return seen.size() < 2;
+			}
+		};
+		parser.parse("{\"items\":[{\"id\":1},{\"id\":2},{\"id\":3}]} ,,,", handler);
+		assertEquals(Arrays.<Object> asList(Long.valueOf(1), Long.valueOf(2)), seen);
+	}
+
+	public void testCompileErrors() throws Exception {
+		String[] invalid = { "store", "$.", "$.a.", "$[", "$['a'", "$[1:2:0]", "$[?(@.a <)]", "$[?(1)]", "$[?(@.*)]",
+				"$[?(@..a)]", "$[?(@.a > 1]", "$[a]", "$['\\x']", "$..", "$[1,]", "/a~2", "/a~" };
+		for (int i = 0; i < invalid.length; i++) {
+			try {
+				JSONPath.compile(invalid[i]);
+				fail(invalid[i]);
+			} catch (ParseException e) {
+				assertTrue(invalid[i], e.getPosition() >= 0 && e.getPosition() <= invalid[i].length());
+			}
+		}
+		try {
+			JSONPath.compile("$.a.b c");
+			fail();
+		} catch (ParseException e) {
+			assertEquals(ParseException.ERROR_UNEXPECTED_CHAR, e.getErrorType());
+			assertEquals(5, e.getPosition());
+		}
+		assertEquals("$..x[?(@['y'][0] != 'z')]", JSONPath.compile("$..x[?(@['y'][0] != 'z')]").toString());
+	}
+
+	private static void assertMatches(String expected, String... paths) throws Exception {
+		JSONPath[] compiled = new JSONPath[paths.length];
+		for (int i = 0; i < paths.length; i++) {
+			compiled[i] = JSONPath.compile(paths[i]);
+		}
+		for (int l = 0; l < LEXERS.length; l++) {
+			JSONParser parser = new JSONParser(LEXERS[l]);
+			JSONPathContentHandler handler = new JSONPathContentHandler(parser, compiled);
+			parser.parse(STORE.getBytes("UTF-8"), handler);
+			for (int i = 0; i < paths.length; i++) {
+				assertEquals(paths[i], new JSONParser().parse(expected), handler.getMatches(i));
+			}
+		}
+	}
+
+	private static List<String> sorted(List<Object> values) {
+		List<String> texts = new ArrayList<String>();
+		for (int i = 0; i < values.size(); i++) {
+			texts.add(JSONValue.toJSONString(values.get(i)));
+		}
+		Collections.sort(texts, new Comparator<String>() {
+			public int compare(String a, String b) {
+				return a.compareTo(b);
+			}
+		});
+		return texts;
+	}
+
+}
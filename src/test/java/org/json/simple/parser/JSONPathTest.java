@@ -0,0 +1,96 @@
+package org.json.simple.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+public class JSONPathTest extends TestCase {
+
+	private static final String TEXT = "{\"users\":[{\"name\":\"ann\",\"age\":31,\"tags\":[\"a\",\"b\"]},"
+			+ "{\"name\":\"bob\",\"age\":17,\"nick\":null},{\"name\":\"cy\",\"age\":45}],"
+			+ "\"a/b\":{\"m~n\":1},\"10\":\"ten\",\"\":{\"\":0}}";
+
+	public void testSelect() throws Exception {
+		JSONObject doc = (JSONObject) new JSONParser().parse(TEXT);
+		JSONArray users = doc.getJSONArray("users");
+
+		assertEquals(Arrays.<Object> asList(doc), JSONPath.compile("$").select(doc));
+		assertEquals(Arrays.<Object> asList("ann", "bob", "cy"), JSONPath.compile("$.users[*].name").select(doc));
+		assertEquals(Arrays.<Object> asList("cy"), JSONPath.compile("$.users[-1].name").select(doc));
+		assertEquals(Arrays.<Object> asList("bob", "cy"), JSONPath.compile("$.users[1:].name").select(doc));
+		assertEquals(Arrays.<Object> asList("ann", "cy"), JSONPath.compile("$.users[?(@.age > 18)].name").select(doc));
+		assertEquals(Arrays.<Object> asList("b"), JSONPath.compile("$..tags[1]").select(doc));
+		assertEquals(Arrays.<Object> asList((Object) null), JSONPath.compile("$.users[1].nick").select(doc));
+		assertEquals(Collections.emptyList(), JSONPath.compile("$.users[3].name").select(doc));
+		assertEquals(Collections.emptyList(), JSONPath.compile("$.users.name").select(doc));
+		assertEquals(Collections.emptyList(), JSONPath.compile("$.users[0].name.first").select(doc));
+
+		assertEquals("ann", JSONPath.compile("$.users[0]['name']").selectFirst(doc));
+		assertEquals("ann", JSONPath.compile("$..name").selectFirst(doc));
+		assertEquals(users.getJSONObject(2), JSONPath.compile("$.users[2]").selectFirst(doc));
+		assertNull(JSONPath.compile("$.missing").selectFirst(doc));
+		assertNull(JSONPath.compile("$.users[1].nick").selectFirst(doc));
+		assertNull(JSONPath.compile("$.x").selectFirst("not a container"));
+
+		assertTrue(JSONPath.compile("$.users[0].tags[-1]").isDefinite());
+		assertFalse(JSONPath.compile("$.users[0,1]").isDefinite());
+		assertFalse(JSONPath.compile("$..name").isDefinite());
+	}
+
+	public void testPointer() throws Exception {
+		JSONObject doc = (JSONObject) new JSONParser().parse(TEXT);
+
+		assertEquals(doc, JSONPath.compile("").selectFirst(doc));
+		assertEquals("bob", JSONPath.compile("/users/1/name").selectFirst(doc));
+		assertEquals("b", JSONPath.compile("/users/0/tags/1").selectFirst(doc));
+		assertEquals(Long.valueOf(1), JSONPath.compile("/a~1b/m~0n").selectFirst(doc));
+		assertEquals("ten", JSONPath.compile("/10").selectFirst(doc));
+		assertEquals(Long.valueOf(0), JSONPath.compile("//").selectFirst(doc));
+		assertEquals(Collections.emptyList(), JSONPath.compile("/users/01").select(doc));
+		assertEquals(Collections.emptyList(), JSONPath.compile("/users/-").select(doc));
+		assertEquals(Collections.emptyList(), JSONPath.compile("/users/3").select(doc));
+		assertTrue(JSONPath.compile("/users/0").isDefinite());
+		assertEquals("/a~1b/m~0n", JSONPath.compile("/a~1b/m~0n").toString());
+
+		try {
+			JSONPath.compile("/a~2");
+			fail();
+		} catch (ParseException e) {
+			assertEquals(3, e.getPosition());
+		}
+	}
+
+	public void testCache() throws Exception {
+		JSONPathCache cache = new JSONPathCache(4);
+		JSONPath path = cache.get("$.a");
+		assertSame(path, cache.get("$.a"));
+		assertEquals("$.a", path.toString());
+
+		/* always compiled, whatever the collisions */
+		List<Object> doc = Arrays.<Object> asList(Long.valueOf(5), Long.valueOf(6));
+		for (int i = 0; i < 100; i++) {
+			assertEquals(doc.get(i % 2), cache.get("$[" + (i % 2) + "]").selectFirst(doc));
+			assertEquals("/" + i, cache.get("/" + i).toString());
+		}
+
+		cache.clear();
+		assertNotSame(path, cache.get("$.a"));
+		try {
+			cache.get("$.");
+			fail();
+		} catch (ParseException e) {
+			assertEquals(ParseException.ERROR_UNEXPECTED_TOKEN, e.getErrorType());
+		}
+		try {
+			new JSONPathCache(1);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+}
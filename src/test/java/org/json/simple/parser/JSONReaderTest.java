@@ -0,0 +1,206 @@
+package org.json.simple.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+import org.json.simple.JSONStreamTest;
+
+public class JSONReaderTest extends TestCase {
+
+	private static final String[] SAMPLES = {
+		"{\"name\":\"Jürgen\",\"values\":[1,-22,3.5e1,true,false,null],\"nested\":{\"a\":{},\"b\":[[]]}}",
+		"[0,{\"k\":\"v\\u00e9\"},\"x\"]",
+		"\"top\"",
+		"-1.5",
+		"",
+		"[1,,2 3]",
+		"{\"a\" 1}",
+		"{\"a\":1",
+		"{1:2}",
+		"[1]]",
+		"{\"a\":tru}",
+		"}",
+	};
+
+	public void testSameAsParser() throws Exception {
+		for (int i = 0; i < SAMPLES.length; i++) {
+			String s = SAMPLES[i];
+			String expected = handlerEvents(s);
+			assertEquals(s, expected, readerEvents(new JSONReader(s)));
+			assertEquals(s, expected, readerEvents(new JSONReader(new StringReader(s))));
+			assertEquals(s, expected, readerEvents(new JSONReader(s.getBytes("UTF-8"))));
+			assertEquals(s, expected, readerEvents(new JSONReader(new ByteArrayInputStream(s.getBytes("UTF-8")))));
+		}
+		String s = JSONStreamTest.getJSONSampleLong();
+		assertEquals(handlerEvents(s), readerEvents(new JSONReader(s)));
+	}
+
+	public void testValues() throws Exception {
+		JSONReader reader = new JSONReader("{\"id\":12345678901,\"score\":2.5,\"name\":\"x\\ty\",\"on\":true}");
+		assertEquals(JSONReader.START_OBJECT, reader.nextToken());
+		assertEquals(JSONReader.KEY, reader.nextToken());
+		assertTrue("id".contentEquals(reader.getCharSequence()));
+		assertEquals(JSONReader.LONG, reader.nextToken());
+		assertEquals(12345678901L, reader.getLong());
+		assertEquals(12345678901.0, reader.getDouble(), 0);
+		reader.nextToken();
+		assertEquals(JSONReader.DOUBLE, reader.nextToken());
+		assertEquals(2.5, reader.getDouble(), 0);
+		assertEquals(2, reader.getLong());
+		reader.nextToken();
+		assertEquals(JSONReader.STRING, reader.nextToken());
+		assertEquals("x\ty", reader.getString());
+		assertEquals('\t', reader.getCharSequence().charAt(1));
+		reader.nextToken();
+		assertEquals(JSONReader.BOOLEAN, reader.nextToken());
+		assertTrue(reader.getBoolean());
+		try {
+			reader.getLong();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+		assertEquals(JSONReader.END_OBJECT, reader.nextToken());
+		assertEquals(JSONReader.END_DOCUMENT, reader.nextToken());
+		assertEquals(JSONReader.END_DOCUMENT, reader.nextToken());
+	}
+
+	public void testSkipValue() throws Exception {
+		JSONReader reader = new JSONReader("{\"a\":{\"x\":[1,{\"y\":2}]},\"b\":[3,[4]],\"c\":5,\"d\":6}");
+		long sum = 0;
+		while (reader.nextToken() != JSONReader.END_DOCUMENT) {
+			if (reader.getToken() == JSONReader.KEY) {
+				if ("c".contentEquals(reader.getCharSequence()) || "d".contentEquals(reader.getCharSequence())) {
+					reader.nextToken();
+					sum += reader.getLong();
+				} else {
+					reader.skipValue();
+				}
+			}
+		}
+		assertEquals(11, sum);
+
+		reader.reset("[[1,2],[3]]");
+		assertEquals(JSONReader.START_ARRAY, reader.nextToken());
+		assertEquals(JSONReader.START_ARRAY, reader.nextToken());
+		reader.skipValue();
+		assertEquals(JSONReader.END_ARRAY, reader.getToken());
+		assertEquals(JSONReader.START_ARRAY, reader.nextToken());
+		assertEquals(JSONReader.LONG, reader.nextToken());
+		assertEquals(3, reader.getLong());
+	}
+
+	public void testReadSeveralTexts() throws Exception {
+		StringReader in = new StringReader("{\"a\":1} [2]");
+		JSONReader reader = new JSONReader(in);
+		assertEquals("START_OBJECT KEY(a) LONG(1) END_OBJECT END_DOCUMENT ", readerEvents(reader));
+		reader.reset(in);
+		assertEquals("START_ARRAY LONG(2) END_ARRAY END_DOCUMENT ", readerEvents(reader));
+	}
+
+	private static String readerEvents(JSONReader reader) throws IOException {
+		StringBuffer sb = new StringBuffer();
+		try {
+			int token;
+			do {
+				token = reader.nextToken();
+				switch (token) {
+				case JSONReader.START_OBJECT: sb.append("START_OBJECT "); break;
+				case JSONReader.END_OBJECT: sb.append("END_OBJECT "); break;
+				case JSONReader.START_ARRAY: sb.append("START_ARRAY "); break;
+				case JSONReader.END_ARRAY: sb.append("END_ARRAY "); break;
+				case JSONReader.KEY: sb.append("KEY(").append(reader.getCharSequence()).append(") "); break;
+				case JSONReader.STRING: sb.append("STRING(").append(reader.getString()).append(") "); break;
+				case JSONReader.LONG: sb.append("LONG(").append(reader.getLong()).append(") "); break;
+				case JSONReader.DOUBLE: sb.append("DOUBLE(").append(reader.getDouble()).append(") "); break;
+				case JSONReader.BOOLEAN: sb.append("BOOLEAN(").append(reader.getBoolean()).append(") "); break;
+				case JSONReader.NULL: sb.append("NULL "); break;
+				case JSONReader.END_DOCUMENT: sb.append("END_DOCUMENT "); break;
+				}
+			} while (token != JSONReader.END_DOCUMENT);
+		} catch (ParseException e) {
+			sb.append(e);
+		}
+		return sb.toString();
+	}
+
+	private static String handlerEvents(String s) {
+		final StringBuffer sb = new StringBuffer();
+		/* stops after the top-level value, as DefaultContentHandler does */
+		ContentHandler handler = new ContentHandler() {
+			private int depth;
+
+			public void startJSON() {
+			}
+
+			public void endJSON() {
+				sb.append("END_DOCUMENT ");
+			}
+
+			private boolean endValue() {
+				if (depth == 0) {
+					sb.append("END_DOCUMENT ");
+					return false;
+				}
+				return true;
+			}
+
+			public boolean startObject() {
+				sb.append("START_OBJECT ");
+				depth++;
+				return true;
+			}
+
+			public boolean endObject() {
+				sb.append("END_OBJECT ");
+				depth--;
+				return endValue();
+			}
+
+			public boolean startObjectEntry(String key) {
+				sb.append("KEY(").append(key).append(") ");
+				return true;
+			}
+
+			public boolean endObjectEntry() {
+				return true;
+			}
+
+			public boolean startArray() {
+				sb.append("START_ARRAY ");
+				depth++;
+				return true;
+			}
+
+			public boolean endArray() {
+				sb.append("END_ARRAY ");
+				depth--;
+				return endValue();
+			}
+
+			public boolean primitive(Object value) {
+				if (value instanceof String) {
+					sb.append("STRING(").append(value).append(") ");
+				} else if (value instanceof Long) {
+					sb.append("LONG(").append(value).append(") ");
+				} else if (value instanceof Double) {
+					sb.append("DOUBLE(").append(value).append(") ");
+				} else if (value instanceof Boolean) {
+					sb.append("BOOLEAN(").append(value).append(") ");
+				} else {
+					sb.append("NULL ");
+				}
+				return endValue();
+			}
+		};
+		try {
+			new JSONParser().parse(s, handler);
+		} catch (ParseException e) {
+			sb.append(e);
+		}
+		return sb.toString();
+	}
+
+}
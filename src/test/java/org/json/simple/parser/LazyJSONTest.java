@@ -0,0 +1,143 @@
+package org.json.simple.parser;
+
+import java.util.Arrays;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import junit.framework.TestCase;
+
+public class LazyJSONTest extends TestCase {
+
+	private static final String[] TEXTS = {
+		"{\"id\":7,\"name\":\"a\\\"b\",\"tags\":[\"x\",\"é😀\"],\"price\":-1.25e2,\"ok\":true,\"none\":null,\"e\":{},\"f\":[]}",
+		"[1,2,[3,[4,[]]],{\"a\":[{\"b\":false}]}]",
+		"[1,,2 ,]",
+		"{\"a\" \"b\", \"c\"::1,}",
+		"{\"k\":1,\"k\":2}",
+		"\"caf\\u00e9\"",
+		"  -0.5  ",
+		"12345678901234567",
+		"[12345678901234567890, -1e400]",
+		"true",
+		"[1] x",
+		"null",
+		"",
+		"\"unterminated",
+	};
+
+	private static final String[] INVALID = {
+		"[1 2",
+		"{1:2}",
+		"{\"a\":1",
+		"[\"é\" tru]",
+		"[\"unterminated",
+		"{\"a\"}",
+		"[}",
+		"}",
+		"[1, \"x\" \"y\" \"z\"",
+		"[-]",
+	};
+
+	public void testSameAsParse() throws Exception {
+		JSONParser parser = new JSONParser();
+		for (int i = 0; i < TEXTS.length; i++) {
+			byte[] b = TEXTS[i].getBytes("UTF-8");
+			Object expected = parser.parse(b);
+			LazyJSON lazy = parser.parseLazy(b);
+			assertEquals(TEXTS[i], expected, lazy.toJSON());
+			assertEquals(TEXTS[i], expected, parser.parseLazy(TEXTS[i]).toJSON());
+			/* within a larger buffer */
+			byte[] padded = ("[" + TEXTS[i] + "]").getBytes("UTF-8");
+			assertEquals(TEXTS[i], expected, parser.parseLazy(padded, 1, b.length).toJSON());
+		}
+	}
+
+	public void testSameErrorsAsParse() throws Exception {
+		JSONParser parser = new JSONParser(JSONParser.LEXER_INDEXED);
+		for (int i = 0; i < INVALID.length; i++) {
+			byte[] b = INVALID[i].getBytes("UTF-8");
+			ParseException expected = null;
+			try {
+				parser.parse(b);
+			} catch (ParseException e) {
+				expected = e;
+			}
+			assertNotNull(INVALID[i], expected);
+			try {
+				parser.parseLazy(b);
+				fail(INVALID[i]);
+			} catch (ParseException e) {
+				assertEquals(INVALID[i], expected.getErrorType(), e.getErrorType());
+				assertEquals(INVALID[i], expected.getPosition(), e.getPosition());
+				assertEquals(INVALID[i], String.valueOf(expected.getUnexpectedObject()), String.valueOf(e.getUnexpectedObject()));
+			}
+		}
+	}
+
+	public void testNavigate() throws Exception {
+		LazyJSON doc = new JSONParser().parseLazy(TEXTS[0]);
+		assertTrue(doc.isObject());
+		assertEquals(8, doc.size());
+		assertEquals(Arrays.asList("id", "name", "tags", "price", "ok", "none", "e", "f"), doc.keys());
+		assertEquals(7, doc.get("id").longValue());
+		assertEquals(7.0, doc.get("id").doubleValue(), 0);
+		assertEquals("a\"b", doc.get("name").stringValue());
+		assertEquals(-125.0, doc.get("price").doubleValue(), 0);
+		assertEquals(-125, doc.get("price").longValue());
+		assertTrue(doc.get("ok").booleanValue());
+		assertTrue(doc.get("none").isNull());
+		assertTrue(doc.containsKey("none"));
+		assertFalse(doc.containsKey("nam"));
+		assertNull(doc.get("missing"));
+		assertEquals(0, doc.get("e").size());
+		assertEquals(0, doc.get("f").size());
+
+		LazyJSON tags = doc.get("tags");
+		assertTrue(tags.isArray());
+		assertEquals(2, tags.size());
+		assertEquals("é😀", tags.get(1).stringValue());
+		assertEquals("x", tags.get(0).stringValue());
+		assertEquals("é😀", tags.get(1).stringValue());
+		try {
+			tags.get(2);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+		}
+		try {
+			doc.get("name").longValue();
+			fail();
+		} catch (ClassCastException e) {
+		}
+		try {
+			tags.get("x");
+			fail();
+		} catch (ClassCastException e) {
+		}
+
+		JSONArray nested = new JSONParser().parseLazy(TEXTS[1]).get(2).toJSONArray();
+		assertEquals("[3,[4,[]]]", nested.toJSONString());
+		JSONObject last = new JSONParser().parseLazy(TEXTS[1]).get(3).toJSONObject();
+		assertEquals("{\"a\":[{\"b\":false}]}", last.toJSONString());
+		assertEquals(2, new JSONParser().parseLazy(TEXTS[4]).get("k").longValue());
+		assertEquals("[1,2]", new JSONParser().parseLazy(TEXTS[2]).toJSONString());
+		assertTrue(new JSONParser().parseLazy("").isNull());
+	}
+
+	public void testLargeArray() throws Exception {
+		StringBuffer sb = new StringBuffer("[");
+		for (int i = 0; i < 10000; i++) {
+			sb.append(i > 0 ? "," : "").append("{\"i\":").append(i).append(",\"s\":[\"v").append(i).append("\"]}");
+		}
+		sb.append("]");
+		LazyJSON doc = new JSONParser().parseLazy(sb.toString());
+		assertEquals(10000, doc.size());
+		for (int i = 0; i < doc.size(); i++) {
+			assertEquals(i, doc.get(i).get("i").longValue());
+		}
+		assertEquals("v9999", doc.get(9999).get("s").get(0).stringValue());
+		assertEquals("v5", doc.get(5).get("s").get(0).stringValue());
+		assertEquals(new JSONParser().parse(sb.toString()), doc.toJSON());
+	}
+
+}
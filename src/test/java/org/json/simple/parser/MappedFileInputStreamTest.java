@@ -0,0 +1,73 @@
+package org.json.simple.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+public class MappedFileInputStreamTest extends TestCase {
+
+	private static final String JSON = "{\"name\":\"Jürgen\",\"values\":[1,22,333,4.5e1],\"nested\":{\"ok\":true,\"none\":null}}";
+
+	private File file;
+
+	protected void setUp() throws Exception {
+		file = File.createTempFile("json-simple", ".json");
+		file.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(JSON.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+
+	protected void tearDown() throws Exception {
+		file.delete();
+	}
+
+	public void testParsePath() throws Exception {
+		JSONParser parser = new JSONParser();
+		assertEquals(parser.parse(JSON), parser.parse(file.toPath()));
+	}
+
+	public void testSmallWindows() throws Exception {
+		// tokens straddle the window boundaries
+		for (int window = 1; window < 12; window++) {
+			MappedFileInputStream in = new MappedFileInputStream(file.toPath(), window);
+			try {
+				Utf8Lexer lexer = new Utf8Lexer(in, 4);
+				Utf8Lexer reference = new Utf8Lexer(JSON.getBytes("UTF-8"), 0, JSON.getBytes("UTF-8").length);
+				Yytoken expected;
+				do {
+					expected = reference.yylex();
+					Yytoken token = lexer.yylex();
+					assertEquals(String.valueOf(expected), String.valueOf(token));
+					assertEquals(reference.getPosition(), lexer.getPosition());
+				} while (expected != null);
+			} finally {
+				in.close();
+			}
+		}
+	}
+
+	public void testReadToEnd() throws IOException {
+		MappedFileInputStream in = new MappedFileInputStream(file.toPath(), 5);
+		try {
+			byte[] expected = JSON.getBytes("UTF-8");
+			byte[] b = new byte[expected.length + 3];
+			int n = 0;
+			int r;
+			while ((r = in.read(b, n, 3)) > 0) {
+				n += r;
+			}
+			assertEquals(expected.length, n);
+			assertEquals(-1, in.read());
+			assertEquals(JSON, new String(b, 0, n, "UTF-8"));
+		} finally {
+			in.close();
+		}
+	}
+
+}
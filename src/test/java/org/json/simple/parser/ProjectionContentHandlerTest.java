@@ -0,0 +1,85 @@
+package org.json.simple.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+public class ProjectionContentHandlerTest extends TestCase {
+
+	private static final String TEXT = "{\"id\":7,\"user\":{\"name\":\"ann\",\"tags\":[\"a\",{\"b\":[1]}],\"a/b\":{\"c\":1}},"
+			+ "\"items\":[{\"id\":1,\"x\":[[]]},[2],{\"id\":3,\"y\":{}},\"s\"],\"e~\":null,\"last\":{\"z\":[true]}}";
+
+	private static final int[] LEXERS = { JSONParser.LEXER_JFLEX, JSONParser.LEXER_HANDWRITTEN, JSONParser.LEXER_INDEXED };
+
+	public void testPaths() throws Exception {
+		assertProjection("{\"user\":{\"name\":\"ann\"}}", TEXT, "/user/name");
+		assertProjection("{\"user\":{\"name\":\"ann\"}}", TEXT, "user.name");
+		assertProjection("{\"id\":7,\"last\":{\"z\":[true]}}", TEXT, "last", "/id");
+		assertProjection("{\"user\":{\"tags\":[{\"b\":[1]}],\"a/b\":{\"c\":1}}}", TEXT, "/user/tags/1", "/user/a~1b");
+		assertProjection("{\"items\":[{\"id\":1},{\"id\":3}]}", TEXT, "/items/0/id", "/items/2/id");
+		assertProjection("{\"items\":[[2],\"s\"],\"e~\":null}", TEXT, "items.1", "/items/3", "/e~0");
+		assertProjection("{\"user\":{\"name\":\"ann\"}}", TEXT, "/user/name", "user.name", "/user/name/first");
+		assertProjection(TEXT, TEXT, "");
+		assertProjection("[[3]]", "[[1,2],[3]]", "/1/0");
+		assertProjection("5", "5", "");
+	}
+
+	public void testMissing() throws Exception {
+		assertProjection("{\"user\":{}}", TEXT, "/user/missing");
+		assertProjection("{\"items\":[]}", TEXT, "/items/9");
+		assertProjection("{\"id\":7}", TEXT, "/id", "/id/x", "/nope/0");
+		assertProjection("{}", TEXT);
+	}
+
+	public void testEarlyEnd() throws Exception {
+		String text = "{\"a\":{\"b\":1,\"c\":2},\"d\":[1,2,3]} not parsed";
+		assertProjection("{\"a\":{\"b\":1}}", text, "/a/b");
+		assertProjection("{\"a\":{\"b\":1},\"d\":[1,2]}", text, "/a/b", "/d/0", "/d/1");
+
+		/* the invalid text after the last requested value is never read */
+		assertProjection("{\"a\":{\"b\":1}}", "{\"a\":{\"b\":1,\"c\":]]]", "a.b");
+		assertProjection("[{\"a\":[1]}]", "[{\"a\":[1,2]}, :::", "/0/a/0");
+
+		/* without early end, the error is found */
+		try {
+			new JSONParser().parse("{\"a\":{\"b\":1,\"c\":]]]", new ProjectionContentHandler(null, "/a/b", "/x"));
+			fail();
+		} catch (ParseException e) {
+			assertEquals(ParseException.ERROR_UNEXPECTED_TOKEN, e.getErrorType());
+		}
+	}
+
+	public void testReuse() throws Exception {
+		JSONParser parser = new JSONParser(JSONParser.LEXER_HANDWRITTEN);
+		ProjectionContentHandler handler = new ProjectionContentHandler(parser, "/a", "/b");
+		for (int i = 0; i < 3; i++) {
+			parser.parse("{\"a\":" + i + ",\"c\":{},\"b\":[" + i + "]}", handler);
+			assertEquals(parser.parse("{\"a\":" + i + ",\"b\":[" + i + "]}"), handler.getContent());
+		}
+	}
+
+	private static void assertProjection(String expected, String text, String... paths) throws Exception {
+		Object value = new JSONParser().parse(expected);
+		for (int i = 0; i < LEXERS.length; i++) {
+			JSONParser parser = new JSONParser(LEXERS[i]);
+			ProjectionContentHandler handler = new ProjectionContentHandler(parser, paths);
+			parser.parse(text, handler);
+			assertEquals(text, value, handler.getContent());
+
+			handler = new ProjectionContentHandler(parser, paths);
+			parser.parse(text.getBytes("UTF-8"), handler);
+			assertEquals(text, value, handler.getContent());
+
+			handler = new ProjectionContentHandler(parser, paths);
+			parser.parse(new ByteArrayInputStream(text.getBytes("UTF-8")), handler);
+			assertEquals(text, value, handler.getContent());
+
+			/* filtered, but not skipped by the lexer */
+			handler = new ProjectionContentHandler(null, paths);
+			parser.parse(new StringReader(text), handler);
+			assertEquals(text, value, handler.getContent());
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+package org.json.simple.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.RawJSON;
+
+import junit.framework.TestCase;
+
+public class RawContentHandlerTest extends TestCase {
+
+	private static final String TEXT = "{\"id\": 7, \"payload\": {\"a\": [1, 2.50, \"x\\u00e9\"], \"b\": {}},"
+			+ " \"items\": [{\"payload\": [true]}, {\"payload\": \"s\"}, 3], \"tail\": null}";
+
+	public void testCopiedFromInput() throws Exception {
+		int[] lexers = { JSONParser.LEXER_HANDWRITTEN, JSONParser.LEXER_INDEXED };
+		for (int i = 0; i < lexers.length; i++) {
+			JSONParser parser = new JSONParser(lexers[i]);
+			RawContentHandler handler = new RawContentHandler(parser, "/payload", "items.0.payload", "/items/1", "/items/2");
+			parser.parse(TEXT.getBytes("UTF-8"), handler);
+			JSONObject obj = (JSONObject) handler.getContent();
+			assertEquals(Long.valueOf(7), obj.get("id"));
+			assertEquals(new RawJSON("{\"a\": [1, 2.50, \"x\\u00e9\"], \"b\": {}}"), obj.get("payload"));
+			JSONArray items = (JSONArray) obj.get("items");
+			assertEquals(new RawJSON("[true]"), ((JSONObject) items.get(0)).get("payload"));
+			assertEquals(new RawJSON("{\"payload\": \"s\"}"), items.get(1));
+			assertEquals(new RawJSON("3"), items.get(2));
+			assertTrue(obj.containsKey("tail"));
+			assertNull(obj.get("tail"));
+			/* written out, the raw values are passed through */
+			assertEquals(new JSONParser().parse(TEXT), new JSONParser().parse(obj.toJSONString()));
+
+			/* from a CharBuffer */
+			parser.parse(CharBuffer.wrap(TEXT.toCharArray()), 0, TEXT.length(), handler);
+			obj = (JSONObject) handler.getContent();
+			if (lexers[i] == JSONParser.LEXER_HANDWRITTEN) {
+				assertEquals(new RawJSON("{\"a\": [1, 2.50, \"x\\u00e9\"], \"b\": {}}"), obj.get("payload"));
+			}
+			assertEquals(new JSONParser().parse(TEXT), new JSONParser().parse(obj.toJSONString()));
+		}
+	}
+
+	public void testWrittenFromTokens() throws Exception {
+		int[] lexers = { JSONParser.LEXER_JFLEX, JSONParser.LEXER_HANDWRITTEN };
+		for (int i = 0; i < lexers.length; i++) {
+			JSONParser parser = new JSONParser(lexers[i]);
+			RawContentHandler handler = new RawContentHandler(parser, "/payload", "/items/0/payload", "/items/1");
+			parser.parse(new StringReader(TEXT), handler);
+			JSONObject obj = (JSONObject) handler.getContent();
+			assertEquals(new RawJSON("{\"a\":[1,2.5,\"xé\"],\"b\":{}}"), obj.get("payload"));
+			JSONArray items = (JSONArray) obj.get("items");
+			assertEquals(new RawJSON("[true]"), ((JSONObject) items.get(0)).get("payload"));
+			assertEquals(new RawJSON("{\"payload\":\"s\"}"), items.get(1));
+
+			parser.parse(new ByteArrayInputStream(TEXT.getBytes("UTF-8")), handler);
+			assertEquals(obj, handler.getContent());
+		}
+	}
+
+	public void testWholeText() throws Exception {
+		JSONParser parser = new JSONParser();
+		RawContentHandler handler = new RawContentHandler(parser, "");
+		parser.parse(" [1, {}] ".getBytes("UTF-8"), handler);
+		assertEquals(new RawJSON("[1, {}]"), handler.getContent());
+		parser.parse("\"s\"".getBytes("UTF-8"), handler);
+		assertEquals(new RawJSON("\"s\""), handler.getContent());
+
+		/* unbalanced captured values are still reported */
+		try {
+			parser.parse("{\"payload\": [1}".getBytes("UTF-8"), new RawContentHandler(parser, "payload"));
+			fail();
+		} catch (ParseException e) {
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+package org.json.simple.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+public class Utf8LexerTest extends TestCase {
+
+	private static final String[] SAMPLES = {
+		"\"\\/\"",
+		"\"abc\\/\\r\\b\\n\\t\\f\\\\\"",
+		"[\t \n\r\n{ \t \t\n\r}",
+		"{\"café\":\"中文😀\",\"k\":\"\\u4e2d\\x\\u12\"}",
+		"[0, -12, 3.5, 1e5, 1.e5, -0.25E-3, true, false, null]",
+		"{a : b}",
+		"[\"é\" tru]",
+		"\"unterminated",
+	};
+
+	public void testSameTokensAsYylex() throws Exception {
+		for (int i = 0; i < SAMPLES.length; i++) {
+			String s = SAMPLES[i];
+			byte[] b = s.getBytes("UTF-8");
+			assertEquals(s, tokens(new Yylex(new StringReader(s))), tokens(new Utf8Lexer(b, 0, b.length)));
+			assertEquals(s, tokens(new Yylex(new StringReader(s))), tokens(new Utf8Lexer(new ByteArrayInputStream(b))));
+		}
+	}
+
+	public void testMalformed() throws Exception {
+		byte[] b = { '"', 'a', (byte) 0xc3, '"' };
+		Utf8Lexer lexer = new Utf8Lexer(b, 0, b.length);
+		assertEquals("a�", lexer.yylex().value);
+	}
+
+	public void testParseBytes() throws Exception {
+		String s = "{\"name\":\"Jürgen\",\"tags\":[\"été\",1,2.5,null]}";
+		byte[] b = s.getBytes("UTF-8");
+		JSONParser parser = new JSONParser();
+		Object reference = parser.parse(s);
+		assertEquals(reference, parser.parse(b));
+		assertEquals(reference, parser.parse(new ByteArrayInputStream(b)));
+
+		byte[] framed = ("xx" + s + "yy").getBytes("UTF-8");
+		DefaultContentHandler handler = new DefaultContentHandler();
+		parser.parse(framed, 2, b.length, handler);
+		assertEquals(reference, handler.getContent());
+	}
+
+	public void testParseStreamCarryOver() throws Exception {
+		ByteArrayInputStream in = new ByteArrayInputStream("{\"a\":1} [2] \"é\"".getBytes("UTF-8"));
+		JSONParser parser = new JSONParser();
+		assertEquals("{\"a\":1}", parser.parse(in).toString());
+		assertEquals("[2]", parser.parse(in).toString());
+		assertEquals("é", parser.parse(in));
+	}
+
+	private static String tokens(Lexer lexer) throws Exception {
+		StringBuffer sb = new StringBuffer();
+		try {
+			Yytoken token;
+			do {
+				token = lexer.yylex();
+				sb.append(token).append('@').append(lexer.getPosition()).append(' ');
+			} while (token != null);
+		} catch (ParseException e) {
+			sb.append(e.getMessage());
+		}
+		return sb.toString();
+	}
+
+}
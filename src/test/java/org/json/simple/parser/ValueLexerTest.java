@@ -0,0 +1,68 @@
+package org.json.simple.parser;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class ValueLexerTest extends TestCase {
+
+	private static final String[] NUMBERS = {
+		"0", "-0", "0.0", "-0.0", "0e500", "-0e-500", "1", "-1", "0.1", "0.3", "1.5e300", "-2.5e-300",
+		"1e22", "1e23", "1e-22", "1e-23", "9007199254740993", "9007199254740992.5", "123456789012345678",
+		"1234567890123456789", "9999999999999999999", "12345678901234567890", "0.000000000000000000001234",
+		"1.7976931348623157e308", "1.7976931348623159e308", "1e308", "1e309", "2.2250738585072011e-308",
+		"2.2250738585072014e-308", "4.9e-324", "2.4703282292062327e-324", "2.4703282292062328e-324",
+		"1e-324", "1e-400", "7.3177701707893310e15", "7.2057594037927933e16", "9.5e-1",
+		"2.2250738585072012e-308", "1.00000000000000011102230246251565404236316680908203125",
+		"1.0000000000000001110223024625156540423631668090820312", "5e-324", "1e-342", "1e-343",
+		"9007199254740991e-22", "18446744073709551615", "1e1000", "1.5e0000000000000001",
+	};
+
+	public void testParseDouble() {
+		for (int i = 0; i < NUMBERS.length; i++) {
+			assertParseDouble(NUMBERS[i]);
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < 200000; i++) {
+			/* random bits, printed as Java prints them */
+			double d = Double.longBitsToDouble(random.nextLong());
+			if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+				assertParseDouble(Double.toString(d));
+			}
+			/* random digits and exponents */
+			StringBuffer sb = new StringBuffer();
+			int digits = 1 + random.nextInt(19);
+			for (int j = 0; j < digits; j++) {
+				sb.append((char) ('0' + random.nextInt(10)));
+			}
+			if (random.nextBoolean()) {
+				sb.insert(1 + random.nextInt(digits), '.');
+				if (sb.charAt(sb.length() - 1) == '.') {
+					sb.append('5');
+				}
+			}
+			sb.append('e').append(random.nextInt(700) - 350);
+			assertParseDouble(sb.toString());
+		}
+	}
+
+	public void testParseLong() {
+		String[] numbers = { "0", "-0", "7", "-42", "999999999999999999", "-999999999999999999",
+			"9223372036854775807", "-9223372036854775808" };
+		for (int i = 0; i < numbers.length; i++) {
+			assertEquals(numbers[i], Long.parseLong(numbers[i]), ValueLexer.parseLong(numbers[i].toCharArray(), 0, numbers[i].length()));
+		}
+		try {
+			ValueLexer.parseLong("9223372036854775808".toCharArray(), 0, 19);
+			fail();
+		} catch (NumberFormatException e) {
+		}
+	}
+
+	private static void assertParseDouble(String s) {
+		char[] c = ("[" + s + "]").toCharArray();
+		long expected = Double.doubleToRawLongBits(Double.parseDouble(s));
+		assertEquals(s, expected, Double.doubleToRawLongBits(ValueLexer.parseDouble(c, 1, s.length())));
+	}
+
+}
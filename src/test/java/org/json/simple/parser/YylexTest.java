@@ -77,4 +77,52 @@ public class YylexTest extends TestCase {
 		assertTrue(err!=null);
 	}
 
+	public void testStrings() throws Exception{
+		StringBuffer longString=new StringBuffer("[\"");
+		for(int i=0;i<20000;i++){
+			longString.append((char)('a'+i%26));
+		}
+		longString.append("\", \"").append(longString.substring(2, 18000)).append("\\n\"]");
+		String[] samples={
+			"[\"\", \"plain\", \"esc\\taped\", \"\\u4e2D\\u00E9\\uD83D\\uDE00\", \"\u4e2d\u00e9\", \"\\\\\\\"\"]",
+			"{\"k\":\"v\" x}",
+			"[\"a\\\" b\" tru]",
+			"\"\\x\\u12\"",
+			"\"unterminated",
+			longString.toString(),
+		};
+		for(int i=0;i<samples.length;i++){
+			String expected=tokens(new CharLexer(new StringReader(samples[i])));
+			assertEquals(samples[i],expected,tokens(new Yylex(new StringReader(samples[i]))));
+			Yylex lexer=new Yylex(new StringReader(samples[i]));
+			lexer.setBlockRefill(false);
+			assertEquals(samples[i],expected,tokens(lexer));
+		}
+
+		Yylex lexer=new Yylex(new StringReader("[\"a\\u00e9\", \"b\", \"c\\n\"]"));
+		assertEquals(Yytoken.TYPE_LEFT_SQUARE,lexer.yylex().type);
+		assertEquals("a\u00e9",lexer.yylex().value);
+		assertEquals(Yytoken.TYPE_COMMA,lexer.yylex().type);
+		assertEquals("b",lexer.yylex().value);
+		assertEquals(14,lexer.getPosition());
+		assertEquals(Yytoken.TYPE_COMMA,lexer.yylex().type);
+		assertEquals("c\n",lexer.yylex().value);
+		assertEquals(Yytoken.TYPE_RIGHT_SQUARE,lexer.yylex().type);
+	}
+
+	private static String tokens(Lexer lexer) throws Exception{
+		StringBuffer sb=new StringBuffer();
+		try{
+			Yytoken token;
+			do{
+				token=lexer.yylex();
+				sb.append(token).append('@').append(lexer.getPosition()).append(' ');
+			}while(token!=null);
+		}
+		catch(ParseException e){
+			sb.append(e.getMessage());
+		}
+		return sb.toString();
+	}
+
 }